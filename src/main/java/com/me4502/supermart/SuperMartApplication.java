@@ -4,12 +4,16 @@ import com.me4502.supermart.store.Item;
 import com.me4502.supermart.store.ItemImpl;
 import com.me4502.supermart.store.Stock;
 import com.me4502.supermart.store.StockImpl;
+import com.me4502.supermart.truck.Fleet;
 import com.me4502.supermart.truck.Manifest;
+import com.me4502.supermart.truck.ManifestCache;
 import com.me4502.supermart.truck.ManifestImpl;
 import com.me4502.supermart.truck.OrdinaryTruck;
 import com.me4502.supermart.truck.OrdinaryTruckImpl;
 import com.me4502.supermart.truck.RefrigeratedTruck;
 import com.me4502.supermart.truck.RefrigeratedTruckImpl;
+import com.me4502.supermart.truck.TruckType;
+import com.me4502.supermart.truck.TruckTypeImpl;
 
 /**
  * Base class for the application state.
@@ -20,6 +24,9 @@ public class SuperMartApplication {
 
     private static SuperMartApplication instance;
 
+    private volatile Fleet fleet = Fleet.getDefault();
+    private final ManifestCache manifestCache = new ManifestCache();
+
     /**
      * Construct a new instance of the SuperMart Application
      */
@@ -83,6 +90,44 @@ public class SuperMartApplication {
         return new RefrigeratedTruckImpl.RefrigeratedTruckBuilderImpl();
     }
 
+    /**
+     * Get the builder for the {@link TruckType} class.
+     *
+     * @return The truck type builder
+     */
+    public TruckType.Builder getTruckTypeBuilder() {
+        return new TruckTypeImpl.TruckTypeBuilder();
+    }
+
+    /**
+     * Gets the fleet of truck types used for deliveries.
+     *
+     * @return The fleet
+     */
+    public Fleet getFleet() {
+        return this.fleet;
+    }
+
+    /**
+     * Sets the fleet of truck types used for deliveries.
+     *
+     * @param fleet The fleet
+     */
+    public void setFleet(Fleet fleet) {
+        if (fleet == null) {
+            throw new IllegalArgumentException("Fleet can't be null");
+        }
+        this.fleet = fleet;
+    }
+
+    /**
+     * Gets the cache of manifests planned by {@link com.me4502.supermart.truck.ManifestOptimiser}.
+     *
+     * @return The manifest cache
+     */
+    public ManifestCache getManifestCache() {
+        return this.manifestCache;
+    }
 
     /**
      * Get the builder for the {@link Manifest} class.
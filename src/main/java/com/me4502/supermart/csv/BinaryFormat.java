@@ -0,0 +1,267 @@
+package com.me4502.supermart.csv;
+
+import com.me4502.supermart.exception.CSVFormatException;
+import com.me4502.supermart.exception.DeliveryException;
+import com.me4502.supermart.exception.StockException;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import com.me4502.supermart.truck.Manifest;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.function.Function;
+
+/**
+ * A binary input format of length-prefixed records, written by {@link BinaryRecordWriter}.
+ *
+ * A file starts with the magic bytes {@code SMRB}, a version byte and a byte for the kind of
+ * records it holds. Each record is then a big-endian int length followed by that many bytes.
+ * Numbers are big-endian and strings are an unsigned short length followed by UTF-8 bytes.
+ * <ul>
+ * <li>Item properties: name, cost (double), price (double), reorder point (int), reorder amount (int),
+ * then a byte that is 1 if an ideal temperature (double) follows, or 0.</li>
+ * <li>Sales logs: name, quantity (int).</li>
+ * <li>Manifests: a byte that is 0 for a truck, followed by the truck type, or 1 for cargo of the
+ * truck before it, followed by name and quantity (int).</li>
+ * </ul>
+ *
+ * @author Madeline Miller
+ */
+final class BinaryFormat extends RecordFormat {
+
+    static final byte[] MAGIC = {'S', 'M', 'R', 'B'};
+    static final int VERSION = 1;
+
+    static final int TRUCK_RECORD = 0;
+    static final int CARGO_RECORD = 1;
+
+    // Larger records are assumed to be corrupt, rather than allocating for them
+    private static final int MAX_RECORD_LENGTH = 1 << 24;
+
+    /**
+     * The kinds of records a file can hold.
+     */
+    enum Kind {
+        ITEM_PROPERTIES(1, "item properties"),
+        SALES_LOG(2, "a sales log"),
+        MANIFEST(3, "a manifest");
+
+        private final int id;
+        private final String description;
+
+        Kind(int id, String description) {
+            this.id = id;
+            this.description = description;
+        }
+
+        int getId() {
+            return this.id;
+        }
+    }
+
+    BinaryFormat() {
+        super("Binary records", "bin");
+    }
+
+    @Override
+    public List<Item> readItemProperties(InputStream input) throws IOException, CSVFormatException {
+        RecordReader reader = new RecordReader(input, Kind.ITEM_PROPERTIES);
+        List<Item> items = new ArrayList<>();
+        ByteBuffer record;
+        while ((record = reader.next()) != null) {
+            try {
+                String name = readString(record);
+                double cost = record.getDouble();
+                double price = record.getDouble();
+                int reorderPoint = record.getInt();
+                int reorderAmount = record.getInt();
+                OptionalDouble temperature = record.get() != 0 ? OptionalDouble.of(record.getDouble()) : OptionalDouble.empty();
+                reader.checkFullyRead(record);
+                items.add(buildItem(name, cost, price, reorderPoint, reorderAmount, temperature));
+            } catch (BufferUnderflowException e) {
+                throw reader.truncated();
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public Stock readSalesLog(InputStream input, Function<String, Optional<Item>> catalogue)
+            throws IOException, CSVFormatException, StockException {
+        RecordReader reader = new RecordReader(input, Kind.SALES_LOG);
+        SalesLog sales = new SalesLog(catalogue);
+        ByteBuffer record;
+        while ((record = reader.next()) != null) {
+            try {
+                String name = readString(record);
+                int quantity = record.getInt();
+                reader.checkFullyRead(record);
+                sales.add(name, quantity);
+            } catch (BufferUnderflowException e) {
+                throw reader.truncated();
+            }
+        }
+        return sales.build();
+    }
+
+    @Override
+    public Manifest readManifest(InputStream input, Function<String, Optional<Item>> catalogue)
+            throws IOException, CSVFormatException, DeliveryException {
+        RecordReader reader = new RecordReader(input, Kind.MANIFEST);
+        ManifestAssembler manifest = new ManifestAssembler(catalogue, "record");
+        ByteBuffer record;
+        while ((record = reader.next()) != null) {
+            try {
+                int kind = record.get();
+                if (kind == TRUCK_RECORD) {
+                    String type = readString(record);
+                    reader.checkFullyRead(record);
+                    manifest.addTruck(type, reader.getRecordNumber());
+                } else if (kind == CARGO_RECORD) {
+                    String name = readString(record);
+                    int quantity = record.getInt();
+                    reader.checkFullyRead(record);
+                    manifest.addCargo(name, quantity, reader.getRecordNumber());
+                } else {
+                    throw new CSVFormatException("Unknown manifest record kind " + kind + " at record "
+                            + reader.getRecordNumber());
+                }
+            } catch (BufferUnderflowException e) {
+                throw reader.truncated();
+            }
+        }
+        return manifest.build();
+    }
+
+    /**
+     * Reads a string of a record.
+     *
+     * @param record The record
+     * @return The string
+     * @throws BufferUnderflowException if the record ends before the string
+     */
+    private static String readString(ByteBuffer record) {
+        int length = record.getShort() & 0xFFFF;
+        if (length > record.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(record.array(), record.position(), length, StandardCharsets.UTF_8);
+        record.position(record.position() + length);
+        return value;
+    }
+
+    /**
+     * Reads the records of a stream one at a time, into a reused buffer.
+     */
+    private static final class RecordReader {
+
+        private final DataInputStream input;
+        private byte[] buffer = new byte[256];
+        private int recordNumber;
+
+        /**
+         * Creates a reader, reading and checking the header.
+         *
+         * @param input The stream, which is left open
+         * @param kind The kind of records expected
+         * @throws IOException if the stream could not be read
+         * @throws CSVFormatException if the header is invalid or for another kind of records
+         */
+        private RecordReader(InputStream input, Kind kind) throws IOException, CSVFormatException {
+            // Not closed, as that would close the stream
+            this.input = new DataInputStream(new BufferedInputStream(input, 64 * 1024));
+            byte[] header = new byte[MAGIC.length + 2];
+            try {
+                this.input.readFully(header);
+            } catch (EOFException e) {
+                throw new CSVFormatException("Not a binary record file, as it is too short for the header");
+            }
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (header[i] != MAGIC[i]) {
+                    throw new CSVFormatException("Not a binary record file, as it doesn't start with SMRB");
+                }
+            }
+            if (header[MAGIC.length] != VERSION) {
+                throw new CSVFormatException("Unsupported binary record version " + header[MAGIC.length]);
+            }
+            if (header[MAGIC.length + 1] != kind.getId()) {
+                String found = "unknown records";
+                for (Kind other : Kind.values()) {
+                    if (header[MAGIC.length + 1] == other.getId()) {
+                        found = other.description;
+                    }
+                }
+                throw new CSVFormatException("Expected " + kind.description + ", but the file holds " + found);
+            }
+        }
+
+        /**
+         * Reads the next record.
+         *
+         * @return The record, valid until the next call, or null at the end of the stream
+         * @throws IOException if the stream could not be read
+         * @throws CSVFormatException if the record is cut short or has an invalid length
+         */
+        private ByteBuffer next() throws IOException, CSVFormatException {
+            int first = this.input.read();
+            if (first < 0) {
+                return null;
+            }
+            this.recordNumber++;
+            try {
+                int length = first << 24 | this.input.readUnsignedByte() << 16 | this.input.readUnsignedShort();
+                if (length < 0 || length > MAX_RECORD_LENGTH) {
+                    throw new CSVFormatException("Invalid length " + length + " of record " + this.recordNumber);
+                }
+                if (length > this.buffer.length) {
+                    this.buffer = new byte[Math.max(length, this.buffer.length * 2)];
+                }
+                this.input.readFully(this.buffer, 0, length);
+                return ByteBuffer.wrap(this.buffer, 0, length);
+            } catch (EOFException e) {
+                throw truncated();
+            }
+        }
+
+        /**
+         * Gets the number of the last record read, starting from one.
+         *
+         * @return The record number
+         */
+        private int getRecordNumber() {
+            return this.recordNumber;
+        }
+
+        /**
+         * Checks that every byte of a record was used.
+         *
+         * @param record The record
+         * @throws CSVFormatException if bytes remain
+         */
+        private void checkFullyRead(ByteBuffer record) throws CSVFormatException {
+            if (record.hasRemaining()) {
+                throw new CSVFormatException("Record " + this.recordNumber + " has " + record.remaining()
+                        + " unexpected bytes at the end");
+            }
+        }
+
+        /**
+         * Creates the exception for a record that ends too early.
+         *
+         * @return The exception
+         */
+        private CSVFormatException truncated() {
+            return new CSVFormatException("Record " + this.recordNumber + " is cut short");
+        }
+    }
+}
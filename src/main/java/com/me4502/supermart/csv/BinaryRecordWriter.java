@@ -0,0 +1,165 @@
+package com.me4502.supermart.csv;
+
+import com.me4502.supermart.store.Item;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Writes files in the binary record format read by {@link InputFormats#BINARY}, one record at a time.
+ *
+ * Each writer holds one kind of records, chosen when it is created.
+ *
+ * @author Madeline Miller
+ */
+public class BinaryRecordWriter implements Closeable {
+
+    private final DataOutputStream output;
+    private final BinaryFormat.Kind kind;
+    // Each record is written here first, so its length is known
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+    private final DataOutputStream record = new DataOutputStream(this.recordBytes);
+
+    private BinaryRecordWriter(OutputStream stream, BinaryFormat.Kind kind) throws IOException {
+        if (stream == null) {
+            throw new IllegalArgumentException("Stream can't be null");
+        }
+        this.output = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+        this.kind = kind;
+        this.output.write(BinaryFormat.MAGIC);
+        this.output.writeByte(BinaryFormat.VERSION);
+        this.output.writeByte(kind.getId());
+    }
+
+    /**
+     * Creates a writer of item properties to an output stream. The stream is closed with the writer.
+     *
+     * @param stream The stream
+     * @return The writer
+     * @throws IOException if the header could not be written
+     */
+    public static BinaryRecordWriter forItemProperties(OutputStream stream) throws IOException {
+        return new BinaryRecordWriter(stream, BinaryFormat.Kind.ITEM_PROPERTIES);
+    }
+
+    /**
+     * Creates a writer of a sales log to an output stream. The stream is closed with the writer.
+     *
+     * @param stream The stream
+     * @return The writer
+     * @throws IOException if the header could not be written
+     */
+    public static BinaryRecordWriter forSalesLog(OutputStream stream) throws IOException {
+        return new BinaryRecordWriter(stream, BinaryFormat.Kind.SALES_LOG);
+    }
+
+    /**
+     * Creates a writer of a manifest to an output stream. The stream is closed with the writer.
+     *
+     * @param stream The stream
+     * @return The writer
+     * @throws IOException if the header could not be written
+     */
+    public static BinaryRecordWriter forManifest(OutputStream stream) throws IOException {
+        return new BinaryRecordWriter(stream, BinaryFormat.Kind.MANIFEST);
+    }
+
+    /**
+     * Writes the properties of an item.
+     *
+     * @param item The item
+     * @throws IOException if writing failed
+     */
+    public void writeItem(Item item) throws IOException {
+        startRecord(BinaryFormat.Kind.ITEM_PROPERTIES);
+        writeString(item.getName());
+        this.record.writeDouble(item.getManufacturingCost());
+        this.record.writeDouble(item.getSellPrice());
+        this.record.writeInt(item.getReorderPoint());
+        this.record.writeInt(item.getReorderAmount());
+        if (item.getIdealTemperature().isPresent()) {
+            this.record.writeByte(1);
+            this.record.writeDouble(item.getIdealTemperature().getAsDouble());
+        } else {
+            this.record.writeByte(0);
+        }
+        endRecord();
+    }
+
+    /**
+     * Writes a sale.
+     *
+     * @param name The name of the sold item
+     * @param quantity The quantity sold
+     * @throws IOException if writing failed
+     */
+    public void writeSale(String name, int quantity) throws IOException {
+        startRecord(BinaryFormat.Kind.SALES_LOG);
+        writeString(name);
+        this.record.writeInt(quantity);
+        endRecord();
+    }
+
+    /**
+     * Writes a truck, which the following cargo is loaded onto.
+     *
+     * @param type The name of the truck type
+     * @throws IOException if writing failed
+     */
+    public void writeTruck(String type) throws IOException {
+        startRecord(BinaryFormat.Kind.MANIFEST);
+        this.record.writeByte(BinaryFormat.TRUCK_RECORD);
+        writeString(type);
+        endRecord();
+    }
+
+    /**
+     * Writes cargo of the last truck.
+     *
+     * @param name The name of the item
+     * @param quantity The quantity carried
+     * @throws IOException if writing failed
+     */
+    public void writeCargo(String name, int quantity) throws IOException {
+        startRecord(BinaryFormat.Kind.MANIFEST);
+        this.record.writeByte(BinaryFormat.CARGO_RECORD);
+        writeString(name);
+        this.record.writeInt(quantity);
+        endRecord();
+    }
+
+    private void startRecord(BinaryFormat.Kind kind) {
+        if (this.kind != kind) {
+            throw new IllegalStateException("This writer can't write " + kind.name().toLowerCase(Locale.ROOT).replace('_', ' ')
+                    + " records");
+        }
+        // Drop anything left by a record that failed part way
+        this.recordBytes.reset();
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Strings must be at most 65535 bytes");
+        }
+        this.record.writeShort(bytes.length);
+        this.record.write(bytes);
+    }
+
+    private void endRecord() throws IOException {
+        this.output.writeInt(this.recordBytes.size());
+        this.recordBytes.writeTo(this.output);
+        this.recordBytes.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.output.close();
+    }
+}
@@ -4,24 +4,34 @@ import com.me4502.supermart.SuperMartApplication;
 import com.me4502.supermart.exception.CSVFormatException;
 import com.me4502.supermart.exception.DeliveryException;
 import com.me4502.supermart.exception.StockException;
+import com.me4502.supermart.store.CatalogueDiff;
 import com.me4502.supermart.store.Item;
 import com.me4502.supermart.store.Stock;
 import com.me4502.supermart.store.StoreImpl;
+import com.me4502.supermart.truck.Fleet;
 import com.me4502.supermart.truck.Manifest;
-import com.me4502.supermart.truck.OrdinaryTruck;
-import com.me4502.supermart.truck.RefrigeratedTruck;
-import com.me4502.supermart.truck.Truck;
-import org.apache.commons.lang3.tuple.ImmutablePair;
+import com.me4502.supermart.truck.TruckType;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -32,20 +42,65 @@ import java.util.stream.Collectors;
 public class CSV {
 
     /**
-     * Return an item builder base off a string array from csv
+     * The charset CSV files are read and written in, whatever the platform default is.
+     */
+    public static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    // The number of item property lines parsed by each parallel task
+    private static final int ITEM_CHUNK_SIZE = 8192;
+
+    private static volatile Tokenizer tokenizer = Tokenizer.SWAR;
+
+    /**
+     * The ways a csv can be split into lines and fields. Both give the same lines.
+     */
+    public enum Tokenizer {
+        /**
+         * Reads characters with a {@link BufferedReader} and splits each line.
+         */
+        READER,
+        /**
+         * Finds the delimiters in the bytes, eight at a time.
+         */
+        SWAR
+    }
+
+    /**
+     * Gets the way files are split into lines and fields.
+     *
+     * @return The tokenizer
+     */
+    public static Tokenizer getTokenizer() {
+        return tokenizer;
+    }
+
+    /**
+     * Sets the way files are split into lines and fields.
+     *
+     * @param tokenizer The tokenizer
+     */
+    public static void setTokenizer(Tokenizer tokenizer) {
+        if (tokenizer == null) {
+            throw new IllegalArgumentException("Tokenizer can't be null");
+        }
+        CSV.tokenizer = tokenizer;
+    }
+
+    /**
+     * Return an item builder base off a line from csv
      *
      * @param line The CSV line to parse
      * @return The Item Builder
      */
-    private static Item.Builder itemBuilder(String[] line) {
+    private static Item.Builder itemBuilder(CSVLine line) {
         Item.Builder builder = SuperMartApplication.getInstance().getItemBuilder()
-                .name(line[0])
-                .manufacturingCost(Double.parseDouble(line[1]))
-                .sellPrice(Double.parseDouble(line[2]))
-                .reorderPoint(Integer.parseInt(line[3]))
-                .reorderAmount(Integer.parseInt(line[4]));
-        if (line.length == 6) {
-            builder.idealTemperature(Double.parseDouble(line[5]));
+                .name(line.get(0))
+                .manufacturingCost(line.parseDouble(1))
+                .sellPrice(line.parseDouble(2))
+                .reorderPoint(line.parseInt(3))
+                .reorderAmount(line.parseInt(4));
+        if (line.length() == 6) {
+            builder.idealTemperature(line.parseDouble(5));
         }
         return builder;
     }
@@ -53,186 +108,410 @@ public class CSV {
     /**
      * Load item properties and set created items with quantity of zero in inventory
      *
-     * @param file The file to load
+     * @param file The file to load, in any {@link InputFormats registered format}
+     * @return The statistics of the load
      * @throws IOException if the file can't be loaded
      * @throws CSVFormatException if the format is invalid
      */
-    public static void loadItemProperties(File file) throws IOException, CSVFormatException {
-        Item tempItem;
-        Stock.Builder stockBuilder = SuperMartApplication.getInstance().getStockBuilder();
+    public static LoadStatistics loadItemProperties(File file) throws IOException, CSVFormatException {
+        long start = System.nanoTime();
+        // Build every item first, so that nothing is published if a line is invalid
+        List<Item> parsed = readItemProperties(file);
+        List<Item> items = firstOfEachName(parsed);
+        // Add any items not already stockable to the catalogue and to inventory with zero quantity, in one change
+        StoreImpl.getInstance().update(state -> state.withNewItems(items));
+        return new LoadStatistics(parsed.size(), items.size(), System.nanoTime() - start);
+    }
+
+    /**
+     * Reload item properties, replacing any stockable items whose properties have changed
+     * and adding new items with quantity of zero in inventory, in one change
+     *
+     * @param file The file to load, in any {@link InputFormats registered format}
+     * @return The difference between the previous items and the loaded ones
+     * @throws IOException if the file can't be loaded
+     * @throws CSVFormatException if the format is invalid
+     */
+    public static CatalogueDiff reloadItemProperties(File file) throws IOException, CSVFormatException {
+        List<Item> items = readItemProperties(file);
+        // Diff against the snapshot being replaced, so the result describes what was applied
+        AtomicReference<CatalogueDiff> applied = new AtomicReference<>();
+        StoreImpl.getInstance().update(state -> {
+            CatalogueDiff diff = CatalogueDiff.compute(state, items);
+            applied.set(diff);
+            return diff.isEmpty() ? state : diff.apply(state);
+        });
+        return applied.get();
+    }
 
-        // Create the new stock, based off the current inventory -- necessary to not reset if properties reloaded
-        for (ImmutablePair<Item, Integer> itemPair : StoreImpl.getInstance().getInventory().getStockedItemQuantities()) {
-            stockBuilder.addStockedItem(itemPair.getLeft(), itemPair.getRight());
+    /**
+     * Reads the items of an item properties file in the format matching its name
+     *
+     * @param file The file to read
+     * @return The items of every record, in record order
+     * @throws IOException if the file can't be read
+     * @throws CSVFormatException if the format is invalid
+     */
+    static List<Item> readItemProperties(File file) throws IOException, CSVFormatException {
+        try (InputStream input = CompressedInput.open(file)) {
+            return InputFormats.forFile(file).readItemProperties(input);
         }
+    }
 
-        // Add any new properties
-        List<String[]> lines = readCSV(file);
-        for (int i = 0; i < lines.size(); i++) {
+    /**
+     * Parses the lines of an item properties file into items. Large files are parsed in chunks in parallel.
+     *
+     * @param lines The CSV lines
+     * @return The item of every line, in line order
+     * @throws CSVFormatException if the format is invalid, for the first invalid line
+     */
+    static List<Item> parseItemProperties(List<CSVLine> lines) throws CSVFormatException {
+        Item[] parsed = new Item[lines.size()];
+        runInChunks(lines.size(), (start, end) -> parseItemProperties(lines, start, end, parsed));
+        return Arrays.asList(parsed);
+    }
+
+    /**
+     * Parses a range of the lines of an item properties file into items
+     *
+     * @param lines The CSV lines
+     * @param start The first line to parse, inclusive
+     * @param end The last line to parse, exclusive
+     * @param parsed The items of every line, filled in for the range
+     * @throws CSVFormatException if the format is invalid, for the first invalid line of the range
+     */
+    private static void parseItemProperties(List<CSVLine> lines, int start, int end, Item[] parsed) throws CSVFormatException {
+        for (int i = start; i < end; i++) {
             try {
                 // Build the item
-                tempItem = itemBuilder(lines.get(i)).build();
-                // If the item is not in the list of stockables, add it to stockables and inventory with zero quantity
-                if (!(StoreImpl.getInstance().getItem(tempItem.getName()).isPresent())) {
-                    StoreImpl.getInstance().addItem(tempItem);
-                    stockBuilder.addStockedItem(tempItem, 0);
-                }
+                parsed[i] = itemBuilder(lines.get(i)).build();
             } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
                 // Create a detailed message
-                StringBuilder message = new StringBuilder("Invalid item formatting on line " + (i + 1) + ". \n\n"
+                throw new CSVFormatException("Invalid item formatting on line " + (i + 1) + ". \n\n"
                         + "Should be in the form:\n"
                         + "[item], [cost], [price], [reorder point], [reorder amount] OR\n"
                         + "[item], [cost], [price], [reorder point], [reorder amount], [temperature]\n\n"
-                        + "But was presented as:\n");
-                List<String> lineList = Arrays.asList(lines.get(i));
-                for (String line : lineList) {
-                    message.append((lineList.indexOf(line) != lineList.size() - 1) ? '[' + line + "], " : '[' + line + ']');
-                }
-                throw new CSVFormatException(message.toString());
+                        + "But was presented as:\n"
+                        + lines.get(i));
             } catch (IllegalStateException | IllegalArgumentException e) {
                 throw new CSVFormatException(e.getMessage());
             }
         }
-        // Set items in inventory, with zero quantity
-        StoreImpl.getInstance().setInventory(stockBuilder.build());
+    }
+
+    /**
+     * Keeps only the first item of each name, as the store ignores items with the same name as
+     * one it already has. Large lists are checked in chunks in parallel.
+     *
+     * @param items The items
+     * @return The first item of each name, in the original order
+     */
+    static List<Item> firstOfEachName(List<Item> items) {
+        // The first index of each name, whichever chunk gets to it first
+        ConcurrentMap<String, Integer> firstIndexes = new ConcurrentHashMap<>();
+        try {
+            runInChunks(items.size(), (start, end) -> {
+                for (int i = start; i < end; i++) {
+                    firstIndexes.merge(items.get(i).getName(), i, Math::min);
+                }
+            });
+        } catch (CSVFormatException e) {
+            // Nothing here is parsed
+            throw new IllegalStateException(e);
+        }
+        List<Item> firstItems = new ArrayList<>(firstIndexes.size());
+        for (int i = 0; i < items.size(); i++) {
+            if (firstIndexes.get(items.get(i).getName()) == i) {
+                firstItems.add(items.get(i));
+            }
+        }
+        return firstItems;
+    }
+
+    /**
+     * Runs a task over a range of indexes, split into chunks run in parallel if the range is large.
+     *
+     * @param size The size of the range
+     * @param task The task to run for each chunk
+     * @throws CSVFormatException if the task fails, from the first chunk that failed
+     */
+    private static void runInChunks(int size, ChunkTask task) throws CSVFormatException {
+        if (size <= ITEM_CHUNK_SIZE) {
+            task.run(0, size);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int start = 0; start < size; start += ITEM_CHUNK_SIZE) {
+            int chunkStart = start;
+            int chunkEnd = Math.min(start + ITEM_CHUNK_SIZE, size);
+            tasks.add(() -> {
+                task.run(chunkStart, chunkEnd);
+                return null;
+            });
+        }
+        // Chunks are checked in order, so the first failure is reported
+        for (Future<Void> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CSVFormatException("Interrupted while loading item properties");
+            } catch (ExecutionException e) {
+                // The pool wraps checked exceptions, so look for the original failure
+                for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                    if (cause instanceof CSVFormatException) {
+                        throw (CSVFormatException) cause;
+                    }
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * A task run over a chunk of a range of indexes.
+     */
+    @FunctionalInterface
+    private interface ChunkTask {
+
+        /**
+         * Runs the task over a chunk.
+         *
+         * @param start The start of the chunk, inclusive
+         * @param end The end of the chunk, exclusive
+         * @throws CSVFormatException if the task fails
+         */
+        void run(int start, int end) throws CSVFormatException;
     }
 
 
     /**
      * Load a sales log, update the store capital and inventory appropriately
      *
-     * @param file The file to load
+     * @param file The file to load, in any {@link InputFormats registered format}
      * @throws IOException if the file failed to be loaded
      * @throws StockException if the stock was invalid
      * @throws CSVFormatException if the format was invalid
      */
     public static void loadSalesLog(File file) throws IOException, StockException, CSVFormatException {
+        Stock soldStock = readSalesLog(file, StoreImpl.getInstance().getSnapshot()::getItem);
+
+        // Remove the sales from the current inventory and add the value to the capital, in one change
+        try {
+            StoreImpl.getInstance().update(state -> state.withSales(soldStock));
+        } catch (IllegalArgumentException e) {
+            throw new StockException(e.getMessage());
+        }
+
+        // Keep the sales for forecasting and later analysis
+        StoreImpl.getInstance().getSalesHistory().record(soldStock);
+        StoreImpl.getInstance().getSalesLedger().append(soldStock);
+    }
+
+    /**
+     * Reads the sold stock of a sales log in the format matching its name
+     *
+     * @param file The file to read
+     * @param catalogue Looks up stockable items by name
+     * @return The sold stock
+     * @throws IOException if the file can't be read
+     * @throws StockException if the log contains an item that isn't stocked
+     * @throws CSVFormatException if the format is invalid
+     */
+    static Stock readSalesLog(File file, Function<String, Optional<Item>> catalogue)
+            throws IOException, StockException, CSVFormatException {
+        try (InputStream input = CompressedInput.open(file)) {
+            return InputFormats.forFile(file).readSalesLog(input, catalogue);
+        }
+    }
+
+    /**
+     * Parses the lines of a sales log into the sold stock
+     *
+     * @param lines The CSV lines
+     * @param catalogue Looks up stockable items by name
+     * @return The sold stock
+     * @throws StockException if the log contains an item that isn't stocked
+     * @throws CSVFormatException if the format is invalid
+     */
+    static Stock parseSalesLog(List<CSVLine> lines, Function<String, Optional<Item>> catalogue)
+            throws StockException, CSVFormatException {
         Stock.Builder stockBuilder = SuperMartApplication.getInstance().getStockBuilder();
 
-        // Build the sold stock, and then reset the builder
-        List<String[]> lines = readCSV(file);
+        // Build the sold stock
         for (int i = 0; i < lines.size(); i++) {
             try {
-                if (lines.get(i).length != 2) {
+                if (lines.get(i).length() != 2) {
                     throw new CSVFormatException(null);
                 }
-                stockBuilder.addStockedItem(StoreImpl.getInstance().getItem(lines.get(i)[0]).get(), Integer.parseInt(lines.get(i)[1]));
+                stockBuilder.addStockedItem(catalogue.apply(lines.get(i).get(0)).get(), lines.get(i).parseInt(1));
             } catch (NumberFormatException | CSVFormatException e) {
                 // Create a detailed message
-                StringBuilder message = new StringBuilder("Invalid sales log formatting on line " + (i + 1) + ". \n\n"
+                throw new CSVFormatException("Invalid sales log formatting on line " + (i + 1) + ". \n\n"
                         + "Should be in the form:\n"
                         + "[item], [quantity]\n\n"
-                        + "But was presented as:\n");
-                List<String> lineList = Arrays.asList(lines.get(i));
-                for (String line : lineList) {
-                    message.append((lineList.indexOf(line) != lineList.size() - 1) ? '[' + line + "], " : '[' + line + ']');
-                }
-                throw new CSVFormatException(message.toString());
+                        + "But was presented as:\n"
+                        + lines.get(i));
             } catch (NoSuchElementException e) {
-                throw new StockException("Store doesn't stock " + lines.get(i)[0] + ", but sales log contains it.");
+                throw new StockException("Store doesn't stock " + lines.get(i).get(0) + ", but sales log contains it.");
             } catch (IllegalStateException | IllegalArgumentException e) {
                 throw new CSVFormatException(e.getMessage());
             }
         }
-        Stock soldStock = stockBuilder.build();
-        stockBuilder.reset();
+        return stockBuilder.build();
+    }
+
+
+    /**
+     * Load a manifest, update the store manifest
+     *
+     * @param file The file to load, in any {@link InputFormats registered format}
+     * @throws IOException if the file failed to load
+     * @throws CSVFormatException if the format is wrong
+     * @throws DeliveryException if there is an issue generating a delivery
+     */
+    public static void loadManifest(File file) throws IOException, CSVFormatException, DeliveryException {
+        Manifest manifest = readManifest(file, StoreImpl.getInstance().getSnapshot()::getItem);
 
-        // Create the new stock, based off the current inventory
-        for (ImmutablePair<Item, Integer> itemPair : StoreImpl.getInstance().getInventory().getStockedItemQuantities()) {
-            stockBuilder.addStockedItem(itemPair.getLeft(), itemPair.getRight());
+        // Set the created manifest -- handle inventory and capital changes in storeImpl
+        StoreImpl.getInstance().setManifest(manifest, true);
+    }
+
+    /**
+     * Reads a manifest in the format matching its name
+     *
+     * @param file The file to read
+     * @param catalogue Looks up stockable items by name
+     * @return The manifest
+     * @throws IOException if the file can't be read
+     * @throws CSVFormatException if the format is wrong
+     * @throws DeliveryException if the manifest contains an item that isn't stocked
+     */
+    static Manifest readManifest(File file, Function<String, Optional<Item>> catalogue)
+            throws IOException, CSVFormatException, DeliveryException {
+        try (InputStream input = CompressedInput.open(file)) {
+            return InputFormats.forFile(file).readManifest(input, catalogue);
         }
+    }
 
-        // Getting the total sell value of the stock while continuing to create the new stock
-        double totalValue = 0;
-        for (ImmutablePair<Item, Integer> itemPair : soldStock.getStockedItemQuantities()) {
-            if (StoreImpl.getInstance().getItem(itemPair.getLeft().getName()).isPresent()) {
-                totalValue += itemPair.getLeft().getSellPrice() * itemPair.getRight();
+    /**
+     * Parses the lines of a manifest file into a manifest
+     *
+     * @param lines The CSV lines
+     * @param catalogue Looks up stockable items by name
+     * @return The manifest
+     * @throws CSVFormatException if the format is wrong
+     * @throws DeliveryException if the manifest contains an item that isn't stocked
+     */
+    static Manifest parseManifest(List<CSVLine> lines, Function<String, Optional<Item>> catalogue)
+            throws CSVFormatException, DeliveryException {
+        // Check each truck and its cargo as the lines are read
+        ManifestAssembler manifest = new ManifestAssembler(catalogue, "line");
+        for (int i = 0; i < lines.size(); i++) {
+            CSVLine line = lines.get(i);
+            if (line.length() == 2) {
+                int quantity;
                 try {
-                    stockBuilder.addStockedItem(itemPair.getLeft(), -itemPair.getRight());
-                } catch (IllegalArgumentException e) {
-                    throw new StockException(e.getMessage());
+                    quantity = line.parseInt(1);
+                } catch (NumberFormatException e) {
+                    throw invalidManifestLine(line, i);
                 }
+                manifest.addCargo(line.get(0), quantity, i + 1);
+            } else if (line.length() == 1) {
+                String header = line.get(0);
+                if (!header.startsWith(">")) {
+                    throw new CSVFormatException("Unknown truck type " + header + " at line " + (i + 1));
+                }
+                manifest.addTruck(header.substring(1), i + 1);
             } else {
-                throw new StockException("Store doesn't stock " + itemPair.getLeft().getName() + ", but sales log contains it.");
+                throw invalidManifestLine(line, i);
             }
         }
 
-        // Update the stock and the store capital
-        StoreImpl.getInstance().setInventory(stockBuilder.build());
-        StoreImpl.getInstance().setCapital(StoreImpl.getInstance().getCapital() + totalValue);
+        // Throws an exception if there are no trucks in the manifest
+        return manifest.build();
+    }
+
+    /**
+     * Creates the exception for a manifest line that is neither a truck nor cargo
+     *
+     * @param line The line
+     * @param index The index of the line
+     * @return The exception
+     */
+    private static CSVFormatException invalidManifestLine(CSVLine line, int index) {
+        // Create a detailed message
+        return new CSVFormatException("Invalid manifest formatting on line " + (index + 1) + ". \n\n"
+                + "Should be in the form:\n"
+                + ">[truck type] OR\n"
+                + "[item], [quantity]\n\n"
+                + "But was presented as:\n"
+                + line);
     }
 
 
     /**
-     * Load a manifest, update the store manifest
+     * Load a fleet of truck types, and use it for all following deliveries
      *
      * @param file The file to load
+     * @return The loaded fleet
      * @throws IOException if the file failed to load
      * @throws CSVFormatException if the format is wrong
-     * @throws DeliveryException if there is an issue generating a delivery
      */
-    public static void loadManifest(File file) throws IOException, CSVFormatException, DeliveryException {
-        // Create builders
-        Stock.Builder stockBuilder = SuperMartApplication.getInstance().getStockBuilder();
-        OrdinaryTruck.OrdinaryBuilder ordinaryBuilder = SuperMartApplication.getInstance().getOrdinaryTruckBuilder();
-        RefrigeratedTruck.RefrigeratedBuilder refrigeratedBuilder = SuperMartApplication.getInstance().getRefrigeratedTruckBuilder();
-
-        // Create a list of trucks
-        Manifest.Builder manifestBuilder = SuperMartApplication.getInstance().getManifestBuilder();
+    public static Fleet loadFleet(File file) throws IOException, CSVFormatException {
+        Fleet fleet = parseFleet(readCSV(file));
+        SuperMartApplication.getInstance().setFleet(fleet);
+        return fleet;
+    }
 
-        // Iterate backwards over csv to fill the list of trucks
-        List<String[]> lines = readCSV(file);
-        for (int i = lines.size() - 1; i >= 0; i--) {
-            String[] line = lines.get(i);
-            if (line.length == 2) {
-                try {
-                    if (StoreImpl.getInstance().getItem(line[0]).isPresent()) {
-                        stockBuilder.addStockedItem(StoreImpl.getInstance().getItem(line[0]).get(), Integer.parseInt(line[1]));
-                    } else {
-                        throw new DeliveryException("Store doesn't stock " + line[0] + ", but manifest contains it.");
-                    }
-                } catch (IllegalStateException | IllegalArgumentException e) {
-                    throw new CSVFormatException(e.getMessage());
+    /**
+     * Parses the lines of a fleet file into a fleet
+     *
+     * Each line is a truck type, in order of preference. The temperatures are left empty for
+     * types that aren't temperature controlled, and the cost expression may contain commas.
+     *
+     * @param lines The CSV lines
+     * @return The fleet
+     * @throws CSVFormatException if the format is wrong
+     */
+    static Fleet parseFleet(List<CSVLine> lines) throws CSVFormatException {
+        TruckType.Builder builder = SuperMartApplication.getInstance().getTruckTypeBuilder();
+        List<TruckType> types = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            CSVLine line = lines.get(i);
+            try {
+                if (line.length() < 5) {
+                    throw new ArrayIndexOutOfBoundsException(line.length());
                 }
-            } else if (line.length == 1) {
-                // Build the relevant truck and add it to the manifest, after reset builders for next stock and truck pair
-                switch (line[0]) {
-                    case ">Ordinary":
-                        manifestBuilder.addTruck(ordinaryBuilder.cargo(stockBuilder.build()).build());
-                        stockBuilder.reset();
-                        ordinaryBuilder.reset();
-                        break;
-                    case ">Refrigerated":
-                        manifestBuilder.addTruck(refrigeratedBuilder.cargo(stockBuilder.build()).build());
-                        stockBuilder.reset();
-                        refrigeratedBuilder.reset();
-                        break;
-                    default:
-                        throw new CSVFormatException("Unknown truck type " + line[0]);
+                builder.reset()
+                        .name(line.get(0).trim())
+                        .capacity(line.parseTrimmedInt(1))
+                        .costFunction(line.getRemainder(4));
+                // Both temperatures or neither must be given
+                if (!line.isBlank(2) || !line.isBlank(3)) {
+                    builder.temperatureRange(line.parseDouble(2), line.parseDouble(3));
                 }
-            } else {
+                types.add(builder.build());
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
                 // Create a detailed message
-                StringBuilder message = new StringBuilder("Invalid manifest formatting on line " + (i + 1) + ". \n\n"
+                throw new CSVFormatException("Invalid fleet formatting on line " + (i + 1) + ". \n\n"
                         + "Should be in the form:\n"
-                        + ">[truck type] OR\n"
-                        + "[item], [quantity]\n\n"
-                        + "But was presented as:\n");
-                List<String> lineList = Arrays.asList(lines.get(i));
-                for (String errorLine : lineList) {
-                    message.append((lineList.indexOf(errorLine) != lineList.size() - 1) ? '[' + errorLine + "], " : '[' + errorLine + ']');
-                }
-                throw new CSVFormatException(message.toString());
+                        + "[truck type], [capacity], , , [cost expression] OR\n"
+                        + "[truck type], [capacity], [min temperature], [max temperature], [cost expression]\n\n"
+                        + "But was presented as:\n"
+                        + line);
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                throw new CSVFormatException(e.getMessage() + " on line " + (i + 1));
             }
         }
-
-        // Throw an exception if there are no trucks in the manifest -- empty manifest may be built
-        Manifest manifest = manifestBuilder.build();
-        if (manifest.getTrucks().isEmpty()) {
-            throw new CSVFormatException("Cannot load a manifest without trucks.");
+        try {
+            return Fleet.of(types);
+        } catch (IllegalArgumentException e) {
+            throw new CSVFormatException(e.getMessage());
         }
-
-        // Set the created manifest -- handle inventory and capital changes in storeImpl
-        StoreImpl.getInstance().setManifest(manifest, true);
     }
 
 
@@ -244,14 +523,9 @@ public class CSV {
      * @throws IOException if the file could not be written to
      */
     public static void exportManifest(File file, Manifest manifest) throws IOException {
-        FileWriter writer = new FileWriter(file.getAbsolutePath());
-        for (Truck truck : manifest.getTrucks()) {
-            writer.write('>' + truck.getType() + '\n');
-            for (ImmutablePair<Item, Integer> pair : truck.getCargo().getStockedItemQuantities()) {
-                writer.write(pair.getLeft().getName() + ',' + pair.getRight() + '\n');
-            }
+        try (ManifestWriter writer = ManifestWriter.toFile(file)) {
+            writer.writeManifest(manifest);
         }
-        writer.close();
     }
 
 
@@ -262,13 +536,27 @@ public class CSV {
      * @return list of lines in a csv
      * @throws IOException if the file could not be read
      */
-    private static ArrayList<String[]> readCSV(File file) throws IOException {
-        ArrayList<String[]> linesList;
-        FileReader fileReader = new FileReader(file.getAbsolutePath());
-        BufferedReader bufferedReader = new BufferedReader(fileReader);
-        linesList = bufferedReader.lines().map(line -> line.split(","))
+    static ArrayList<CSVLine> readCSV(File file) throws IOException {
+        // Compressed files are decompressed as they are read
+        try (InputStream input = CompressedInput.open(file)) {
+            return readLines(input);
+        }
+    }
+
+    /**
+     * Reads the lines of a csv from a stream, which is left open
+     *
+     * @param input The uncompressed stream to read
+     * @return list of lines in a csv
+     * @throws IOException if the stream could not be read
+     */
+    static ArrayList<CSVLine> readLines(InputStream input) throws IOException {
+        if (tokenizer == Tokenizer.SWAR) {
+            return new DelimiterScanner(input, CHARSET).readLines();
+        }
+        // Not closed, as that would close the stream
+        BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(input, CHARSET));
+        return bufferedReader.lines().map(CSVLine::split)
                 .collect(Collectors.toCollection(ArrayList::new));
-        bufferedReader.close();
-        return linesList;
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.me4502.supermart.csv;
+
+import com.google.common.collect.ImmutableList;
+import com.me4502.supermart.exception.CSVFormatException;
+import com.me4502.supermart.exception.DeliveryException;
+import com.me4502.supermart.exception.StockException;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import com.me4502.supermart.truck.Manifest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The CSV input format, where each line is a record, read with the current {@link CSV.Tokenizer}.
+ *
+ * @author Madeline Miller
+ */
+final class CSVFormat implements InputFormat {
+
+    @Override
+    public String getName() {
+        return "CSV";
+    }
+
+    @Override
+    public ImmutableList<String> getExtensions() {
+        return ImmutableList.of("csv");
+    }
+
+    @Override
+    public List<Item> readItemProperties(InputStream input) throws IOException, CSVFormatException {
+        return CSV.parseItemProperties(CSV.readLines(input));
+    }
+
+    @Override
+    public Stock readSalesLog(InputStream input, Function<String, Optional<Item>> catalogue)
+            throws IOException, CSVFormatException, StockException {
+        return CSV.parseSalesLog(CSV.readLines(input), catalogue);
+    }
+
+    @Override
+    public Manifest readManifest(InputStream input, Function<String, Optional<Item>> catalogue)
+            throws IOException, CSVFormatException, DeliveryException {
+        return CSV.parseManifest(CSV.readLines(input), catalogue);
+    }
+}
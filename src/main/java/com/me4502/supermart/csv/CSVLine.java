@@ -0,0 +1,226 @@
+package com.me4502.supermart.csv;
+
+import java.util.Arrays;
+
+/**
+ * A line of a CSV file, split into fields in place. This class is immutable.
+ *
+ * Fields are split as by {@code String.split(",")}, so empty trailing fields are dropped. Only the
+ * bounds of each field are kept, so numeric fields are parsed straight from the line without a
+ * string being created for them.
+ *
+ * @author Madeline Miller
+ */
+final class CSVLine {
+
+    private final String text;
+    // The start and end of each field
+    private final int[] bounds;
+
+    private CSVLine(String text, int[] bounds) {
+        this.text = text;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Splits a line into fields.
+     *
+     * @param text The line
+     * @return The split line
+     */
+    static CSVLine split(String text) {
+        int count = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == ',') {
+                count++;
+            }
+        }
+        int[] bounds = new int[count * 2];
+        int field = 0;
+        int start = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i == text.length() || text.charAt(i) == ',') {
+                bounds[field * 2] = start;
+                bounds[field * 2 + 1] = i;
+                field++;
+                start = i + 1;
+            }
+        }
+        return of(text, bounds, count);
+    }
+
+    /**
+     * Creates a line from fields that have already been found, dropping empty trailing fields.
+     *
+     * @param text The line
+     * @param bounds The start and end of each field, which may be longer than needed
+     * @param count The number of fields, including empty trailing fields
+     * @return The line
+     */
+    static CSVLine of(String text, int[] bounds, int count) {
+        // A line without separators is kept as one field, even if empty
+        if (count > 1) {
+            while (count > 0 && bounds[count * 2 - 2] == bounds[count * 2 - 1]) {
+                count--;
+            }
+        }
+        return new CSVLine(text, count * 2 == bounds.length ? bounds : Arrays.copyOf(bounds, count * 2));
+    }
+
+    /**
+     * Gets the number of fields.
+     *
+     * @return The number of fields
+     */
+    int length() {
+        return this.bounds.length / 2;
+    }
+
+    /**
+     * Gets a field.
+     *
+     * @param field The index of the field
+     * @return The field
+     * @throws ArrayIndexOutOfBoundsException if there is no such field
+     */
+    String get(int field) {
+        return this.text.substring(start(field), end(field));
+    }
+
+    /**
+     * Checks if a field is empty or only whitespace.
+     *
+     * @param field The index of the field
+     * @return If the field is blank
+     * @throws ArrayIndexOutOfBoundsException if there is no such field
+     */
+    boolean isBlank(int field) {
+        for (int i = start(field); i < end(field); i++) {
+            if (this.text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a field as by {@link Integer#parseInt(String)}.
+     *
+     * @param field The index of the field
+     * @return The value
+     * @throws NumberFormatException if the field is not an integer
+     * @throws ArrayIndexOutOfBoundsException if there is no such field
+     */
+    int parseInt(int field) {
+        return NumberParser.parseInt(this.text, start(field), end(field));
+    }
+
+    /**
+     * Parses a field as by {@link Integer#parseInt(String)}, ignoring surrounding whitespace.
+     *
+     * @param field The index of the field
+     * @return The value
+     * @throws NumberFormatException if the field is not an integer
+     * @throws ArrayIndexOutOfBoundsException if there is no such field
+     */
+    int parseTrimmedInt(int field) {
+        int start = start(field);
+        int end = end(field);
+        while (start < end && this.text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && this.text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return NumberParser.parseInt(this.text, start, end);
+    }
+
+    /**
+     * Parses a field as by {@link Double#parseDouble(String)}, which ignores surrounding whitespace.
+     *
+     * @param field The index of the field
+     * @return The value
+     * @throws NumberFormatException if the field is not a number
+     * @throws ArrayIndexOutOfBoundsException if there is no such field
+     */
+    double parseDouble(int field) {
+        return NumberParser.parseDouble(this.text, start(field), end(field));
+    }
+
+    /**
+     * Parses a field as an integer, without throwing.
+     *
+     * @param field The index of the field
+     * @return The value, or {@link NumberParser#INVALID} if it is not an integer
+     * @throws ArrayIndexOutOfBoundsException if there is no such field
+     */
+    long parseInteger(int field) {
+        return NumberParser.parseInteger(this.text, start(field), end(field));
+    }
+
+    /**
+     * Parses a field as a decimal number, without throwing.
+     *
+     * @param field The index of the field
+     * @return The value, or NaN if it is not a number
+     * @throws ArrayIndexOutOfBoundsException if there is no such field
+     */
+    double parseDecimal(int field) {
+        return NumberParser.parseDecimal(this.text, start(field), end(field));
+    }
+
+    /**
+     * Gets the column a field starts at, counting from one.
+     *
+     * @param field The index of the field
+     * @return The column
+     * @throws ArrayIndexOutOfBoundsException if there is no such field
+     */
+    int getColumn(int field) {
+        return start(field) + 1;
+    }
+
+    /**
+     * Gets the text of the line from the start of a field to the end of the line, without trailing separators.
+     *
+     * @param field The index of the first field
+     * @return The text
+     * @throws ArrayIndexOutOfBoundsException if there is no such field
+     */
+    String getRemainder(int field) {
+        return this.text.substring(start(field), this.bounds[this.bounds.length - 1]);
+    }
+
+    private int start(int field) {
+        checkField(field);
+        return this.bounds[field * 2];
+    }
+
+    private int end(int field) {
+        checkField(field);
+        return this.bounds[field * 2 + 1];
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field * 2 >= this.bounds.length) {
+            throw new ArrayIndexOutOfBoundsException(field);
+        }
+    }
+
+    /**
+     * Formats the fields for an error message, as [field], [field]
+     *
+     * @return The formatted fields
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append('[').append(this.text, start(i), end(i)).append(']');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,281 @@
+package com.me4502.supermart.csv;
+
+import com.google.common.collect.ImmutableList;
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.StoreImpl;
+import com.me4502.supermart.store.StoreSnapshot;
+import com.me4502.supermart.truck.Fleet;
+import com.me4502.supermart.truck.TruckType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Checks CSV files against the same rules as the {@link CSV} loaders, without loading them.
+ *
+ * Rather than stopping at the first bad row, each file is scanned once from start to end and
+ * every error is collected into a {@link ValidationReport}, so a file can be fixed in one go.
+ * Files are read and split into lines by the same reader as the loaders, and fields are checked
+ * in place, so no exceptions are thrown for bad rows.
+ *
+ * @author Madeline Miller
+ */
+public class CSVValidator {
+
+    /**
+     * The number of errors kept in a report by default.
+     */
+    public static final int DEFAULT_MAX_ERRORS = 100;
+
+    /**
+     * Validates an item properties file.
+     *
+     * @param file The file to validate
+     * @param maxErrors The most errors to keep in the report
+     * @return The report
+     * @throws IOException if the file could not be read
+     */
+    public static ValidationReport validateItemProperties(File file, int maxErrors) throws IOException {
+        Errors errors = new Errors(maxErrors);
+        Fleet fleet = SuperMartApplication.getInstance().getFleet();
+        List<CSVLine> lines = CSV.readCSV(file);
+        for (int index = 0; index < lines.size(); index++) {
+            CSVLine row = lines.get(index);
+            int line = index + 1;
+            errors.rows++;
+            if (row.length() < 5) {
+                errors.add(line, 1, "Expected [item], [cost], [price], [reorder point], [reorder amount] "
+                        + "and an optional [temperature], but found " + row.length() + " fields");
+                continue;
+            }
+            if (row.get(0).isEmpty()) {
+                errors.add(line, row.getColumn(0), "Name must not be empty");
+            }
+            checkDecimal(row, line, 1, "Manufacturing cost", errors);
+            checkDecimal(row, line, 2, "Sell price", errors);
+            checkInteger(row, line, 3, "Reorder point", errors);
+            checkInteger(row, line, 4, "Reorder amount", errors);
+            if (row.length() == 6) {
+                double temperature = row.parseDecimal(5);
+                if (Double.isNaN(temperature)) {
+                    errors.add(line, row.getColumn(5), "Temperature is not a number");
+                } else {
+                    // The same range as the item builder, from the fleet's temperature-controlled trucks
+                    Optional<String> problem = fleet.checkTemperature(temperature);
+                    if (problem.isPresent()) {
+                        errors.add(line, row.getColumn(5), problem.get());
+                    }
+                }
+            }
+        }
+        return errors.build();
+    }
+
+    /**
+     * Validates a sales log against the current store, including that enough of each item is in stock.
+     *
+     * @param file The file to validate
+     * @param maxErrors The most errors to keep in the report
+     * @return The report
+     * @throws IOException if the file could not be read
+     */
+    public static ValidationReport validateSalesLog(File file, int maxErrors) throws IOException {
+        StoreSnapshot snapshot = StoreImpl.getInstance().getSnapshot();
+        Errors errors = new Errors(maxErrors);
+        Map<String, Tally> sold = new LinkedHashMap<>();
+        List<CSVLine> lines = CSV.readCSV(file);
+        for (int index = 0; index < lines.size(); index++) {
+            CSVLine row = lines.get(index);
+            int line = index + 1;
+            errors.rows++;
+            if (row.length() != 2) {
+                errors.add(line, 1, "Expected [item], [quantity], but found " + row.length() + " fields");
+                continue;
+            }
+            String name = row.get(0);
+            Optional<Item> item = snapshot.getItem(name);
+            if (!item.isPresent()) {
+                errors.add(line, row.getColumn(0), "Store doesn't stock " + name + ", but sales log contains it.");
+            }
+            long quantity = row.parseInteger(1);
+            if (quantity == NumberParser.INVALID) {
+                errors.add(line, row.getColumn(1), "Quantity is not a whole number");
+            } else if (item.isPresent()) {
+                addQuantity(sold, name, (int) quantity, row, line, errors);
+            }
+        }
+
+        // Check the totals against the inventory, reporting at the last row of each item
+        for (Map.Entry<String, Tally> entry : sold.entrySet()) {
+            Tally tally = entry.getValue();
+            int inStock = snapshot.getInventory().getItemQuantity(snapshot.getItem(entry.getKey()).get()).orElse(0);
+            if (tally.total > inStock) {
+                errors.add(tally.line, tally.column, "Sells " + tally.total + " of " + entry.getKey()
+                        + ", but only " + inStock + " are in stock");
+            }
+        }
+        return errors.build();
+    }
+
+    /**
+     * Validates a manifest against the current store, including truck capacities and cargo restrictions.
+     *
+     * @param file The file to validate
+     * @param maxErrors The most errors to keep in the report
+     * @return The report
+     * @throws IOException if the file could not be read
+     */
+    public static ValidationReport validateManifest(File file, int maxErrors) throws IOException {
+        StoreSnapshot snapshot = StoreImpl.getInstance().getSnapshot();
+        Errors errors = new Errors(maxErrors);
+        Map<String, Tally> cargo = new HashMap<>();
+        Fleet fleet = SuperMartApplication.getInstance().getFleet();
+        int trucks = 0;
+        // The type of the current truck, which is null before the first truck or if the type is unknown
+        TruckType truckType = null;
+        boolean inTruck = false;
+        int truckLine = 0;
+        int truckTotal = 0;
+        List<CSVLine> lines = CSV.readCSV(file);
+        for (int index = 0; index < lines.size(); index++) {
+            CSVLine row = lines.get(index);
+            int line = index + 1;
+            errors.rows++;
+            if (row.length() == 1) {
+                checkCapacity(truckType, truckLine, truckTotal, errors);
+                cargo.clear();
+                truckLine = line;
+                truckTotal = 0;
+                inTruck = true;
+                String header = row.get(0);
+                truckType = header.startsWith(">") ? fleet.getType(header.substring(1)).orElse(null) : null;
+                if (truckType != null) {
+                    trucks++;
+                } else {
+                    errors.add(line, 1, "Unknown truck type " + header);
+                }
+            } else if (row.length() == 2) {
+                if (!inTruck) {
+                    errors.add(line, 1, "Cargo must follow a truck type");
+                }
+                String name = row.get(0);
+                Optional<Item> item = snapshot.getItem(name);
+                if (!item.isPresent()) {
+                    errors.add(line, row.getColumn(0), "Store doesn't stock " + name + ", but manifest contains it.");
+                } else if (truckType != null) {
+                    Optional<String> problem = fleet.checkCarry(truckType, item.get());
+                    if (problem.isPresent()) {
+                        errors.add(line, row.getColumn(0), problem.get());
+                    }
+                }
+                long quantity = row.parseInteger(1);
+                if (quantity == NumberParser.INVALID) {
+                    errors.add(line, row.getColumn(1), "Quantity is not a whole number");
+                } else if (item.isPresent()) {
+                    addQuantity(cargo, name, (int) quantity, row, line, errors);
+                    truckTotal += quantity;
+                }
+            } else {
+                errors.add(line, 1, "Expected >[truck type] or [item], [quantity], but found "
+                        + row.length() + " fields");
+            }
+        }
+        checkCapacity(truckType, truckLine, truckTotal, errors);
+        if (trucks == 0) {
+            errors.add(1, 1, "Cannot load a manifest without trucks.");
+        }
+        return errors.build();
+    }
+
+    /**
+     * Adds a quantity to the running total of an item, following the rules of {@link com.me4502.supermart.store.Stock.Builder}.
+     */
+    private static void addQuantity(Map<String, Tally> totals, String name, int quantity, CSVLine row, int line,
+            Errors errors) {
+        Tally tally = totals.get(name);
+        if (tally == null) {
+            if (quantity < 0) {
+                errors.add(line, row.getColumn(1), "Cannot create an item with a negative quantity");
+                return;
+            }
+            totals.put(name, tally = new Tally());
+        } else if (quantity < 0 && tally.total < -quantity) {
+            errors.add(line, row.getColumn(1), "Cannot sell this many items");
+            return;
+        }
+        tally.total += quantity;
+        tally.line = line;
+        tally.column = row.getColumn(1);
+    }
+
+    /**
+     * Checks that a finished truck doesn't exceed its capacity, reporting at the truck type.
+     */
+    private static void checkCapacity(TruckType truckType, int truckLine, int truckTotal, Errors errors) {
+        if (truckType != null && truckTotal > truckType.getCapacity()) {
+            errors.add(truckLine, 1, "Cargo of " + truckTotal + " exceeds capacity of " + truckType.getCapacity());
+        }
+    }
+
+    private static void checkDecimal(CSVLine row, int line, int field, String name, Errors errors) {
+        double value = row.parseDecimal(field);
+        if (Double.isNaN(value)) {
+            errors.add(line, row.getColumn(field), name + " is not a number");
+        } else if (value < 0) {
+            errors.add(line, row.getColumn(field), name + " can't be negative");
+        }
+    }
+
+    private static void checkInteger(CSVLine row, int line, int field, String name, Errors errors) {
+        long value = row.parseInteger(field);
+        if (value == NumberParser.INVALID) {
+            errors.add(line, row.getColumn(field), name + " is not a whole number");
+        } else if (value < 0) {
+            errors.add(line, row.getColumn(field), name + " can't be negative");
+        }
+    }
+
+    /**
+     * The running total of an item, and where it was last changed.
+     */
+    private static final class Tally {
+
+        private int total;
+        private int line;
+        private int column;
+    }
+
+    /**
+     * Collects errors, keeping only the first few.
+     */
+    private static final class Errors {
+
+        private final int maxErrors;
+        private final ImmutableList.Builder<ValidationReport.RowError> kept = ImmutableList.builder();
+        private int count;
+        private int rows;
+
+        private Errors(int maxErrors) {
+            if (maxErrors < 0) {
+                throw new IllegalArgumentException("Max errors can't be negative");
+            }
+            this.maxErrors = maxErrors;
+        }
+
+        private void add(int line, int column, String message) {
+            if (this.count++ < this.maxErrors) {
+                this.kept.add(new ValidationReport.RowError(line, column, message));
+            }
+        }
+
+        private ValidationReport build() {
+            return new ValidationReport(this.rows, this.count, this.kept.build());
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.me4502.supermart.csv;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Opens CSV files that may be compressed, detecting the format from the first bytes of the file.
+ *
+ * Plain files are read as they are and gzip files are decompressed as they are read. Block gzip
+ * (BGZF) files, which are made of independently compressed blocks, are decompressed in parallel
+ * a few blocks ahead of the reader, so that reading is limited by the parser rather than by inflation.
+ *
+ * @author Madeline Miller
+ */
+public final class CompressedInput {
+
+    private static final int HEADER_SIZE = 18;
+
+    private CompressedInput() {
+    }
+
+    /**
+     * The formats that can be detected.
+     */
+    public enum Format {
+        PLAIN,
+        GZIP,
+        BGZF,
+        ZSTD
+    }
+
+    /**
+     * Opens a file, decompressing it if needed.
+     *
+     * @param file The file
+     * @return The uncompressed contents
+     * @throws IOException if the file could not be read, or is compressed in an unsupported format
+     */
+    public static InputStream open(File file) throws IOException {
+        return open(new FileInputStream(file));
+    }
+
+    /**
+     * Opens a stream, decompressing it if needed. The stream is closed with the returned stream.
+     *
+     * @param stream The stream
+     * @return The uncompressed contents
+     * @throws IOException if the stream could not be read, or is compressed in an unsupported format
+     */
+    public static InputStream open(InputStream stream) throws IOException {
+        BufferedInputStream input = new BufferedInputStream(stream, 64 * 1024);
+        try {
+            switch (detect(input)) {
+                case GZIP:
+                    return new GZIPInputStream(input, 64 * 1024);
+                case BGZF:
+                    return new BgzfInputStream(input);
+                case ZSTD:
+                    throw new IOException("Zstandard compressed files are not supported, decompress the file first");
+                default:
+                    return input;
+            }
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Detects the format of a stream from its first bytes, without consuming them.
+     *
+     * @param input The stream, which must support mark
+     * @return The format
+     * @throws IOException if the stream could not be read
+     */
+    static Format detect(InputStream input) throws IOException {
+        byte[] header = new byte[HEADER_SIZE];
+        input.mark(HEADER_SIZE);
+        int length = 0;
+        int read;
+        while (length < HEADER_SIZE && (read = input.read(header, length, HEADER_SIZE - length)) > 0) {
+            length += read;
+        }
+        input.reset();
+
+        if (length >= 4 && (header[0] & 0xFF) == 0x28 && (header[1] & 0xFF) == 0xB5
+                && (header[2] & 0xFF) == 0x2F && (header[3] & 0xFF) == 0xFD) {
+            return Format.ZSTD;
+        }
+        if (length < 2 || (header[0] & 0xFF) != 0x1F || (header[1] & 0xFF) != 0x8B) {
+            return Format.PLAIN;
+        }
+        // Block gzip has an extra field starting with the BC subfield, holding the block size
+        if (length == HEADER_SIZE && (header[3] & 0x04) != 0 && header[12] == 'B' && header[13] == 'C'
+                && header[14] == 2 && header[15] == 0) {
+            return Format.BGZF;
+        }
+        return Format.GZIP;
+    }
+
+    /**
+     * Reads a block gzip stream, inflating blocks in parallel ahead of the reader.
+     */
+    private static final class BgzfInputStream extends InputStream {
+
+        private static final int MAX_PENDING = Runtime.getRuntime().availableProcessors() * 2;
+        // Block gzip blocks never hold more than 64KB of uncompressed data
+        private static final int MAX_BLOCK_DATA = 65536;
+
+        private final DataInputStream input;
+        private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        private boolean finished;
+        private byte[] current = new byte[0];
+        private int position;
+
+        private BgzfInputStream(InputStream input) {
+            this.input = new DataInputStream(input);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureAvailable()) {
+                return -1;
+            }
+            return this.current[this.position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!ensureAvailable()) {
+                return -1;
+            }
+            int count = Math.min(length, this.current.length - this.position);
+            System.arraycopy(this.current, this.position, buffer, offset, count);
+            this.position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return this.current.length - this.position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Future<byte[]> future : this.pending) {
+                future.cancel(false);
+            }
+            this.pending.clear();
+            this.input.close();
+        }
+
+        /**
+         * Moves on to the next block with data, if the current one has been read.
+         *
+         * @return If there is data to read
+         */
+        private boolean ensureAvailable() throws IOException {
+            while (this.position == this.current.length) {
+                fill();
+                Future<byte[]> next = this.pending.poll();
+                if (next == null) {
+                    return false;
+                }
+                try {
+                    this.current = next.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while decompressing", e);
+                } catch (ExecutionException e) {
+                    // The pool wraps checked exceptions, so look for the original failure
+                    for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                        if (cause instanceof IOException) {
+                            throw (IOException) cause;
+                        }
+                    }
+                    throw new IOException(e.getCause());
+                }
+                this.position = 0;
+            }
+            return true;
+        }
+
+        /**
+         * Reads compressed blocks and submits them for inflation, until enough are pending.
+         */
+        private void fill() throws IOException {
+            while (!this.finished && this.pending.size() < MAX_PENDING) {
+                byte[] block = readBlock();
+                if (block == null) {
+                    this.finished = true;
+                } else {
+                    this.pending.add(ForkJoinPool.commonPool().submit(() -> inflate(block)));
+                }
+            }
+        }
+
+        /**
+         * Reads the next compressed block.
+         *
+         * @return The block, or null at the end of the stream
+         */
+        private byte[] readBlock() throws IOException {
+            int first = this.input.read();
+            if (first == -1) {
+                return null;
+            }
+            byte[] header = new byte[12];
+            header[0] = (byte) first;
+            this.input.readFully(header, 1, 11);
+            if ((header[0] & 0xFF) != 0x1F || (header[1] & 0xFF) != 0x8B || (header[3] & 0x04) == 0) {
+                throw new ZipException("Not a block gzip block");
+            }
+            int extraLength = unsignedShort(header, 10);
+            byte[] extra = new byte[extraLength];
+            this.input.readFully(extra);
+
+            // Find the block size in the BC subfield
+            int blockSize = -1;
+            for (int i = 0; i + 4 <= extraLength; i += 4 + unsignedShort(extra, i + 2)) {
+                if (extra[i] == 'B' && extra[i + 1] == 'C' && unsignedShort(extra, i + 2) == 2 && i + 6 <= extraLength) {
+                    blockSize = unsignedShort(extra, i + 4) + 1;
+                    break;
+                }
+            }
+            int remaining = blockSize - header.length - extraLength;
+            if (blockSize < 0 || remaining < 8) {
+                throw new ZipException("Invalid block gzip block size");
+            }
+
+            byte[] block = new byte[blockSize];
+            System.arraycopy(header, 0, block, 0, header.length);
+            System.arraycopy(extra, 0, block, header.length, extraLength);
+            try {
+                this.input.readFully(block, header.length + extraLength, remaining);
+            } catch (EOFException e) {
+                throw new ZipException("Truncated block gzip block");
+            }
+            return block;
+        }
+
+        /**
+         * Inflates a block, checking its length and CRC.
+         *
+         * @param block The compressed block
+         * @return The uncompressed data
+         */
+        private static byte[] inflate(byte[] block) throws IOException {
+            int dataStart = 12 + unsignedShort(block, 10);
+            int dataLength = block.length - dataStart - 8;
+            // The recorded size isn't trusted until the CRC is checked, so it is bounded before allocating
+            long recordedSize = unsignedInt(block, block.length - 4);
+            if (recordedSize > MAX_BLOCK_DATA) {
+                throw new ZipException("Block gzip block records " + recordedSize + " uncompressed bytes, more than "
+                        + MAX_BLOCK_DATA);
+            }
+            int size = (int) recordedSize;
+            byte[] data = new byte[size];
+
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(block, dataStart, dataLength);
+                int inflated = 0;
+                while (inflated < size && !inflater.finished()) {
+                    int count = inflater.inflate(data, inflated, size - inflated);
+                    if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    inflated += count;
+                }
+                if (inflated != size) {
+                    throw new ZipException("Block gzip block is shorter than its recorded size");
+                }
+            } catch (DataFormatException e) {
+                throw new ZipException(e.getMessage());
+            } finally {
+                inflater.end();
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, size);
+            if (crc.getValue() != unsignedInt(block, block.length - 8)) {
+                throw new ZipException("Corrupt block gzip block");
+            }
+            return data;
+        }
+
+        private static int unsignedShort(byte[] bytes, int offset) {
+            return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8;
+        }
+
+        private static long unsignedInt(byte[] bytes, int offset) {
+            return unsignedShort(bytes, offset) | (long) unsignedShort(bytes, offset + 2) << 16;
+        }
+    }
+}
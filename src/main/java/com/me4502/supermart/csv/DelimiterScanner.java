@@ -0,0 +1,232 @@
+package com.me4502.supermart.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Splits a CSV stream into lines and fields by finding the delimiters eight bytes at a time.
+ *
+ * Each eight bytes of the buffer are read as one long, and the commas, line breaks and non-ASCII
+ * bytes in it are found together with a few word-wide operations (SWAR, or SIMD within a register),
+ * so the bytes between delimiters are never looked at one by one. Lines made only of ASCII are
+ * turned into strings directly with the field bounds already found. Any other line is decoded with
+ * the charset and split again, so the result is always the same as reading the stream with a
+ * {@link java.io.BufferedReader} and splitting each line.
+ *
+ * @author Madeline Miller
+ */
+final class DelimiterScanner {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long COMMAS = ONES * ',';
+    private static final long LINE_FEEDS = ONES * '\n';
+    private static final long CARRIAGE_RETURNS = ONES * '\r';
+
+    private final InputStream input;
+    private final Charset charset;
+    private byte[] buffer;
+    private ByteBuffer words;
+
+    // The fields of the current line, relative to its start
+    private int[] bounds = new int[16];
+    private int count;
+    private int fieldStart;
+    private boolean ascii = true;
+
+    private int lineStart;
+    private int limit;
+    // Set after a carriage return, so that a following line feed doesn't end another line
+    private boolean afterCarriageReturn;
+
+    /**
+     * Creates a scanner.
+     *
+     * @param input The stream to read
+     * @param charset The charset of the stream, which must be ASCII compatible
+     */
+    DelimiterScanner(InputStream input, Charset charset) {
+        this(input, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a scanner.
+     *
+     * @param input The stream to read
+     * @param charset The charset of the stream, which must be ASCII compatible
+     * @param bufferSize The starting size of the buffer, which grows to fit the longest line
+     */
+    DelimiterScanner(InputStream input, Charset charset, int bufferSize) {
+        if (!isAsciiCompatible(charset)) {
+            throw new IllegalArgumentException(charset + " isn't ASCII compatible");
+        }
+        if (bufferSize < 8) {
+            throw new IllegalArgumentException("Buffer size must be at least 8");
+        }
+        this.input = input;
+        this.charset = charset;
+        this.buffer = new byte[bufferSize];
+        this.words = ByteBuffer.wrap(this.buffer).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Checks if a charset encodes every ASCII character as the same single byte, so delimiters can be found in the bytes.
+     *
+     * @param charset The charset
+     * @return If the charset is ASCII compatible
+     */
+    static boolean isAsciiCompatible(Charset charset) {
+        if (!charset.canEncode()) {
+            return false;
+        }
+        byte[] ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (byte) i;
+        }
+        return Arrays.equals(ascii, new String(ascii, StandardCharsets.US_ASCII).getBytes(charset));
+    }
+
+    /**
+     * Reads every remaining line of the stream.
+     *
+     * @return The lines
+     * @throws IOException if the stream could not be read
+     */
+    ArrayList<CSVLine> readLines() throws IOException {
+        ArrayList<CSVLine> lines = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            // Scan whole words, then the bytes that don't fill one
+            int wordLimit = this.limit - 7;
+            while (position < wordLimit) {
+                long word = this.words.getLong(position);
+                long found = matches(word ^ COMMAS) | matches(word ^ LINE_FEEDS) | matches(word ^ CARRIAGE_RETURNS)
+                        | (word & HIGH_BITS);
+                while (found != 0) {
+                    int index = position + (Long.numberOfTrailingZeros(found) >>> 3);
+                    handle(index, lines);
+                    found &= found - 1;
+                }
+                position += 8;
+            }
+            while (position < this.limit) {
+                byte value = this.buffer[position];
+                if (value == ',' || value == '\n' || value == '\r' || value < 0) {
+                    handle(position, lines);
+                }
+                position++;
+            }
+            position -= fill();
+            if (position == this.limit) {
+                break;
+            }
+        }
+        if (this.lineStart < this.limit) {
+            // The last line has no line break
+            endLine(this.limit, lines);
+        }
+        return lines;
+    }
+
+    /**
+     * Finds the zero bytes of a word.
+     *
+     * @param word The word
+     * @return A word with the high bit set in exactly the bytes that were zero
+     */
+    private static long matches(long word) {
+        return ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+    }
+
+    /**
+     * Handles a delimiter or a non-ASCII byte.
+     *
+     * @param index The index of the byte
+     * @param lines The lines found so far
+     */
+    private void handle(int index, ArrayList<CSVLine> lines) {
+        byte value = this.buffer[index];
+        boolean afterCarriageReturn = this.afterCarriageReturn;
+        this.afterCarriageReturn = false;
+        if (value == ',') {
+            addField(index - this.lineStart);
+            this.fieldStart = index - this.lineStart + 1;
+        } else if (value == '\n') {
+            if (afterCarriageReturn && index == this.lineStart) {
+                // The second half of a CRLF line break
+                this.lineStart++;
+            } else {
+                endLine(index, lines);
+            }
+        } else if (value == '\r') {
+            endLine(index, lines);
+            this.afterCarriageReturn = true;
+        } else {
+            this.ascii = false;
+        }
+    }
+
+    private void addField(int end) {
+        if (this.count * 2 + 2 > this.bounds.length) {
+            this.bounds = Arrays.copyOf(this.bounds, this.bounds.length * 2);
+        }
+        this.bounds[this.count * 2] = this.fieldStart;
+        this.bounds[this.count * 2 + 1] = end;
+        this.count++;
+    }
+
+    /**
+     * Ends the current line.
+     *
+     * @param index The index of the line break
+     * @param lines The lines found so far
+     */
+    private void endLine(int index, ArrayList<CSVLine> lines) {
+        int length = index - this.lineStart;
+        if (this.ascii) {
+            addField(length);
+            // ASCII decodes the same in any compatible charset
+            String text = new String(this.buffer, this.lineStart, length, StandardCharsets.ISO_8859_1);
+            lines.add(CSVLine.of(text, Arrays.copyOf(this.bounds, this.count * 2), this.count));
+        } else {
+            lines.add(CSVLine.split(new String(this.buffer, this.lineStart, length, this.charset)));
+        }
+        this.lineStart = index + 1;
+        this.count = 0;
+        this.fieldStart = 0;
+        this.ascii = true;
+    }
+
+    /**
+     * Moves the current line to the start of the buffer, growing it if the line fills it, and reads more bytes.
+     *
+     * @return How far the bytes were moved back
+     * @throws IOException if the stream could not be read
+     */
+    private int fill() throws IOException {
+        int shift = this.lineStart;
+        int remaining = this.limit - this.lineStart;
+        if (remaining == this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+            this.words = ByteBuffer.wrap(this.buffer).order(ByteOrder.LITTLE_ENDIAN);
+        } else if (shift > 0) {
+            System.arraycopy(this.buffer, shift, this.buffer, 0, remaining);
+        }
+        this.lineStart = 0;
+        this.limit = remaining;
+        int read = this.input.read(this.buffer, this.limit, this.buffer.length - this.limit);
+        if (read > 0) {
+            this.limit += read;
+        }
+        return shift;
+    }
+}
@@ -0,0 +1,304 @@
+package com.me4502.supermart.csv;
+
+import com.me4502.supermart.exception.CSVFormatException;
+import com.me4502.supermart.exception.DeliveryException;
+import com.me4502.supermart.exception.StockException;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import com.me4502.supermart.store.StoreImpl;
+import com.me4502.supermart.store.StoreSnapshot;
+import com.me4502.supermart.truck.Manifest;
+import com.me4502.supermart.truck.Truck;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Imports any number of item property files, sales logs and manifests as one change to the store.
+ *
+ * Files are staged first, then read and validated in parallel when the transaction is committed.
+ * If every file is valid, all of the changes are published together, otherwise nothing is published
+ * and the store is left exactly as it was. Item properties are registered before any sales log or
+ * manifest is applied, and sales logs and manifests are then applied in the order they were staged.
+ *
+ * @author Madeline Miller
+ */
+public class ImportTransaction {
+
+    private final List<StagedFile> staged = new ArrayList<>();
+
+    /**
+     * Stages an item properties file.
+     *
+     * @param file The file
+     * @return This transaction, for chaining
+     */
+    public ImportTransaction stageItemProperties(File file) {
+        return stage(FileType.ITEM_PROPERTIES, file);
+    }
+
+    /**
+     * Stages a sales log.
+     *
+     * @param file The file
+     * @return This transaction, for chaining
+     */
+    public ImportTransaction stageSalesLog(File file) {
+        return stage(FileType.SALES_LOG, file);
+    }
+
+    /**
+     * Stages a manifest.
+     *
+     * @param file The file
+     * @return This transaction, for chaining
+     */
+    public ImportTransaction stageManifest(File file) {
+        return stage(FileType.MANIFEST, file);
+    }
+
+    private ImportTransaction stage(FileType type, File file) {
+        if (file == null) {
+            throw new IllegalArgumentException("File can't be null");
+        }
+        this.staged.add(new StagedFile(type, file));
+        return this;
+    }
+
+    /**
+     * Gets the number of staged files.
+     *
+     * @return The number of staged files
+     */
+    public int getStagedCount() {
+        return this.staged.size();
+    }
+
+    /**
+     * Discards every staged file. Nothing has been applied to the store, so this only forgets them.
+     */
+    public void discard() {
+        this.staged.clear();
+    }
+
+    /**
+     * Reads and validates every staged file, and publishes all of their changes to the store at once.
+     *
+     * The transaction is empty afterwards, whether or not the commit succeeded.
+     *
+     * @return The published snapshot
+     * @throws IOException if a file failed to load
+     * @throws CSVFormatException if a file has an invalid format
+     * @throws StockException if a sales log contains an unstocked item, sells more than is in stock,
+     * or uses an item that another update changed while importing
+     * @throws DeliveryException if a manifest contains an unstocked item, or an item that another
+     * update changed while importing
+     */
+    public StoreSnapshot commit() throws IOException, CSVFormatException, StockException, DeliveryException {
+        List<StagedFile> files = new ArrayList<>(this.staged);
+        this.staged.clear();
+
+        // Parse the item properties first, as the other files are validated against them
+        List<Callable<List<Item>>> propertyTasks = new ArrayList<>();
+        for (StagedFile file : files) {
+            if (file.type == FileType.ITEM_PROPERTIES) {
+                propertyTasks.add(() -> CSV.readItemProperties(file.file));
+            }
+        }
+        List<Item> newItems = new ArrayList<>();
+        for (List<Item> items : invokeAll(propertyTasks)) {
+            newItems.addAll(items);
+        }
+
+        // The catalogue the files are validated against. Another writer may replace or add items
+        // before the changes are published, so the items used are checked again when applying them.
+        Map<String, Item> catalogue = new HashMap<>();
+        StoreImpl.getInstance().getSnapshot().getCatalogue().forEach(item -> catalogue.put(item.getName(), item));
+        for (Item item : newItems) {
+            catalogue.putIfAbsent(item.getName(), item);
+        }
+        Function<String, Optional<Item>> lookup = name -> Optional.ofNullable(catalogue.get(name));
+
+        // Parse the sales logs and manifests, each becoming a change to apply in staged order
+        List<Callable<Change>> changeTasks = new ArrayList<>();
+        for (StagedFile file : files) {
+            if (file.type == FileType.SALES_LOG) {
+                changeTasks.add(() -> new Change(CSV.readSalesLog(file.file, lookup), null));
+            } else if (file.type == FileType.MANIFEST) {
+                changeTasks.add(() -> new Change(null, CSV.readManifest(file.file, lookup)));
+            }
+        }
+        List<Change> changes = invokeAll(changeTasks);
+
+        // Apply everything to the latest snapshot and publish it as one change
+        StoreSnapshot committed;
+        try {
+            committed = StoreImpl.getInstance().update(state -> {
+                StoreSnapshot next = state.withNewItems(newItems);
+                for (Change change : changes) {
+                    next = change.apply(next);
+                }
+                return next;
+            });
+        } catch (RejectedChangeException e) {
+            if (e.sale) {
+                throw new StockException(e.getMessage());
+            }
+            throw new DeliveryException(e.getMessage());
+        }
+
+        // Keep the sales for forecasting and later analysis, now that they have happened
+        for (Change change : changes) {
+            if (change.sold != null) {
+                StoreImpl.getInstance().getSalesHistory().record(change.sold);
+                StoreImpl.getInstance().getSalesLedger().append(change.sold);
+            }
+        }
+        return committed;
+    }
+
+    /**
+     * Runs tasks in parallel, returning their results in task order. If any task fails,
+     * the failure of the earliest task is thrown.
+     *
+     * @param tasks The tasks
+     * @param <T> The result type
+     * @return The results
+     */
+    private static <T> List<T> invokeAll(List<Callable<T>> tasks)
+            throws IOException, CSVFormatException, StockException, DeliveryException {
+        List<T> results = new ArrayList<>(tasks.size());
+        for (Future<T> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while importing", e);
+            } catch (ExecutionException e) {
+                // The pool wraps checked exceptions, so look for the original failure
+                for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else if (cause instanceof CSVFormatException) {
+                        throw (CSVFormatException) cause;
+                    } else if (cause instanceof StockException) {
+                        throw (StockException) cause;
+                    } else if (cause instanceof DeliveryException) {
+                        throw (DeliveryException) cause;
+                    }
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The kinds of file that can be staged.
+     */
+    private enum FileType {
+        ITEM_PROPERTIES,
+        SALES_LOG,
+        MANIFEST
+    }
+
+    /**
+     * A staged file and its kind.
+     */
+    private static final class StagedFile {
+
+        private final FileType type;
+        private final File file;
+
+        private StagedFile(FileType type, File file) {
+            this.type = type;
+            this.file = file;
+        }
+    }
+
+    /**
+     * A validated change from a sales log or a manifest. Exactly one of the fields is set.
+     */
+    private static final class Change {
+
+        private final Stock sold;
+        private final Manifest manifest;
+
+        private Change(Stock sold, Manifest manifest) {
+            this.sold = sold;
+            this.manifest = manifest;
+        }
+
+        /**
+         * Applies this change to a snapshot.
+         *
+         * @param state The snapshot to apply the change to
+         * @return The next snapshot
+         * @throws RejectedChangeException if an item changed, or the sale or delivery is invalid
+         */
+        private StoreSnapshot apply(StoreSnapshot state) {
+            checkItems(state);
+            try {
+                return this.sold != null ? state.withSales(this.sold) : state.withDelivery(this.manifest);
+            } catch (IllegalArgumentException e) {
+                throw new RejectedChangeException(this.sold != null, e.getMessage());
+            }
+        }
+
+        /**
+         * Checks that every item used by this change is still the stockable item of its name,
+         * so that stale items aren't written back into the inventory.
+         *
+         * @param state The snapshot the change is being applied to
+         * @throws RejectedChangeException if an item was replaced, or another item was registered with its name
+         */
+        private void checkItems(StoreSnapshot state) {
+            if (this.sold != null) {
+                checkItems(state, this.sold);
+            } else {
+                for (Truck truck : this.manifest.getTrucks()) {
+                    checkItems(state, truck.getCargo());
+                }
+            }
+        }
+
+        private void checkItems(StoreSnapshot state, Stock stock) {
+            for (Item item : stock.getStockedItems()) {
+                if (state.getItem(item.getName()).orElse(null) != item) {
+                    throw new RejectedChangeException(this.sold != null, "Item " + item.getName()
+                            + " was changed by another update while importing");
+                }
+            }
+        }
+    }
+
+    /**
+     * Thrown while publishing when a sales log or manifest can't be applied, such as when an item
+     * it uses changed after the file was read.
+     */
+    private static final class RejectedChangeException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        // If the change is a sales log, rather than a manifest
+        private final boolean sale;
+
+        private RejectedChangeException(boolean sale, String message) {
+            super(message);
+            this.sale = sale;
+        }
+    }
+}
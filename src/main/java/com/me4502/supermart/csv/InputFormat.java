@@ -0,0 +1,78 @@
+package com.me4502.supermart.csv;
+
+import com.google.common.collect.ImmutableList;
+import com.me4502.supermart.exception.CSVFormatException;
+import com.me4502.supermart.exception.DeliveryException;
+import com.me4502.supermart.exception.StockException;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import com.me4502.supermart.truck.Manifest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * A format that item properties, sales logs and manifests can be read from.
+ *
+ * Each kind of file is a stream of records: an item per record for item properties, a sold item
+ * and quantity per record for sales logs, and either a truck or an item and quantity carried by
+ * the truck before it for manifests. Implementations only decide how records are encoded, and
+ * are found by {@link InputFormats} from the extension of a file, or with a {@link java.util.ServiceLoader}.
+ *
+ * @author Madeline Miller
+ */
+public interface InputFormat {
+
+    /**
+     * Gets the name of this format.
+     *
+     * @return The name
+     */
+    String getName();
+
+    /**
+     * Gets the file extensions of this format, without the dot.
+     *
+     * @return The extensions
+     */
+    ImmutableList<String> getExtensions();
+
+    /**
+     * Reads item properties into items.
+     *
+     * @param input The uncompressed input, which is left open
+     * @return The item of every record, in record order, including repeated names
+     * @throws IOException if the input could not be read
+     * @throws CSVFormatException if a record is invalid
+     */
+    List<Item> readItemProperties(InputStream input) throws IOException, CSVFormatException;
+
+    /**
+     * Reads a sales log into the sold stock.
+     *
+     * @param input The uncompressed input, which is left open
+     * @param catalogue Looks up stockable items by name
+     * @return The sold stock
+     * @throws IOException if the input could not be read
+     * @throws CSVFormatException if a record is invalid
+     * @throws StockException if the log contains an item that isn't stocked
+     */
+    Stock readSalesLog(InputStream input, Function<String, Optional<Item>> catalogue)
+            throws IOException, CSVFormatException, StockException;
+
+    /**
+     * Reads a manifest.
+     *
+     * @param input The uncompressed input, which is left open
+     * @param catalogue Looks up stockable items by name
+     * @return The manifest
+     * @throws IOException if the input could not be read
+     * @throws CSVFormatException if a record is invalid
+     * @throws DeliveryException if the manifest contains an item that isn't stocked
+     */
+    Manifest readManifest(InputStream input, Function<String, Optional<Item>> catalogue)
+            throws IOException, CSVFormatException, DeliveryException;
+}
@@ -0,0 +1,114 @@
+package com.me4502.supermart.csv;
+
+import com.google.common.collect.ImmutableList;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The input formats that files can be loaded from, chosen by file extension.
+ *
+ * CSV, the binary record format and JSON lines are always registered. Other formats are found
+ * with a {@link ServiceLoader} of {@link InputFormat}, or can be registered directly. Files whose
+ * extension isn't known are read as CSV.
+ *
+ * @author Madeline Miller
+ */
+public final class InputFormats {
+
+    /**
+     * The CSV format, with the extension csv.
+     */
+    public static final InputFormat CSV = new CSVFormat();
+
+    /**
+     * The length-prefixed binary record format, with the extension bin.
+     */
+    public static final InputFormat BINARY = new BinaryFormat();
+
+    /**
+     * The JSON lines format, with a JSON object per line and the extension jsonl.
+     */
+    public static final InputFormat JSON_LINES = new JsonLinesFormat();
+
+    // Compression suffixes, which are stripped before looking at the extension
+    private static final ImmutableList<String> COMPRESSED_EXTENSIONS = ImmutableList.of("gz", "bgz", "zst");
+
+    private static final List<InputFormat> formats = new CopyOnWriteArrayList<>();
+
+    static {
+        formats.add(CSV);
+        formats.add(BINARY);
+        formats.add(JSON_LINES);
+        for (InputFormat format : ServiceLoader.load(InputFormat.class)) {
+            formats.add(format);
+        }
+    }
+
+    private InputFormats() {
+    }
+
+    /**
+     * Gets the registered formats, in the order they are checked.
+     *
+     * @return The formats
+     */
+    public static ImmutableList<InputFormat> getFormats() {
+        return ImmutableList.copyOf(formats);
+    }
+
+    /**
+     * Registers a format. Extensions of earlier formats take precedence.
+     *
+     * @param format The format
+     */
+    public static void register(InputFormat format) {
+        if (format == null) {
+            throw new IllegalArgumentException("Format can't be null");
+        }
+        formats.add(format);
+    }
+
+    /**
+     * Gets every extension of the registered formats, without the dot.
+     *
+     * @return The extensions
+     */
+    public static ImmutableList<String> getExtensions() {
+        ImmutableList.Builder<String> extensions = ImmutableList.builder();
+        for (InputFormat format : formats) {
+            extensions.addAll(format.getExtensions());
+        }
+        return extensions.build();
+    }
+
+    /**
+     * Gets the format of a file from its extension, ignoring any compression suffix.
+     *
+     * @param file The file
+     * @return The format, or CSV if the extension isn't known
+     */
+    public static InputFormat forFile(File file) {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        for (String compressed : COMPRESSED_EXTENSIONS) {
+            if (name.endsWith("." + compressed)) {
+                name = name.substring(0, name.length() - compressed.length() - 1);
+                break;
+            }
+        }
+        int dot = name.lastIndexOf('.');
+        if (dot < 0) {
+            return CSV;
+        }
+        String extension = name.substring(dot + 1);
+        for (InputFormat format : formats) {
+            if (format.getExtensions().contains(extension)) {
+                return format;
+            }
+        }
+        return CSV;
+    }
+}
@@ -0,0 +1,163 @@
+package com.me4502.supermart.csv;
+
+import com.me4502.supermart.exception.CSVFormatException;
+import com.me4502.supermart.exception.DeliveryException;
+import com.me4502.supermart.exception.StockException;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import com.me4502.supermart.truck.Manifest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.function.Function;
+
+/**
+ * The JSON lines input format, where each non-blank line is a flat UTF-8 JSON object.
+ * <ul>
+ * <li>Item properties: {@code {"name": "rice", "cost": 2, "price": 3, "reorderPoint": 225,
+ * "reorderAmount": 300, "temperature": -5}}, where the temperature may be left out or null.</li>
+ * <li>Sales logs: {@code {"item": "rice", "quantity": 10}}.</li>
+ * <li>Manifests: {@code {"truck": "Refrigerated"}}, followed by {@code {"item": "rice", "quantity": 10}}
+ * for each item of its cargo.</li>
+ * </ul>
+ *
+ * @author Madeline Miller
+ */
+final class JsonLinesFormat extends RecordFormat {
+
+    JsonLinesFormat() {
+        super("JSON lines", "jsonl");
+    }
+
+    @Override
+    public List<Item> readItemProperties(InputStream input) throws IOException, CSVFormatException {
+        LineReader reader = new LineReader(input);
+        List<Item> items = new ArrayList<>();
+        JsonObject record;
+        while ((record = reader.next()) != null) {
+            try {
+                OptionalDouble temperature = record.has("temperature")
+                        ? OptionalDouble.of(record.getDouble("temperature")) : OptionalDouble.empty();
+                items.add(buildItem(record.getString("name"), record.getDouble("cost"), record.getDouble("price"),
+                        record.getInt("reorderPoint"), record.getInt("reorderAmount"), temperature));
+            } catch (IllegalArgumentException e) {
+                throw reader.invalid("item", e);
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public Stock readSalesLog(InputStream input, Function<String, Optional<Item>> catalogue)
+            throws IOException, CSVFormatException, StockException {
+        LineReader reader = new LineReader(input);
+        SalesLog sales = new SalesLog(catalogue);
+        JsonObject record;
+        while ((record = reader.next()) != null) {
+            String name;
+            int quantity;
+            try {
+                name = record.getString("item");
+                quantity = record.getInt("quantity");
+            } catch (IllegalArgumentException e) {
+                throw reader.invalid("sale", e);
+            }
+            sales.add(name, quantity);
+        }
+        return sales.build();
+    }
+
+    @Override
+    public Manifest readManifest(InputStream input, Function<String, Optional<Item>> catalogue)
+            throws IOException, CSVFormatException, DeliveryException {
+        LineReader reader = new LineReader(input);
+        ManifestAssembler manifest = new ManifestAssembler(catalogue, "line");
+        JsonObject record;
+        while ((record = reader.next()) != null) {
+            if (record.has("truck")) {
+                String type;
+                try {
+                    type = record.getString("truck");
+                } catch (IllegalArgumentException e) {
+                    throw reader.invalid("truck", e);
+                }
+                manifest.addTruck(type, reader.getLineNumber());
+            } else {
+                String name;
+                int quantity;
+                try {
+                    name = record.getString("item");
+                    quantity = record.getInt("quantity");
+                } catch (IllegalArgumentException e) {
+                    throw reader.invalid("cargo", e);
+                }
+                manifest.addCargo(name, quantity, reader.getLineNumber());
+            }
+        }
+        return manifest.build();
+    }
+
+    /**
+     * Reads the objects of a stream, one line at a time.
+     */
+    private static final class LineReader {
+
+        private final BufferedReader reader;
+        private int lineNumber;
+
+        private LineReader(InputStream input) {
+            // Not closed, as that would close the stream
+            this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Reads the object of the next non-blank line.
+         *
+         * @return The object, or null at the end of the stream
+         * @throws IOException if the stream could not be read
+         * @throws CSVFormatException if the line isn't a flat JSON object
+         */
+        private JsonObject next() throws IOException, CSVFormatException {
+            String line;
+            do {
+                line = this.reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+                this.lineNumber++;
+            } while (line.trim().isEmpty());
+            try {
+                return JsonObject.parse(line);
+            } catch (IllegalArgumentException e) {
+                throw new CSVFormatException("Invalid JSON on line " + this.lineNumber + ": " + e.getMessage());
+            }
+        }
+
+        /**
+         * Gets the number of the last line read, starting from one.
+         *
+         * @return The line number
+         */
+        private int getLineNumber() {
+            return this.lineNumber;
+        }
+
+        /**
+         * Creates the exception for a record that is missing a field, or has one of the wrong type.
+         *
+         * @param record What the record describes
+         * @param cause The problem with the field
+         * @return The exception
+         */
+        private CSVFormatException invalid(String record, IllegalArgumentException cause) {
+            return new CSVFormatException("Invalid " + record + " on line " + this.lineNumber + ": " + cause.getMessage());
+        }
+    }
+}
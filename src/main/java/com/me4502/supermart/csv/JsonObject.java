@@ -0,0 +1,314 @@
+package com.me4502.supermart.csv;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A flat JSON object, as used for each line of the JSON lines format. This class is immutable.
+ *
+ * Values may be strings, numbers, booleans or null. Nested objects and arrays aren't needed
+ * by any record, so they are rejected. Numbers are kept as text and only parsed when asked for,
+ * so integers are checked as strictly as in CSV files.
+ *
+ * @author Madeline Miller
+ */
+final class JsonObject {
+
+    private final Map<String, Object> values;
+
+    private JsonObject(Map<String, Object> values) {
+        this.values = values;
+    }
+
+    /**
+     * Parses an object.
+     *
+     * @param text The JSON text
+     * @return The object
+     * @throws IllegalArgumentException if the text isn't a flat JSON object
+     */
+    static JsonObject parse(String text) {
+        return new Parser(text).parseObject();
+    }
+
+    /**
+     * Checks if the object has a value other than null for a key.
+     *
+     * @param key The key
+     * @return If there is a value
+     */
+    boolean has(String key) {
+        return this.values.get(key) != null;
+    }
+
+    /**
+     * Gets a string value.
+     *
+     * @param key The key
+     * @return The value
+     * @throws IllegalArgumentException if there is no string value for the key
+     */
+    String getString(String key) {
+        Object value = get(key);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Expected " + key + " to be a string");
+        }
+        return (String) value;
+    }
+
+    /**
+     * Gets an integer value.
+     *
+     * @param key The key
+     * @return The value
+     * @throws IllegalArgumentException if there is no integer value for the key
+     */
+    int getInt(String key) {
+        String number = getNumber(key);
+        try {
+            return NumberParser.parseInt(number, 0, number.length());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected " + key + " to be an integer");
+        }
+    }
+
+    /**
+     * Gets a number value.
+     *
+     * @param key The key
+     * @return The value
+     * @throws IllegalArgumentException if there is no number value for the key
+     */
+    double getDouble(String key) {
+        String number = getNumber(key);
+        return NumberParser.parseDouble(number, 0, number.length());
+    }
+
+    private String getNumber(String key) {
+        Object value = get(key);
+        if (!(value instanceof Numeral)) {
+            throw new IllegalArgumentException("Expected " + key + " to be a number");
+        }
+        return ((Numeral) value).text;
+    }
+
+    private Object get(String key) {
+        Object value = this.values.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + key);
+        }
+        return value;
+    }
+
+    /**
+     * The text of a number value.
+     */
+    private static final class Numeral {
+
+        private final String text;
+
+        private Numeral(String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * Parses the text of an object, from start to end.
+     */
+    private static final class Parser {
+
+        private final String text;
+        private int position;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        private JsonObject parseObject() {
+            Map<String, Object> values = new HashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                this.position++;
+            } else {
+                while (true) {
+                    skipWhitespace();
+                    String key = parseString();
+                    expect(':');
+                    Object value = parseValue();
+                    if (values.containsKey(key)) {
+                        throw error("Duplicate key " + key);
+                    }
+                    values.put(key, value);
+                    char next = peek();
+                    this.position++;
+                    if (next == '}') {
+                        break;
+                    } else if (next != ',') {
+                        throw error("Expected , or }");
+                    }
+                }
+            }
+            if (peek() != 0) {
+                throw error("Unexpected text after the object");
+            }
+            return new JsonObject(values);
+        }
+
+        private Object parseValue() {
+            char next = peek();
+            if (next == '"') {
+                return parseString();
+            } else if (next == '-' || (next >= '0' && next <= '9')) {
+                return parseNumber();
+            } else if (this.text.startsWith("true", this.position)) {
+                this.position += 4;
+                return Boolean.TRUE;
+            } else if (this.text.startsWith("false", this.position)) {
+                this.position += 5;
+                return Boolean.FALSE;
+            } else if (this.text.startsWith("null", this.position)) {
+                this.position += 4;
+                return null;
+            } else if (next == '{' || next == '[') {
+                throw error("Nested values aren't supported");
+            }
+            throw error("Expected a value");
+        }
+
+        private Numeral parseNumber() {
+            int start = this.position;
+            if (this.text.charAt(this.position) == '-') {
+                this.position++;
+            }
+            int digits = skipDigits();
+            if (digits == 0 || (digits > 1 && this.text.charAt(this.position - digits) == '0')) {
+                throw error("Invalid number");
+            }
+            if (this.position < this.text.length() && this.text.charAt(this.position) == '.') {
+                this.position++;
+                if (skipDigits() == 0) {
+                    throw error("Invalid number");
+                }
+            }
+            if (this.position < this.text.length() && (this.text.charAt(this.position) | 0x20) == 'e') {
+                this.position++;
+                if (this.position < this.text.length()
+                        && (this.text.charAt(this.position) == '+' || this.text.charAt(this.position) == '-')) {
+                    this.position++;
+                }
+                if (skipDigits() == 0) {
+                    throw error("Invalid number");
+                }
+            }
+            return new Numeral(this.text.substring(start, this.position));
+        }
+
+        private int skipDigits() {
+            int start = this.position;
+            while (this.position < this.text.length() && this.text.charAt(this.position) >= '0'
+                    && this.text.charAt(this.position) <= '9') {
+                this.position++;
+            }
+            return this.position - start;
+        }
+
+        private String parseString() {
+            if (this.position >= this.text.length() || this.text.charAt(this.position) != '"') {
+                throw error("Expected a string");
+            }
+            this.position++;
+            StringBuilder builder = null;
+            int start = this.position;
+            while (true) {
+                if (this.position >= this.text.length()) {
+                    throw error("Unterminated string");
+                }
+                char c = this.text.charAt(this.position);
+                if (c == '"') {
+                    break;
+                } else if (c < ' ') {
+                    throw error("Control character in string");
+                } else if (c == '\\') {
+                    if (builder == null) {
+                        builder = new StringBuilder();
+                    }
+                    builder.append(this.text, start, this.position);
+                    builder.append(parseEscape());
+                    start = this.position;
+                } else {
+                    this.position++;
+                }
+            }
+            String value = builder == null ? this.text.substring(start, this.position)
+                    : builder.append(this.text, start, this.position).toString();
+            this.position++;
+            return value;
+        }
+
+        private char parseEscape() {
+            if (this.position + 1 >= this.text.length()) {
+                throw error("Unterminated string");
+            }
+            char escaped = this.text.charAt(this.position + 1);
+            this.position += 2;
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    return escaped;
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 't':
+                    return '\t';
+                case 'u':
+                    if (this.position + 4 > this.text.length()) {
+                        throw error("Invalid unicode escape");
+                    }
+                    try {
+                        char value = (char) Integer.parseInt(this.text.substring(this.position, this.position + 4), 16);
+                        this.position += 4;
+                        return value;
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                default:
+                    throw error("Invalid escape \\" + escaped);
+            }
+        }
+
+        private void expect(char expected) {
+            if (peek() != expected) {
+                throw error("Expected " + expected);
+            }
+            this.position++;
+        }
+
+        /**
+         * Skips whitespace and gets the next character, or zero at the end.
+         */
+        private char peek() {
+            skipWhitespace();
+            return this.position < this.text.length() ? this.text.charAt(this.position) : 0;
+        }
+
+        private void skipWhitespace() {
+            while (this.position < this.text.length()) {
+                char c = this.text.charAt(this.position);
+                if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+                    break;
+                }
+                this.position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at column " + (this.position + 1));
+        }
+    }
+}
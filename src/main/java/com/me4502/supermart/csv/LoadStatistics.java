@@ -0,0 +1,80 @@
+package com.me4502.supermart.csv;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The statistics of loading a CSV file. This class is immutable.
+ *
+ * @author Madeline Miller
+ */
+public final class LoadStatistics {
+
+    private final int rowCount;
+    private final int itemCount;
+    private final long elapsedNanos;
+
+    /**
+     * Creates the statistics of a load.
+     *
+     * @param rowCount The number of rows read
+     * @param itemCount The number of distinct items parsed
+     * @param elapsedNanos The time taken, in nanoseconds
+     */
+    LoadStatistics(int rowCount, int itemCount, long elapsedNanos) {
+        this.rowCount = rowCount;
+        this.itemCount = itemCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of rows that were read.
+     *
+     * @return The number of rows
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * Gets the number of distinct items that were parsed, which includes any the store already had.
+     *
+     * @return The number of items
+     */
+    public int getItemCount() {
+        return this.itemCount;
+    }
+
+    /**
+     * Gets the number of rows that were ignored because an earlier row had the same item name.
+     *
+     * @return The number of duplicate rows
+     */
+    public int getDuplicateCount() {
+        return this.rowCount - this.itemCount;
+    }
+
+    /**
+     * Gets the time taken to read, parse and register the file.
+     *
+     * @param unit The unit of the result
+     * @return The time taken
+     */
+    public long getElapsedTime(TimeUnit unit) {
+        return unit.convert(this.elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the throughput of the load.
+     *
+     * @return The number of rows loaded per second
+     */
+    public double getRowsPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.rowCount * (double) TimeUnit.SECONDS.toNanos(1) / this.elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Loaded %d rows (%d items, %d duplicates) in %d ms, %.0f rows/second",
+                this.rowCount, this.itemCount, getDuplicateCount(), getElapsedTime(TimeUnit.MILLISECONDS), getRowsPerSecond());
+    }
+}
@@ -0,0 +1,132 @@
+package com.me4502.supermart.csv;
+
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.exception.CSVFormatException;
+import com.me4502.supermart.exception.DeliveryException;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import com.me4502.supermart.truck.Fleet;
+import com.me4502.supermart.truck.Manifest;
+import com.me4502.supermart.truck.TruckType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Builds a manifest from its records in one forward pass, where each truck record is followed by
+ * the cargo records for it.
+ *
+ * Each cargo record is checked against its truck as it is added, so a manifest that breaks a
+ * truck's capacity or temperature constraints fails at the record that broke it, without the
+ * rest of the manifest being read.
+ *
+ * @author Madeline Miller
+ */
+final class ManifestAssembler {
+
+    private final Function<String, Optional<Item>> catalogue;
+    private final String unit;
+    private final Fleet fleet = SuperMartApplication.getInstance().getFleet();
+    private final List<PendingTruck> trucks = new ArrayList<>();
+    private PendingTruck current;
+
+    /**
+     * Creates an empty manifest.
+     *
+     * @param catalogue Looks up stockable items by name
+     * @param unit What the position of a record is called in error messages, such as line
+     */
+    ManifestAssembler(Function<String, Optional<Item>> catalogue, String unit) {
+        this.catalogue = catalogue;
+        this.unit = unit;
+    }
+
+    /**
+     * Adds a truck record, which the following cargo records are loaded onto.
+     *
+     * @param type The name of the truck type
+     * @param position The position of the record, from one
+     * @throws CSVFormatException if the truck type isn't in the fleet
+     */
+    void addTruck(String type, int position) throws CSVFormatException {
+        TruckType truckType = this.fleet.getType(type)
+                .orElseThrow(() -> new CSVFormatException("Unknown truck type " + type + " at " + this.unit + " " + position));
+        this.current = new PendingTruck(truckType, position);
+        this.trucks.add(this.current);
+    }
+
+    /**
+     * Adds a cargo record to the last truck.
+     *
+     * @param name The name of the item
+     * @param quantity The quantity carried
+     * @param position The position of the record, from one
+     * @throws DeliveryException if the item isn't stocked
+     * @throws CSVFormatException if there is no truck to load the cargo onto, the quantity is invalid,
+     *                            or the truck can't carry the cargo
+     */
+    void addCargo(String name, int quantity, int position) throws DeliveryException, CSVFormatException {
+        if (this.current == null) {
+            throw new CSVFormatException("Cargo must follow a truck type at " + this.unit + " " + position);
+        }
+        Item item = this.catalogue.apply(name)
+                .orElseThrow(() -> new DeliveryException("Store doesn't stock " + name + ", but manifest contains it."));
+        TruckType type = this.current.type;
+        Optional<String> problem = this.fleet.checkCarry(type, item);
+        if (problem.isPresent()) {
+            throw new CSVFormatException(problem.get() + " on " + type.getName() + " truck at " + this.unit + " " + position);
+        }
+        try {
+            this.current.cargo.addStockedItem(item, quantity);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw new CSVFormatException(e.getMessage());
+        }
+        this.current.total += quantity;
+        if (this.current.total > type.getCapacity()) {
+            throw new CSVFormatException("Cargo exceeds capacity on " + type.getName() + " truck at " + this.unit
+                    + " " + position);
+        }
+    }
+
+    /**
+     * Builds the manifest.
+     *
+     * @return The manifest
+     * @throws CSVFormatException if there are no trucks, or a truck can't be created for its cargo
+     */
+    Manifest build() throws CSVFormatException {
+        if (this.trucks.isEmpty()) {
+            throw new CSVFormatException("Cannot load a manifest without trucks.");
+        }
+        Manifest.Builder manifestBuilder = SuperMartApplication.getInstance().getManifestBuilder();
+        // Trucks are added last first, the order manifests have always been loaded in
+        for (int i = this.trucks.size() - 1; i >= 0; i--) {
+            PendingTruck truck = this.trucks.get(i);
+            try {
+                manifestBuilder.addTruck(truck.type.createTruck(truck.cargo.build()));
+            } catch (IllegalStateException e) {
+                throw new CSVFormatException(e.getMessage() + " on " + truck.type.getName() + " truck at "
+                        + this.unit + " " + truck.position);
+            }
+        }
+        return manifestBuilder.build();
+    }
+
+    /**
+     * A truck and the cargo loaded onto it so far.
+     */
+    private static final class PendingTruck {
+
+        private final TruckType type;
+        private final int position;
+        private final Stock.Builder cargo = SuperMartApplication.getInstance().getStockBuilder();
+        private long total;
+
+        private PendingTruck(TruckType type, int position) {
+            this.type = type;
+            this.position = position;
+        }
+    }
+}
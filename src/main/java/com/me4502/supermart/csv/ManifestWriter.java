@@ -0,0 +1,228 @@
+package com.me4502.supermart.csv;
+
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.truck.Manifest;
+import com.me4502.supermart.truck.Truck;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes trucks in the manifest CSV format, one truck at a time. Text is encoded in
+ * {@link CSV#CHARSET}, so the loaders read the manifest back on any platform.
+ *
+ * Text is encoded directly into a reusable buffer, which is only written out when full,
+ * so a manifest of any size can be written as its trucks become available without holding
+ * the whole manifest or its text in memory.
+ *
+ * @author Madeline Miller
+ */
+public class ManifestWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharsetEncoder encoder = CSV.CHARSET.newEncoder();
+    private int truckCount;
+
+    /**
+     * Creates a writer to a channel. The channel is closed with the writer.
+     *
+     * @param channel The channel
+     */
+    public ManifestWriter(WritableByteChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel can't be null");
+        }
+        this.channel = channel;
+    }
+
+    /**
+     * Creates a writer to a file, replacing its contents.
+     *
+     * @param file The file
+     * @return The writer
+     * @throws IOException if the file could not be opened
+     */
+    public static ManifestWriter toFile(File file) throws IOException {
+        return new ManifestWriter(FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Creates a writer to an output stream. The stream is closed with the writer.
+     *
+     * @param stream The stream
+     * @return The writer
+     */
+    public static ManifestWriter toStream(OutputStream stream) {
+        return new ManifestWriter(Channels.newChannel(stream));
+    }
+
+    /**
+     * Creates a writer that gzip compresses to an output stream. The stream is closed with the writer.
+     *
+     * @param stream The stream
+     * @return The writer
+     * @throws IOException if the gzip header could not be written
+     */
+    public static ManifestWriter toGzip(OutputStream stream) throws IOException {
+        return toStream(new GZIPOutputStream(stream, BUFFER_SIZE));
+    }
+
+    /**
+     * Writes every truck of a manifest.
+     *
+     * @param manifest The manifest
+     * @throws IOException if writing failed
+     */
+    public void writeManifest(Manifest manifest) throws IOException {
+        for (Truck truck : manifest.getTrucks()) {
+            writeTruck(truck);
+        }
+    }
+
+    /**
+     * Writes a truck and its cargo.
+     *
+     * @param truck The truck
+     * @throws IOException if writing failed
+     */
+    public void writeTruck(Truck truck) throws IOException {
+        writeByte('>');
+        writeText(truck.getType());
+        writeByte('\n');
+        for (ImmutablePair<Item, Integer> pair : truck.getCargo().getStockedItemQuantities()) {
+            writeText(pair.getLeft().getName());
+            writeByte(',');
+            writeInt(pair.getRight());
+            writeByte('\n');
+        }
+        this.truckCount++;
+    }
+
+    /**
+     * Gets the number of trucks written so far.
+     *
+     * @return The number of trucks
+     */
+    public int getTruckCount() {
+        return this.truckCount;
+    }
+
+    /**
+     * Gets a consumer that writes each truck it is given, for passing to code that produces trucks one at a time.
+     * Failures to write are thrown as {@link UncheckedIOException}.
+     *
+     * @return The consumer
+     */
+    public Consumer<Truck> asConsumer() {
+        return truck -> {
+            try {
+                writeTruck(truck);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Writes out everything that is buffered.
+     *
+     * @throws IOException if writing failed
+     */
+    public void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    private void writeByte(char c) throws IOException {
+        if (!this.buffer.hasRemaining()) {
+            flush();
+        }
+        this.buffer.put((byte) c);
+    }
+
+    private void writeText(String text) throws IOException {
+        // Most names are ASCII, which can be copied straight into the buffer
+        int length = text.length();
+        int i = 0;
+        while (i < length && text.charAt(i) < 0x80) {
+            if (!this.buffer.hasRemaining()) {
+                flush();
+            }
+            this.buffer.put((byte) text.charAt(i++));
+        }
+        if (i == length) {
+            return;
+        }
+
+        // Encode the rest, flushing whenever the buffer fills up
+        CharBuffer chars = CharBuffer.wrap(text, i, length);
+        this.encoder.reset();
+        while (true) {
+            CoderResult result = this.encoder.encode(chars, this.buffer, true);
+            if (result.isOverflow()) {
+                flush();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        while (this.encoder.flush(this.buffer).isOverflow()) {
+            flush();
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        // At most 11 characters, for the sign and ten digits
+        if (this.buffer.remaining() < 11) {
+            flush();
+        }
+        long remaining = value;
+        if (remaining < 0) {
+            this.buffer.put((byte) '-');
+            remaining = -remaining;
+        }
+        int start = this.buffer.position();
+        do {
+            this.buffer.put((byte) ('0' + remaining % 10));
+            remaining /= 10;
+        } while (remaining > 0);
+
+        // The digits were written from least significant, so reverse them
+        for (int left = start, right = this.buffer.position() - 1; left < right; left++, right--) {
+            byte swap = this.buffer.get(left);
+            this.buffer.put(left, this.buffer.get(right));
+            this.buffer.put(right, swap);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.me4502.supermart.csv;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses numbers directly from a range of characters or bytes, without creating a string for them.
+ *
+ * Integers are read in the format accepted by {@link Integer#parseInt(String)}, and decimals in
+ * the format accepted by {@link Double#parseDouble(String)}, to the same value. Decimals whose
+ * digits and power of ten are both exact doubles are found with a single multiplication or
+ * division, which is rounded the same way; any others fall back to the JDK parser. Bytes are
+ * read as ASCII.
+ *
+ * The lenient methods return a sentinel for anything they don't accept. The strict methods give
+ * exactly the result, or the exception, of the JDK parser, which is only used when the fast
+ * parser doesn't accept the number.
+ *
+ * @author Madeline Miller
+ */
+final class NumberParser {
+
+    /**
+     * Returned by the integer parsers when the text is not an integer.
+     */
+    static final long INVALID = Long.MIN_VALUE;
+
+    // Every whole number up to this is an exact double
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    // Every power of ten that is an exact double
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Exponents beyond this can't be a finite, non-zero exact result, so there's no need to track them
+    private static final int MAX_EXPONENT = 1000;
+
+    private NumberParser() {
+    }
+
+    /**
+     * Parses an integer in the format accepted by {@link Integer#parseInt(String)}, without throwing.
+     * Only ASCII digits are accepted.
+     *
+     * @param text The text
+     * @param start The start of the number, inclusive
+     * @param end The end of the number, exclusive
+     * @return The value, or {@link #INVALID} if it is not an integer
+     */
+    static long parseInteger(CharSequence text, int start, int end) {
+        if (start == end) {
+            return INVALID;
+        }
+        boolean negative = false;
+        char first = text.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++start == end) {
+                return INVALID;
+            }
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return INVALID;
+            }
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? INVALID : value;
+    }
+
+    /**
+     * Parses an integer in the format accepted by {@link Integer#parseInt(String)}, without throwing.
+     *
+     * @param bytes The ASCII bytes
+     * @param start The start of the number, inclusive
+     * @param end The end of the number, exclusive
+     * @return The value, or {@link #INVALID} if it is not an integer
+     */
+    static long parseInteger(byte[] bytes, int start, int end) {
+        if (start == end) {
+            return INVALID;
+        }
+        boolean negative = false;
+        byte first = bytes[start];
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++start == end) {
+                return INVALID;
+            }
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return INVALID;
+            }
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? INVALID : value;
+    }
+
+    /**
+     * Parses an integer exactly as {@link Integer#parseInt(String)} would parse the range.
+     *
+     * @param text The text
+     * @param start The start of the number, inclusive
+     * @param end The end of the number, exclusive
+     * @return The value
+     * @throws NumberFormatException if the range is not an integer
+     */
+    static int parseInt(CharSequence text, int start, int end) {
+        long value = parseInteger(text, start, end);
+        // Anything rejected above gets the same result, or exception, as the JDK parser
+        return value == INVALID ? Integer.parseInt(text.subSequence(start, end).toString()) : (int) value;
+    }
+
+    /**
+     * Parses an integer exactly as {@link Integer#parseInt(String)} would parse the range as ASCII.
+     *
+     * @param bytes The ASCII bytes
+     * @param start The start of the number, inclusive
+     * @param end The end of the number, exclusive
+     * @return The value
+     * @throws NumberFormatException if the range is not an integer
+     */
+    static int parseInt(byte[] bytes, int start, int end) {
+        long value = parseInteger(bytes, start, end);
+        return value == INVALID ? Integer.parseInt(new String(bytes, start, end - start, StandardCharsets.US_ASCII)) : (int) value;
+    }
+
+    /**
+     * Parses a decimal number in the format accepted by {@link Double#parseDouble(String)}, without throwing.
+     * Hexadecimal numbers and the words NaN and Infinity are not accepted.
+     *
+     * @param text The text
+     * @param start The start of the number, inclusive
+     * @param end The end of the number, exclusive
+     * @return The value, or NaN if it is not a number
+     */
+    static double parseDecimal(CharSequence text, int start, int end) {
+        // Surrounding whitespace is allowed, as by Double.parseDouble
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        // Collect the digits as a whole number as well, for the fast path
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        while (i < end && isDigit(text.charAt(i))) {
+            mantissa = accumulate(mantissa, text.charAt(i));
+            i++;
+            digits++;
+        }
+        if (i < end && text.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(text.charAt(i))) {
+                mantissa = accumulate(mantissa, text.charAt(i));
+                i++;
+                digits++;
+                fractionDigits++;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        int exponent = 0;
+        if (i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                negativeExponent = text.charAt(i) == '-';
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < end && isDigit(text.charAt(i))) {
+                exponent = Math.min(exponent * 10 + (text.charAt(i) - '0'), MAX_EXPONENT);
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return Double.NaN;
+            }
+            exponent = negativeExponent ? -exponent : exponent;
+        }
+        if (i == end) {
+            double value = toDouble(mantissa, exponent - fractionDigits);
+            if (!Double.isNaN(value)) {
+                return negative ? -value : value;
+            }
+        } else if ("fFdD".indexOf(text.charAt(i)) >= 0 && i + 1 == end) {
+            i++;
+        }
+        if (i != end) {
+            return Double.NaN;
+        }
+        // The format has been checked, so this can't throw
+        return Double.parseDouble(text.subSequence(start, end).toString());
+    }
+
+    /**
+     * Parses a decimal number in the format accepted by {@link Double#parseDouble(String)}, without throwing.
+     * Hexadecimal numbers and the words NaN and Infinity are not accepted.
+     *
+     * @param bytes The ASCII bytes
+     * @param start The start of the number, inclusive
+     * @param end The end of the number, exclusive
+     * @return The value, or NaN if it is not a number
+     */
+    static double parseDecimal(byte[] bytes, int start, int end) {
+        while (start < end && (bytes[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (bytes[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        int i = start;
+        boolean negative = false;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        while (i < end && isDigit((char) bytes[i])) {
+            mantissa = accumulate(mantissa, (char) bytes[i]);
+            i++;
+            digits++;
+        }
+        if (i < end && bytes[i] == '.') {
+            i++;
+            while (i < end && isDigit((char) bytes[i])) {
+                mantissa = accumulate(mantissa, (char) bytes[i]);
+                i++;
+                digits++;
+                fractionDigits++;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        int exponent = 0;
+        if (i < end && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+                negativeExponent = bytes[i] == '-';
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < end && isDigit((char) bytes[i])) {
+                exponent = Math.min(exponent * 10 + (bytes[i] - '0'), MAX_EXPONENT);
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return Double.NaN;
+            }
+            exponent = negativeExponent ? -exponent : exponent;
+        }
+        if (i == end) {
+            double value = toDouble(mantissa, exponent - fractionDigits);
+            if (!Double.isNaN(value)) {
+                return negative ? -value : value;
+            }
+        } else if ("fFdD".indexOf(bytes[i]) >= 0 && i + 1 == end) {
+            i++;
+        }
+        if (i != end) {
+            return Double.NaN;
+        }
+        return Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Parses a decimal number exactly as {@link Double#parseDouble(String)} would parse the range.
+     *
+     * @param text The text
+     * @param start The start of the number, inclusive
+     * @param end The end of the number, exclusive
+     * @return The value
+     * @throws NumberFormatException if the range is not a number
+     */
+    static double parseDouble(CharSequence text, int start, int end) {
+        double value = parseDecimal(text, start, end);
+        // Anything rejected above gets the same result, or exception, as the JDK parser
+        return Double.isNaN(value) ? Double.parseDouble(text.subSequence(start, end).toString()) : value;
+    }
+
+    /**
+     * Parses a decimal number exactly as {@link Double#parseDouble(String)} would parse the range as ASCII.
+     *
+     * @param bytes The ASCII bytes
+     * @param start The start of the number, inclusive
+     * @param end The end of the number, exclusive
+     * @return The value
+     * @throws NumberFormatException if the range is not a number
+     */
+    static double parseDouble(byte[] bytes, int start, int end) {
+        double value = parseDecimal(bytes, start, end);
+        return Double.isNaN(value) ? Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.US_ASCII)) : value;
+    }
+
+    /**
+     * Finds the exact double of a whole number times a power of ten, if both are exact doubles.
+     *
+     * @param mantissa The whole number, or -1 if it didn't fit
+     * @param exponent The power of ten
+     * @return The value, or NaN if it can't be found exactly
+     */
+    private static double toDouble(long mantissa, int exponent) {
+        if (mantissa < 0 || mantissa > MAX_EXACT_MANTISSA) {
+            return Double.NaN;
+        }
+        if (mantissa == 0) {
+            return 0;
+        }
+        // Both numbers are exact doubles, so the result is rounded once, as by Double.parseDouble
+        if (exponent >= 0 && exponent < EXACT_POWERS_OF_TEN.length) {
+            return mantissa * EXACT_POWERS_OF_TEN[exponent];
+        } else if (exponent < 0 && -exponent < EXACT_POWERS_OF_TEN.length) {
+            return mantissa / EXACT_POWERS_OF_TEN[-exponent];
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Appends a digit to a whole number, giving -1 once it no longer fits.
+     *
+     * @param value The number so far, or -1
+     * @param digit The digit character
+     * @return The new number, or -1
+     */
+    private static long accumulate(long value, char digit) {
+        if (value < 0 || value > (Long.MAX_VALUE - 9) / 10) {
+            return -1;
+        }
+        return value * 10 + (digit - '0');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
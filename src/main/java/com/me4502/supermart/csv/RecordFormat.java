@@ -0,0 +1,122 @@
+package com.me4502.supermart.csv;
+
+import com.google.common.collect.ImmutableList;
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.exception.CSVFormatException;
+import com.me4502.supermart.exception.StockException;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.function.Function;
+
+/**
+ * A base for formats made of self-describing records, which only have to decode each record.
+ *
+ * Items and sales are checked and resolved here, and manifests by {@link ManifestAssembler}, the
+ * same way the CSV format does, so every format reads the same files into the same store changes.
+ *
+ * @author Madeline Miller
+ */
+abstract class RecordFormat implements InputFormat {
+
+    private final String name;
+    private final ImmutableList<String> extensions;
+
+    /**
+     * Creates a record format.
+     *
+     * @param name The name of the format
+     * @param extensions The file extensions of the format, without the dot
+     */
+    RecordFormat(String name, String... extensions) {
+        this.name = name;
+        this.extensions = ImmutableList.copyOf(extensions);
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public ImmutableList<String> getExtensions() {
+        return this.extensions;
+    }
+
+    /**
+     * Builds an item from the fields of a record.
+     *
+     * @param name The name
+     * @param cost The manufacturing cost
+     * @param price The sell price
+     * @param reorderPoint The reorder point
+     * @param reorderAmount The reorder amount
+     * @param temperature The ideal temperature, if the item needs one
+     * @return The item
+     * @throws CSVFormatException if the fields don't make a valid item
+     */
+    static Item buildItem(String name, double cost, double price, int reorderPoint, int reorderAmount,
+            OptionalDouble temperature) throws CSVFormatException {
+        try {
+            Item.Builder builder = SuperMartApplication.getInstance().getItemBuilder()
+                    .name(name)
+                    .manufacturingCost(cost)
+                    .sellPrice(price)
+                    .reorderPoint(reorderPoint)
+                    .reorderAmount(reorderAmount);
+            if (temperature.isPresent()) {
+                builder.idealTemperature(temperature.getAsDouble());
+            }
+            return builder.build();
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw new CSVFormatException(e.getMessage());
+        }
+    }
+
+    /**
+     * Collects the records of a sales log into the sold stock.
+     */
+    static final class SalesLog {
+
+        private final Function<String, Optional<Item>> catalogue;
+        private final Stock.Builder stockBuilder = SuperMartApplication.getInstance().getStockBuilder();
+
+        /**
+         * Creates an empty sales log.
+         *
+         * @param catalogue Looks up stockable items by name
+         */
+        SalesLog(Function<String, Optional<Item>> catalogue) {
+            this.catalogue = catalogue;
+        }
+
+        /**
+         * Adds a sale record.
+         *
+         * @param name The name of the sold item
+         * @param quantity The quantity sold
+         * @throws StockException if the item isn't stocked
+         * @throws CSVFormatException if the quantity is invalid
+         */
+        void add(String name, int quantity) throws StockException, CSVFormatException {
+            Item item = this.catalogue.apply(name)
+                    .orElseThrow(() -> new StockException("Store doesn't stock " + name + ", but sales log contains it."));
+            try {
+                this.stockBuilder.addStockedItem(item, quantity);
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                throw new CSVFormatException(e.getMessage());
+            }
+        }
+
+        /**
+         * Builds the sold stock.
+         *
+         * @return The sold stock
+         */
+        Stock build() {
+            return this.stockBuilder.build();
+        }
+    }
+}
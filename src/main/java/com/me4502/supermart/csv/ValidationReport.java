@@ -0,0 +1,143 @@
+package com.me4502.supermart.csv;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The result of validating a CSV file, listing the rows that would fail to load. This class is immutable.
+ *
+ * Only the first errors up to a limit are kept, but every error is counted.
+ *
+ * @author Madeline Miller
+ */
+public final class ValidationReport {
+
+    private final int rowCount;
+    private final int errorCount;
+    private final ImmutableList<RowError> errors;
+
+    /**
+     * Creates a report.
+     *
+     * @param rowCount The number of rows scanned
+     * @param errorCount The number of errors found
+     * @param errors The kept errors, in file order
+     */
+    ValidationReport(int rowCount, int errorCount, ImmutableList<RowError> errors) {
+        this.rowCount = rowCount;
+        this.errorCount = errorCount;
+        this.errors = errors;
+    }
+
+    /**
+     * Gets the number of rows that were scanned.
+     *
+     * @return The number of rows
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * Gets the number of errors that were found, including any that weren't kept.
+     *
+     * @return The number of errors
+     */
+    public int getErrorCount() {
+        return this.errorCount;
+    }
+
+    /**
+     * Gets the errors that were kept, in file order.
+     *
+     * @return The errors
+     */
+    public ImmutableList<RowError> getErrors() {
+        return this.errors;
+    }
+
+    /**
+     * Checks if the file would load without errors.
+     *
+     * @return If the file is valid
+     */
+    public boolean isValid() {
+        return this.errorCount == 0;
+    }
+
+    /**
+     * Checks if some errors were found but not kept.
+     *
+     * @return If the report is truncated
+     */
+    public boolean isTruncated() {
+        return this.errorCount > this.errors.size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(this.errorCount).append(" errors in ").append(this.rowCount).append(" rows");
+        for (RowError error : this.errors) {
+            builder.append('\n').append(error);
+        }
+        if (isTruncated()) {
+            builder.append("\n...and ").append(this.errorCount - this.errors.size()).append(" more");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * An error at a position in a CSV file.
+     */
+    public static final class RowError {
+
+        private final int line;
+        private final int column;
+        private final String message;
+
+        /**
+         * Creates an error.
+         *
+         * @param line The line, starting at 1
+         * @param column The column of the first character of the field, starting at 1
+         * @param message The message
+         */
+        RowError(int line, int column, String message) {
+            this.line = line;
+            this.column = column;
+            this.message = message;
+        }
+
+        /**
+         * Gets the line of the error, starting at 1.
+         *
+         * @return The line
+         */
+        public int getLine() {
+            return this.line;
+        }
+
+        /**
+         * Gets the column of the first character of the field with the error, starting at 1.
+         *
+         * @return The column
+         */
+        public int getColumn() {
+            return this.column;
+        }
+
+        /**
+         * Gets the message describing the error.
+         *
+         * @return The message
+         */
+        public String getMessage() {
+            return this.message;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + this.line + ", column " + this.column + ": " + this.message;
+        }
+    }
+}
@@ -2,11 +2,15 @@ package com.me4502.supermart.gui;
 
 import com.me4502.supermart.SuperMartApplication;
 import com.me4502.supermart.csv.CSV;
+import com.me4502.supermart.csv.InputFormats;
 import com.me4502.supermart.exception.CSVFormatException;
 import com.me4502.supermart.exception.DeliveryException;
 import com.me4502.supermart.exception.StockException;
 import com.me4502.supermart.store.Stock;
+import com.me4502.supermart.store.StoreEvent;
 import com.me4502.supermart.store.StoreImpl;
+import com.me4502.supermart.store.StoreSnapshot;
+import com.me4502.supermart.truck.Fleet;
 import com.me4502.supermart.truck.ManifestOptimiser;
 
 import java.awt.Component;
@@ -25,6 +29,7 @@ import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
 import javax.swing.JTable;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 /**
@@ -65,6 +70,9 @@ public class SuperMartGui {
         tabPane.addTab("Manifest", createManifestPane());
         this.frame.add(tabPane);
 
+        // Refresh the parts of the GUI that a change affects, on the Swing thread
+        StoreImpl.getInstance().addStoreListener(event -> SwingUtilities.invokeLater(() -> refresh(event)));
+
         // Setup the actual frame
         this.frame.setVisible(true);
         this.frame.setSize(750, 500);
@@ -92,6 +100,23 @@ public class SuperMartGui {
         return infoPane;
     }
 
+    /**
+     * Refreshes the labels and tables showing the parts of the store that changed.
+     *
+     * @param event The store change
+     */
+    private void refresh(StoreEvent event) {
+        if (event.isCapitalChanged()) {
+            setCapitalLabel();
+        }
+        if (event.isInventoryChanged() || event.isCatalogueChanged()) {
+            fillInventoryTable(this.inventoryTable);
+        }
+        if (event.isManifestReplaced()) {
+            fillManifestTable(this.manifestTable);
+        }
+    }
+
     /**
      * Updates the capital label with the current capital of the store.
      */
@@ -99,6 +124,15 @@ public class SuperMartGui {
         this.capitalLabel.setText("Capital: " + StoreImpl.getInstance().getFormattedCapital());
     }
 
+    /**
+     * Creates a file filter for the files that can be loaded in any input format.
+     *
+     * @return The file filter
+     */
+    private static FileNameExtensionFilter createInputFileFilter() {
+        return new FileNameExtensionFilter("Supported Files", InputFormats.getExtensions().toArray(new String[0]));
+    }
+
     /**
      * Creates the inventory pane of the GUI.
      *
@@ -125,16 +159,16 @@ public class SuperMartGui {
         // When the load inventory button is pressed, open the file picker
         loadInventoryButton.addActionListener(e -> {
             JFileChooser fileChooser = new JFileChooser();
-            fileChooser.setFileFilter(new FileNameExtensionFilter("CSV Files", "csv"));
+            fileChooser.setFileFilter(createInputFileFilter());
             int returnVal = fileChooser.showOpenDialog(this.frame);
             if (returnVal == JFileChooser.APPROVE_OPTION) {
                 File file = fileChooser.getSelectedFile();
                 try {
-                    CSV.loadItemProperties(file);
+                    // Changed properties replace the loaded items, so prices can be updated without a restart
+                    CSV.reloadItemProperties(file);
 
                     // Update properties now that it's loaded in
                     optimiseManifests();
-                    setCapitalLabel();
                     loadSalesLogButton.setEnabled(true);
                     loadInventoryButton.setText("Re-load Item Properties");
                     this.saveManifestButton.setEnabled(true);
@@ -145,7 +179,6 @@ public class SuperMartGui {
                 } catch (CSVFormatException | DeliveryException e1) {
                     JOptionPane.showMessageDialog(this.frame, e1.getMessage());
                 }
-                fillInventoryTable(this.inventoryTable);
             }
         });
 
@@ -153,7 +186,7 @@ public class SuperMartGui {
         loadSalesLogButton.setEnabled(false);
         loadSalesLogButton.addActionListener(e -> {
             JFileChooser fileChooser = new JFileChooser();
-            fileChooser.setFileFilter(new FileNameExtensionFilter("CSV Files", "csv"));
+            fileChooser.setFileFilter(createInputFileFilter());
             int returnVal = fileChooser.showOpenDialog(this.frame);
             if (returnVal == JFileChooser.APPROVE_OPTION) {
                 File file = fileChooser.getSelectedFile();
@@ -162,7 +195,6 @@ public class SuperMartGui {
 
                     // Update properties now that it's loaded in
                     optimiseManifests();
-                    setCapitalLabel();
                     this.saveManifestButton.setEnabled(true);
                 } catch (IOException e1) {
                     JOptionPane.showMessageDialog(this.frame, "Failed to load the file: " + e1.getMessage());
@@ -170,7 +202,6 @@ public class SuperMartGui {
                 } catch (CSVFormatException | StockException | DeliveryException e1) {
                     JOptionPane.showMessageDialog(this.frame, e1.getMessage());
                 }
-                fillInventoryTable(this.inventoryTable);
             }
         });
 
@@ -200,11 +231,14 @@ public class SuperMartGui {
                 "Temperature (\u00B0C)"
         };
 
+        // Read the items and inventory from the same snapshot, so they are consistent with each other
+        StoreSnapshot snapshot = StoreImpl.getInstance().getSnapshot();
+
         // Transform the Stock into a data frame for the table model
-        Object[][] data = StoreImpl.getInstance().getItems().stream()
+        Object[][] data = snapshot.getItems().stream()
                 .map(item -> new Object[]{
                         item.getName(),
-                        StoreImpl.getInstance().getInventory().getItemQuantity(item).orElse(0),
+                        snapshot.getInventory().getItemQuantity(item).orElse(0),
                         item.getManufacturingCost(),
                         item.getSellPrice(),
                         item.getReorderPoint(),
@@ -241,11 +275,12 @@ public class SuperMartGui {
         this.loadManifestButton.setEnabled(false);
         this.saveManifestButton = new JButton("Save Manifests");
         this.saveManifestButton.setEnabled(false);
+        JButton loadFleetButton = new JButton("Load Fleet");
 
         // When the load button is pressed, open a file picker
         this.loadManifestButton.addActionListener(e -> {
             JFileChooser fileChooser = new JFileChooser();
-            fileChooser.setFileFilter(new FileNameExtensionFilter("CSV Files", "csv"));
+            fileChooser.setFileFilter(createInputFileFilter());
             int returnVal = fileChooser.showOpenDialog(this.frame);
             if (returnVal == JFileChooser.APPROVE_OPTION) {
                 File file = fileChooser.getSelectedFile();
@@ -253,7 +288,6 @@ public class SuperMartGui {
                     CSV.loadManifest(file);
 
                     // Update properties now that it's loaded in
-                    setCapitalLabel();
                     this.saveManifestButton.setEnabled(false);
                     this.manifestPaneTitle.setText("Imported Manifest");
                 } catch (IOException e1) {
@@ -262,8 +296,6 @@ public class SuperMartGui {
                 } catch (CSVFormatException | DeliveryException e1) {
                     JOptionPane.showMessageDialog(this.frame, e1.getMessage());
                 }
-                fillManifestTable(this.manifestTable);
-                fillInventoryTable(this.inventoryTable);
             }
         });
 
@@ -283,10 +315,30 @@ public class SuperMartGui {
             }
         });
 
+        // When the fleet button is pressed, open a file picker for the truck types to use
+        loadFleetButton.addActionListener(e -> {
+            JFileChooser fileChooser = new JFileChooser();
+            fileChooser.setFileFilter(new FileNameExtensionFilter("CSV Files", "csv"));
+            int returnVal = fileChooser.showOpenDialog(this.frame);
+            if (returnVal == JFileChooser.APPROVE_OPTION) {
+                File file = fileChooser.getSelectedFile();
+                try {
+                    Fleet fleet = CSV.loadFleet(file);
+                    JOptionPane.showMessageDialog(this.frame, "Loaded " + fleet.getTypes().size() + " truck types");
+                } catch (IOException e1) {
+                    JOptionPane.showMessageDialog(this.frame, "Failed to load the file: " + e1.getMessage());
+                    e1.printStackTrace();
+                } catch (CSVFormatException e1) {
+                    JOptionPane.showMessageDialog(this.frame, e1.getMessage());
+                }
+            }
+        });
+
         // Add the buttons in a panel so that they're in line
         JPanel buttonPanel = new JPanel();
         buttonPanel.add(this.loadManifestButton);
         buttonPanel.add(this.saveManifestButton);
+        buttonPanel.add(loadFleetButton);
         manifestPane.add(buttonPanel);
 
         return manifestPane;
@@ -300,16 +352,22 @@ public class SuperMartGui {
     private void optimiseManifests() throws DeliveryException {
         // Create a stock from the items that need restocking
         Stock.Builder stockBuilder = SuperMartApplication.getInstance().getStockBuilder();
-        StoreImpl.getInstance().getInventory().getStockedItemQuantities().stream()
-                .filter(pair -> pair.getRight() <= pair.getLeft().getReorderPoint())
-                .forEach(pair -> stockBuilder.addStockedItem(pair.getLeft(), pair.getLeft().getReorderAmount()));
-
-        // Set the manifest to the optimised manifest
-        StoreImpl.getInstance().setManifest(new ManifestOptimiser(stockBuilder.build()).getManifest(), false);
-
-        // Update the tables
+        StoreSnapshot snapshot = StoreImpl.getInstance().getSnapshot();
+        // The store keeps the items at or below their reorder point indexed, so no scan is needed
+        snapshot.getReorderIndex().getItems()
+                .forEach(item -> stockBuilder.addStockedItem(item, item.getReorderAmount()));
+
+        // Set the manifest to the optimised manifest, ordering cold items with the store's temperature index
+        try {
+            StoreImpl.getInstance().setManifest(new ManifestOptimiser(stockBuilder.build(), snapshot.getTemperatureIndex())
+                    .getManifest(), false);
+        } catch (IllegalStateException e) {
+            // The fleet can't carry the cargo
+            throw new DeliveryException(e.getMessage());
+        }
+
+        // The manifest table is refreshed by the store listener
         this.manifestPaneTitle.setText("Generated Manifest");
-        fillManifestTable(this.manifestTable);
     }
 
     /**
@@ -0,0 +1,237 @@
+package com.me4502.supermart.store;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The difference between the stockable items of a {@link StoreSnapshot} and a new set of item properties.
+ * This class is immutable.
+ *
+ * Only items that are new or have changed properties are part of the diff, so applying it only touches
+ * those items, and only their valuations and restock needs are recalculated.
+ *
+ * @author Madeline Miller
+ */
+public final class CatalogueDiff {
+
+    private final ImmutableList<Item> addedItems;
+    private final ImmutableList<Change> changes;
+    private final int unchangedCount;
+
+    private CatalogueDiff(ImmutableList<Item> addedItems, ImmutableList<Change> changes, int unchangedCount) {
+        this.addedItems = addedItems;
+        this.changes = changes;
+        this.unchangedCount = unchangedCount;
+    }
+
+    /**
+     * Compares new item properties against the stockable items of a snapshot.
+     *
+     * If more than one item has the same name, the first is used. Items that are in the
+     * snapshot but not in the new properties are left as they are.
+     *
+     * @param snapshot The snapshot
+     * @param items The new item properties
+     * @return The diff
+     */
+    public static CatalogueDiff compute(StoreSnapshot snapshot, Collection<Item> items) {
+        ImmutableList.Builder<Item> addedItems = ImmutableList.builder();
+        ImmutableList.Builder<Change> changes = ImmutableList.builder();
+        Set<String> seen = new HashSet<>();
+        int unchangedCount = 0;
+        for (Item item : items) {
+            if (!seen.add(item.getName())) {
+                continue;
+            }
+            Item previous = snapshot.getItem(item.getName()).orElse(null);
+            if (previous == null) {
+                addedItems.add(item);
+            } else if (hasSameProperties(previous, item)) {
+                unchangedCount++;
+            } else {
+                changes.add(new Change(previous, item, snapshot.getInventory().getItemQuantity(previous).orElse(0)));
+            }
+        }
+        return new CatalogueDiff(addedItems.build(), changes.build(), unchangedCount);
+    }
+
+    /**
+     * Checks if two items have the same properties.
+     *
+     * @param first The first item
+     * @param second The second item
+     * @return If every property is equal
+     */
+    public static boolean hasSameProperties(Item first, Item second) {
+        return first.getName().equals(second.getName())
+                && Double.compare(first.getManufacturingCost(), second.getManufacturingCost()) == 0
+                && Double.compare(first.getSellPrice(), second.getSellPrice()) == 0
+                && first.getReorderPoint() == second.getReorderPoint()
+                && first.getReorderAmount() == second.getReorderAmount()
+                && Objects.equals(first.getIdealTemperature(), second.getIdealTemperature());
+    }
+
+    /**
+     * Applies this diff to a snapshot, creating the next version. Changed items replace the previous
+     * item in the catalogue and the inventory, keeping their quantity, and added items are added with
+     * zero quantity.
+     *
+     * @param snapshot The snapshot, which should be the one the diff was computed from
+     * @return The new snapshot
+     */
+    public StoreSnapshot apply(StoreSnapshot snapshot) {
+        ImmutableList.Builder<Item> replacements = ImmutableList.builder();
+        for (Change change : this.changes) {
+            replacements.add(change.getCurrent());
+        }
+        return snapshot.withReplacedItems(replacements.build()).withNewItems(this.addedItems);
+    }
+
+    /**
+     * Gets the items that weren't stockable before.
+     *
+     * @return The added items
+     */
+    public ImmutableList<Item> getAddedItems() {
+        return this.addedItems;
+    }
+
+    /**
+     * Gets the items whose properties changed.
+     *
+     * @return The changes
+     */
+    public ImmutableList<Change> getChanges() {
+        return this.changes;
+    }
+
+    /**
+     * Gets the number of items whose properties are unchanged.
+     *
+     * @return The number of unchanged items
+     */
+    public int getUnchangedCount() {
+        return this.unchangedCount;
+    }
+
+    /**
+     * Checks if the diff has no added or changed items.
+     *
+     * @return If the diff is empty
+     */
+    public boolean isEmpty() {
+        return this.addedItems.isEmpty() && this.changes.isEmpty();
+    }
+
+    /**
+     * Gets the change in the manufacturing cost of the inventory across every changed item.
+     *
+     * @return The change in cost value
+     */
+    public double getCostValueChange() {
+        return this.changes.stream().mapToDouble(Change::getCostValueChange).sum();
+    }
+
+    /**
+     * Gets the change in the sell value of the inventory across every changed item.
+     *
+     * @return The change in sell value
+     */
+    public double getSellValueChange() {
+        return this.changes.stream().mapToDouble(Change::getSellValueChange).sum();
+    }
+
+    /**
+     * A change to the properties of a stocked item.
+     */
+    public static final class Change {
+
+        private final Item previous;
+        private final Item current;
+        private final int quantity;
+
+        private Change(Item previous, Item current, int quantity) {
+            this.previous = previous;
+            this.current = current;
+            this.quantity = quantity;
+        }
+
+        /**
+         * Gets the item as it was.
+         *
+         * @return The previous item
+         */
+        public Item getPrevious() {
+            return this.previous;
+        }
+
+        /**
+         * Gets the item with its new properties.
+         *
+         * @return The current item
+         */
+        public Item getCurrent() {
+            return this.current;
+        }
+
+        /**
+         * Gets the quantity of the item in the inventory.
+         *
+         * @return The quantity
+         */
+        public int getQuantity() {
+            return this.quantity;
+        }
+
+        /**
+         * Gets the change in the manufacturing cost of the stocked quantity.
+         *
+         * @return The change in cost value
+         */
+        public double getCostValueChange() {
+            return (this.current.getManufacturingCost() - this.previous.getManufacturingCost()) * this.quantity;
+        }
+
+        /**
+         * Gets the change in the sell value of the stocked quantity.
+         *
+         * @return The change in sell value
+         */
+        public double getSellValueChange() {
+            return (this.current.getSellPrice() - this.previous.getSellPrice()) * this.quantity;
+        }
+
+        /**
+         * Checks if the stocked quantity is at or below the new reorder point.
+         *
+         * @return If the item needs restocking
+         */
+        public boolean isRestockNeeded() {
+            return this.quantity <= this.current.getReorderPoint();
+        }
+
+        /**
+         * Checks if the item needs restocking with the new properties, but didn't with the previous ones,
+         * or the other way around.
+         *
+         * @return If the restock need changed
+         */
+        public boolean isRestockChanged() {
+            return isRestockNeeded() != (this.quantity <= this.previous.getReorderPoint())
+                    || isRestockNeeded() && this.current.getReorderAmount() != this.previous.getReorderAmount();
+        }
+
+        /**
+         * Gets the amount to reorder with the new properties, or zero if no restock is needed.
+         *
+         * @return The restock amount
+         */
+        public int getRestockAmount() {
+            return isRestockNeeded() ? this.current.getReorderAmount() : 0;
+        }
+    }
+}
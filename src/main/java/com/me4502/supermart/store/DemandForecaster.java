@@ -0,0 +1,101 @@
+package com.me4502.supermart.store;
+
+import com.me4502.supermart.SuperMartApplication;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Forecasts the demand for items from their {@link SalesHistory} using simple
+ * exponential smoothing, and generates restock orders to cover that demand.
+ *
+ * @author Madeline Miller
+ */
+public class DemandForecaster {
+
+    private SalesHistory history;
+    private double smoothing;
+
+    /**
+     * Creates a forecaster over the given history.
+     *
+     * @param history The sales history
+     * @param smoothing The smoothing factor, between 0 (exclusive) and 1 (inclusive)
+     */
+    public DemandForecaster(SalesHistory history, double smoothing) {
+        if (history == null) {
+            throw new IllegalArgumentException("History can't be null");
+        }
+        if (smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("Smoothing must be between 0 and 1");
+        }
+        this.history = history;
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Forecasts the demand of every item in the history for a single period.
+     *
+     * @return The forecast demand, indexed by item id
+     */
+    public double[] getDemandForecast() {
+        int[][] columns = this.history.getColumns();
+        double[] level = new double[columns.length == 0 ? 0 : columns[columns.length - 1].length];
+
+        // Ids are assigned in order, so items that are new in a period are always at the end of its column
+        int known = 0;
+        for (int[] column : columns) {
+            // Smooth the items already seen
+            for (int id = 0; id < known; id++) {
+                level[id] += this.smoothing * (column[id] - level[id]);
+            }
+            // Start new items at their first observation
+            for (int id = known; id < column.length; id++) {
+                level[id] = column[id];
+            }
+            known = column.length;
+        }
+        return level;
+    }
+
+    /**
+     * Generates a restock order that covers the forecast demand for a number of periods.
+     *
+     * An item is reordered when its quantity, less the forecast demand, is at or below
+     * its reorder point. It is then ordered in multiples of its reorder amount, until
+     * the projected quantity is back above the reorder point.
+     *
+     * @param inventory The current inventory
+     * @param periods The number of periods to cover, at least 1
+     * @return The restock order
+     * @throws IllegalArgumentException If the number of periods isn't positive
+     */
+    public Stock getRestock(Stock inventory, int periods) {
+        if (periods <= 0) {
+            throw new IllegalArgumentException("Periods must be positive");
+        }
+        double[] demand = getDemandForecast();
+        Map<String, Integer> ids = new HashMap<>();
+        for (int id = 0; id < demand.length; id++) {
+            ids.put(this.history.getItem(id).getName(), id);
+        }
+
+        Stock.Builder stockBuilder = SuperMartApplication.getInstance().getStockBuilder();
+        for (ImmutablePair<Item, Integer> pair : inventory.getStockedItemQuantities()) {
+            Item item = pair.getLeft();
+            if (item.getReorderAmount() == 0) {
+                continue;
+            }
+            Integer id = ids.get(item.getName());
+            long forecast = id == null ? 0 : (long) Math.ceil(demand[id] * periods);
+            long projected = pair.getRight() - forecast;
+            if (projected <= item.getReorderPoint()) {
+                // Order enough lots to finish above the reorder point, which is always at least one
+                long lots = (item.getReorderPoint() - projected) / item.getReorderAmount() + 1;
+                stockBuilder.addStockedItem(item, (int) Math.min(Integer.MAX_VALUE, lots * item.getReorderAmount()));
+            }
+        }
+        return stockBuilder.build();
+    }
+}
@@ -1,5 +1,9 @@
 package com.me4502.supermart.store;
 
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.truck.Fleet;
+
+import java.util.Optional;
 import java.util.OptionalDouble;
 
 /**
@@ -138,13 +142,12 @@ public class ItemImpl implements Item {
 
         @Override
         public Builder idealTemperature(double idealTemperature) {
-            // Items can't be stored below -20 degrees
-            if (idealTemperature < -20) {
-                throw new IllegalArgumentException("Items under 20 deg Celsius can't be stored in a truck");
-            }
-            // Items above 10 degrees are dry goods
-            if (idealTemperature > 10) {
-                throw new IllegalArgumentException("Items over 10 deg Celsius are considered dry goods");
+            // Items must be within the range of the temperature-controlled trucks
+            SuperMartApplication application = SuperMartApplication.getInstance();
+            Fleet fleet = application != null ? application.getFleet() : Fleet.getDefault();
+            Optional<String> problem = fleet.checkTemperature(idealTemperature);
+            if (problem.isPresent()) {
+                throw new IllegalArgumentException(problem.get());
             }
             this.idealTemperature = OptionalDouble.of(idealTemperature);
             return this;
@@ -0,0 +1,474 @@
+package com.me4502.supermart.store;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+
+/**
+ * A catalogue of items and their quantities, stored outside of the heap.
+ *
+ * Every item is a fixed-width record in a direct {@link ByteBuffer}, keyed by a dense
+ * item id. Names are stored in separate direct buffers, and the name lookup table is an
+ * open-addressed hash table that is also held outside of the heap. {@link Item} and
+ * {@link Stock} instances handed out by this class are flyweight views over the records,
+ * so very large catalogues don't create any per-item objects that the garbage collector
+ * has to trace.
+ *
+ * Unlike other {@link Stock} implementations, the view returned by {@link #asStock()}
+ * reflects later changes to quantities. This class is not thread safe for writers.
+ *
+ * The {@link Store} doesn't use this class, and keeps its inventory on the heap. It is
+ * meant for tools that have to load catalogues too large for the heap.
+ *
+ * @author Madeline Miller
+ */
+public class OffHeapCatalogue {
+
+    // Record layout, in bytes
+    private static final int MANUFACTURING_COST = 0;
+    private static final int SELL_PRICE = 8;
+    private static final int IDEAL_TEMPERATURE = 16;
+    private static final int REORDER_POINT = 24;
+    private static final int REORDER_AMOUNT = 28;
+    private static final int QUANTITY = 32;
+    private static final int NAME_PAGE = 36;
+    private static final int NAME_OFFSET = 40;
+    private static final int NAME_LENGTH = 44;
+    private static final int RECORD_SIZE = 48;
+
+    // Records are split into pages, so that the catalogue isn't limited to a single 2GB buffer
+    private static final int RECORD_PAGE_SHIFT = 16;
+    private static final int RECORDS_PER_PAGE = 1 << RECORD_PAGE_SHIFT;
+    private static final int NAME_PAGE_SIZE = 1 << 22;
+
+    // The lookup table is a single buffer of int slots, so it can't be larger than 2GB
+    private static final int MAX_SLOTS = 1 << 29;
+    private static final int MAX_ITEMS = MAX_SLOTS / 2;
+
+    private List<ByteBuffer> recordPages = new ArrayList<>();
+    private List<ByteBuffer> namePages = new ArrayList<>();
+    private ByteBuffer index;
+    private int indexMask;
+    private int size;
+
+    /**
+     * Creates an empty catalogue.
+     *
+     * @param expectedItems The number of items expected, used to size the lookup table
+     */
+    public OffHeapCatalogue(int expectedItems) {
+        if (expectedItems < 0) {
+            throw new IllegalArgumentException("Expected items can't be negative");
+        }
+        if (expectedItems > MAX_ITEMS) {
+            throw new IllegalArgumentException("Expected items can't be more than " + MAX_ITEMS);
+        }
+        // Keep the lookup table at most half full
+        int slots = (int) Long.highestOneBit(Math.max(16, expectedItems) * 2L - 1) << 1;
+        this.index = ByteBuffer.allocateDirect(slots * 4);
+        this.indexMask = slots - 1;
+        this.namePages.add(ByteBuffer.allocateDirect(NAME_PAGE_SIZE));
+    }
+
+    /**
+     * Adds an item to the catalogue with a quantity.
+     *
+     * If an item with the same name is already present, the existing entry is kept,
+     * as {@link Store#addItem(Item)} does.
+     *
+     * @param item The item
+     * @param quantity The quantity
+     * @return The id of the item
+     * @throws IllegalStateException If the catalogue is full
+     */
+    public int add(Item item, int quantity) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Cannot create an item with a negative quantity");
+        }
+        byte[] name = item.getName().getBytes(StandardCharsets.UTF_8);
+        int slot = findSlot(name);
+        if (this.index.getInt(slot * 4) != 0) {
+            return this.index.getInt(slot * 4) - 1;
+        }
+        if (this.size == MAX_ITEMS) {
+            throw new IllegalStateException("Catalogue can't hold more than " + MAX_ITEMS + " items");
+        }
+
+        int id = this.size++;
+        if ((id >>> RECORD_PAGE_SHIFT) == this.recordPages.size()) {
+            this.recordPages.add(ByteBuffer.allocateDirect(RECORDS_PER_PAGE * RECORD_SIZE));
+        }
+        ByteBuffer page = getRecordPage(id);
+        int record = getRecordOffset(id);
+        page.putDouble(record + MANUFACTURING_COST, item.getManufacturingCost());
+        page.putDouble(record + SELL_PRICE, item.getSellPrice());
+        page.putDouble(record + IDEAL_TEMPERATURE, item.getIdealTemperature().orElse(Double.NaN));
+        page.putInt(record + REORDER_POINT, item.getReorderPoint());
+        page.putInt(record + REORDER_AMOUNT, item.getReorderAmount());
+        page.putInt(record + QUANTITY, quantity);
+        writeName(page, record, name);
+
+        this.index.putInt(slot * 4, id + 1);
+        if (this.size * 2 > this.indexMask + 1) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Copies a name into the name pages, and points the record at it.
+     *
+     * @param page The record page
+     * @param record The record offset
+     * @param name The encoded name
+     */
+    private void writeName(ByteBuffer page, int record, byte[] name) {
+        if (name.length > NAME_PAGE_SIZE) {
+            throw new IllegalArgumentException("Name is too long");
+        }
+        ByteBuffer names = this.namePages.get(this.namePages.size() - 1);
+        if (names.remaining() < name.length) {
+            names = ByteBuffer.allocateDirect(NAME_PAGE_SIZE);
+            this.namePages.add(names);
+        }
+        page.putInt(record + NAME_PAGE, this.namePages.size() - 1);
+        page.putInt(record + NAME_OFFSET, names.position());
+        page.putInt(record + NAME_LENGTH, name.length);
+        names.put(name);
+    }
+
+    /**
+     * Finds the lookup table slot for a name, which is either the slot
+     * holding that name or the empty slot it would be placed in.
+     *
+     * @param name The encoded name
+     * @return The slot
+     */
+    private int findSlot(byte[] name) {
+        int slot = hash(name) & this.indexMask;
+        while (true) {
+            int entry = this.index.getInt(slot * 4);
+            if (entry == 0 || nameEquals(entry - 1, name)) {
+                return slot;
+            }
+            slot = (slot + 1) & this.indexMask;
+        }
+    }
+
+    /**
+     * Doubles the size of the lookup table. The catalogue is limited to half of
+     * {@link #MAX_SLOTS} items, so this never grows the table past that.
+     */
+    private void rehash() {
+        int slots = (this.indexMask + 1) * 2;
+        this.index = ByteBuffer.allocateDirect(slots * 4);
+        this.indexMask = slots - 1;
+        for (int id = 0; id < this.size; id++) {
+            int slot = hash(readNameBytes(id)) & this.indexMask;
+            while (this.index.getInt(slot * 4) != 0) {
+                slot = (slot + 1) & this.indexMask;
+            }
+            this.index.putInt(slot * 4, id + 1);
+        }
+    }
+
+    /**
+     * Hashes an encoded name.
+     *
+     * @param name The encoded name
+     * @return The hash
+     */
+    private static int hash(byte[] name) {
+        int hash = 0;
+        for (byte b : name) {
+            hash = 31 * hash + b;
+        }
+        // Spread the bits, as the table is indexed by the low bits
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Compares the name of a record against an encoded name, without decoding it.
+     *
+     * @param id The item id
+     * @param name The encoded name
+     * @return If the names are equal
+     */
+    private boolean nameEquals(int id, byte[] name) {
+        ByteBuffer page = getRecordPage(id);
+        int record = getRecordOffset(id);
+        if (page.getInt(record + NAME_LENGTH) != name.length) {
+            return false;
+        }
+        ByteBuffer names = this.namePages.get(page.getInt(record + NAME_PAGE));
+        int offset = page.getInt(record + NAME_OFFSET);
+        for (int i = 0; i < name.length; i++) {
+            if (names.get(offset + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the encoded name of a record.
+     *
+     * @param id The item id
+     * @return The encoded name
+     */
+    private byte[] readNameBytes(int id) {
+        ByteBuffer page = getRecordPage(id);
+        int record = getRecordOffset(id);
+        ByteBuffer names = this.namePages.get(page.getInt(record + NAME_PAGE)).duplicate();
+        names.position(page.getInt(record + NAME_OFFSET));
+        byte[] name = new byte[page.getInt(record + NAME_LENGTH)];
+        names.get(name);
+        return name;
+    }
+
+    /**
+     * Gets the page holding a record.
+     *
+     * @param id The item id
+     * @return The page
+     */
+    private ByteBuffer getRecordPage(int id) {
+        return this.recordPages.get(id >>> RECORD_PAGE_SHIFT);
+    }
+
+    /**
+     * Gets the offset of a record within its page.
+     *
+     * @param id The item id
+     * @return The offset
+     */
+    private static int getRecordOffset(int id) {
+        return (id & (RECORDS_PER_PAGE - 1)) * RECORD_SIZE;
+    }
+
+    /**
+     * Checks that an item id is in the catalogue.
+     *
+     * @param id The item id
+     */
+    private void checkId(int id) {
+        if (id < 0 || id >= this.size) {
+            throw new IllegalArgumentException("Unknown item id " + id);
+        }
+    }
+
+    /**
+     * Gets the id of an item by name, if present.
+     *
+     * @param name The item name
+     * @return The item id, if present
+     */
+    public OptionalInt getId(String name) {
+        int entry = this.index.getInt(findSlot(name.getBytes(StandardCharsets.UTF_8)) * 4);
+        return entry == 0 ? OptionalInt.empty() : OptionalInt.of(entry - 1);
+    }
+
+    /**
+     * Gets a view of the item with the given id.
+     *
+     * @param id The item id
+     * @return The item view
+     */
+    public Item getItem(int id) {
+        checkId(id);
+        return new ItemView(this, id);
+    }
+
+    /**
+     * Gets the quantity of the item with the given id.
+     *
+     * @param id The item id
+     * @return The quantity
+     */
+    public int getQuantity(int id) {
+        checkId(id);
+        return getRecordPage(id).getInt(getRecordOffset(id) + QUANTITY);
+    }
+
+    /**
+     * Changes the quantity of the item with the given id.
+     *
+     * @param id The item id
+     * @param delta The amount to add, or remove if negative
+     * @throws IllegalArgumentException If the quantity would become negative, or too large for an int
+     */
+    public void addQuantity(int id, int delta) {
+        int quantity = getQuantity(id);
+        if (delta < 0 && quantity < -(long) delta) {
+            throw new IllegalArgumentException("Cannot sell this many items");
+        }
+        if (delta > 0 && quantity > Integer.MAX_VALUE - delta) {
+            throw new IllegalArgumentException("Cannot stock this many items");
+        }
+        getRecordPage(id).putInt(getRecordOffset(id) + QUANTITY, quantity + delta);
+    }
+
+    /**
+     * Gets the number of items in the catalogue.
+     *
+     * @return The number of items
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets a {@link Stock} view of the catalogue.
+     *
+     * @return The stock view
+     */
+    public Stock asStock() {
+        return new StockView(this);
+    }
+
+    /**
+     * A flyweight {@link Item} over a record of the catalogue.
+     */
+    private static final class ItemView implements Item {
+
+        private final OffHeapCatalogue catalogue;
+        private final int id;
+
+        /**
+         * Creates a view of a record.
+         *
+         * @param catalogue The catalogue
+         * @param id The item id
+         */
+        private ItemView(OffHeapCatalogue catalogue, int id) {
+            this.catalogue = catalogue;
+            this.id = id;
+        }
+
+        /**
+         * Gets the page holding this record.
+         *
+         * @return The page
+         */
+        private ByteBuffer page() {
+            return this.catalogue.getRecordPage(this.id);
+        }
+
+        /**
+         * Gets the offset of this record within its page.
+         *
+         * @return The offset
+         */
+        private int record() {
+            return getRecordOffset(this.id);
+        }
+
+        @Override
+        public String getName() {
+            return new String(this.catalogue.readNameBytes(this.id), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public double getManufacturingCost() {
+            return page().getDouble(record() + MANUFACTURING_COST);
+        }
+
+        @Override
+        public double getSellPrice() {
+            return page().getDouble(record() + SELL_PRICE);
+        }
+
+        @Override
+        public int getReorderPoint() {
+            return page().getInt(record() + REORDER_POINT);
+        }
+
+        @Override
+        public int getReorderAmount() {
+            return page().getInt(record() + REORDER_AMOUNT);
+        }
+
+        @Override
+        public boolean isTemperatureControlled() {
+            return !Double.isNaN(page().getDouble(record() + IDEAL_TEMPERATURE));
+        }
+
+        @Override
+        public OptionalDouble getIdealTemperature() {
+            double temperature = page().getDouble(record() + IDEAL_TEMPERATURE);
+            return Double.isNaN(temperature) ? OptionalDouble.empty() : OptionalDouble.of(temperature);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            // Views of the same record are the same item
+            return other instanceof ItemView && ((ItemView) other).catalogue == this.catalogue && ((ItemView) other).id == this.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(this.catalogue) + this.id;
+        }
+    }
+
+    /**
+     * A {@link Stock} view over every record of the catalogue.
+     */
+    private static final class StockView implements Stock {
+
+        private final OffHeapCatalogue catalogue;
+
+        /**
+         * Creates a view of the catalogue.
+         *
+         * @param catalogue The catalogue
+         */
+        private StockView(OffHeapCatalogue catalogue) {
+            this.catalogue = catalogue;
+        }
+
+        @Override
+        public ImmutableSet<Item> getStockedItems() {
+            // This has to create a view for every record, so is only meant for small catalogues
+            ImmutableSet.Builder<Item> items = ImmutableSet.builder();
+            for (int id = 0; id < this.catalogue.size(); id++) {
+                items.add(new ItemView(this.catalogue, id));
+            }
+            return items.build();
+        }
+
+        @Override
+        public ImmutableSet<ImmutablePair<Item, Integer>> getStockedItemQuantities() {
+            // This has to create a view for every record, so is only meant for small catalogues
+            ImmutableSet.Builder<ImmutablePair<Item, Integer>> pairs = ImmutableSet.builder();
+            for (int id = 0; id < this.catalogue.size(); id++) {
+                pairs.add(ImmutablePair.of(new ItemView(this.catalogue, id), this.catalogue.getQuantity(id)));
+            }
+            return pairs.build();
+        }
+
+        @Override
+        public OptionalInt getItemQuantity(Item item) {
+            OptionalInt id = this.catalogue.getId(item.getName());
+            return id.isPresent() ? OptionalInt.of(this.catalogue.getQuantity(id.getAsInt())) : OptionalInt.empty();
+        }
+
+        @Override
+        public int getTotalAmount() {
+            int totalAmount = 0;
+            for (int id = 0; id < this.catalogue.size(); id++) {
+                totalAmount += this.catalogue.getQuantity(id);
+            }
+            return totalAmount;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.me4502.supermart.store;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * A persistent set of stockable items, keyed by name. This class is immutable.
+ *
+ * The items are held in the hash array mapped trie of a {@link PersistentStock}, with no
+ * quantities. Adding or replacing an item creates a new version that shares every unchanged
+ * node with the previous version, so it costs O(log n) rather than a copy of the catalogue.
+ *
+ * @author Madeline Miller
+ */
+public final class PersistentCatalogue {
+
+    private static final PersistentCatalogue EMPTY = new PersistentCatalogue(PersistentStock.empty());
+
+    private final PersistentStock items;
+
+    private PersistentCatalogue(PersistentStock items) {
+        this.items = items;
+    }
+
+    /**
+     * Gets the empty catalogue.
+     *
+     * @return The empty catalogue
+     */
+    public static PersistentCatalogue empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Gets an item by name, if present.
+     *
+     * @param name The item name
+     * @return The item, if present
+     */
+    public Optional<Item> get(String name) {
+        return this.items.getItem(name);
+    }
+
+    /**
+     * Checks if an item with a name is present.
+     *
+     * @param name The item name
+     * @return If the item is present
+     */
+    public boolean contains(String name) {
+        return this.items.getItem(name).isPresent();
+    }
+
+    /**
+     * Creates a new version of this catalogue with an item added, or replacing the item with the same name.
+     *
+     * @param item The item
+     * @return The new version of the catalogue
+     */
+    public PersistentCatalogue with(Item item) {
+        // Adding nothing stores the given instance, whether or not the name was present
+        return new PersistentCatalogue(this.items.withQuantity(item, 0));
+    }
+
+    /**
+     * Creates a new version of this catalogue with the item of a name removed.
+     *
+     * @param name The item name
+     * @return The new version of the catalogue, or this catalogue if the item isn't present
+     */
+    public PersistentCatalogue without(String name) {
+        Optional<Item> item = this.items.getItem(name);
+        return item.isPresent() ? new PersistentCatalogue(this.items.withoutItem(item.get())) : this;
+    }
+
+    /**
+     * Gets the number of items in this catalogue.
+     *
+     * @return The number of items
+     */
+    public int size() {
+        return this.items.size();
+    }
+
+    /**
+     * Gets the items in this catalogue.
+     *
+     * @return An immutable set of items
+     */
+    public ImmutableSet<Item> getItems() {
+        return this.items.getStockedItems();
+    }
+
+    /**
+     * Calls the consumer with every item, without creating the set view.
+     *
+     * @param consumer The consumer
+     */
+    public void forEach(Consumer<Item> consumer) {
+        this.items.forEachQuantity(pair -> consumer.accept(pair.getLeft()));
+    }
+}
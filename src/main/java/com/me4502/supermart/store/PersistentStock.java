@@ -0,0 +1,569 @@
+package com.me4502.supermart.store;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+
+/**
+ * A persistent implementation of {@link Stock}, backed by a hash array mapped trie keyed by item name.
+ *
+ * Changing a quantity creates a new version of the stock that shares every unchanged
+ * node with the previous version, so an update costs O(log n) rather than a copy of the
+ * whole stock, and previous versions remain valid for anything still reading them.
+ *
+ * @author Madeline Miller
+ */
+public final class PersistentStock implements Stock {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MAX_SHIFT = 30;
+
+    private static final PersistentStock EMPTY = new PersistentStock(new BranchNode(0, new Object[0]), 0, 0);
+
+    private final Node root;
+    private final int size;
+    private final int totalAmount;
+
+    // Lazily created views, which are only needed by callers of the Stock interface
+    private volatile ImmutableSet<ImmutablePair<Item, Integer>> pairSet;
+    private volatile ImmutableSet<Item> itemSet;
+
+    /**
+     * Creates a version of the stock.
+     *
+     * @param root The root node
+     * @param size The number of items
+     * @param totalAmount The total quantity of all items
+     */
+    private PersistentStock(Node root, int size, int totalAmount) {
+        this.root = root;
+        this.size = size;
+        this.totalAmount = totalAmount;
+    }
+
+    /**
+     * Gets the empty stock.
+     *
+     * @return The empty stock
+     */
+    public static PersistentStock empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Gets a persistent copy of a stock. If the stock is already persistent, it is returned as is.
+     *
+     * @param stock The stock to copy
+     * @return The persistent stock
+     */
+    public static PersistentStock copyOf(Stock stock) {
+        if (stock instanceof PersistentStock) {
+            return (PersistentStock) stock;
+        }
+        PersistentStock copy = EMPTY;
+        for (ImmutablePair<Item, Integer> pair : stock.getStockedItemQuantities()) {
+            copy = copy.withQuantity(pair.getLeft(), pair.getRight());
+        }
+        return copy;
+    }
+
+    /**
+     * Creates a new version of this stock with the quantity of an item changed.
+     *
+     * This follows the same rules as {@link Stock.Builder#addStockedItem(Item, int)}. If the item
+     * is already stocked, the quantity is added to it, and the stocked instance of the item is
+     * replaced by the given one. Otherwise, it is added with the quantity.
+     *
+     * @param item The item
+     * @param quantity The quantity to add, or remove if negative
+     * @return The new version of the stock
+     * @throws IllegalArgumentException If the item is null, or the quantity would become negative
+     */
+    public PersistentStock withQuantity(Item item, int quantity) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        String name = item.getName();
+        int hash = hash(name);
+        Entry existing = this.root.find(hash, name, 0);
+        if (existing == null) {
+            if (quantity < 0) {
+                throw new IllegalArgumentException("Cannot create an item with a negative quantity");
+            }
+            return new PersistentStock(this.root.put(new Entry(item, quantity, hash), 0), this.size + 1,
+                    this.totalAmount + quantity);
+        }
+        if (quantity < 0 && existing.quantity < -quantity) {
+            throw new IllegalArgumentException("Cannot sell this many items");
+        }
+        return new PersistentStock(this.root.put(new Entry(item, existing.quantity + quantity, hash), 0), this.size,
+                this.totalAmount + quantity);
+    }
+
+    /**
+     * Creates a new version of this stock with an item removed entirely.
+     *
+     * @param item The item
+     * @return The new version of the stock, or this stock if the item isn't stocked
+     */
+    public PersistentStock withoutItem(Item item) {
+        String name = item.getName();
+        int hash = hash(name);
+        Entry existing = this.root.find(hash, name, 0);
+        if (existing == null) {
+            return this;
+        }
+        Node root = this.root.remove(hash, name, 0);
+        return new PersistentStock(root == null ? EMPTY.root : root, this.size - 1, this.totalAmount - existing.quantity);
+    }
+
+    /**
+     * Creates a new version of this stock with every quantity in another stock added.
+     *
+     * @param delta The stock to add
+     * @return The new version of the stock
+     */
+    public PersistentStock withStock(Stock delta) {
+        PersistentStock stock = this;
+        for (ImmutablePair<Item, Integer> pair : delta.getStockedItemQuantities()) {
+            stock = stock.withQuantity(pair.getLeft(), pair.getRight());
+        }
+        return stock;
+    }
+
+    /**
+     * Creates a new version of this stock with every quantity in another stock removed.
+     *
+     * @param delta The stock to remove
+     * @return The new version of the stock
+     */
+    public PersistentStock withoutStock(Stock delta) {
+        PersistentStock stock = this;
+        for (ImmutablePair<Item, Integer> pair : delta.getStockedItemQuantities()) {
+            stock = stock.withQuantity(pair.getLeft(), -pair.getRight());
+        }
+        return stock;
+    }
+
+    /**
+     * Gets the number of items in this stock.
+     *
+     * @return The number of items
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the stocked instance of an item by name, if present.
+     *
+     * @param name The item name
+     * @return The item, if present
+     */
+    public Optional<Item> getItem(String name) {
+        Entry entry = this.root.find(hash(name), name, 0);
+        return entry == null ? Optional.empty() : Optional.of(entry.item);
+    }
+
+    /**
+     * Calls the consumer with every item and its quantity, without creating the set views.
+     *
+     * @param consumer The consumer
+     */
+    public void forEachQuantity(Consumer<ImmutablePair<Item, Integer>> consumer) {
+        this.root.forEach(entry -> consumer.accept(ImmutablePair.of(entry.item, entry.quantity)));
+    }
+
+    /**
+     * Calls the consumer with every item whose entry differs from an earlier version of this stock.
+     *
+     * Parts of the trie shared by both versions are skipped without being visited, so comparing
+     * a version with the one it was derived from costs time in proportion to the number of changes.
+     * An item is reported if its quantity or its stocked instance changed.
+     *
+     * @param previous The earlier version
+     * @param consumer The consumer
+     */
+    public void forEachChange(PersistentStock previous, ChangeConsumer consumer) {
+        diff(this.root, previous.root, consumer);
+    }
+
+    @Override
+    public ImmutableSet<Item> getStockedItems() {
+        ImmutableSet<Item> items = this.itemSet;
+        if (items == null) {
+            ImmutableSet.Builder<Item> builder = ImmutableSet.builderWithExpectedSize(this.size);
+            this.root.forEach(entry -> builder.add(entry.item));
+            items = this.itemSet = builder.build();
+        }
+        return items;
+    }
+
+    @Override
+    public ImmutableSet<ImmutablePair<Item, Integer>> getStockedItemQuantities() {
+        ImmutableSet<ImmutablePair<Item, Integer>> pairs = this.pairSet;
+        if (pairs == null) {
+            ImmutableSet.Builder<ImmutablePair<Item, Integer>> builder = ImmutableSet.builderWithExpectedSize(this.size);
+            forEachQuantity(builder::add);
+            pairs = this.pairSet = builder.build();
+        }
+        return pairs;
+    }
+
+    @Override
+    public OptionalInt getItemQuantity(Item item) {
+        Entry entry = this.root.find(hash(item.getName()), item.getName(), 0);
+        return entry == null ? OptionalInt.empty() : OptionalInt.of(entry.quantity);
+    }
+
+    @Override
+    public int getTotalAmount() {
+        return this.totalAmount;
+    }
+
+    /**
+     * Reports the changed entries between two children at the same position of the trie.
+     *
+     * @param current The child in the current version, which is an entry, a node or null
+     * @param previous The child in the previous version, which is an entry, a node or null
+     * @param consumer The consumer
+     */
+    private static void diff(Object current, Object previous, ChangeConsumer consumer) {
+        if (current == previous) {
+            return;
+        }
+        if (current instanceof BranchNode && previous instanceof BranchNode) {
+            BranchNode currentNode = (BranchNode) current;
+            BranchNode previousNode = (BranchNode) previous;
+            // Visit each occupied position of either node, from the lowest bit
+            int bits = currentNode.bitmap | previousNode.bitmap;
+            while (bits != 0) {
+                int bit = bits & -bits;
+                bits &= bits - 1;
+                diff(currentNode.child(bit), previousNode.child(bit), consumer);
+            }
+            return;
+        }
+        // The shapes differ, so compare the few entries below this position by name
+        Map<String, Entry> previousEntries = new HashMap<>();
+        forEachEntry(previous, entry -> previousEntries.put(entry.name, entry));
+        forEachEntry(current, entry -> {
+            Entry previousEntry = previousEntries.remove(entry.name);
+            if (previousEntry != entry) {
+                consumer.accept(entry.item, previousEntry == null ? -1 : previousEntry.quantity, entry.quantity);
+            }
+        });
+        for (Entry previousEntry : previousEntries.values()) {
+            consumer.accept(previousEntry.item, previousEntry.quantity, -1);
+        }
+    }
+
+    /**
+     * Calls the consumer with every entry in a child of the trie.
+     *
+     * @param child An entry, a node or null
+     * @param consumer The consumer
+     */
+    private static void forEachEntry(Object child, Consumer<Entry> consumer) {
+        if (child instanceof Node) {
+            ((Node) child).forEach(consumer);
+        } else if (child != null) {
+            consumer.accept((Entry) child);
+        }
+    }
+
+    /**
+     * Hashes an item name, spreading the bits as the trie is indexed from the low bits.
+     *
+     * @param name The item name
+     * @return The hash
+     */
+    private static int hash(String name) {
+        int hash = name.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Receives the changes between two versions of a stock.
+     */
+    @FunctionalInterface
+    public interface ChangeConsumer {
+
+        /**
+         * Called for an item that changed.
+         *
+         * @param item The item, or its previous instance if it was removed
+         * @param previousQuantity The previous quantity, or -1 if it wasn't stocked
+         * @param quantity The current quantity, or -1 if it is no longer stocked
+         */
+        void accept(Item item, int previousQuantity, int quantity);
+    }
+
+    /**
+     * An item and its quantity. Entries are never modified.
+     */
+    private static final class Entry {
+
+        private final Item item;
+        private final String name;
+        private final int quantity;
+        private final int hash;
+
+        /**
+         * Creates an entry.
+         *
+         * @param item The item
+         * @param quantity The quantity
+         * @param hash The hash of the item name
+         */
+        private Entry(Item item, int quantity, int hash) {
+            this.item = item;
+            this.name = item.getName();
+            this.quantity = quantity;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * A node of the trie. Nodes are never modified, updates copy the path to the changed entry.
+     */
+    private interface Node {
+
+        /**
+         * Finds an entry by name.
+         *
+         * @param hash The hash of the name
+         * @param name The name
+         * @param shift The depth of this node, in bits
+         * @return The entry, or null if absent
+         */
+        Entry find(int hash, String name, int shift);
+
+        /**
+         * Creates a copy of this node with an entry added, or replacing the entry with the same name.
+         *
+         * @param entry The entry
+         * @param shift The depth of this node, in bits
+         * @return The new node
+         */
+        Node put(Entry entry, int shift);
+
+        /**
+         * Creates a copy of this node with the entry of a name removed.
+         *
+         * @param hash The hash of the name
+         * @param name The name
+         * @param shift The depth of this node, in bits
+         * @return The new node, this node if the name is absent, or null if the node would be empty
+         */
+        Node remove(int hash, String name, int shift);
+
+        /**
+         * Calls the consumer with every entry below this node.
+         *
+         * @param consumer The consumer
+         */
+        void forEach(Consumer<Entry> consumer);
+    }
+
+    /**
+     * A node with up to 32 children, each either an {@link Entry} or a child {@link Node},
+     * stored compactly using a bitmap of the occupied positions.
+     */
+    private static final class BranchNode implements Node {
+
+        private final int bitmap;
+        private final Object[] children;
+
+        /**
+         * Creates a branch node.
+         *
+         * @param bitmap The occupied positions
+         * @param children The children, in position order
+         */
+        private BranchNode(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        @Override
+        public Entry find(int hash, String name, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((this.bitmap & bit) == 0) {
+                return null;
+            }
+            Object child = this.children[Integer.bitCount(this.bitmap & (bit - 1))];
+            if (child instanceof Node) {
+                return ((Node) child).find(hash, name, shift + BITS);
+            }
+            Entry entry = (Entry) child;
+            return entry.name.equals(name) ? entry : null;
+        }
+
+        @Override
+        public Node put(Entry entry, int shift) {
+            int bit = 1 << ((entry.hash >>> shift) & MASK);
+            int position = Integer.bitCount(this.bitmap & (bit - 1));
+            if ((this.bitmap & bit) == 0) {
+                // Free position, insert the entry
+                Object[] children = new Object[this.children.length + 1];
+                System.arraycopy(this.children, 0, children, 0, position);
+                children[position] = entry;
+                System.arraycopy(this.children, position, children, position + 1, this.children.length - position);
+                return new BranchNode(this.bitmap | bit, children);
+            }
+
+            Object child = this.children[position];
+            Object replacement;
+            if (child instanceof Node) {
+                replacement = ((Node) child).put(entry, shift + BITS);
+            } else if (((Entry) child).name.equals(entry.name)) {
+                replacement = entry;
+            } else {
+                // Two entries share this position, so push them down a level
+                replacement = createNode((Entry) child, entry, shift + BITS);
+            }
+            Object[] children = Arrays.copyOf(this.children, this.children.length);
+            children[position] = replacement;
+            return new BranchNode(this.bitmap, children);
+        }
+
+        @Override
+        public Node remove(int hash, String name, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((this.bitmap & bit) == 0) {
+                return this;
+            }
+            int position = Integer.bitCount(this.bitmap & (bit - 1));
+            Object child = this.children[position];
+            if (child instanceof Node) {
+                Node replacement = ((Node) child).remove(hash, name, shift + BITS);
+                if (replacement == child) {
+                    return this;
+                }
+                if (replacement != null) {
+                    Object[] children = Arrays.copyOf(this.children, this.children.length);
+                    children[position] = replacement;
+                    return new BranchNode(this.bitmap, children);
+                }
+            } else if (!((Entry) child).name.equals(name)) {
+                return this;
+            }
+            // The position is now empty, so take it out
+            if (this.children.length == 1) {
+                return null;
+            }
+            Object[] children = new Object[this.children.length - 1];
+            System.arraycopy(this.children, 0, children, 0, position);
+            System.arraycopy(this.children, position + 1, children, position, children.length - position);
+            return new BranchNode(this.bitmap & ~bit, children);
+        }
+
+        /**
+         * Gets the child at a position.
+         *
+         * @param bit The bit of the position
+         * @return The child, or null if the position is empty
+         */
+        private Object child(int bit) {
+            return (this.bitmap & bit) == 0 ? null : this.children[Integer.bitCount(this.bitmap & (bit - 1))];
+        }
+
+        @Override
+        public void forEach(Consumer<Entry> consumer) {
+            for (Object child : this.children) {
+                if (child instanceof Node) {
+                    ((Node) child).forEach(consumer);
+                } else {
+                    consumer.accept((Entry) child);
+                }
+            }
+        }
+
+        /**
+         * Creates a node holding two entries.
+         *
+         * @param first The first entry
+         * @param second The second entry
+         * @param shift The depth of the new node, in bits
+         * @return The node
+         */
+        private static Node createNode(Entry first, Entry second, int shift) {
+            if (shift > MAX_SHIFT || first.hash == second.hash) {
+                return new CollisionNode(new Entry[]{first, second});
+            }
+            return new BranchNode(0, new Object[0]).put(first, shift).put(second, shift);
+        }
+    }
+
+    /**
+     * A node holding entries whose names have the same hash.
+     */
+    private static final class CollisionNode implements Node {
+
+        private final Entry[] entries;
+
+        /**
+         * Creates a collision node.
+         *
+         * @param entries The entries
+         */
+        private CollisionNode(Entry[] entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public Entry find(int hash, String name, int shift) {
+            for (Entry entry : this.entries) {
+                if (entry.name.equals(name)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Node put(Entry entry, int shift) {
+            for (int i = 0; i < this.entries.length; i++) {
+                if (this.entries[i].name.equals(entry.name)) {
+                    Entry[] entries = Arrays.copyOf(this.entries, this.entries.length);
+                    entries[i] = entry;
+                    return new CollisionNode(entries);
+                }
+            }
+            Entry[] entries = Arrays.copyOf(this.entries, this.entries.length + 1);
+            entries[this.entries.length] = entry;
+            return new CollisionNode(entries);
+        }
+
+        @Override
+        public Node remove(int hash, String name, int shift) {
+            for (int i = 0; i < this.entries.length; i++) {
+                if (this.entries[i].name.equals(name)) {
+                    if (this.entries.length == 1) {
+                        return null;
+                    }
+                    Entry[] entries = new Entry[this.entries.length - 1];
+                    System.arraycopy(this.entries, 0, entries, 0, i);
+                    System.arraycopy(this.entries, i + 1, entries, i, entries.length - i);
+                    return new CollisionNode(entries);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public void forEach(Consumer<Entry> consumer) {
+            for (Entry entry : this.entries) {
+                consumer.accept(entry);
+            }
+        }
+    }
+}
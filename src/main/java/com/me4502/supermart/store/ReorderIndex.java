@@ -0,0 +1,119 @@
+package com.me4502.supermart.store;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * The stocked items that are at or below their reorder point. This class is immutable.
+ *
+ * The index is kept up to date from the changes between two inventories, so the work done
+ * for an update depends on how many quantities changed rather than on the size of the inventory.
+ *
+ * @author Madeline Miller
+ */
+public final class ReorderIndex {
+
+    private static final ReorderIndex EMPTY = new ReorderIndex(PersistentStock.empty());
+
+    // The items needing reorder, with their quantity in the inventory
+    private final PersistentStock items;
+
+    private ReorderIndex(PersistentStock items) {
+        this.items = items;
+    }
+
+    /**
+     * Gets the empty index.
+     *
+     * @return The empty index
+     */
+    public static ReorderIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates an index of the items in an inventory that need reordering.
+     *
+     * @param inventory The inventory
+     * @return The index
+     */
+    public static ReorderIndex of(Stock inventory) {
+        return EMPTY.withChanges(PersistentStock.empty(), inventory);
+    }
+
+    /**
+     * Gets whether an item at a quantity needs reordering.
+     *
+     * @param item The item
+     * @param quantity The quantity in the inventory
+     * @return If the quantity is at or below the reorder point
+     */
+    public static boolean needsReorder(Item item, int quantity) {
+        return quantity <= item.getReorderPoint();
+    }
+
+    /**
+     * Creates a new index for a changed inventory. Only the items whose quantity or
+     * properties differ between the two inventories are checked.
+     *
+     * @param previous The inventory this index is for
+     * @param inventory The changed inventory
+     * @return The new index
+     */
+    public ReorderIndex withChanges(Stock previous, Stock inventory) {
+        PersistentStock[] items = {this.items};
+        PersistentStock.copyOf(inventory).forEachChange(PersistentStock.copyOf(previous), (item, previousQuantity, quantity) -> {
+            // Take out the old entry, which may have the item's previous properties
+            items[0] = items[0].withoutItem(item);
+            if (quantity >= 0 && needsReorder(item, quantity)) {
+                items[0] = items[0].withQuantity(item, quantity);
+            }
+        });
+        return items[0] == this.items ? this : new ReorderIndex(items[0]);
+    }
+
+    /**
+     * Gets whether an item needs reordering.
+     *
+     * @param item The item
+     * @return If the item is stocked at or below its reorder point
+     */
+    public boolean contains(Item item) {
+        return this.items.getItemQuantity(item).isPresent();
+    }
+
+    /**
+     * Gets the items that need reordering.
+     *
+     * @return The items
+     */
+    public ImmutableSet<Item> getItems() {
+        return this.items.getStockedItems();
+    }
+
+    /**
+     * Gets the items that need reordering, with their quantity in the inventory.
+     *
+     * @return The stock of items
+     */
+    public Stock getStock() {
+        return this.items;
+    }
+
+    /**
+     * Gets the number of items that need reordering.
+     *
+     * @return The number of items
+     */
+    public int size() {
+        return this.items.size();
+    }
+
+    /**
+     * Gets whether no items need reordering.
+     *
+     * @return If the index is empty
+     */
+    public boolean isEmpty() {
+        return this.items.size() == 0;
+    }
+}
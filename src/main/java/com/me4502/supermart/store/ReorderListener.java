@@ -0,0 +1,25 @@
+package com.me4502.supermart.store;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Listens for stocked items crossing their reorder point.
+ *
+ * @author Madeline Miller
+ * @see Store#addReorderListener(ReorderListener)
+ */
+@FunctionalInterface
+public interface ReorderListener {
+
+    /**
+     * Called after a change to the store moved items across their reorder point.
+     *
+     * This is called on the thread that published the change, and only if at least one item crossed.
+     * An exception thrown here is logged, and doesn't stop the other listeners or the change being published.
+     *
+     * @param triggered The items that now need reordering
+     * @param cleared The items that no longer need reordering
+     * @param snapshot The snapshot that was published
+     */
+    void onReorderChange(ImmutableSet<Item> triggered, ImmutableSet<Item> cleared, StoreSnapshot snapshot);
+}
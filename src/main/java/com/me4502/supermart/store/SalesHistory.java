@@ -0,0 +1,152 @@
+package com.me4502.supermart.store;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps the quantities sold in each loaded sales log as compact per-item time series.
+ *
+ * Every sales log is one period. Items are given dense ids as they are first sold,
+ * and each period is stored as a column of quantities indexed by item id, so
+ * calculations over every item can run as simple loops over primitive arrays.
+ *
+ * @author Madeline Miller
+ */
+public class SalesHistory {
+
+    private Map<String, Integer> itemIds = new HashMap<>();
+    private List<Item> items = new ArrayList<>();
+    private List<int[]> periods = new ArrayList<>();
+
+    /**
+     * Records a sales log as the next period in the history.
+     *
+     * @param sold The stock sold in the sales log
+     */
+    public synchronized void record(Stock sold) {
+        // Assign ids first so that the column covers every item sold so far
+        List<ImmutablePair<Integer, Integer>> sales = new ArrayList<>();
+        for (ImmutablePair<Item, Integer> pair : sold.getStockedItemQuantities()) {
+            sales.add(ImmutablePair.of(getOrCreateId(pair.getLeft()), pair.getRight()));
+        }
+        int[] column = new int[this.items.size()];
+        for (ImmutablePair<Integer, Integer> sale : sales) {
+            column[sale.getLeft()] += sale.getRight();
+        }
+        this.periods.add(column);
+    }
+
+    /**
+     * Gets the id of an item, assigning the next free id if it hasn't been sold before.
+     *
+     * @param item The item
+     * @return The id of the item
+     */
+    private int getOrCreateId(Item item) {
+        Integer id = this.itemIds.get(item.getName());
+        if (id == null) {
+            id = this.items.size();
+            this.itemIds.put(item.getName(), id);
+            this.items.add(item);
+        } else {
+            // Keep the latest instance, in case the item properties were changed
+            this.items.set(id, item);
+        }
+        return id;
+    }
+
+    /**
+     * Gets the number of periods (sales logs) recorded.
+     *
+     * @return The number of periods
+     */
+    public synchronized int getPeriodCount() {
+        return this.periods.size();
+    }
+
+    /**
+     * Gets the number of distinct items that have been sold.
+     *
+     * @return The number of items
+     */
+    public synchronized int getItemCount() {
+        return this.items.size();
+    }
+
+    /**
+     * Gets the item with the given id.
+     *
+     * @param id The item id
+     * @return The item
+     */
+    public synchronized Item getItem(int id) {
+        return this.items.get(id);
+    }
+
+    /**
+     * Gets the id of an item by name, if it has been sold.
+     *
+     * @param name The item name
+     * @return The item id, if present
+     */
+    public synchronized Optional<Integer> getItemId(String name) {
+        return Optional.ofNullable(this.itemIds.get(name));
+    }
+
+    /**
+     * Gets the quantities sold of an item in every period, oldest first.
+     *
+     * @param item The item
+     * @return The time series, empty if the item has never been sold
+     */
+    public synchronized int[] getSeries(Item item) {
+        Integer id = this.itemIds.get(item.getName());
+        if (id == null) {
+            return new int[0];
+        }
+        int[] series = new int[this.periods.size()];
+        for (int period = 0; period < series.length; period++) {
+            int[] column = this.periods.get(period);
+            series[period] = id < column.length ? column[id] : 0;
+        }
+        return series;
+    }
+
+    /**
+     * Gets the quantities sold of every item in a single period.
+     *
+     * The returned column is indexed by item id, and is padded with zeros
+     * for items that were first sold in a later period.
+     *
+     * @param period The period
+     * @return The quantities sold, indexed by item id
+     */
+    public synchronized int[] getPeriod(int period) {
+        return Arrays.copyOf(this.periods.get(period), this.items.size());
+    }
+
+    /**
+     * Gets the recorded columns, oldest first. Columns are never modified once recorded,
+     * so they can be read without holding the lock.
+     *
+     * @return The columns of every period
+     */
+    synchronized int[][] getColumns() {
+        return this.periods.toArray(new int[0][]);
+    }
+
+    /**
+     * Clears the history.
+     */
+    public synchronized void clear() {
+        this.itemIds.clear();
+        this.items.clear();
+        this.periods.clear();
+    }
+}
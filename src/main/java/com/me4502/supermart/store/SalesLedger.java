@@ -0,0 +1,279 @@
+package com.me4502.supermart.store;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * An append-only, columnar record of every sale loaded into the store.
+ *
+ * Each sale is a row made up of an item id, a quantity, a batch id (one batch per
+ * sales log) and the unit price at the time of sale. Every column is a primitive
+ * array, so scans over the ledger don't touch any per-row objects.
+ *
+ * Rows are never modified once appended, so readers take a consistent view of
+ * the columns under the lock and then scan them without holding it.
+ *
+ * @author Madeline Miller
+ */
+public class SalesLedger {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private Map<String, Integer> itemIds = new HashMap<>();
+    private List<Item> items = new ArrayList<>();
+
+    private int[] itemColumn = new int[INITIAL_CAPACITY];
+    private int[] quantityColumn = new int[INITIAL_CAPACITY];
+    private int[] batchColumn = new int[INITIAL_CAPACITY];
+    private double[] priceColumn = new double[INITIAL_CAPACITY];
+    private int size;
+    private int batches;
+
+    /**
+     * Appends every sale in a sales log as a new batch.
+     *
+     * @param sold The stock sold in the sales log
+     * @return The id of the new batch
+     */
+    public synchronized int append(Stock sold) {
+        int batch = this.batches++;
+        for (ImmutablePair<Item, Integer> pair : sold.getStockedItemQuantities()) {
+            if (this.size == this.itemColumn.length) {
+                grow();
+            }
+            this.itemColumn[this.size] = getOrCreateId(pair.getLeft());
+            this.quantityColumn[this.size] = pair.getRight();
+            this.batchColumn[this.size] = batch;
+            this.priceColumn[this.size] = pair.getLeft().getSellPrice();
+            this.size++;
+        }
+        return batch;
+    }
+
+    /**
+     * Doubles the capacity of every column.
+     */
+    private void grow() {
+        int capacity = this.itemColumn.length * 2;
+        this.itemColumn = Arrays.copyOf(this.itemColumn, capacity);
+        this.quantityColumn = Arrays.copyOf(this.quantityColumn, capacity);
+        this.batchColumn = Arrays.copyOf(this.batchColumn, capacity);
+        this.priceColumn = Arrays.copyOf(this.priceColumn, capacity);
+    }
+
+    /**
+     * Gets the id of an item, assigning the next free id if it hasn't been sold before.
+     *
+     * @param item The item
+     * @return The id of the item
+     */
+    private int getOrCreateId(Item item) {
+        Integer id = this.itemIds.get(item.getName());
+        if (id == null) {
+            id = this.items.size();
+            this.itemIds.put(item.getName(), id);
+            this.items.add(item);
+        }
+        return id;
+    }
+
+    /**
+     * Gets the number of rows in the ledger.
+     *
+     * @return The number of rows
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the number of batches appended to the ledger.
+     *
+     * @return The number of batches
+     */
+    public synchronized int getBatchCount() {
+        return this.batches;
+    }
+
+    /**
+     * Gets the total quantity sold of every item.
+     *
+     * @return The totals, indexed by item id
+     */
+    public long[] getItemTotals() {
+        return getItemTotals(getView());
+    }
+
+    /**
+     * Gets the total quantity sold of every item in a view.
+     *
+     * @param view The view to scan
+     * @return The totals, indexed by item id
+     */
+    private static long[] getItemTotals(View view) {
+        long[] totals = new long[view.items.length];
+        for (int row = 0; row < view.size; row++) {
+            totals[view.itemColumn[row]] += view.quantityColumn[row];
+        }
+        return totals;
+    }
+
+    /**
+     * Gets the total quantity sold of an item.
+     *
+     * @param item The item
+     * @return The total quantity sold, 0 if it has never been sold
+     */
+    public long getTotalSold(Item item) {
+        View view;
+        Integer id;
+        synchronized (this) {
+            view = getView();
+            id = this.itemIds.get(item.getName());
+        }
+        if (id == null) {
+            return 0;
+        }
+        long total = 0;
+        for (int row = 0; row < view.size; row++) {
+            if (view.itemColumn[row] == id) {
+                total += view.quantityColumn[row];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Gets the best selling items, by total quantity sold.
+     *
+     * @param count The maximum number of items to return
+     * @return The items and their totals, best selling first
+     */
+    public List<ImmutablePair<Item, Long>> getTopSellers(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must be positive");
+        }
+        View view = getView();
+        long[] totals = getItemTotals(view);
+
+        // Keep the best items in a bounded min-heap, rather than sorting every item
+        Comparator<Integer> byTotal = Comparator.comparingLong(id -> totals[id]);
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.max(1, count), byTotal);
+        for (int id = 0; id < totals.length && count > 0; id++) {
+            if (best.size() < count) {
+                best.add(id);
+            } else if (totals[id] > totals[best.peek()]) {
+                best.poll();
+                best.add(id);
+            }
+        }
+
+        List<ImmutablePair<Item, Long>> sellers = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            int id = best.poll();
+            sellers.add(0, ImmutablePair.of(view.items[id], totals[id]));
+        }
+        return sellers;
+    }
+
+    /**
+     * Gets the revenue of every batch.
+     *
+     * @return The revenue, indexed by batch id
+     */
+    public double[] getRevenueByBatch() {
+        View view = getView();
+        double[] revenue = new double[view.batches];
+        for (int row = 0; row < view.size; row++) {
+            revenue[view.batchColumn[row]] += view.quantityColumn[row] * view.priceColumn[row];
+        }
+        return revenue;
+    }
+
+    /**
+     * Gets the revenue of a single batch.
+     *
+     * @param batch The batch id
+     * @return The revenue of the batch
+     */
+    public double getBatchRevenue(int batch) {
+        View view = getView();
+        if (batch < 0 || batch >= view.batches) {
+            throw new IllegalArgumentException("Unknown batch " + batch);
+        }
+        // Batches are appended in order, so each batch is one contiguous range of rows
+        int row = lowerBound(view, batch);
+        double revenue = 0;
+        for (; row < view.size && view.batchColumn[row] == batch; row++) {
+            revenue += view.quantityColumn[row] * view.priceColumn[row];
+        }
+        return revenue;
+    }
+
+    /**
+     * Finds the first row of a batch.
+     *
+     * @param view The view to search
+     * @param batch The batch id
+     * @return The first row with a batch id at or above the given batch
+     */
+    private static int lowerBound(View view, int batch) {
+        int low = 0;
+        int high = view.size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (view.batchColumn[middle] < batch) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Takes a consistent view of the ledger.
+     *
+     * @return The view
+     */
+    private synchronized View getView() {
+        return new View(this);
+    }
+
+    /**
+     * A consistent view of the columns. Columns are only ever replaced by larger
+     * copies, so the rows below the recorded size remain valid after the lock is released.
+     */
+    private static class View {
+
+        private int[] itemColumn;
+        private int[] quantityColumn;
+        private int[] batchColumn;
+        private double[] priceColumn;
+        private int size;
+        private int batches;
+        private Item[] items;
+
+        /**
+         * Creates a view of the ledger. Must be called holding the ledger's lock.
+         *
+         * @param ledger The ledger
+         */
+        private View(SalesLedger ledger) {
+            this.itemColumn = ledger.itemColumn;
+            this.quantityColumn = ledger.quantityColumn;
+            this.batchColumn = ledger.batchColumn;
+            this.priceColumn = ledger.priceColumn;
+            this.size = ledger.size;
+            this.batches = ledger.batches;
+            this.items = ledger.items.toArray(new Item[0]);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.me4502.supermart.exception.DeliveryException;
 import com.me4502.supermart.truck.Manifest;
 
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 /**
  * Represents a store. This class is a singleton.
@@ -20,6 +21,61 @@ public interface Store {
      */
     String getName();
 
+    /**
+     * Gets the current state of the store as one consistent snapshot.
+     *
+     * Readers that need more than one part of the state, such as the inventory
+     * and the stockable items, should read them from the same snapshot.
+     *
+     * @return The current snapshot
+     */
+    StoreSnapshot getSnapshot();
+
+    /**
+     * Atomically replaces the state of the store.
+     *
+     * The update is given the current snapshot and returns the next one. If another
+     * writer publishes first, the update is run again against the newer snapshot,
+     * so it must not have side effects.
+     *
+     * @param update The update to apply
+     * @return The published snapshot
+     */
+    StoreSnapshot update(UnaryOperator<StoreSnapshot> update);
+
+    /**
+     * Adds a listener that is called after the store changes.
+     *
+     * Listeners are called on a separate event thread, with changes that happen while they
+     * are busy coalesced into one event, so writers are never held up by them.
+     *
+     * @param listener The listener
+     */
+    void addStoreListener(StoreListener listener);
+
+    /**
+     * Removes a store listener.
+     *
+     * @param listener The listener
+     */
+    void removeStoreListener(StoreListener listener);
+
+    /**
+     * Adds a listener that is called when stocked items cross their reorder point.
+     *
+     * The items currently needing reorder are available from {@link StoreSnapshot#getReorderIndex()}.
+     *
+     * @param listener The listener
+     */
+    void addReorderListener(ReorderListener listener);
+
+    /**
+     * Removes a reorder listener.
+     *
+     * @param listener The listener
+     */
+    void removeReorderListener(ReorderListener listener);
+
     /**
      * Gets the current capital of the store.
      *
@@ -105,4 +161,25 @@ public interface Store {
      * @throws DeliveryException Thrown when the delivery isn't possible
      */
     void setManifest(Manifest manifest, boolean update) throws DeliveryException;
+
+    /**
+     * Gets the history of sales logs loaded into this store.
+     *
+     * @return The sales history
+     */
+    SalesHistory getSalesHistory();
+
+    /**
+     * Gets the ledger of every sale loaded into this store.
+     *
+     * @return The sales ledger
+     */
+    SalesLedger getSalesLedger();
+
+    /**
+     * Gets the log of every change to this store, which can rebuild its state at an earlier time.
+     *
+     * @return The store log
+     */
+    StoreLog getLog();
 }
@@ -0,0 +1,135 @@
+package com.me4502.supermart.store;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A change to a {@link Store}, from one snapshot to a later one. This class is immutable.
+ *
+ * An event may cover many published changes coalesced together, in which case it
+ * describes their combined effect.
+ *
+ * @author Madeline Miller
+ */
+public final class StoreEvent {
+
+    private final StoreSnapshot previous;
+    private final StoreSnapshot current;
+    private final int changeCount;
+
+    // Lazily found from the inventories
+    private volatile ImmutableMap<Item, Integer> inventoryChanges;
+
+    /**
+     * Creates an event.
+     *
+     * @param previous The snapshot before the change
+     * @param current The snapshot after the change
+     * @param changeCount The number of published changes covered
+     */
+    StoreEvent(StoreSnapshot previous, StoreSnapshot current, int changeCount) {
+        this.previous = previous;
+        this.current = current;
+        this.changeCount = changeCount;
+    }
+
+    /**
+     * Gets the snapshot before the change.
+     *
+     * @return The previous snapshot
+     */
+    public StoreSnapshot getPrevious() {
+        return this.previous;
+    }
+
+    /**
+     * Gets the snapshot after the change.
+     *
+     * @return The current snapshot
+     */
+    public StoreSnapshot getCurrent() {
+        return this.current;
+    }
+
+    /**
+     * Gets the number of published changes coalesced into this event.
+     *
+     * @return The number of changes
+     */
+    public int getChangeCount() {
+        return this.changeCount;
+    }
+
+    /**
+     * Gets whether the inventory changed.
+     *
+     * @return If the inventory changed
+     */
+    public boolean isInventoryChanged() {
+        return this.previous.getInventory() != this.current.getInventory();
+    }
+
+    /**
+     * Gets the change in quantity of each item whose quantity changed.
+     *
+     * @return The quantity changes, keyed by the current instance of each item
+     */
+    public ImmutableMap<Item, Integer> getInventoryChanges() {
+        ImmutableMap<Item, Integer> changes = this.inventoryChanges;
+        if (changes == null) {
+            if (!isInventoryChanged()) {
+                changes = ImmutableMap.of();
+            } else {
+                Map<Item, Integer> found = new LinkedHashMap<>();
+                PersistentStock.copyOf(this.current.getInventory()).forEachChange(PersistentStock.copyOf(this.previous.getInventory()),
+                        (item, previousQuantity, quantity) -> {
+                            int change = Math.max(quantity, 0) - Math.max(previousQuantity, 0);
+                            if (change != 0) {
+                                found.put(item, change);
+                            }
+                        });
+                changes = ImmutableMap.copyOf(found);
+            }
+            this.inventoryChanges = changes;
+        }
+        return changes;
+    }
+
+    /**
+     * Gets whether the capital changed.
+     *
+     * @return If the capital changed
+     */
+    public boolean isCapitalChanged() {
+        return Double.compare(this.previous.getCapital(), this.current.getCapital()) != 0;
+    }
+
+    /**
+     * Gets the change in capital.
+     *
+     * @return The capital change
+     */
+    public double getCapitalChange() {
+        return this.current.getCapital() - this.previous.getCapital();
+    }
+
+    /**
+     * Gets whether the manifest was replaced.
+     *
+     * @return If the manifest was replaced
+     */
+    public boolean isManifestReplaced() {
+        return this.previous.getManifest() != this.current.getManifest();
+    }
+
+    /**
+     * Gets whether the stockable items changed.
+     *
+     * @return If the catalogue changed
+     */
+    public boolean isCatalogueChanged() {
+        return this.previous.getCatalogue() != this.current.getCatalogue();
+    }
+}
@@ -0,0 +1,221 @@
+package com.me4502.supermart.store;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Delivers the snapshots published by a store to its {@link StoreListener}s.
+ *
+ * Writers add each published snapshot to a fixed size ring buffer without locking, by claiming
+ * a slot with a compare and swap. A single dispatcher thread, started when the first listener
+ * is added, drains everything available as one batch and coalesces it into one event from the
+ * last delivered snapshot to the newest one. As an event only depends on its two snapshots, a
+ * writer that finds the buffer full records its snapshot aside instead of waiting, and nothing
+ * about the combined change is lost.
+ *
+ * @author Madeline Miller
+ */
+final class StoreEventBus {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    // How long the dispatcher sleeps before checking again, in case a wake up is missed
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Supplier<StoreSnapshot> source;
+    private final AtomicReferenceArray<StoreSnapshot> slots;
+    private final int mask;
+    private final List<StoreListener> listeners = new CopyOnWriteArrayList<>();
+
+    // The next sequence to be claimed by a writer
+    private final AtomicLong tail = new AtomicLong();
+    // The next sequence to be read by the dispatcher, which is the only writer of it
+    private volatile long head;
+
+    // The newest snapshot that didn't fit in the buffer, and how many didn't fit
+    private final AtomicReference<StoreSnapshot> overflow = new AtomicReference<>();
+    private final AtomicInteger overflowCount = new AtomicInteger();
+
+    private volatile boolean started;
+    private volatile Thread dispatcher;
+    private volatile boolean waiting;
+    private volatile boolean closed;
+
+    /**
+     * Creates an event bus.
+     *
+     * @param source Gets the current snapshot of the store
+     */
+    StoreEventBus(Supplier<StoreSnapshot> source) {
+        this(source, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an event bus.
+     *
+     * @param source Gets the current snapshot of the store
+     * @param capacity The size of the ring buffer, which must be a power of two
+     */
+    StoreEventBus(Supplier<StoreSnapshot> source, int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.source = source;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds a listener, starting the dispatcher if needed.
+     *
+     * @param listener The listener
+     */
+    void addListener(StoreListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener can't be null");
+        }
+        this.listeners.add(listener);
+        if (!this.started) {
+            start();
+        }
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener The listener
+     */
+    void removeListener(StoreListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Publishes a snapshot. This never blocks, and does nothing until a listener has been added.
+     *
+     * @param snapshot The published snapshot
+     */
+    void publish(StoreSnapshot snapshot) {
+        if (!this.started) {
+            return;
+        }
+        while (true) {
+            long sequence = this.tail.get();
+            if (sequence - this.head >= this.slots.length()) {
+                // Full, so keep the newest snapshot aside for the dispatcher to coalesce
+                this.overflow.accumulateAndGet(snapshot, (current, added) ->
+                        current == null || added.getVersion() > current.getVersion() ? added : current);
+                this.overflowCount.incrementAndGet();
+                break;
+            }
+            if (this.tail.compareAndSet(sequence, sequence + 1)) {
+                this.slots.set((int) sequence & this.mask, snapshot);
+                break;
+            }
+        }
+        // The dispatcher is set before it can be waiting
+        if (this.waiting) {
+            LockSupport.unpark(this.dispatcher);
+        }
+    }
+
+    /**
+     * Stops the dispatcher. Events that haven't been delivered are dropped.
+     */
+    void close() {
+        this.closed = true;
+        Thread dispatcher = this.dispatcher;
+        if (dispatcher != null) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    /**
+     * Starts the dispatcher thread, if not already started.
+     */
+    private synchronized void start() {
+        if (this.started || this.closed) {
+            return;
+        }
+        // Writers start publishing once this is set, so every change after the snapshot read below is in the buffer
+        this.started = true;
+        StoreSnapshot start = this.source.get();
+        Thread thread = new Thread(() -> dispatch(start), "Store Event Dispatcher");
+        thread.setDaemon(true);
+        this.dispatcher = thread;
+        thread.start();
+    }
+
+    /**
+     * Drains the buffer and delivers the coalesced events until closed.
+     *
+     * @param start The snapshot that the first event starts from
+     */
+    private void dispatch(StoreSnapshot start) {
+        // Anything published up to this snapshot is already part of it, and is skipped
+        StoreSnapshot delivered = start;
+        while (!this.closed) {
+            StoreSnapshot latest = delivered;
+            int count = 0;
+            long sequence = this.head;
+            long end = this.tail.get();
+            while (sequence < end) {
+                int index = (int) sequence & this.mask;
+                StoreSnapshot snapshot = this.slots.get(index);
+                if (snapshot == null) {
+                    // Claimed, but not written yet
+                    break;
+                }
+                this.slots.lazySet(index, null);
+                sequence++;
+                count++;
+                if (snapshot.getVersion() > latest.getVersion()) {
+                    latest = snapshot;
+                }
+            }
+            this.head = sequence;
+
+            StoreSnapshot overflowed = this.overflow.getAndSet(null);
+            if (overflowed != null) {
+                count += this.overflowCount.getAndSet(0);
+                if (overflowed.getVersion() > latest.getVersion()) {
+                    latest = overflowed;
+                }
+            }
+
+            if (count == 0) {
+                if (sequence != end) {
+                    // A writer is part way through publishing
+                    Thread.yield();
+                } else {
+                    this.waiting = true;
+                    if (this.tail.get() == this.head && this.overflow.get() == null && !this.closed) {
+                        LockSupport.parkNanos(this, IDLE_NANOS);
+                    }
+                    this.waiting = false;
+                }
+                continue;
+            }
+            if (latest == delivered) {
+                // Only snapshots from before the dispatcher started
+                continue;
+            }
+
+            StoreEvent event = new StoreEvent(delivered, latest, count);
+            delivered = latest;
+            for (StoreListener listener : this.listeners) {
+                try {
+                    listener.onStoreChange(event);
+                } catch (RuntimeException e) {
+                    // Keep delivering to the other listeners
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
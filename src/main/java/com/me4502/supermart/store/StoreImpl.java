@@ -4,13 +4,14 @@ import com.google.common.collect.ImmutableSet;
 import com.me4502.supermart.SuperMartApplication;
 import com.me4502.supermart.exception.DeliveryException;
 import com.me4502.supermart.truck.Manifest;
-import com.me4502.supermart.truck.Truck;
-import org.apache.commons.lang3.tuple.ImmutablePair;
 
 import java.text.NumberFormat;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 /**
  * Implementation for the {@link Store} interface.
@@ -22,10 +23,12 @@ public class StoreImpl implements Store {
     private static StoreImpl instance;
 
     private String name;
-    private double capital;
-    private Stock inventory;
-    private Map<String, Item> stockableItems;
-    private Manifest manifest;
+    private AtomicReference<StoreSnapshot> snapshot;
+    private SalesHistory salesHistory;
+    private SalesLedger salesLedger;
+    private StoreLog log;
+    private List<ReorderListener> reorderListeners = new CopyOnWriteArrayList<>();
+    private StoreEventBus eventBus = new StoreEventBus(this::getSnapshot);
 
     /**
      * Create the singleton instance
@@ -38,12 +41,13 @@ public class StoreImpl implements Store {
         }
         // Construct with chosen name
         this.name = name;
-        // Initial capital is $100,000
-        this.capital = 100000;
-        // Start with empty inventory, stockable items and manifest
-        this.inventory = SuperMartApplication.getInstance().getStockBuilder().build();
-        this.stockableItems = new HashMap<>();
-        this.manifest = SuperMartApplication.getInstance().getManifestBuilder().build();
+        // Start with $100,000 capital, and empty inventory, stockable items and manifest
+        this.snapshot = new AtomicReference<>(new StoreSnapshot(0, PersistentStock.empty(), 100000,
+                SuperMartApplication.getInstance().getManifestBuilder().build(), PersistentCatalogue.empty(), TemperatureIndex.empty(),
+                ReorderIndex.empty()));
+        this.salesHistory = new SalesHistory();
+        this.salesLedger = new SalesLedger();
+        this.log = new StoreLog(this.snapshot.get());
         instance = this;
     }
 
@@ -60,6 +64,7 @@ public class StoreImpl implements Store {
      * Removes the current opened instance of this class.
      */
     public void close() {
+        this.eventBus.close();
         StoreImpl.instance = null;
     }
 
@@ -68,27 +73,112 @@ public class StoreImpl implements Store {
         return this.name;
     }
 
+    @Override
+    public StoreSnapshot getSnapshot() {
+        return this.snapshot.get();
+    }
+
+    @Override
+    public StoreSnapshot update(UnaryOperator<StoreSnapshot> update) {
+        // Retry against the latest snapshot until no other writer has published in between
+        while (true) {
+            StoreSnapshot current = this.snapshot.get();
+            StoreSnapshot next = update.apply(current);
+            if (next == current) {
+                return next;
+            }
+            if (this.snapshot.compareAndSet(current, next)) {
+                this.log.record(current, next);
+                notifyReorderListeners(current, next);
+                this.eventBus.publish(next);
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Tells the reorder listeners about the items that crossed their reorder point between two snapshots.
+     *
+     * @param previous The previous snapshot
+     * @param current The published snapshot
+     */
+    private void notifyReorderListeners(StoreSnapshot previous, StoreSnapshot current) {
+        if (this.reorderListeners.isEmpty() || previous.getReorderIndex() == current.getReorderIndex()) {
+            return;
+        }
+        ImmutableSet.Builder<Item> triggered = ImmutableSet.builder();
+        ImmutableSet.Builder<Item> cleared = ImmutableSet.builder();
+        // Only the changed items can have crossed
+        PersistentStock.copyOf(current.getInventory()).forEachChange(PersistentStock.copyOf(previous.getInventory()),
+                (item, previousQuantity, quantity) -> {
+                    boolean before = previous.getReorderIndex().contains(item);
+                    boolean after = current.getReorderIndex().contains(item);
+                    if (after && !before) {
+                        triggered.add(item);
+                    } else if (before && !after) {
+                        cleared.add(item);
+                    }
+                });
+        ImmutableSet<Item> triggeredItems = triggered.build();
+        ImmutableSet<Item> clearedItems = cleared.build();
+        if (triggeredItems.isEmpty() && clearedItems.isEmpty()) {
+            return;
+        }
+        for (ReorderListener listener : this.reorderListeners) {
+            try {
+                listener.onReorderChange(triggeredItems, clearedItems, current);
+            } catch (RuntimeException e) {
+                // The snapshot is already published, so keep notifying the other listeners and the event bus
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void addStoreListener(StoreListener listener) {
+        this.eventBus.addListener(listener);
+    }
+
+    @Override
+    public void removeStoreListener(StoreListener listener) {
+        this.eventBus.removeListener(listener);
+    }
+
+    @Override
+    public void addReorderListener(ReorderListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener can't be null");
+        }
+        this.reorderListeners.add(listener);
+    }
+
+    @Override
+    public void removeReorderListener(ReorderListener listener) {
+        this.reorderListeners.remove(listener);
+    }
+
     @Override
     public double getCapital() {
-        return this.capital;
+        return getSnapshot().getCapital();
     }
 
     @Override
     public void setCapital(double capital) {
-        this.capital = capital;
+        update(state -> state.withCapital(capital));
     }
 
     @Override
     public String getFormattedCapital() {
+        double capital = getCapital();
         // Create a number formatter to apply to capital
         NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance();
         // Ternary operator which formats differently for positive and negative values
-        return (this.capital > 0) ? currencyFormatter.format(this.capital) : '-' + currencyFormatter.format(this.capital * -1);
+        return (capital > 0) ? currencyFormatter.format(capital) : '-' + currencyFormatter.format(capital * -1);
     }
 
     @Override
     public Stock getInventory() {
-        return this.inventory;
+        return getSnapshot().getInventory();
     }
 
     @Override
@@ -97,30 +187,28 @@ public class StoreImpl implements Store {
         if (inventory == null) {
             throw new IllegalArgumentException("Inventory can't be null");
         }
-        this.inventory = inventory;
+        update(state -> state.withInventory(inventory));
     }
 
     @Override
     public void addItem(Item item) {
         // Before adding the item check there are no duplicate names
-        if (!this.stockableItems.containsKey(item.getName())) {
-            this.stockableItems.put(item.getName(), item);
-        }
+        update(state -> state.getItem(item.getName()).isPresent() ? state : state.withItems(Collections.singleton(item)));
     }
 
     @Override
     public Optional<Item> getItem(String name) {
-        return Optional.ofNullable(this.stockableItems.get(name));
+        return getSnapshot().getItem(name);
     }
 
     @Override
     public ImmutableSet<Item> getItems() {
-        return ImmutableSet.copyOf(this.stockableItems.values());
+        return getSnapshot().getItems();
     }
 
     @Override
     public Manifest getManifest() {
-        return this.manifest;
+        return getSnapshot().getManifest();
     }
 
     @Override
@@ -130,33 +218,22 @@ public class StoreImpl implements Store {
             throw new IllegalArgumentException("Manifest can't be null");
         }
 
-        // If the inventory and capital need to be updated
-        if (update) {
-            // Create a builder for the new inventory
-            Stock.Builder stockBuilder = SuperMartApplication.getInstance().getStockBuilder();
-
-            // Create the new stock, based off what is currently there
-            for (ImmutablePair<Item, Integer> itemPair : getInventory().getStockedItemQuantities()) {
-                stockBuilder.addStockedItem(itemPair.getLeft(), itemPair.getRight());
-            }
+        // Publish the manifest, and if needed the inventory and capital, as one change
+        update(state -> update ? state.withDelivery(manifest) : state.withManifest(manifest));
+    }
 
-            // Find the value of the manifest while continuing to add to the new inventory
-            double totalValue = 0;
-            for (Truck truck : manifest.getTrucks()) {
-                // Sum value of trucks
-                totalValue += truck.getCost();
-                // Sum value of item manufacturing costs and add items to builder (csv checks if stockable)
-                for (ImmutablePair<Item, Integer> itemPair : truck.getCargo().getStockedItemQuantities()) {
-                    totalValue += itemPair.getLeft().getManufacturingCost() * itemPair.getRight();
-                    stockBuilder.addStockedItem(itemPair.getLeft(), itemPair.getRight());
-                }
-            }
+    @Override
+    public SalesHistory getSalesHistory() {
+        return this.salesHistory;
+    }
 
-            // Update the inventory and the store capital
-            setInventory(stockBuilder.build());
-            setCapital(StoreImpl.getInstance().getCapital() - totalValue);
-        }
+    @Override
+    public SalesLedger getSalesLedger() {
+        return this.salesLedger;
+    }
 
-        this.manifest = manifest;
+    @Override
+    public StoreLog getLog() {
+        return this.log;
     }
 }
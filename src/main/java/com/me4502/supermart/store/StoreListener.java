@@ -0,0 +1,22 @@
+package com.me4502.supermart.store;
+
+/**
+ * Listens for changes to a {@link Store}.
+ *
+ * @author Madeline Miller
+ * @see Store#addStoreListener(StoreListener)
+ */
+@FunctionalInterface
+public interface StoreListener {
+
+    /**
+     * Called after the store changed.
+     *
+     * This is called on the store's event thread, never on the thread that made the change.
+     * Changes published while listeners are busy are coalesced, so each call covers every
+     * change since the previous call.
+     *
+     * @param event The event
+     */
+    void onStoreChange(StoreEvent event);
+}
@@ -0,0 +1,353 @@
+package com.me4502.supermart.store;
+
+import com.me4502.supermart.truck.Manifest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * An append-only log of the changes published by a store, which can rebuild the state of
+ * the store at any retained earlier version or time.
+ *
+ * Each record holds the time of the change, the items whose quantity changed, and the capital,
+ * manifest and catalogue after the change. Every so often the published snapshot itself is kept
+ * as a checkpoint, so a replay starts from the nearest checkpoint at or before the requested
+ * version instead of from the start of the log.
+ *
+ * The item changes of a record are split into partitions by item name. As the items of one
+ * partition never affect another, a replay folds the records of each partition in parallel, then
+ * applies the final quantity of every changed item to the checkpoint inventory.
+ *
+ * Only a bounded number of checkpoints are retained. When a new checkpoint is taken past that
+ * bound, the oldest checkpoint is dropped along with every record before the next one, so the
+ * log holds at most about the retained checkpoints times the checkpoint interval records.
+ *
+ * A change is recorded just after it is published, so a replay only sees the changes that
+ * have finished being recorded.
+ *
+ * @author Madeline Miller
+ */
+public class StoreLog {
+
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 256;
+    private static final int DEFAULT_RETAINED_CHECKPOINTS = 64;
+
+    private final int checkpointInterval;
+    private final int retainedCheckpoints;
+    private final int partitions;
+    private final LongSupplier clock;
+
+    // Both in version order
+    private final List<Record> records = new ArrayList<>();
+    private final List<StoreSnapshot> checkpoints = new ArrayList<>();
+    private int sinceCheckpoint;
+
+    /**
+     * Creates a log, starting from a snapshot.
+     *
+     * @param initial The snapshot the log starts from
+     */
+    StoreLog(StoreSnapshot initial) {
+        this(initial, DEFAULT_CHECKPOINT_INTERVAL, DEFAULT_RETAINED_CHECKPOINTS, Runtime.getRuntime().availableProcessors(),
+                System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a log, starting from a snapshot.
+     *
+     * @param initial The snapshot the log starts from
+     * @param checkpointInterval The number of records between checkpoints
+     * @param retainedCheckpoints The number of checkpoints to retain, with the records after them
+     * @param partitions The number of partitions to split item changes into
+     * @param clock Gets the current time, in milliseconds
+     */
+    StoreLog(StoreSnapshot initial, int checkpointInterval, int retainedCheckpoints, int partitions, LongSupplier clock) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1");
+        }
+        if (retainedCheckpoints < 1) {
+            throw new IllegalArgumentException("At least 1 checkpoint must be retained");
+        }
+        if (partitions < 1) {
+            throw new IllegalArgumentException("There must be at least 1 partition");
+        }
+        this.checkpointInterval = checkpointInterval;
+        this.retainedCheckpoints = retainedCheckpoints;
+        this.partitions = partitions;
+        this.clock = clock;
+        this.records.add(new Record(initial, clock.getAsLong(), null, null));
+        this.checkpoints.add(initial);
+    }
+
+    /**
+     * Records a published change.
+     *
+     * @param previous The snapshot before the change
+     * @param current The published snapshot
+     */
+    void record(StoreSnapshot previous, StoreSnapshot current) {
+        Item[][] items = null;
+        int[][] quantities = null;
+        if (previous.getInventory() != current.getInventory()) {
+            items = new Item[this.partitions][];
+            quantities = new int[this.partitions][];
+            // Split the changes by partition before taking the lock
+            List<List<Item>> changedItems = new ArrayList<>(this.partitions);
+            List<List<Integer>> changedQuantities = new ArrayList<>(this.partitions);
+            for (int i = 0; i < this.partitions; i++) {
+                changedItems.add(new ArrayList<>());
+                changedQuantities.add(new ArrayList<>());
+            }
+            PersistentStock.copyOf(current.getInventory()).forEachChange(PersistentStock.copyOf(previous.getInventory()),
+                    (item, previousQuantity, quantity) -> {
+                        int partition = getPartition(item);
+                        changedItems.get(partition).add(item);
+                        changedQuantities.get(partition).add(quantity);
+                    });
+            for (int i = 0; i < this.partitions; i++) {
+                if (!changedItems.get(i).isEmpty()) {
+                    items[i] = changedItems.get(i).toArray(new Item[0]);
+                    quantities[i] = changedQuantities.get(i).stream().mapToInt(Integer::intValue).toArray();
+                }
+            }
+        }
+        long time = this.clock.getAsLong();
+
+        synchronized (this) {
+            if (current.getVersion() < this.checkpoints.get(0).getVersion()) {
+                // A late writer whose change is older than the retained history
+                return;
+            }
+            // Writers can record out of order, so keep the records sorted by version and their times ascending
+            int index = this.records.size();
+            while (index > 0 && this.records.get(index - 1).version > current.getVersion()) {
+                index--;
+            }
+            if (index > 0) {
+                time = Math.max(time, this.records.get(index - 1).time);
+            }
+            if (index < this.records.size()) {
+                time = Math.min(time, this.records.get(index).time);
+            }
+            this.records.add(index, new Record(current, time, items, quantities));
+
+            if (++this.sinceCheckpoint >= this.checkpointInterval && index == this.records.size() - 1) {
+                this.checkpoints.add(current);
+                this.sinceCheckpoint = 0;
+                if (this.checkpoints.size() > this.retainedCheckpoints) {
+                    this.checkpoints.remove(0);
+                    long first = this.checkpoints.get(0).getVersion();
+                    int retained = search(this.records.size(), i -> this.records.get(i).version < first) + 1;
+                    this.records.subList(0, retained).clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the partition that an item's changes are recorded in.
+     *
+     * @param item The item
+     * @return The partition
+     */
+    private int getPartition(Item item) {
+        return Math.floorMod(item.getName().hashCode(), this.partitions);
+    }
+
+    /**
+     * Gets the version of the first snapshot still retained in this log.
+     *
+     * @return The first version
+     */
+    public synchronized long getFirstVersion() {
+        return this.records.get(0).version;
+    }
+
+    /**
+     * Gets the version of the latest recorded snapshot.
+     *
+     * @return The latest version
+     */
+    public synchronized long getLatestVersion() {
+        return this.records.get(this.records.size() - 1).version;
+    }
+
+    /**
+     * Gets the number of retained records.
+     *
+     * @return The number of records
+     */
+    public synchronized int size() {
+        return this.records.size();
+    }
+
+    /**
+     * Gets the number of retained checkpoints.
+     *
+     * @return The number of checkpoints
+     */
+    public synchronized int getCheckpointCount() {
+        return this.checkpoints.size();
+    }
+
+    /**
+     * Rebuilds the state of the store at the given time, which is the latest snapshot
+     * recorded at or before it.
+     *
+     * @param time The time, in milliseconds
+     * @return The snapshot, or empty if the time is before the first retained record
+     */
+    public Optional<StoreSnapshot> replayAt(long time) {
+        long version;
+        synchronized (this) {
+            int index = search(this.records.size(), i -> this.records.get(i).time <= time);
+            if (index < 0) {
+                return Optional.empty();
+            }
+            version = this.records.get(index).version;
+        }
+        return Optional.of(replay(version));
+    }
+
+    /**
+     * Rebuilds the state of the store at the given version.
+     *
+     * @param version The version
+     * @return The snapshot
+     * @throws IllegalArgumentException If the version isn't retained in this log
+     */
+    public StoreSnapshot replay(long version) {
+        StoreSnapshot checkpoint;
+        Record last;
+        List<Record> replayed;
+        synchronized (this) {
+            int end = search(this.records.size(), i -> this.records.get(i).version <= version);
+            if (end < 0 || this.records.get(end).version != version) {
+                throw new IllegalArgumentException("Version " + version + " isn't retained in the store log");
+            }
+            checkpoint = this.checkpoints.get(search(this.checkpoints.size(), i -> this.checkpoints.get(i).getVersion() <= version));
+            int start = search(this.records.size(), i -> this.records.get(i).version <= checkpoint.getVersion()) + 1;
+            last = this.records.get(end);
+            // Records are never modified, so a copy of the range can be read without the lock
+            replayed = new ArrayList<>(this.records.subList(start, end + 1));
+        }
+        if (replayed.isEmpty()) {
+            return checkpoint;
+        }
+
+        // Fold each partition to the final quantity of its changed items, in parallel
+        List<Collection<Change>> changes = IntStream.range(0, this.partitions).parallel()
+                .mapToObj(partition -> foldPartition(replayed, partition))
+                .collect(Collectors.toList());
+
+        PersistentStock inventory = PersistentStock.copyOf(checkpoint.getInventory());
+        for (Collection<Change> partition : changes) {
+            for (Change change : partition) {
+                if (change.quantity < 0) {
+                    inventory = inventory.withoutItem(change.item);
+                } else {
+                    // Adding the difference also replaces the stored instance of the item
+                    inventory = inventory.withQuantity(change.item, change.quantity - inventory.getItemQuantity(change.item).orElse(0));
+                }
+            }
+        }
+        return new StoreSnapshot(version, inventory, last.capital, last.manifest, last.catalogue, last.temperatureIndex,
+                checkpoint.getReorderIndex().withChanges(checkpoint.getInventory(), inventory));
+    }
+
+    /**
+     * Finds the final change to each item of a partition.
+     *
+     * @param records The records to fold, in version order
+     * @param partition The partition
+     * @return The final changes
+     */
+    private static Collection<Change> foldPartition(List<Record> records, int partition) {
+        Map<String, Change> changes = new HashMap<>();
+        for (Record record : records) {
+            if (record.items == null) {
+                continue;
+            }
+            Item[] items = record.items[partition];
+            if (items == null) {
+                continue;
+            }
+            int[] quantities = record.quantities[partition];
+            for (int i = 0; i < items.length; i++) {
+                changes.put(items[i].getName(), new Change(items[i], quantities[i]));
+            }
+        }
+        return changes.values();
+    }
+
+    /**
+     * Finds the last index in a range for which a condition holds, where the condition
+     * holds for a prefix of the range.
+     *
+     * @param size The size of the range
+     * @param condition The condition
+     * @return The last index, or -1 if it holds for none
+     */
+    private static int search(int size, IntPredicate condition) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (condition.test(middle)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * A recorded snapshot. Records are never modified.
+     */
+    private static final class Record {
+
+        private final long version;
+        private final long time;
+        private final double capital;
+        private final Manifest manifest;
+        private final PersistentCatalogue catalogue;
+        private final TemperatureIndex temperatureIndex;
+        // The changed items and their new quantities by partition, null if the inventory or the partition is unchanged
+        private final Item[][] items;
+        private final int[][] quantities;
+
+        private Record(StoreSnapshot snapshot, long time, Item[][] items, int[][] quantities) {
+            this.version = snapshot.getVersion();
+            this.time = time;
+            this.capital = snapshot.getCapital();
+            this.manifest = snapshot.getManifest();
+            this.catalogue = snapshot.getCatalogue();
+            this.temperatureIndex = snapshot.getTemperatureIndex();
+            this.items = items;
+            this.quantities = quantities;
+        }
+    }
+
+    /**
+     * The quantity of an item after a change, or -1 if it was removed.
+     */
+    private static final class Change {
+
+        private final Item item;
+        private final int quantity;
+
+        private Change(Item item, int quantity) {
+            this.item = item;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.me4502.supermart.store;
+
+import com.google.common.collect.ImmutableSet;
+import com.me4502.supermart.truck.Manifest;
+import com.me4502.supermart.truck.ManifestImpl;
+import com.me4502.supermart.truck.Truck;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A consistent version of the state of a {@link Store}. This class is immutable.
+ *
+ * The store publishes a new snapshot atomically for every change, so a reader that
+ * holds on to a snapshot always sees an inventory, capital, manifest and catalogue
+ * that belong together, without taking any locks.
+ *
+ * @author Madeline Miller
+ */
+public final class StoreSnapshot {
+
+    private final long version;
+    private final Stock inventory;
+    private final double capital;
+    private final Manifest manifest;
+    private final PersistentCatalogue catalogue;
+    private final TemperatureIndex temperatureIndex;
+    private final ReorderIndex reorderIndex;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param version The version of the snapshot
+     * @param inventory The inventory
+     * @param capital The capital
+     * @param manifest The manifest
+     * @param catalogue The stockable items, keyed by name
+     * @param temperatureIndex The index of the temperature-controlled stockable items
+     * @param reorderIndex The index of the stocked items needing reorder
+     */
+    StoreSnapshot(long version, Stock inventory, double capital, Manifest manifest, PersistentCatalogue catalogue,
+            TemperatureIndex temperatureIndex, ReorderIndex reorderIndex) {
+        this.version = version;
+        this.inventory = inventory;
+        this.capital = capital;
+        this.manifest = manifest;
+        this.catalogue = catalogue;
+        this.temperatureIndex = temperatureIndex;
+        this.reorderIndex = reorderIndex;
+    }
+
+    /**
+     * Gets the version of this snapshot. Every published snapshot has a higher version than the last.
+     *
+     * @return The version
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Gets the inventory at this version.
+     *
+     * @return The inventory
+     */
+    public Stock getInventory() {
+        return this.inventory;
+    }
+
+    /**
+     * Gets the capital at this version.
+     *
+     * @return The capital
+     */
+    public double getCapital() {
+        return this.capital;
+    }
+
+    /**
+     * Gets the manifest at this version.
+     *
+     * @return The manifest
+     */
+    public Manifest getManifest() {
+        return this.manifest;
+    }
+
+    /**
+     * Gets a stockable item by name, if present.
+     *
+     * @param name The item name
+     * @return The item, if present
+     */
+    public Optional<Item> getItem(String name) {
+        return this.catalogue.get(name);
+    }
+
+    /**
+     * Gets the stockable items at this version.
+     *
+     * @return An immutable set of items
+     */
+    public ImmutableSet<Item> getItems() {
+        return this.catalogue.getItems();
+    }
+
+    /**
+     * Gets the stockable items at this version, keyed by name.
+     *
+     * @return The catalogue
+     */
+    public PersistentCatalogue getCatalogue() {
+        return this.catalogue;
+    }
+
+    /**
+     * Gets the index of the temperature-controlled stockable items at this version.
+     *
+     * @return The temperature index
+     */
+    public TemperatureIndex getTemperatureIndex() {
+        return this.temperatureIndex;
+    }
+
+    /**
+     * Gets the index of the stocked items at or below their reorder point at this version.
+     *
+     * @return The reorder index
+     */
+    public ReorderIndex getReorderIndex() {
+        return this.reorderIndex;
+    }
+
+    /**
+     * Creates the next version with a different inventory.
+     *
+     * @param inventory The new inventory
+     * @return The new snapshot
+     */
+    public StoreSnapshot withInventory(Stock inventory) {
+        if (inventory == null) {
+            throw new IllegalArgumentException("Inventory can't be null");
+        }
+        return next(inventory, this.capital, this.manifest, this.catalogue, this.temperatureIndex);
+    }
+
+    /**
+     * Creates the next version with a different capital.
+     *
+     * @param capital The new capital
+     * @return The new snapshot
+     */
+    public StoreSnapshot withCapital(double capital) {
+        return next(this.inventory, capital, this.manifest, this.catalogue, this.temperatureIndex);
+    }
+
+    /**
+     * Creates the next version with a different inventory and capital.
+     *
+     * @param inventory The new inventory
+     * @param capital The new capital
+     * @return The new snapshot
+     */
+    public StoreSnapshot withInventoryAndCapital(Stock inventory, double capital) {
+        if (inventory == null) {
+            throw new IllegalArgumentException("Inventory can't be null");
+        }
+        return next(inventory, capital, this.manifest, this.catalogue, this.temperatureIndex);
+    }
+
+    /**
+     * Creates the next version with a different manifest.
+     *
+     * @param manifest The new manifest
+     * @return The new snapshot
+     */
+    public StoreSnapshot withManifest(Manifest manifest) {
+        if (manifest == null) {
+            throw new IllegalArgumentException("Manifest can't be null");
+        }
+        return next(this.inventory, this.capital, manifest, this.catalogue, this.temperatureIndex);
+    }
+
+    /**
+     * Creates the next version with sold stock removed from the inventory, and its sell value added to the capital.
+     *
+     * @param sold The sold stock
+     * @return The new snapshot
+     * @throws IllegalArgumentException If more of an item was sold than is in the inventory
+     */
+    public StoreSnapshot withSales(Stock sold) {
+        double totalValue = 0;
+        for (ImmutablePair<Item, Integer> itemPair : sold.getStockedItemQuantities()) {
+            totalValue += itemPair.getLeft().getSellPrice() * itemPair.getRight();
+        }
+        return withInventoryAndCapital(PersistentStock.copyOf(this.inventory).withoutStock(sold), this.capital + totalValue);
+    }
+
+    /**
+     * Creates the next version with a manifest delivered. The cargo is added to the inventory,
+     * the cost of the trucks and the manufacturing cost of the cargo is taken from the capital,
+     * and the manifest becomes the current manifest.
+     *
+     * @param manifest The manifest being delivered
+     * @return The new snapshot
+     */
+    public StoreSnapshot withDelivery(Manifest manifest) {
+        if (manifest == null) {
+            throw new IllegalArgumentException("Manifest can't be null");
+        }
+        // Apply the delivery on top of the current inventory, only touching the delivered items
+        PersistentStock inventory = PersistentStock.copyOf(this.inventory);
+        for (Truck truck : manifest.getTrucks()) {
+            // Add items to the inventory (csv checks if stockable)
+            for (ImmutablePair<Item, Integer> itemPair : truck.getCargo().getStockedItemQuantities()) {
+                inventory = inventory.withQuantity(itemPair.getLeft(), itemPair.getRight());
+            }
+        }
+
+        // The manifest keeps the cost of its trucks and cargo
+        ManifestImpl totals = ManifestImpl.copyOf(manifest);
+        double totalValue = totals.getTotalCost() + totals.getCargoValue();
+        return next(inventory, this.capital - totalValue, manifest, this.catalogue, this.temperatureIndex);
+    }
+
+    /**
+     * Creates the next version with stockable items added to the catalogue.
+     *
+     * Items with the same name as an item already in the catalogue are ignored.
+     *
+     * @param items The items to add
+     * @return The new snapshot
+     */
+    public StoreSnapshot withItems(Collection<Item> items) {
+        PersistentCatalogue catalogue = this.catalogue;
+        List<Item> added = new ArrayList<>();
+        for (Item item : items) {
+            if (!catalogue.contains(item.getName())) {
+                catalogue = catalogue.with(item);
+                added.add(item);
+            }
+        }
+        return next(this.inventory, this.capital, this.manifest, catalogue, this.temperatureIndex.withItems(added));
+    }
+
+    /**
+     * Creates the next version with stockable items replaced by items with the same name,
+     * in both the catalogue and the inventory. The quantity of each item is kept.
+     *
+     * Items with no stockable item of the same name are ignored.
+     *
+     * @param items The replacement items
+     * @return The new snapshot
+     */
+    public StoreSnapshot withReplacedItems(Collection<Item> items) {
+        PersistentCatalogue catalogue = this.catalogue;
+        PersistentStock inventory = PersistentStock.copyOf(this.inventory);
+        List<Item> replaced = new ArrayList<>();
+        for (Item item : items) {
+            if (catalogue.contains(item.getName())) {
+                catalogue = catalogue.with(item);
+                // Adding nothing replaces the stored item, or adds it if it was never stocked
+                inventory = inventory.withQuantity(item, 0);
+                replaced.add(item);
+            }
+        }
+        return next(inventory, this.capital, this.manifest, catalogue, this.temperatureIndex.withItems(replaced));
+    }
+
+    /**
+     * Creates the next version with new stockable items added to the catalogue,
+     * and to the inventory with zero quantity.
+     *
+     * Items with the same name as an item already in the catalogue are ignored.
+     *
+     * @param items The items to add
+     * @return The new snapshot
+     */
+    public StoreSnapshot withNewItems(Collection<Item> items) {
+        PersistentCatalogue catalogue = this.catalogue;
+        PersistentStock inventory = PersistentStock.copyOf(this.inventory);
+        List<Item> added = new ArrayList<>();
+        for (Item item : items) {
+            if (!catalogue.contains(item.getName())) {
+                catalogue = catalogue.with(item);
+                inventory = inventory.withQuantity(item, 0);
+                added.add(item);
+            }
+        }
+        return next(inventory, this.capital, this.manifest, catalogue, this.temperatureIndex.withItems(added));
+    }
+
+    /**
+     * Creates the next version, updating the reorder index from the inventory changes.
+     */
+    private StoreSnapshot next(Stock inventory, double capital, Manifest manifest, PersistentCatalogue catalogue,
+            TemperatureIndex temperatureIndex) {
+        ReorderIndex reorderIndex = inventory == this.inventory ? this.reorderIndex
+                : this.reorderIndex.withChanges(this.inventory, inventory);
+        return new StoreSnapshot(this.version + 1, inventory, capital, manifest, catalogue, temperatureIndex, reorderIndex);
+    }
+}
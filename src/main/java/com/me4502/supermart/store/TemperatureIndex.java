@@ -0,0 +1,162 @@
+package com.me4502.supermart.store;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+
+/**
+ * Groups temperature-controlled items into bands of equal ideal temperature, ordered from coldest
+ * to warmest. This class is immutable.
+ *
+ * Each band has a rank, so cold items can be put in temperature order by counting them into their
+ * bands rather than comparing temperatures, and the coldest item of any group is the one in the
+ * lowest band.
+ *
+ * @author Madeline Miller
+ */
+public final class TemperatureIndex {
+
+    private static final TemperatureIndex EMPTY = new TemperatureIndex(PersistentCatalogue.empty(), new double[0], new int[0]);
+
+    // The indexed items, so that an item moving band can be found by name
+    private final PersistentCatalogue items;
+    // The temperature of each band, in ascending order
+    private final double[] temperatures;
+    // The number of items in each band
+    private final int[] counts;
+
+    private TemperatureIndex(PersistentCatalogue items, double[] temperatures, int[] counts) {
+        this.items = items;
+        this.temperatures = temperatures;
+        this.counts = counts;
+    }
+
+    /**
+     * Gets the empty index.
+     *
+     * @return The empty index
+     */
+    public static TemperatureIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates an index of the temperature-controlled items in a collection.
+     *
+     * @param items The items
+     * @return The index
+     */
+    public static TemperatureIndex of(Collection<Item> items) {
+        return EMPTY.withItems(items);
+    }
+
+    /**
+     * Creates a new index with items added. An item with the same name as an indexed item moves
+     * it to the band of its new temperature, or removes it if no longer temperature-controlled.
+     *
+     * Only the given items and the band counts are touched, so this costs time in proportion
+     * to the number of items and bands rather than the number of indexed items.
+     *
+     * @param items The items
+     * @return The new index
+     */
+    public TemperatureIndex withItems(Collection<Item> items) {
+        if (items.isEmpty()) {
+            return this;
+        }
+        TreeMap<Double, Integer> counts = new TreeMap<>();
+        for (int band = 0; band < this.temperatures.length; band++) {
+            counts.put(this.temperatures[band], this.counts[band]);
+        }
+        PersistentCatalogue indexed = this.items;
+        for (Item item : items) {
+            Optional<Item> previous = indexed.get(item.getName());
+            if (previous.isPresent()) {
+                // Indexed items always have a temperature
+                counts.computeIfPresent(previous.get().getIdealTemperature().getAsDouble(),
+                        (temperature, count) -> count == 1 ? null : count - 1);
+            }
+            OptionalDouble temperature = item.getIdealTemperature();
+            if (temperature != null && temperature.isPresent()) {
+                indexed = indexed.with(item);
+                counts.merge(temperature.getAsDouble(), 1, Integer::sum);
+            } else if (previous.isPresent()) {
+                indexed = indexed.without(item.getName());
+            }
+        }
+
+        double[] temperatures = new double[counts.size()];
+        int[] bandCounts = new int[counts.size()];
+        int band = 0;
+        for (Map.Entry<Double, Integer> entry : counts.entrySet()) {
+            temperatures[band] = entry.getKey();
+            bandCounts[band++] = entry.getValue();
+        }
+        return new TemperatureIndex(indexed, temperatures, bandCounts);
+    }
+
+    /**
+     * Gets the number of bands.
+     *
+     * @return The number of bands
+     */
+    public int getBandCount() {
+        return this.temperatures.length;
+    }
+
+    /**
+     * Gets the temperature of a band.
+     *
+     * @param band The band, from 0 for the coldest
+     * @return The temperature
+     */
+    public double getTemperature(int band) {
+        return this.temperatures[band];
+    }
+
+    /**
+     * Gets the number of items in a band.
+     *
+     * @param band The band, from 0 for the coldest
+     * @return The number of items
+     */
+    public int getItemCount(int band) {
+        return this.counts[band];
+    }
+
+    /**
+     * Gets the names of the items in a band.
+     *
+     * This visits every indexed item, so is meant for inspecting the index rather than planning.
+     *
+     * @param band The band, from 0 for the coldest
+     * @return The item names
+     */
+    public ImmutableSet<String> getItemNames(int band) {
+        double temperature = this.temperatures[band];
+        ImmutableSet.Builder<String> names = ImmutableSet.builderWithExpectedSize(this.counts[band]);
+        this.items.forEach(item -> {
+            if (item.getIdealTemperature().getAsDouble() == temperature) {
+                names.add(item.getName());
+            }
+        });
+        return names.build();
+    }
+
+    /**
+     * Gets the band of a temperature, if any indexed item has it.
+     *
+     * @param temperature The temperature
+     * @return The band, from 0 for the coldest
+     */
+    public OptionalInt getBand(double temperature) {
+        int band = Arrays.binarySearch(this.temperatures, temperature);
+        return band >= 0 ? OptionalInt.of(band) : OptionalInt.empty();
+    }
+}
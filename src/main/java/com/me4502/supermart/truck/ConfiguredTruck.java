@@ -0,0 +1,89 @@
+package com.me4502.supermart.truck;
+
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+
+import java.util.OptionalDouble;
+
+/**
+ * A truck of a {@link TruckType} loaded from a fleet configuration.
+ *
+ * @author Madeline Miller
+ */
+public class ConfiguredTruck extends AbstractTruck {
+
+    private final TruckType truckType;
+
+    // The cargo can't change, so the temperature and cost are found once
+    private final OptionalDouble storageTemperature;
+    private final double cost;
+
+    /**
+     * Creates a configured truck.
+     *
+     * @param truckType The truck type
+     * @param cargo The cargo
+     */
+    ConfiguredTruck(TruckType truckType, Stock cargo) {
+        super(cargo);
+        this.truckType = truckType;
+        this.storageTemperature = findStorageTemperature(truckType, cargo);
+        this.cost = truckType.getCostFunction().getCost(cargo.getTotalAmount(), this.storageTemperature.orElse(Double.NaN));
+    }
+
+    /**
+     * Gets the type of this truck.
+     *
+     * @return The truck type
+     */
+    public TruckType getTruckType() {
+        return this.truckType;
+    }
+
+    /**
+     * Gets the temperature which the truck must store items, if temperature controlled.
+     *
+     * @return The storage temperature
+     */
+    public OptionalDouble getStorageTemperature() {
+        return this.storageTemperature;
+    }
+
+    @Override
+    public String getType() {
+        return this.truckType.getName();
+    }
+
+    @Override
+    public double getCost() {
+        return this.cost;
+    }
+
+    @Override
+    public int getCargoCapacity() {
+        return this.truckType.getCapacity();
+    }
+
+    /**
+     * Finds the storage temperature needed for a cargo.
+     *
+     * @param truckType The truck type
+     * @param cargo The cargo
+     * @return The lowest ideal temperature inside the valid range, or empty if not temperature controlled
+     */
+    private static OptionalDouble findStorageTemperature(TruckType truckType, Stock cargo) {
+        if (!truckType.isTemperatureControlled()) {
+            return OptionalDouble.empty();
+        }
+        double min = truckType.getMinTemperature().getAsDouble();
+        double max = truckType.getMaxTemperature().getAsDouble();
+        return OptionalDouble.of(cargo.getStockedItems()
+                .stream()
+                .map(Item::getIdealTemperature)
+                .filter(OptionalDouble::isPresent)
+                .mapToDouble(OptionalDouble::getAsDouble)
+                .filter(temp -> temp >= min)
+                .filter(temp -> temp <= max)
+                .min().orElse(max));
+    }
+}
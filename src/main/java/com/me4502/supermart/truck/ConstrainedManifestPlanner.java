@@ -0,0 +1,234 @@
+package com.me4502.supermart.truck;
+
+import com.google.common.collect.ImmutableMap;
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Plans a manifest for a cargo order when only a limited number of trucks of each type are available.
+ *
+ * Cargo is chosen in order of item priority. As every unit takes the same space, taking the
+ * highest priority units that still leave a feasible packing delivers the most priority
+ * possible; a unit of a temperature-controlled item is feasible while there is unused space on
+ * temperature-controlled trucks, and any other unit while there is unused space on any truck.
+ * The chosen cargo is then packed like {@link ManifestOptimiser}, and the rest is carried over.
+ *
+ * @author Madeline Miller
+ */
+public class ConstrainedManifestPlanner {
+
+    private Stock cargo;
+    private ImmutableMap<String, Integer> availability;
+    private ToDoubleFunction<Item> priority;
+    private Fleet fleet;
+
+    /**
+     * Creates a constrained planner for the application's fleet.
+     *
+     * @param cargo The cargo
+     * @param availability The number of available trucks of each type, keyed by type name
+     * @param priority The priority of each item, where higher priorities are delivered first
+     */
+    public ConstrainedManifestPlanner(Stock cargo, Map<String, Integer> availability, ToDoubleFunction<Item> priority) {
+        this(cargo, availability, priority, SuperMartApplication.getInstance().getFleet());
+    }
+
+    /**
+     * Creates a constrained planner for a fleet.
+     *
+     * Truck types that aren't in the availability map have no trucks available.
+     *
+     * @param cargo The cargo
+     * @param availability The number of available trucks of each type, keyed by type name
+     * @param priority The priority of each item, where higher priorities are delivered first
+     * @param fleet The fleet
+     */
+    public ConstrainedManifestPlanner(Stock cargo, Map<String, Integer> availability, ToDoubleFunction<Item> priority,
+            Fleet fleet) {
+        if (cargo == null || availability == null || priority == null || fleet == null) {
+            throw new IllegalArgumentException("Cargo, availability, priority and fleet can't be null");
+        }
+        for (Map.Entry<String, Integer> entry : availability.entrySet()) {
+            if (!fleet.getType(entry.getKey()).isPresent()) {
+                throw new IllegalArgumentException("Unknown truck type " + entry.getKey());
+            }
+            if (entry.getValue() < 0) {
+                throw new IllegalArgumentException("Truck availability can't be negative");
+            }
+        }
+        this.cargo = cargo;
+        this.availability = ImmutableMap.copyOf(availability);
+        this.priority = priority;
+        this.fleet = fleet;
+    }
+
+    /**
+     * Gets a priority that favours the items furthest below their reorder point in an inventory.
+     *
+     * @param inventory The inventory
+     * @return The priority
+     */
+    public static ToDoubleFunction<Item> byReorderShortfall(Stock inventory) {
+        return item -> item.getReorderPoint() - inventory.getItemQuantity(item).orElse(0);
+    }
+
+    /**
+     * Generates the plan.
+     *
+     * @return The constrained plan
+     */
+    public ConstrainedPlan getPlan() {
+        // Find the trucks available, in order of preference
+        List<TruckType> coldTypes = new ArrayList<>();
+        List<TruckType> warmTypes = new ArrayList<>();
+        long coldSpace = 0;
+        long totalSpace = 0;
+        for (TruckType type : this.fleet.getTypes()) {
+            long space = (long) type.getCapacity() * this.availability.getOrDefault(type.getName(), 0);
+            if (type.isTemperatureControlled()) {
+                coldTypes.add(type);
+                coldSpace += space;
+            } else {
+                warmTypes.add(type);
+            }
+            totalSpace += space;
+        }
+
+        List<Run> runs = new ArrayList<>();
+        for (ImmutablePair<Item, Integer> pair : this.cargo.getStockedItemQuantities()) {
+            if (pair.getRight() > 0) {
+                runs.add(new Run(pair.getLeft(), pair.getRight(), this.priority.applyAsDouble(pair.getLeft())));
+            }
+        }
+
+        // Choose the cargo, highest priority first, keeping the cargo order for equal priorities
+        List<Run> byPriority = new ArrayList<>(runs);
+        byPriority.sort(Comparator.comparingDouble((Run run) -> run.priority).reversed());
+        long coldUsed = 0;
+        long totalUsed = 0;
+        for (Run run : byPriority) {
+            long fit = totalSpace - totalUsed;
+            if (run.item.isTemperatureControlled()) {
+                fit = Math.min(fit, coldSpace - coldUsed);
+                run.remaining = (int) Math.min(run.quantity, fit);
+                coldUsed += run.remaining;
+            } else {
+                run.remaining = (int) Math.min(run.quantity, fit);
+            }
+            totalUsed += run.remaining;
+        }
+
+        // Pack the chosen cargo, with cold items from coldest to warmest
+        Deque<Run> coldRuns = new ArrayDeque<>();
+        Deque<Run> warmRuns = new ArrayDeque<>();
+        for (Run run : runs) {
+            if (run.remaining > 0) {
+                (run.item.isTemperatureControlled() ? coldRuns : warmRuns).add(run);
+            }
+        }
+        List<Run> sortedColdRuns = new ArrayList<>(coldRuns);
+        sortedColdRuns.sort(Comparator.comparingDouble(run -> run.item.getIdealTemperature().getAsDouble()));
+        coldRuns = new ArrayDeque<>(sortedColdRuns);
+
+        Manifest.Builder manifestBuilder = SuperMartApplication.getInstance().getManifestBuilder();
+        Stock.Builder stockBuilder = SuperMartApplication.getInstance().getStockBuilder();
+        int[] unusedColdTrucks = new int[coldTypes.size()];
+        for (int i = 0; i < coldTypes.size(); i++) {
+            TruckType type = coldTypes.get(i);
+            int count = this.availability.getOrDefault(type.getName(), 0);
+            // Fill the temperature-controlled trucks first, using spare room for warm items
+            while (count > 0 && !coldRuns.isEmpty()) {
+                stockBuilder.reset();
+                int size = fill(stockBuilder, coldRuns, type.getCapacity());
+                fill(stockBuilder, warmRuns, type.getCapacity() - size);
+                manifestBuilder.addTruck(type.createTruck(stockBuilder.build()));
+                count--;
+            }
+            unusedColdTrucks[i] = count;
+        }
+        // Put the remaining warm items on the warm trucks, then any temperature-controlled trucks left over
+        for (TruckType type : warmTypes) {
+            packWarm(manifestBuilder, stockBuilder, warmRuns, type, this.availability.getOrDefault(type.getName(), 0));
+        }
+        for (int i = 0; i < coldTypes.size(); i++) {
+            packWarm(manifestBuilder, stockBuilder, warmRuns, coldTypes.get(i), unusedColdTrucks[i]);
+        }
+
+        // Carry over whatever wasn't chosen, in the cargo order
+        Stock.Builder carryOver = SuperMartApplication.getInstance().getStockBuilder();
+        for (Run run : runs) {
+            int left = run.quantity - run.chosen;
+            if (left > 0) {
+                carryOver.addStockedItem(run.item, left);
+            }
+        }
+        return new ConstrainedPlan(manifestBuilder.build(), carryOver.build());
+    }
+
+    /**
+     * Packs warm runs onto up to the given number of trucks of a type.
+     */
+    private static void packWarm(Manifest.Builder manifestBuilder, Stock.Builder stockBuilder, Deque<Run> warmRuns,
+            TruckType type, int count) {
+        while (count > 0 && !warmRuns.isEmpty()) {
+            stockBuilder.reset();
+            fill(stockBuilder, warmRuns, type.getCapacity());
+            manifestBuilder.addTruck(type.createTruck(stockBuilder.build()));
+            count--;
+        }
+    }
+
+    /**
+     * Moves up to the given number of chosen units from the front of the runs into the stock builder.
+     *
+     * @param stockBuilder The stock builder
+     * @param runs The runs
+     * @param space The number of units that fit
+     * @return The number of units moved
+     */
+    private static int fill(Stock.Builder stockBuilder, Deque<Run> runs, int space) {
+        int size = 0;
+        while (size < space && !runs.isEmpty()) {
+            Run run = runs.peekFirst();
+            int amount = Math.min(space - size, run.remaining);
+            stockBuilder.addStockedItem(run.item, amount);
+            size += amount;
+            run.remaining -= amount;
+            run.chosen += amount;
+            if (run.remaining == 0) {
+                runs.pollFirst();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * The order of one item.
+     */
+    private static final class Run {
+
+        private final Item item;
+        private final int quantity;
+        private final double priority;
+        // The chosen units still to be packed
+        private int remaining;
+        // The units packed onto trucks
+        private int chosen;
+
+        private Run(Item item, int quantity, double priority) {
+            this.item = item;
+            this.quantity = quantity;
+            this.priority = priority;
+        }
+    }
+}
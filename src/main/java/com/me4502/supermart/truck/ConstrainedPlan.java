@@ -0,0 +1,61 @@
+package com.me4502.supermart.truck;
+
+import com.me4502.supermart.store.Stock;
+
+/**
+ * The result of a {@link ConstrainedManifestPlanner}. This class is immutable.
+ *
+ * @author Madeline Miller
+ */
+public class ConstrainedPlan {
+
+    private Manifest manifest;
+    private Stock carryOver;
+
+    /**
+     * Creates a constrained plan.
+     *
+     * @param manifest The manifest of available trucks
+     * @param carryOver The cargo that didn't fit
+     */
+    ConstrainedPlan(Manifest manifest, Stock carryOver) {
+        this.manifest = manifest;
+        this.carryOver = carryOver;
+    }
+
+    /**
+     * Gets the manifest, which only uses the available trucks.
+     *
+     * @return The manifest
+     */
+    public Manifest getManifest() {
+        return this.manifest;
+    }
+
+    /**
+     * Gets the cargo that didn't fit on the available trucks, to be ordered in the next cycle.
+     *
+     * @return The carry-over stock
+     */
+    public Stock getCarryOver() {
+        return this.carryOver;
+    }
+
+    /**
+     * Gets whether all of the cargo fit on the available trucks.
+     *
+     * @return If nothing is carried over
+     */
+    public boolean isComplete() {
+        return this.carryOver.getTotalAmount() == 0;
+    }
+
+    /**
+     * Gets the total cost of the manifest.
+     *
+     * @return The cost
+     */
+    public double getCost() {
+        return this.manifest.getTotalCost();
+    }
+}
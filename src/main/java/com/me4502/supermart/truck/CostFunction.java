@@ -0,0 +1,37 @@
+package com.me4502.supermart.truck;
+
+/**
+ * Calculates the cost of a truck from its cargo.
+ *
+ * @author Madeline Miller
+ */
+@FunctionalInterface
+public interface CostFunction {
+
+    /**
+     * Calculates the cost of a truck.
+     *
+     * @param quantity The total quantity of cargo
+     * @param temperature The storage temperature, or NaN if the truck isn't temperature controlled
+     * @return The cost
+     */
+    double getCost(int quantity, double temperature);
+
+    /**
+     * Compiles a cost expression into a cost function.
+     *
+     * Expressions may use numbers, the variables {@code q} for the quantity of cargo and {@code T}
+     * for the storage temperature, the operators {@code + - * / ^} and parentheses, and the functions
+     * {@code min}, {@code max}, {@code pow}, {@code exp}, {@code log}, {@code sqrt} and {@code abs}.
+     * For example, {@code 900 + 200 * 0.7 ^ (T / 5)}.
+     *
+     * The expression is parsed once, so the returned function is cheap to call.
+     *
+     * @param expression The expression
+     * @return The cost function
+     * @throws IllegalArgumentException If the expression is invalid
+     */
+    static CostFunction compile(String expression) {
+        return new CostFunctionCompiler(expression).compile();
+    }
+}
@@ -0,0 +1,286 @@
+package com.me4502.supermart.truck;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Compiles cost expressions into a tree of evaluators. Parts of the expression that don't use
+ * a variable are calculated once while compiling.
+ *
+ * @author Madeline Miller
+ */
+final class CostFunctionCompiler {
+
+    private final String expression;
+    private int position;
+
+    /**
+     * Creates a compiler for an expression.
+     *
+     * @param expression The expression
+     */
+    CostFunctionCompiler(String expression) {
+        if (expression == null) {
+            throw new IllegalArgumentException("Cost expression can't be null");
+        }
+        this.expression = expression;
+    }
+
+    /**
+     * Compiles the expression.
+     *
+     * @return The cost function
+     * @throws IllegalArgumentException If the expression is invalid
+     */
+    CostFunction compile() {
+        Node root = parseSum();
+        skipWhitespace();
+        if (this.position != this.expression.length()) {
+            throw error("Unexpected '" + this.expression.charAt(this.position) + "'");
+        }
+        String source = this.expression.trim();
+        return new CostFunction() {
+            @Override
+            public double getCost(int quantity, double temperature) {
+                return root.evaluate(quantity, temperature);
+            }
+
+            @Override
+            public String toString() {
+                return source;
+            }
+        };
+    }
+
+    private Node parseSum() {
+        Node node = parseProduct();
+        while (true) {
+            if (accept('+')) {
+                node = binary(node, parseProduct(), (a, b) -> a + b);
+            } else if (accept('-')) {
+                node = binary(node, parseProduct(), (a, b) -> a - b);
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node parseProduct() {
+        Node node = parseUnary();
+        while (true) {
+            if (accept('*')) {
+                node = binary(node, parseUnary(), (a, b) -> a * b);
+            } else if (accept('/')) {
+                node = binary(node, parseUnary(), (a, b) -> a / b);
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node parseUnary() {
+        if (accept('-')) {
+            return unary(parseUnary(), a -> -a);
+        }
+        if (accept('+')) {
+            return parseUnary();
+        }
+        return parsePower();
+    }
+
+    private Node parsePower() {
+        Node base = parsePrimary();
+        if (accept('^')) {
+            // Powers are right associative, and bind tighter than a negative sign on their left
+            return binary(base, parseUnary(), Math::pow);
+        }
+        return base;
+    }
+
+    private Node parsePrimary() {
+        skipWhitespace();
+        if (this.position == this.expression.length()) {
+            throw error("Unexpected end of expression");
+        }
+        char c = this.expression.charAt(this.position);
+        if (accept('(')) {
+            Node node = parseSum();
+            expect(')');
+            return node;
+        }
+        if (Character.isDigit(c) || c == '.') {
+            return parseNumber();
+        }
+        if (Character.isLetter(c)) {
+            int start = this.position;
+            while (this.position < this.expression.length() && Character.isLetterOrDigit(this.expression.charAt(this.position))) {
+                this.position++;
+            }
+            String name = this.expression.substring(start, this.position);
+            switch (name) {
+                case "q":
+                    return (quantity, temperature) -> quantity;
+                case "T":
+                    return (quantity, temperature) -> temperature;
+                default:
+                    return parseFunction(name, start);
+            }
+        }
+        throw error("Unexpected '" + c + "'");
+    }
+
+    private Node parseNumber() {
+        int start = this.position;
+        while (this.position < this.expression.length()
+                && (Character.isDigit(this.expression.charAt(this.position)) || this.expression.charAt(this.position) == '.')) {
+            this.position++;
+        }
+        // Exponents, such as 1e-3
+        if (this.position < this.expression.length() && (this.expression.charAt(this.position) == 'e'
+                || this.expression.charAt(this.position) == 'E')) {
+            int mark = this.position++;
+            if (this.position < this.expression.length() && (this.expression.charAt(this.position) == '-'
+                    || this.expression.charAt(this.position) == '+')) {
+                this.position++;
+            }
+            if (this.position < this.expression.length() && Character.isDigit(this.expression.charAt(this.position))) {
+                while (this.position < this.expression.length() && Character.isDigit(this.expression.charAt(this.position))) {
+                    this.position++;
+                }
+            } else {
+                this.position = mark;
+            }
+        }
+        try {
+            return new Constant(Double.parseDouble(this.expression.substring(start, this.position)));
+        } catch (NumberFormatException e) {
+            this.position = start;
+            throw error("Invalid number");
+        }
+    }
+
+    private Node parseFunction(String name, int start) {
+        if (!accept('(')) {
+            this.position = start;
+            throw error("Unknown variable " + name);
+        }
+        List<Node> arguments = new ArrayList<>();
+        if (!accept(')')) {
+            do {
+                arguments.add(parseSum());
+            } while (accept(','));
+            expect(')');
+        }
+        switch (name) {
+            case "min":
+                return reduce(name, start, arguments, Math::min);
+            case "max":
+                return reduce(name, start, arguments, Math::max);
+            case "pow":
+                checkArguments(name, start, arguments, 2);
+                return binary(arguments.get(0), arguments.get(1), Math::pow);
+            case "exp":
+                checkArguments(name, start, arguments, 1);
+                return unary(arguments.get(0), Math::exp);
+            case "log":
+                checkArguments(name, start, arguments, 1);
+                return unary(arguments.get(0), Math::log);
+            case "sqrt":
+                checkArguments(name, start, arguments, 1);
+                return unary(arguments.get(0), Math::sqrt);
+            case "abs":
+                checkArguments(name, start, arguments, 1);
+                return unary(arguments.get(0), Math::abs);
+            default:
+                this.position = start;
+                throw error("Unknown function " + name);
+        }
+    }
+
+    private Node reduce(String name, int start, List<Node> arguments, DoubleBinaryOperator operator) {
+        if (arguments.isEmpty()) {
+            this.position = start;
+            throw error(name + " needs at least one argument");
+        }
+        Node node = arguments.get(0);
+        for (int i = 1; i < arguments.size(); i++) {
+            node = binary(node, arguments.get(i), operator);
+        }
+        return node;
+    }
+
+    private void checkArguments(String name, int start, List<Node> arguments, int count) {
+        if (arguments.size() != count) {
+            this.position = start;
+            throw error(name + " needs " + count + (count == 1 ? " argument" : " arguments"));
+        }
+    }
+
+    private static Node unary(Node operand, DoubleUnaryOperator operator) {
+        if (operand instanceof Constant) {
+            return new Constant(operator.applyAsDouble(((Constant) operand).value));
+        }
+        return (quantity, temperature) -> operator.applyAsDouble(operand.evaluate(quantity, temperature));
+    }
+
+    private static Node binary(Node left, Node right, DoubleBinaryOperator operator) {
+        if (left instanceof Constant && right instanceof Constant) {
+            return new Constant(operator.applyAsDouble(((Constant) left).value, ((Constant) right).value));
+        }
+        return (quantity, temperature) -> operator.applyAsDouble(left.evaluate(quantity, temperature),
+                right.evaluate(quantity, temperature));
+    }
+
+    private void skipWhitespace() {
+        while (this.position < this.expression.length() && Character.isWhitespace(this.expression.charAt(this.position))) {
+            this.position++;
+        }
+    }
+
+    private boolean accept(char c) {
+        skipWhitespace();
+        if (this.position < this.expression.length() && this.expression.charAt(this.position) == c) {
+            this.position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!accept(c)) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + (this.position + 1) + " of cost expression "
+                + this.expression);
+    }
+
+    /**
+     * A compiled part of an expression.
+     */
+    private interface Node {
+
+        double evaluate(double quantity, double temperature);
+    }
+
+    /**
+     * A part of an expression that doesn't depend on the variables.
+     */
+    private static final class Constant implements Node {
+
+        private final double value;
+
+        private Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double evaluate(double quantity, double temperature) {
+            return this.value;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.me4502.supermart.truck;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.store.Item;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+/**
+ * The types of truck that can be used to deliver cargo. This class is immutable.
+ *
+ * @author Madeline Miller
+ */
+public final class Fleet {
+
+    /**
+     * The type of {@link OrdinaryTruck}s. Its cost function is the one ordinary trucks are charged by.
+     */
+    static final TruckType ORDINARY = new TruckTypeImpl("Ordinary", OrdinaryTruck.getCapacity(), OptionalDouble.empty(),
+            OptionalDouble.empty(), CostFunction.compile("750 + 0.25 * q"),
+            cargo -> SuperMartApplication.getInstance().getOrdinaryTruckBuilder().cargo(cargo).build());
+
+    /**
+     * The type of {@link RefrigeratedTruck}s. Its temperature range and cost function are the ones
+     * refrigerated trucks store and are charged by.
+     */
+    static final TruckType REFRIGERATED = new TruckTypeImpl("Refrigerated", RefrigeratedTruck.getCapacity(),
+            OptionalDouble.of(-20), OptionalDouble.of(10), CostFunction.compile("900 + 200 * 0.7 ^ (T / 5)"),
+            cargo -> SuperMartApplication.getInstance().getRefrigeratedTruckBuilder().cargo(cargo).build());
+
+    private static final Fleet DEFAULT = new Fleet(ImmutableList.of(ORDINARY, REFRIGERATED));
+
+    private final ImmutableList<TruckType> types;
+    private final ImmutableMap<String, TruckType> typesByName;
+    private final TruckType coldType;
+    private final TruckType warmType;
+    private final OptionalDouble minTemperature;
+    private final OptionalDouble maxTemperature;
+
+    private Fleet(ImmutableList<TruckType> types) {
+        ImmutableMap.Builder<String, TruckType> typesByName = ImmutableMap.builder();
+        TruckType coldType = null;
+        TruckType warmType = null;
+        double minTemperature = Double.POSITIVE_INFINITY;
+        double maxTemperature = Double.NEGATIVE_INFINITY;
+        for (TruckType type : types) {
+            typesByName.put(type.getName(), type);
+            if (type.isTemperatureControlled()) {
+                if (coldType == null) {
+                    coldType = type;
+                }
+                minTemperature = Math.min(minTemperature, type.getMinTemperature().getAsDouble());
+                maxTemperature = Math.max(maxTemperature, type.getMaxTemperature().getAsDouble());
+            } else if (warmType == null) {
+                warmType = type;
+            }
+        }
+        this.types = types;
+        this.typesByName = typesByName.build();
+        this.coldType = coldType;
+        this.warmType = warmType;
+        this.minTemperature = coldType != null ? OptionalDouble.of(minTemperature) : OptionalDouble.empty();
+        this.maxTemperature = coldType != null ? OptionalDouble.of(maxTemperature) : OptionalDouble.empty();
+    }
+
+    /**
+     * Gets the default fleet, of {@link OrdinaryTruck}s and {@link RefrigeratedTruck}s.
+     *
+     * @return The default fleet
+     */
+    public static Fleet getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a fleet of the given truck types.
+     *
+     * @param types The truck types, in order of preference
+     * @return The fleet
+     * @throws IllegalArgumentException If there are no types, or two types have the same name
+     */
+    public static Fleet of(Collection<TruckType> types) {
+        if (types.isEmpty()) {
+            throw new IllegalArgumentException("A fleet needs at least one truck type");
+        }
+        try {
+            return new Fleet(ImmutableList.copyOf(types));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Truck type names must be unique", e);
+        }
+    }
+
+    /**
+     * Gets the truck types, in order of preference.
+     *
+     * @return The truck types
+     */
+    public ImmutableList<TruckType> getTypes() {
+        return this.types;
+    }
+
+    /**
+     * Gets a truck type by name, if present.
+     *
+     * @param name The name
+     * @return The truck type, if present
+     */
+    public Optional<TruckType> getType(String name) {
+        return Optional.ofNullable(this.typesByName.get(name));
+    }
+
+    /**
+     * Gets the preferred truck type for temperature-controlled cargo, if the fleet has one.
+     *
+     * @return The first temperature-controlled truck type
+     */
+    public Optional<TruckType> getColdType() {
+        return Optional.ofNullable(this.coldType);
+    }
+
+    /**
+     * Gets the preferred truck type for cargo that doesn't need temperature control. If the fleet
+     * only has temperature-controlled types, this is the first of those.
+     *
+     * @return The truck type
+     */
+    public TruckType getWarmType() {
+        return this.warmType != null ? this.warmType : this.coldType;
+    }
+
+    /**
+     * Gets the lowest temperature any temperature-controlled type of this fleet can store items at.
+     *
+     * @return The minimum temperature, if the fleet has a temperature-controlled type
+     */
+    public OptionalDouble getMinTemperature() {
+        return this.minTemperature;
+    }
+
+    /**
+     * Gets the highest temperature any temperature-controlled type of this fleet can store items at.
+     *
+     * @return The maximum temperature, if the fleet has a temperature-controlled type
+     */
+    public OptionalDouble getMaxTemperature() {
+        return this.maxTemperature;
+    }
+
+    /**
+     * Checks that items with an ideal temperature can be delivered by this fleet.
+     *
+     * @param temperature The ideal temperature
+     * @return Why the items can't be delivered, if they can't
+     */
+    public Optional<String> checkTemperature(double temperature) {
+        if (this.coldType == null) {
+            return Optional.of("No truck type can store temperature controlled items");
+        }
+        if (temperature < this.minTemperature.getAsDouble()) {
+            return Optional.of("Items under " + formatTemperature(this.minTemperature.getAsDouble())
+                    + " deg Celsius can't be stored in a truck");
+        }
+        if (temperature > this.maxTemperature.getAsDouble()) {
+            return Optional.of("Items over " + formatTemperature(this.maxTemperature.getAsDouble())
+                    + " deg Celsius are considered dry goods");
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Checks that trucks of a type can carry an item.
+     *
+     * @param type The truck type
+     * @param item The item
+     * @return Why the item can't be carried, if it can't
+     */
+    public Optional<String> checkCarry(TruckType type, Item item) {
+        if (type.canCarry(item)) {
+            return Optional.empty();
+        }
+        if (!type.isTemperatureControlled()) {
+            return Optional.of("Cargo must not contain temperature controlled items");
+        }
+        double temperature = item.getIdealTemperature().getAsDouble();
+        if (type.getMinTemperature().isPresent() && temperature < type.getMinTemperature().getAsDouble()) {
+            return Optional.of("Items under " + formatTemperature(type.getMinTemperature().getAsDouble())
+                    + " deg Celsius can't be stored");
+        }
+        if (type.getMaxTemperature().isPresent() && temperature > type.getMaxTemperature().getAsDouble()) {
+            return Optional.of("Items over " + formatTemperature(type.getMaxTemperature().getAsDouble())
+                    + " deg Celsius can't be stored");
+        }
+        return Optional.of("Cargo can't be carried");
+    }
+
+    private static String formatTemperature(double temperature) {
+        return temperature == Math.rint(temperature) ? String.valueOf((long) temperature) : String.valueOf(temperature);
+    }
+}
@@ -1,5 +1,6 @@
 package com.me4502.supermart.truck;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 /**
@@ -16,6 +17,34 @@ public interface Manifest {
      */
     ImmutableSet<Truck> getTrucks();
 
+    /**
+     * Gets the total cost of the trucks in the manifest.
+     *
+     * @return The total truck cost
+     */
+    double getTotalCost();
+
+    /**
+     * Gets the total quantity of cargo carried by the trucks in the manifest.
+     *
+     * @return The total units of cargo
+     */
+    int getTotalUnits();
+
+    /**
+     * Gets the number of trucks of each type in the manifest.
+     *
+     * @return The truck counts, by truck type
+     */
+    ImmutableMap<String, Integer> getTruckCounts();
+
+    /**
+     * Gets the total manufacturing cost of the cargo carried by the trucks in the manifest.
+     *
+     * @return The total cargo value
+     */
+    double getCargoValue();
+
     /**
      * Builder class to build {@link Manifest} instances.
      *
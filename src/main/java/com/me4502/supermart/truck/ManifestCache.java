@@ -0,0 +1,161 @@
+package com.me4502.supermart.truck;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache of optimised manifests, keyed by the contents of the cargo and the truck types used to carry it.
+ *
+ * Restocking often asks for the same cargo several times in a row, such as when item properties
+ * are reloaded without changes, so the plan is only made once. Cargo is compared by its items and
+ * quantities. Items are compared by identity, as the store only replaces an item when its
+ * properties change, so a changed item is planned again. Manifests are immutable, so a cached
+ * manifest can be shared. The least recently used entries are evicted once the cache is full,
+ * and entries that haven't been used for a while expire.
+ *
+ * @author Madeline Miller
+ */
+public class ManifestCache {
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 64;
+    private static final long DEFAULT_EXPIRY_MINUTES = 10;
+
+    private final Cache<Key, Manifest> cache;
+
+    /**
+     * Creates a cache with the default size and expiry.
+     */
+    public ManifestCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRY_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maximumSize The most manifests to keep
+     * @param expiry How long a manifest is kept after it was last used
+     * @param unit The unit of the expiry
+     */
+    public ManifestCache(long maximumSize, long expiry, TimeUnit unit) {
+        this(maximumSize, expiry, unit, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maximumSize The most manifests to keep
+     * @param expiry How long a manifest is kept after it was last used
+     * @param unit The unit of the expiry
+     * @param ticker The source of time
+     */
+    ManifestCache(long maximumSize, long expiry, TimeUnit unit, Ticker ticker) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size can't be negative");
+        }
+        if (expiry < 0) {
+            throw new IllegalArgumentException("Expiry can't be negative");
+        }
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expiry, unit)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Gets the manifest for a cargo, planning it if it isn't cached.
+     *
+     * @param cargo The cargo
+     * @param fleet The fleet the cargo is planned for
+     * @param planner Plans the manifest if it isn't cached
+     * @return The manifest
+     */
+    public Manifest get(Stock cargo, Fleet fleet, Supplier<Manifest> planner) {
+        try {
+            return this.cache.get(new Key(cargo, fleet), planner::get);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            // Failed plans aren't cached, so pass on why the planner failed
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Gets the hit and miss counts of the cache.
+     *
+     * @return The statistics
+     */
+    public CacheStats getStats() {
+        return this.cache.stats();
+    }
+
+    /**
+     * Gets the number of cached manifests.
+     *
+     * @return The number of manifests
+     */
+    public long size() {
+        this.cache.cleanUp();
+        return this.cache.size();
+    }
+
+    /**
+     * Removes every cached manifest.
+     */
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * The contents of a cargo and the truck types that the optimiser would use for it.
+     */
+    private static final class Key {
+
+        private final ImmutableSet<ImmutablePair<Item, Integer>> cargo;
+        private final TruckType coldType;
+        private final TruckType warmType;
+        private final int hash;
+
+        private Key(Stock cargo, Fleet fleet) {
+            this.cargo = ImmutableSet.copyOf(cargo.getStockedItemQuantities());
+            this.coldType = fleet.getColdType().orElse(null);
+            this.warmType = fleet.getWarmType();
+            this.hash = Objects.hash(this.cargo, this.coldType, this.warmType);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return this.hash == key.hash
+                    && Objects.equals(this.coldType, key.coldType)
+                    && Objects.equals(this.warmType, key.warmType)
+                    && this.cargo.equals(key.cargo);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
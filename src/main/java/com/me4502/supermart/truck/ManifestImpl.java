@@ -1,17 +1,30 @@
 package com.me4502.supermart.truck;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.me4502.supermart.store.Item;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Implementation for {@link Manifest}.
  * {@inheritDoc}
  *
+ * The trucks can't change, so the totals are found once when the manifest is built.
+ *
  * @author Madeline Miller
  */
 public class ManifestImpl implements Manifest {
 
     private ImmutableSet<Truck> trucks;
 
+    private final double totalCost;
+    private final int totalUnits;
+    private final ImmutableMap<String, Integer> truckCounts;
+    private final double cargoValue;
+
     /**
      * Creates a new manifest from a set of trucks.
      *
@@ -19,6 +32,39 @@ public class ManifestImpl implements Manifest {
      */
     private ManifestImpl(ImmutableSet<Truck> trucks) {
         this.trucks = trucks;
+
+        double totalCost = 0;
+        int totalUnits = 0;
+        double cargoValue = 0;
+        Map<String, Integer> truckCounts = new LinkedHashMap<>();
+        for (Truck truck : trucks) {
+            totalCost += truck.getCost();
+            // Trucks without a type, such as mocks, aren't counted
+            if (truck.getType() != null) {
+                truckCounts.merge(truck.getType(), 1, Integer::sum);
+            }
+            for (ImmutablePair<Item, Integer> pair : truck.getCargo().getStockedItemQuantities()) {
+                totalUnits += pair.getRight();
+                cargoValue += pair.getLeft().getManufacturingCost() * pair.getRight();
+            }
+        }
+        this.totalCost = totalCost;
+        this.totalUnits = totalUnits;
+        this.truckCounts = ImmutableMap.copyOf(truckCounts);
+        this.cargoValue = cargoValue;
+    }
+
+    /**
+     * Gets a manifest as a ManifestImpl, so its totals are only found once.
+     *
+     * @param manifest The manifest
+     * @return The manifest if it is already a ManifestImpl, otherwise a manifest of the same trucks
+     */
+    public static ManifestImpl copyOf(Manifest manifest) {
+        if (manifest instanceof ManifestImpl) {
+            return (ManifestImpl) manifest;
+        }
+        return new ManifestImpl(manifest.getTrucks());
     }
 
     @Override
@@ -26,6 +72,26 @@ public class ManifestImpl implements Manifest {
         return this.trucks;
     }
 
+    @Override
+    public double getTotalCost() {
+        return this.totalCost;
+    }
+
+    @Override
+    public int getTotalUnits() {
+        return this.totalUnits;
+    }
+
+    @Override
+    public ImmutableMap<String, Integer> getTruckCounts() {
+        return this.truckCounts;
+    }
+
+    @Override
+    public double getCargoValue() {
+        return this.cargoValue;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -3,19 +3,36 @@ package com.me4502.supermart.truck;
 import com.me4502.supermart.SuperMartApplication;
 import com.me4502.supermart.store.Item;
 import com.me4502.supermart.store.Stock;
+import com.me4502.supermart.store.TemperatureIndex;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Optimises a manifest based on a requested cargo order.
  *
+ * Trucks are planned one at a time, so they can be consumed as soon as each is finalised
+ * through {@link #iterator()}, {@link #stream()} or {@link #forEachTruck(Consumer)}, rather
+ * than waiting for the whole {@link Manifest}.
+ *
  * @author Madeline Miller
  */
 public class ManifestOptimiser {
 
     private Stock cargo;
+    private TemperatureIndex temperatureIndex;
+    private Fleet fleet;
 
     /**
      * Creates a manifest optimiser from the given cargo.
@@ -23,70 +40,221 @@ public class ManifestOptimiser {
      * @param cargo The cargo
      */
     public ManifestOptimiser(Stock cargo) {
+        this(cargo, null);
+    }
+
+    /**
+     * Creates a manifest optimiser from the given cargo, ordering cold items using an existing
+     * temperature index, such as {@link com.me4502.supermart.store.StoreSnapshot#getTemperatureIndex()}.
+     *
+     * @param cargo The cargo
+     * @param temperatureIndex The index, which should contain the cargo's temperature-controlled items
+     */
+    public ManifestOptimiser(Stock cargo, TemperatureIndex temperatureIndex) {
+        this(cargo, temperatureIndex, SuperMartApplication.getInstance().getFleet());
+    }
+
+    /**
+     * Creates a manifest optimiser from the given cargo, planning trucks of the given fleet.
+     *
+     * Cold items are packed on the fleet's first temperature-controlled type, and the rest on its
+     * first type that isn't temperature controlled.
+     *
+     * @param cargo The cargo
+     * @param temperatureIndex The index, which should contain the cargo's temperature-controlled items, or null
+     * @param fleet The fleet
+     */
+    public ManifestOptimiser(Stock cargo, TemperatureIndex temperatureIndex, Fleet fleet) {
         this.cargo = cargo;
+        this.temperatureIndex = temperatureIndex;
+        this.fleet = fleet;
     }
 
     /**
      * Generates an immutable set of {@link Truck}s for the cargo.
      *
+     * The manifest is planned once for each cargo and fleet, and then taken from the
+     * {@link SuperMartApplication#getManifestCache() manifest cache} while it is kept there.
+     *
      * @return The truck set
      */
     public Manifest getManifest() {
-        // Setup the builders
-        Manifest.Builder manifestBuilder = SuperMartApplication.getInstance().getManifestBuilder();
-        Stock.Builder stockBuilder = SuperMartApplication.getInstance().getStockBuilder();
-        RefrigeratedTruck.RefrigeratedBuilder refrigeratedBuilder = SuperMartApplication.getInstance().getRefrigeratedTruckBuilder();
-        OrdinaryTruck.OrdinaryBuilder ordinaryBuilder = SuperMartApplication.getInstance().getOrdinaryTruckBuilder();
-
-        List<Item> coldItems = new ArrayList<>();
-        List<Item> warmItems = new ArrayList<>();
-
-        // Separate the items into a list of singular cold and warm items.
-        this.cargo.getStockedItemQuantities().forEach(pair -> {
-            for (int i = 0; i < pair.getRight(); i++) {
+        return SuperMartApplication.getInstance().getManifestCache().get(this.cargo, this.fleet, () -> {
+            Manifest.Builder manifestBuilder = SuperMartApplication.getInstance().getManifestBuilder();
+            forEachTruck(manifestBuilder::addTruck);
+            return manifestBuilder.build();
+        });
+    }
+
+    /**
+     * Plans the trucks for the cargo, passing each to the consumer as soon as it is finalised.
+     *
+     * @param consumer The consumer
+     */
+    public void forEachTruck(Consumer<? super Truck> consumer) {
+        iterator().forEachRemaining(consumer);
+    }
+
+    /**
+     * Gets an iterator that plans the next truck each time one is requested.
+     *
+     * @return The iterator
+     * @throws IllegalStateException If the cargo has cold items, but the fleet has no temperature-controlled type
+     */
+    public Iterator<Truck> iterator() {
+        return new TruckIterator(this.cargo, this.temperatureIndex, this.fleet);
+    }
+
+    /**
+     * Gets a sequential stream that plans trucks as they are consumed.
+     *
+     * @return The stream
+     */
+    public Stream<Truck> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * A quantity of one item that is still to be packed.
+     */
+    private static final class Run {
+
+        private final Item item;
+        private int remaining;
+
+        private Run(Item item, int remaining) {
+            this.item = item;
+            this.remaining = remaining;
+        }
+    }
+
+    /**
+     * Plans trucks lazily.
+     *
+     * Each item is kept as a single run of units rather than one entry per unit, so a truck is
+     * filled by taking as much of each run as fits, using memory in proportion to the number of
+     * items rather than the number of units.
+     */
+    private static final class TruckIterator implements Iterator<Truck> {
+
+        private final Deque<Run> coldRuns = new ArrayDeque<>();
+        private final Deque<Run> warmRuns = new ArrayDeque<>();
+
+        // Setup the builder
+        private final Stock.Builder stockBuilder = SuperMartApplication.getInstance().getStockBuilder();
+        private final TruckType coldType;
+        private final TruckType warmType;
+
+        private TruckIterator(Stock cargo, TemperatureIndex temperatureIndex, Fleet fleet) {
+            this.coldType = fleet.getColdType().orElse(null);
+            this.warmType = fleet.getWarmType();
+
+            List<Run> coldRuns = new ArrayList<>();
+
+            // Separate the items into cold and warm runs.
+            cargo.getStockedItemQuantities().forEach(pair -> {
+                if (pair.getRight() <= 0) {
+                    return;
+                }
                 if (pair.getLeft().isTemperatureControlled()) {
-                    coldItems.add(pair.getLeft());
+                    coldRuns.add(new Run(pair.getLeft(), pair.getRight()));
                 } else {
-                    warmItems.add(pair.getLeft());
+                    this.warmRuns.add(new Run(pair.getLeft(), pair.getRight()));
                 }
+            });
+            if (coldRuns.isEmpty()) {
+                return;
+            }
+            if (this.coldType == null) {
+                throw new IllegalStateException("Cargo has temperature controlled items, but the fleet has no temperature controlled trucks");
             }
-        });
 
-        // Sort the cold items by temperature in ascending order.
-        coldItems.sort(Comparator.comparingDouble(item -> item.getIdealTemperature().getAsDouble()));
+            // Sort the cold items by temperature in ascending order, keeping the cargo order for equal temperatures,
+            // by counting them into their temperature bands
+            int[] bands = new int[coldRuns.size()];
+            if (temperatureIndex == null || !findBands(coldRuns, temperatureIndex, bands)) {
+                temperatureIndex = TemperatureIndex.of(cargo.getStockedItems());
+                findBands(coldRuns, temperatureIndex, bands);
+            }
+            int[] starts = new int[temperatureIndex.getBandCount() + 1];
+            for (int band : bands) {
+                starts[band + 1]++;
+            }
+            for (int band = 0; band < temperatureIndex.getBandCount(); band++) {
+                starts[band + 1] += starts[band];
+            }
+            Run[] sorted = new Run[coldRuns.size()];
+            for (int i = 0; i < bands.length; i++) {
+                sorted[starts[bands[i]]++] = coldRuns.get(i);
+            }
+            this.coldRuns.addAll(Arrays.asList(sorted));
+        }
 
-        // Create all the refrigerated trucks, filling in order of coldest to warmest.
-        while (!coldItems.isEmpty()) {
-            stockBuilder.reset();
-            refrigeratedBuilder.reset();
-            int size = 0;
-            while (size < RefrigeratedTruck.getCapacity() && !coldItems.isEmpty()) {
-                size++;
-                stockBuilder.addStockedItem(coldItems.get(0), 1);
-                coldItems.remove(0);
+        /**
+         * Finds the temperature band of each cold run.
+         *
+         * @param coldRuns The cold runs
+         * @param temperatureIndex The index
+         * @param bands The array to fill with the band of each run
+         * @return If every run's temperature was in the index
+         */
+        private static boolean findBands(List<Run> coldRuns, TemperatureIndex temperatureIndex, int[] bands) {
+            for (int i = 0; i < bands.length; i++) {
+                OptionalInt band = temperatureIndex.getBand(coldRuns.get(i).item.getIdealTemperature().getAsDouble());
+                if (!band.isPresent()) {
+                    return false;
+                }
+                bands[i] = band.getAsInt();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.coldRuns.isEmpty() || !this.warmRuns.isEmpty();
+        }
+
+        @Override
+        public Truck next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
-            // If there is remaining room on the trucks, put warm items in there.
-            while (size < RefrigeratedTruck.getCapacity() && !warmItems.isEmpty()) {
-                size++;
-                stockBuilder.addStockedItem(warmItems.get(0), 1);
-                warmItems.remove(0);
+            this.stockBuilder.reset();
+
+            // Create the temperature-controlled trucks first, filling in order of coldest to warmest.
+            if (!this.coldRuns.isEmpty()) {
+                int size = fill(this.coldRuns, this.coldType.getCapacity());
+                // If there is remaining room on the trucks, put warm items in there.
+                fill(this.warmRuns, this.coldType.getCapacity() - size);
+                return this.coldType.createTruck(this.stockBuilder.build());
             }
-            manifestBuilder.addTruck(refrigeratedBuilder.cargo(stockBuilder.build()).build());
+
+            // Put the remaining warm items on the warm trucks.
+            fill(this.warmRuns, this.warmType.getCapacity());
+            return this.warmType.createTruck(this.stockBuilder.build());
         }
 
-        // Put the remaining warm items on ordinary trucks.
-        while (!warmItems.isEmpty()) {
-            stockBuilder.reset();
-            ordinaryBuilder.reset();
+        /**
+         * Moves up to the given number of units from the front of the runs into the stock builder.
+         *
+         * @param runs The runs
+         * @param space The number of units that fit
+         * @return The number of units moved
+         */
+        private int fill(Deque<Run> runs, int space) {
             int size = 0;
-            while (size < OrdinaryTruck.getCapacity() && !warmItems.isEmpty()) {
-                size++;
-                stockBuilder.addStockedItem(warmItems.get(0), 1);
-                warmItems.remove(0);
+            while (size < space && !runs.isEmpty()) {
+                Run run = runs.peekFirst();
+                int amount = Math.min(space - size, run.remaining);
+                this.stockBuilder.addStockedItem(run.item, amount);
+                size += amount;
+                run.remaining -= amount;
+                if (run.remaining == 0) {
+                    runs.pollFirst();
+                }
             }
-            manifestBuilder.addTruck(ordinaryBuilder.cargo(stockBuilder.build()).build());
+            return size;
         }
-
-        return manifestBuilder.build();
     }
 }
@@ -14,6 +14,9 @@ public class OrdinaryTruckImpl extends AbstractTruck implements OrdinaryTruck {
 
     private static final String TYPE = "Ordinary";
 
+    // The cargo can't change, so the cost is found once
+    private final double cost;
+
     /**
      * Creates an ordinary truck.
      *
@@ -21,6 +24,8 @@ public class OrdinaryTruckImpl extends AbstractTruck implements OrdinaryTruck {
      */
     private OrdinaryTruckImpl(Stock cargo) {
         super(cargo);
+        // The cost function of the ordinary type is in terms of q, the total quantity of items in the cargo
+        this.cost = Fleet.ORDINARY.getCostFunction().getCost(cargo.getTotalAmount(), Double.NaN);
     }
 
     @Override
@@ -30,8 +35,7 @@ public class OrdinaryTruckImpl extends AbstractTruck implements OrdinaryTruck {
 
     @Override
     public double getCost() {
-        // 750 + 0.25q where q is the total quantity of items in the cargo.
-        return 750 + (0.25 * getCargo().getTotalAmount());
+        return this.cost;
     }
 
     /**
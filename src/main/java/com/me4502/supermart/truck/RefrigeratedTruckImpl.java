@@ -14,10 +14,14 @@ import java.util.OptionalDouble;
  */
 public class RefrigeratedTruckImpl extends AbstractTruck implements RefrigeratedTruck {
 
-    private static final double MIN_TEMP = -20;
-    private static final double MAX_TEMP = 10;
+    private static final double MIN_TEMP = Fleet.REFRIGERATED.getMinTemperature().getAsDouble();
+    private static final double MAX_TEMP = Fleet.REFRIGERATED.getMaxTemperature().getAsDouble();
     private static final String TYPE = "Refrigerated";
 
+    // The cargo can't change, so the temperature and cost are found once
+    private final double storageTemperature;
+    private final double cost;
+
     /**
      * Creates a refrigerated truck.
      *
@@ -25,6 +29,8 @@ public class RefrigeratedTruckImpl extends AbstractTruck implements Refrigerated
      */
     private RefrigeratedTruckImpl(Stock cargo) {
         super(cargo);
+        this.storageTemperature = findStorageTemperature(cargo);
+        this.cost = Fleet.REFRIGERATED.getCostFunction().getCost(cargo.getTotalAmount(), this.storageTemperature);
     }
 
     @Override
@@ -34,8 +40,23 @@ public class RefrigeratedTruckImpl extends AbstractTruck implements Refrigerated
 
     @Override
     public double getStorageTemperature() {
+        return this.storageTemperature;
+    }
+
+    @Override
+    public double getCost() {
+        return this.cost;
+    }
+
+    /**
+     * Finds the storage temperature needed for a cargo.
+     *
+     * @param cargo The cargo
+     * @return The lowest ideal temperature inside the valid range
+     */
+    private static double findStorageTemperature(Stock cargo) {
         // Find the lowest ideal temperature inside the valid range
-        return getCargo().getStockedItems()
+        return cargo.getStockedItems()
                 .stream()
                 .map(Item::getIdealTemperature)
                 .filter(OptionalDouble::isPresent)
@@ -45,11 +66,6 @@ public class RefrigeratedTruckImpl extends AbstractTruck implements Refrigerated
                 .min().orElse(MAX_TEMP);
     }
 
-    @Override
-    public double getCost() {
-        return 900 + (200 * Math.pow(0.7, getStorageTemperature() / 5));
-    }
-
     /**
      * {@inheritDoc}
      *
@@ -0,0 +1,106 @@
+package com.me4502.supermart.truck;
+
+import com.google.common.collect.ImmutableMap;
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Plans a single consolidated manifest for the restock orders of multiple stores,
+ * so that stores in the same region can share trucks.
+ *
+ * @author Madeline Miller
+ */
+public class RegionalManifestPlanner {
+
+    private ImmutableMap<String, Stock> orders;
+
+    /**
+     * Creates a regional planner from the restock orders of each store.
+     *
+     * @param orders The restock order of each store, keyed by store name
+     */
+    public RegionalManifestPlanner(Map<String, Stock> orders) {
+        if (orders == null) {
+            throw new IllegalArgumentException("Orders can't be null");
+        }
+        this.orders = ImmutableMap.copyOf(orders);
+    }
+
+    /**
+     * Generates the consolidated plan, along with the per-store plans it is compared against.
+     *
+     * @return The regional plan
+     */
+    public RegionalPlan getPlan() {
+        // Plan each store on its own, in parallel, to find the cost without consolidation
+        ImmutableMap<String, Manifest> storeManifests = this.orders.entrySet().parallelStream()
+                .map(entry -> ImmutablePair.of(entry.getKey(), new ManifestOptimiser(entry.getValue()).getManifest()))
+                .collect(ImmutableMap.toImmutableMap(ImmutablePair::getLeft, ImmutablePair::getRight));
+
+        // Merge all orders by item name, tracking how much each store still needs
+        Map<String, Item> mergedItems = new LinkedHashMap<>();
+        Map<String, Map<String, StoreDemand>> demand = new HashMap<>();
+        Stock.Builder mergedBuilder = SuperMartApplication.getInstance().getStockBuilder();
+        this.orders.forEach((store, order) -> {
+            for (ImmutablePair<Item, Integer> pair : order.getStockedItemQuantities()) {
+                Item item = mergedItems.computeIfAbsent(pair.getLeft().getName(), name -> pair.getLeft());
+                mergedBuilder.addStockedItem(item, pair.getRight());
+                demand.computeIfAbsent(item.getName(), name -> new LinkedHashMap<>())
+                        .computeIfAbsent(store, name -> new StoreDemand(pair.getLeft())).remaining += pair.getRight();
+            }
+        });
+        Manifest manifest = new ManifestOptimiser(mergedBuilder.build()).getManifest();
+
+        // Split the cargo of each shared truck back into the drops for each store
+        ImmutableMap.Builder<Truck, ImmutableMap<String, Stock>> drops = ImmutableMap.builder();
+        for (Truck truck : manifest.getTrucks()) {
+            Map<String, Stock.Builder> truckDrops = new LinkedHashMap<>();
+            for (ImmutablePair<Item, Integer> pair : truck.getCargo().getStockedItemQuantities()) {
+                int remaining = pair.getRight();
+                for (Map.Entry<String, StoreDemand> storeDemand : demand.get(pair.getLeft().getName()).entrySet()) {
+                    int amount = Math.min(remaining, storeDemand.getValue().remaining);
+                    if (amount == 0) {
+                        continue;
+                    }
+                    storeDemand.getValue().remaining -= amount;
+                    remaining -= amount;
+                    // Use the store's own item instance, so each drop list refers to that store's catalogue
+                    truckDrops.computeIfAbsent(storeDemand.getKey(), store -> SuperMartApplication.getInstance().getStockBuilder())
+                            .addStockedItem(storeDemand.getValue().item, amount);
+                    if (remaining == 0) {
+                        break;
+                    }
+                }
+            }
+            ImmutableMap.Builder<String, Stock> builtDrops = ImmutableMap.builder();
+            truckDrops.forEach((store, builder) -> builtDrops.put(store, builder.build()));
+            drops.put(truck, builtDrops.build());
+        }
+
+        return new RegionalPlan(manifest, drops.build(), storeManifests);
+    }
+
+    /**
+     * The outstanding demand of a single store for a single item.
+     */
+    private static class StoreDemand {
+
+        private Item item;
+        private int remaining;
+
+        /**
+         * Creates an empty demand for the store's item.
+         *
+         * @param item The store's instance of the item
+         */
+        private StoreDemand(Item item) {
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.me4502.supermart.truck;
+
+import com.google.common.collect.ImmutableMap;
+import com.me4502.supermart.store.Stock;
+
+/**
+ * The result of a {@link RegionalManifestPlanner}. This class is immutable.
+ *
+ * @author Madeline Miller
+ */
+public class RegionalPlan {
+
+    private Manifest manifest;
+    private ImmutableMap<Truck, ImmutableMap<String, Stock>> drops;
+    private ImmutableMap<String, Manifest> storeManifests;
+
+    /**
+     * Creates a regional plan.
+     *
+     * @param manifest The consolidated manifest
+     * @param drops The cargo dropped at each store, for each truck
+     * @param storeManifests The manifest each store would have planned alone
+     */
+    RegionalPlan(Manifest manifest, ImmutableMap<Truck, ImmutableMap<String, Stock>> drops,
+            ImmutableMap<String, Manifest> storeManifests) {
+        this.manifest = manifest;
+        this.drops = drops;
+        this.storeManifests = storeManifests;
+    }
+
+    /**
+     * Gets the consolidated manifest of trucks shared between the stores.
+     *
+     * @return The consolidated manifest
+     */
+    public Manifest getManifest() {
+        return this.manifest;
+    }
+
+    /**
+     * Gets the drop list of a truck in the consolidated manifest.
+     *
+     * @param truck The truck
+     * @return The cargo dropped at each store, keyed by store name
+     */
+    public ImmutableMap<String, Stock> getDrops(Truck truck) {
+        ImmutableMap<String, Stock> truckDrops = this.drops.get(truck);
+        if (truckDrops == null) {
+            throw new IllegalArgumentException("Truck is not part of this plan");
+        }
+        return truckDrops;
+    }
+
+    /**
+     * Gets the manifest each store would have planned on its own.
+     *
+     * @return The per-store manifests, keyed by store name
+     */
+    public ImmutableMap<String, Manifest> getStoreManifests() {
+        return this.storeManifests;
+    }
+
+    /**
+     * Gets the total cost of the consolidated manifest.
+     *
+     * @return The consolidated cost
+     */
+    public double getConsolidatedCost() {
+        return this.manifest.getTotalCost();
+    }
+
+    /**
+     * Gets the total cost of every store planning its own manifest.
+     *
+     * @return The separate cost
+     */
+    public double getSeparateCost() {
+        return this.storeManifests.values().stream().mapToDouble(Manifest::getTotalCost).sum();
+    }
+
+    /**
+     * Gets how much the consolidated manifest saves over separate per-store manifests.
+     *
+     * @return The savings
+     */
+    public double getSavings() {
+        return getSeparateCost() - getConsolidatedCost();
+    }
+}
@@ -0,0 +1,143 @@
+package com.me4502.supermart.truck;
+
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+
+import java.util.OptionalDouble;
+
+/**
+ * Represents a type of truck in a {@link Fleet}. This class is immutable.
+ *
+ * @author Madeline Miller
+ */
+public interface TruckType {
+
+    /**
+     * Gets the name of the truck type, as used by {@link Truck#getType()} and in manifests.
+     *
+     * @return The name
+     */
+    String getName();
+
+    /**
+     * Gets the cargo capacity of trucks of this type.
+     *
+     * @return The cargo capacity
+     */
+    int getCapacity();
+
+    /**
+     * Gets whether trucks of this type can carry temperature-controlled items.
+     *
+     * @return If the truck type is temperature controlled
+     */
+    boolean isTemperatureControlled();
+
+    /**
+     * Gets the lowest temperature trucks of this type can store items at, if temperature controlled.
+     *
+     * @return The minimum temperature
+     */
+    OptionalDouble getMinTemperature();
+
+    /**
+     * Gets the highest temperature trucks of this type can store items at, if temperature controlled.
+     *
+     * @return The maximum temperature
+     */
+    OptionalDouble getMaxTemperature();
+
+    /**
+     * Gets the function used to calculate the cost of trucks of this type.
+     *
+     * @return The cost function
+     */
+    CostFunction getCostFunction();
+
+    /**
+     * Gets whether trucks of this type may carry an item. Temperature controlled items can only
+     * be carried by temperature controlled types whose range includes their ideal temperature.
+     *
+     * @param item The item
+     * @return If the item may be carried
+     */
+    boolean canCarry(Item item);
+
+    /**
+     * Creates a truck of this type.
+     *
+     * @param cargo The cargo
+     * @return The truck
+     * @throws IllegalStateException If the cargo exceeds the capacity, or contains an item that can't be carried
+     */
+    Truck createTruck(Stock cargo);
+
+    /**
+     * Builder class to build {@link TruckType} instances.
+     *
+     * @author Madeline Miller
+     */
+    interface Builder {
+
+        /**
+         * Sets the name of the {@link TruckType}.
+         *
+         * @param name The name
+         * @return The builder, for chaining
+         */
+        Builder name(String name);
+
+        /**
+         * Sets the cargo capacity of the {@link TruckType}.
+         *
+         * @param capacity The capacity
+         * @return The builder, for chaining
+         */
+        Builder capacity(int capacity);
+
+        /**
+         * Makes the {@link TruckType} temperature controlled, storing items within the given range.
+         *
+         * @param minTemperature The minimum temperature
+         * @param maxTemperature The maximum temperature
+         * @return The builder, for chaining
+         */
+        Builder temperatureRange(double minTemperature, double maxTemperature);
+
+        /**
+         * Sets the cost function of the {@link TruckType}.
+         *
+         * @param costFunction The cost function
+         * @return The builder, for chaining
+         */
+        Builder costFunction(CostFunction costFunction);
+
+        /**
+         * Sets the cost function of the {@link TruckType} from an expression.
+         *
+         * @param expression The expression
+         * @return The builder, for chaining
+         * @throws IllegalArgumentException If the expression is invalid
+         * @see CostFunction#compile(String)
+         */
+        Builder costFunction(String expression);
+
+        /**
+         * Builds the {@link TruckType} using the given values.
+         *
+         * If any of the required values have not been filled in, this
+         * should throw an {@link IllegalStateException}.
+         *
+         * @return The built TruckType
+         * @throws IllegalStateException If a value has not been filled in
+         */
+        TruckType build();
+
+        /**
+         * Resets the state of this builder.
+         *
+         * @return The builder, for chaining
+         */
+        Builder reset();
+    }
+}
@@ -0,0 +1,188 @@
+package com.me4502.supermart.truck;
+
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+
+import java.util.OptionalDouble;
+import java.util.function.Function;
+
+/**
+ * Implementation for {@link TruckType}.
+ *
+ * {@inheritDoc}
+ *
+ * @author Madeline Miller
+ */
+public class TruckTypeImpl implements TruckType {
+
+    private final String name;
+    private final int capacity;
+    private final OptionalDouble minTemperature;
+    private final OptionalDouble maxTemperature;
+    private final CostFunction costFunction;
+    // Creates the trucks, or null to create configured trucks
+    private final Function<Stock, Truck> factory;
+
+    /**
+     * Creates a truck type.
+     *
+     * @param name The name
+     * @param capacity The cargo capacity
+     * @param minTemperature The minimum temperature, or empty if not temperature controlled
+     * @param maxTemperature The maximum temperature, or empty if not temperature controlled
+     * @param costFunction The cost function
+     * @param factory Creates the trucks, or null to create {@link ConfiguredTruck}s
+     */
+    TruckTypeImpl(String name, int capacity, OptionalDouble minTemperature, OptionalDouble maxTemperature,
+            CostFunction costFunction, Function<Stock, Truck> factory) {
+        this.name = name;
+        this.capacity = capacity;
+        this.minTemperature = minTemperature;
+        this.maxTemperature = maxTemperature;
+        this.costFunction = costFunction;
+        this.factory = factory;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    @Override
+    public boolean isTemperatureControlled() {
+        return this.minTemperature.isPresent();
+    }
+
+    @Override
+    public OptionalDouble getMinTemperature() {
+        return this.minTemperature;
+    }
+
+    @Override
+    public OptionalDouble getMaxTemperature() {
+        return this.maxTemperature;
+    }
+
+    @Override
+    public CostFunction getCostFunction() {
+        return this.costFunction;
+    }
+
+    @Override
+    public boolean canCarry(Item item) {
+        // Temperature-controlled trucks can carry dry goods and items in their range, other trucks only dry goods
+        if (!item.isTemperatureControlled()) {
+            return true;
+        }
+        if (!isTemperatureControlled()) {
+            return false;
+        }
+        double temperature = item.getIdealTemperature().getAsDouble();
+        return !(this.minTemperature.isPresent() && temperature < this.minTemperature.getAsDouble())
+                && !(this.maxTemperature.isPresent() && temperature > this.maxTemperature.getAsDouble());
+    }
+
+    @Override
+    public Truck createTruck(Stock cargo) {
+        if (this.factory != null) {
+            return this.factory.apply(cargo);
+        }
+        if (cargo.getTotalAmount() > this.capacity) {
+            throw new IllegalStateException("Cargo exceeds capacity");
+        }
+        if (!isTemperatureControlled() && cargo.getStockedItems().stream().anyMatch(Item::isTemperatureControlled)) {
+            throw new IllegalStateException("Cargo must not contain temperature controlled items");
+        }
+        return new ConfiguredTruck(this, cargo);
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author Madeline Miller
+     */
+    public static class TruckTypeBuilder implements TruckType.Builder {
+
+        private String name;
+        private Integer capacity;
+        private OptionalDouble minTemperature = OptionalDouble.empty();
+        private OptionalDouble maxTemperature = OptionalDouble.empty();
+        private CostFunction costFunction;
+
+        @Override
+        public Builder name(String name) {
+            // Names can't be empty, or contain the manifest separator
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Name must not be empty");
+            }
+            if (name.indexOf(',') >= 0) {
+                throw new IllegalArgumentException("Name must not contain a comma");
+            }
+            this.name = name;
+            return this;
+        }
+
+        @Override
+        public Builder capacity(int capacity) {
+            // Trucks must be able to carry something
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Capacity must be positive");
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        @Override
+        public Builder temperatureRange(double minTemperature, double maxTemperature) {
+            if (minTemperature > maxTemperature) {
+                throw new IllegalArgumentException("Minimum temperature must not be above the maximum temperature");
+            }
+            this.minTemperature = OptionalDouble.of(minTemperature);
+            this.maxTemperature = OptionalDouble.of(maxTemperature);
+            return this;
+        }
+
+        @Override
+        public Builder costFunction(CostFunction costFunction) {
+            if (costFunction == null) {
+                throw new IllegalArgumentException("Cost function can't be null");
+            }
+            this.costFunction = costFunction;
+            return this;
+        }
+
+        @Override
+        public Builder costFunction(String expression) {
+            return costFunction(CostFunction.compile(expression));
+        }
+
+        @Override
+        public TruckType build() {
+            // All parameters must be set
+            if (this.name == null || this.capacity == null || this.costFunction == null) {
+                throw new IllegalStateException("Need to set all parameters besides temperatureRange");
+            }
+            return new TruckTypeImpl(this.name, this.capacity, this.minTemperature, this.maxTemperature, this.costFunction, null);
+        }
+
+        @Override
+        public Builder reset() {
+            this.name = null;
+            this.capacity = null;
+            this.minTemperature = OptionalDouble.empty();
+            this.maxTemperature = OptionalDouble.empty();
+            this.costFunction = null;
+            return this;
+        }
+    }
+}
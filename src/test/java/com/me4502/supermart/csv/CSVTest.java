@@ -0,0 +1,150 @@
+package com.me4502.supermart.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.exception.CSVFormatException;
+import com.me4502.supermart.exception.DeliveryException;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.StoreImpl;
+import com.me4502.supermart.store.StoreSnapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests functionality of the CSV class.
+ *
+ * @author Madeline Miller
+ */
+public class CSVTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+        new StoreImpl("Test Store");
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+        ((StoreImpl) StoreImpl.getInstance()).close();
+    }
+
+    /**
+     * Creates item property lines across several parallel chunks, where every tenth line repeats an earlier name.
+     */
+    private static List<CSVLine> getItemLines(int count) {
+        List<CSVLine> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int name = i % 10 == 9 ? i - 9 : i;
+            lines.add(CSVLine.split("item " + name + ",2.5," + (i % 7) + ".25,10,20"));
+        }
+        return lines;
+    }
+
+    @Test
+    public void testLoadsItemPropertiesInParallel() throws Exception {
+        List<CSVLine> lines = getItemLines(50000);
+        File file = this.folder.newFile();
+        List<String> text = new ArrayList<>();
+        for (CSVLine line : lines) {
+            text.add(line.getRemainder(0));
+        }
+        Files.write(file.toPath(), text, StandardCharsets.UTF_8);
+
+        LoadStatistics statistics = CSV.loadItemProperties(file);
+        assertEquals(50000, statistics.getRowCount());
+        assertEquals(45000, statistics.getItemCount());
+        assertEquals(5000, statistics.getDuplicateCount());
+        assertTrue(statistics.getRowsPerSecond() > 0);
+
+        StoreSnapshot snapshot = StoreImpl.getInstance().getSnapshot();
+        assertEquals(45000, snapshot.getItems().size());
+        // The first line of a repeated name wins
+        assertEquals(0.25, snapshot.getItem("item 0").get().getSellPrice(), 0);
+        assertEquals(3.25, snapshot.getItem("item 10").get().getSellPrice(), 0);
+    }
+
+    @Test
+    public void testKeepsLineOrder() throws Exception {
+        List<Item> parsed = CSV.parseItemProperties(getItemLines(30000));
+        assertEquals(30000, parsed.size());
+        List<Item> items = CSV.firstOfEachName(parsed);
+        assertEquals(27000, items.size());
+        for (int i = 1; i < items.size(); i++) {
+            int previous = Integer.parseInt(items.get(i - 1).getName().substring(5));
+            int current = Integer.parseInt(items.get(i).getName().substring(5));
+            assertTrue(previous < current);
+        }
+    }
+
+    @Test
+    public void testReportsFirstInvalidLine() {
+        List<CSVLine> lines = getItemLines(30000);
+        lines.set(25000, CSVLine.split("late,x,3,10,20"));
+        lines.set(12000, CSVLine.split("early,2,3,ten,20"));
+        try {
+            CSV.parseItemProperties(lines);
+            fail("Expected the invalid line to be reported");
+        } catch (CSVFormatException e) {
+            assertTrue(e.getMessage().startsWith("Invalid item formatting on line 12001."));
+        }
+    }
+
+    @Test
+    public void testSplitsLikeString() {
+        String[] lines = {"rice,2,3", "", ",,,", "a,,b,,", ",x", "one", "a, b ,c"};
+        for (String text : lines) {
+            String[] expected = text.split(",");
+            CSVLine line = CSVLine.split(text);
+            assertEquals(text, expected.length, line.length());
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], line.get(i));
+            }
+        }
+        assertEquals("[a], [ b ], [c]", CSVLine.split("a, b ,c,,").toString());
+    }
+
+    private static void assertManifestError(String message, String... lines) throws DeliveryException {
+        Item rice = SuperMartApplication.getInstance().getItemBuilder()
+                .name("rice").manufacturingCost(2).sellPrice(3).reorderPoint(225).reorderAmount(300).build();
+        Item iceCream = SuperMartApplication.getInstance().getItemBuilder()
+                .name("ice cream").manufacturingCost(8).sellPrice(14).reorderPoint(175).reorderAmount(250)
+                .idealTemperature(-20).build();
+        try {
+            CSV.parseManifest(Arrays.stream(lines).map(CSVLine::split).collect(Collectors.toList()),
+                    name -> Stream.of(rice, iceCream).filter(item -> item.getName().equals(name)).findFirst());
+            fail("Expected " + message);
+        } catch (CSVFormatException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testChecksManifestWhileReading() throws DeliveryException {
+        assertManifestError("Cargo exceeds capacity on Ordinary truck at line 5",
+                ">Ordinary", "rice,600", ">Ordinary", "rice,600", "rice,500");
+        assertManifestError("Cargo must not contain temperature controlled items on Ordinary truck at line 4",
+                ">Refrigerated", "ice cream,10", ">Ordinary", "ice cream,10");
+        assertManifestError("Cargo must follow a truck type at line 1", "rice,10", ">Ordinary");
+        assertManifestError("Unknown truck type Van at line 1", ">Van");
+        assertManifestError("Cannot load a manifest without trucks.");
+    }
+}
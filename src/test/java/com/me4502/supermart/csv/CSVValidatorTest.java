@@ -0,0 +1,184 @@
+package com.me4502.supermart.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.PersistentStock;
+import com.me4502.supermart.store.StoreImpl;
+import com.me4502.supermart.truck.Fleet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests functionality of the CSVValidator class.
+ *
+ * @author Madeline Miller
+ */
+public class CSVValidatorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+        new StoreImpl("Test Store");
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+        ((StoreImpl) StoreImpl.getInstance()).close();
+    }
+
+    private File write(String... lines) throws IOException {
+        File file = this.folder.newFile();
+        Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private void stock(String name, double temperature, int quantity) {
+        Item.Builder builder = SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(1)
+                .sellPrice(2)
+                .reorderPoint(10)
+                .reorderAmount(20);
+        if (!Double.isNaN(temperature)) {
+            builder.idealTemperature(temperature);
+        }
+        Item item = builder.build();
+        StoreImpl.getInstance().update(state -> state.withNewItems(Collections.singleton(item)));
+        StoreImpl.getInstance().update(state -> state.withInventory(
+                PersistentStock.copyOf(state.getInventory()).withQuantity(item, quantity)));
+    }
+
+    @Test
+    public void testValidItemProperties() throws IOException {
+        ValidationReport report = CSVValidator.validateItemProperties(write("rice,2,3,225,300", "ice cream,8,14,175,250,-20",
+                "samples,0,0,0,0"), CSVValidator.DEFAULT_MAX_ERRORS);
+        assertTrue(report.isValid());
+        assertEquals(3, report.getRowCount());
+    }
+
+    @Test
+    public void testCollectsEveryItemError() throws IOException {
+        ValidationReport report = CSVValidator.validateItemProperties(write("rice,x,3,225,300", "beans,2", ",2,3,-1,1.5,11"),
+                CSVValidator.DEFAULT_MAX_ERRORS);
+        assertEquals(6, report.getErrorCount());
+        assertEquals(1, report.getErrors().get(0).getLine());
+        assertEquals(6, report.getErrors().get(0).getColumn());
+        assertEquals(2, report.getErrors().get(1).getLine());
+        assertEquals(3, report.getErrors().get(2).getLine());
+        assertEquals("Name must not be empty", report.getErrors().get(2).getMessage());
+        assertEquals(6, report.getErrors().get(3).getColumn());
+        assertEquals("Reorder point can't be negative", report.getErrors().get(3).getMessage());
+        assertEquals(9, report.getErrors().get(4).getColumn());
+        assertEquals(13, report.getErrors().get(5).getColumn());
+    }
+
+    @Test
+    public void testTemperaturesFollowFleet() throws Exception {
+        SuperMartApplication.getInstance().setFleet(Fleet.of(ImmutableList.of(
+                SuperMartApplication.getInstance().getTruckTypeBuilder().name("Van").capacity(1000)
+                        .costFunction("100").build(),
+                SuperMartApplication.getInstance().getTruckTypeBuilder().name("Freezer").capacity(800)
+                        .temperatureRange(-30, 5).costFunction("200").build())));
+
+        File file = write("fish,2,3,10,20,-25", "milk,2,3,10,20,8");
+        ValidationReport report = CSVValidator.validateItemProperties(file, CSVValidator.DEFAULT_MAX_ERRORS);
+        assertEquals(1, report.getErrorCount());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertEquals("Items over 5 deg Celsius are considered dry goods", report.getErrors().get(0).getMessage());
+
+        // The loaders accept the same range
+        assertEquals(-25, CSV.readItemProperties(write("fish,2,3,10,20,-25")).get(0).getIdealTemperature().getAsDouble(), 0);
+    }
+
+    @Test
+    public void testSplitsLikeTheLoaders() throws IOException {
+        // Empty trailing fields are dropped, as the loaders drop them
+        assertTrue(CSVValidator.validateItemProperties(write("rice,2,3,225,300,,"), CSVValidator.DEFAULT_MAX_ERRORS)
+                .isValid());
+    }
+
+    @Test
+    public void testReportIsBounded() throws IOException {
+        String[] lines = new String[50];
+        Arrays.fill(lines, "bad");
+        ValidationReport report = CSVValidator.validateItemProperties(write(lines), 10);
+        assertEquals(50, report.getErrorCount());
+        assertEquals(10, report.getErrors().size());
+        assertTrue(report.isTruncated());
+    }
+
+    @Test
+    public void testSalesLogChecksStock() throws IOException {
+        stock("rice", Double.NaN, 5);
+        ValidationReport report = CSVValidator.validateSalesLog(write("rice,3", "beans,1", "rice,3", "rice,a"),
+                CSVValidator.DEFAULT_MAX_ERRORS);
+        assertEquals(3, report.getErrorCount());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertEquals(4, report.getErrors().get(1).getLine());
+        assertEquals(3, report.getErrors().get(2).getLine());
+        assertEquals(6, report.getErrors().get(2).getColumn());
+    }
+
+    @Test
+    public void testManifestChecksTrucks() throws IOException {
+        stock("rice", Double.NaN, 0);
+        stock("ice cream", -20, 0);
+        assertTrue(CSVValidator.validateManifest(write(">Refrigerated", "ice cream,800", ">Ordinary", "rice,1000"),
+                CSVValidator.DEFAULT_MAX_ERRORS).isValid());
+
+        ValidationReport report = CSVValidator.validateManifest(write("rice,1", ">Ordinary", "ice cream,1", "rice,1000",
+                ">Flying"), CSVValidator.DEFAULT_MAX_ERRORS);
+        assertFalse(report.isValid());
+        assertEquals(4, report.getErrorCount());
+        assertEquals(1, report.getErrors().get(0).getLine());
+        assertEquals(3, report.getErrors().get(1).getLine());
+        assertEquals(2, report.getErrors().get(2).getLine());
+        assertEquals(5, report.getErrors().get(3).getLine());
+    }
+
+    @Test
+    public void testManifestCargoFollowsFleet() throws IOException {
+        SuperMartApplication.getInstance().setFleet(Fleet.of(ImmutableList.of(
+                SuperMartApplication.getInstance().getTruckTypeBuilder().name("Van").capacity(1000)
+                        .costFunction("100").build(),
+                SuperMartApplication.getInstance().getTruckTypeBuilder().name("Freezer").capacity(800)
+                        .temperatureRange(-30, -10).costFunction("200").build(),
+                SuperMartApplication.getInstance().getTruckTypeBuilder().name("Chiller").capacity(800)
+                        .temperatureRange(0, 10).costFunction("200").build())));
+        stock("fish", -25, 0);
+        stock("milk", 5, 0);
+
+        ValidationReport report = CSVValidator.validateManifest(write(">Chiller", "fish,1", ">Freezer", "milk,1",
+                ">Van", "milk,1"), CSVValidator.DEFAULT_MAX_ERRORS);
+        assertEquals(3, report.getErrorCount());
+        assertEquals("Items under 0 deg Celsius can't be stored", report.getErrors().get(0).getMessage());
+        assertEquals("Items over -10 deg Celsius can't be stored", report.getErrors().get(1).getMessage());
+        assertEquals("Cargo must not contain temperature controlled items", report.getErrors().get(2).getMessage());
+    }
+
+    @Test
+    public void testEmptyManifest() throws IOException {
+        ValidationReport report = CSVValidator.validateManifest(write(), CSVValidator.DEFAULT_MAX_ERRORS);
+        assertEquals(1, report.getErrorCount());
+        assertEquals("Cannot load a manifest without trucks.", report.getErrors().get(0).getMessage());
+    }
+}
@@ -0,0 +1,135 @@
+package com.me4502.supermart.csv;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Tests functionality of the CompressedInput class.
+ *
+ * @author Madeline Miller
+ */
+public class CompressedInputTest {
+
+    private static final String CONTENTS = "rice,2,3,225,300\nbeans,4,6,450,525\n";
+
+    private static String readAll(InputStream input) throws IOException {
+        try (InputStream stream = input) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[7];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(data);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Compresses data into block gzip blocks of up to the given size, followed by the empty end block.
+     */
+    private static byte[] bgzf(byte[] data, int blockSize) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (int start = 0; start <= data.length; start += blockSize) {
+            byte[] chunk = Arrays.copyOfRange(data, start, Math.min(data.length, start + blockSize));
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            deflater.setInput(chunk);
+            deflater.finish();
+            byte[] compressed = new byte[chunk.length + 1024];
+            int length = deflater.deflate(compressed);
+            deflater.end();
+
+            int total = 18 + length + 8;
+            CRC32 crc = new CRC32();
+            crc.update(chunk);
+            output.write(new byte[]{0x1F, (byte) 0x8B, 8, 4, 0, 0, 0, 0, 0, (byte) 0xFF, 6, 0, 'B', 'C', 2, 0,
+                    (byte) (total - 1), (byte) ((total - 1) >> 8)}, 0, 18);
+            output.write(compressed, 0, length);
+            writeInt(output, (int) crc.getValue());
+            writeInt(output, chunk.length);
+            if (chunk.length == 0) {
+                break;
+            }
+        }
+        return output.toByteArray();
+    }
+
+    private static void writeInt(ByteArrayOutputStream output, int value) {
+        for (int i = 0; i < 4; i++) {
+            output.write(value >> (i * 8));
+        }
+    }
+
+    private static CompressedInput.Format detect(byte[] data) throws IOException {
+        return CompressedInput.detect(new BufferedInputStream(new ByteArrayInputStream(data)));
+    }
+
+    @Test
+    public void testDetectsFormats() throws IOException {
+        byte[] plain = CONTENTS.getBytes(StandardCharsets.UTF_8);
+        assertEquals(CompressedInput.Format.PLAIN, detect(plain));
+        assertEquals(CompressedInput.Format.PLAIN, detect(new byte[0]));
+        assertEquals(CompressedInput.Format.GZIP, detect(gzip(plain)));
+        assertEquals(CompressedInput.Format.BGZF, detect(bgzf(plain, 16)));
+        assertEquals(CompressedInput.Format.ZSTD, detect(new byte[]{0x28, (byte) 0xB5, 0x2F, (byte) 0xFD, 0}));
+    }
+
+    @Test
+    public void testReadsPlainAndGzip() throws IOException {
+        byte[] plain = CONTENTS.getBytes(StandardCharsets.UTF_8);
+        assertEquals(CONTENTS, readAll(CompressedInput.open(new ByteArrayInputStream(plain))));
+        assertEquals(CONTENTS, readAll(CompressedInput.open(new ByteArrayInputStream(gzip(plain)))));
+    }
+
+    @Test
+    public void testReadsBlocksInOrder() throws IOException {
+        StringBuilder contents = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            contents.append("item ").append(i).append(',').append(i % 100).append('\n');
+        }
+        byte[] data = bgzf(contents.toString().getBytes(StandardCharsets.UTF_8), 4096);
+        assertEquals(contents.toString(), readAll(CompressedInput.open(new ByteArrayInputStream(data))));
+    }
+
+    @Test(expected = ZipException.class)
+    public void testCorruptBlockFails() throws IOException {
+        byte[] data = bgzf(CONTENTS.getBytes(StandardCharsets.UTF_8), 1024);
+        // Break the CRC of the first block
+        data[data.length - 28 - 8] ^= 1;
+        readAll(CompressedInput.open(new ByteArrayInputStream(data)));
+    }
+
+    @Test(expected = ZipException.class)
+    public void testOversizedBlockFails() throws IOException {
+        byte[] data = bgzf(CONTENTS.getBytes(StandardCharsets.UTF_8), 1024);
+        // Record almost 2GB of uncompressed data for the first block, which must fail before allocating it
+        int total = ((data[16] & 0xFF) | (data[17] & 0xFF) << 8) + 1;
+        data[total - 1] = 0x7F;
+        readAll(CompressedInput.open(new ByteArrayInputStream(data)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testZstdIsUnsupported() throws IOException {
+        CompressedInput.open(new ByteArrayInputStream(new byte[]{0x28, (byte) 0xB5, 0x2F, (byte) 0xFD, 0}));
+    }
+}
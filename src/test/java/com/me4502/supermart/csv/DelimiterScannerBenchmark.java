@@ -0,0 +1,65 @@
+package com.me4502.supermart.csv;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares how fast each {@link CSV.Tokenizer} reads a large item properties file.
+ *
+ * This isn't run with the tests. Run the main method, optionally with the number of lines.
+ *
+ * @author Madeline Miller
+ */
+public final class DelimiterScannerBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    private DelimiterScannerBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int lineCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        File file = File.createTempFile("benchmark", ".csv");
+        file.deleteOnExit();
+
+        Random random = new Random(4502);
+        List<String> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            String line = "item " + i + "," + random.nextInt(10000) / 100.0 + "," + random.nextInt(10000) / 100.0 + ","
+                    + random.nextInt(500) + "," + random.nextInt(1000);
+            lines.add(i % 3 == 0 ? line + "," + (random.nextInt(30) - 20) : line);
+        }
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        double megabytes = file.length() / (1024.0 * 1024.0);
+        System.out.printf("%d lines, %.1f MB%n", lineCount, megabytes);
+
+        CSV.Tokenizer previous = CSV.getTokenizer();
+        try {
+            for (CSV.Tokenizer tokenizer : CSV.Tokenizer.values()) {
+                CSV.setTokenizer(tokenizer);
+                for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                    CSV.readCSV(file);
+                }
+                long fastest = Long.MAX_VALUE;
+                for (int i = 0; i < ROUNDS; i++) {
+                    long start = System.nanoTime();
+                    if (CSV.readCSV(file).size() != lineCount) {
+                        throw new IllegalStateException("Read the wrong number of lines");
+                    }
+                    fastest = Math.min(fastest, System.nanoTime() - start);
+                }
+                double seconds = fastest / 1e9;
+                System.out.printf("%-6s %8.1f ms %8.1f MB/s %12.0f lines/s%n", tokenizer, seconds * 1000,
+                        megabytes / seconds, lineCount / seconds);
+            }
+        } finally {
+            CSV.setTokenizer(previous);
+        }
+    }
+}
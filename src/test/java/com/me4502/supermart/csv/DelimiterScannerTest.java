@@ -0,0 +1,78 @@
+package com.me4502.supermart.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Tests functionality of the DelimiterScanner class.
+ *
+ * @author Madeline Miller
+ */
+public class DelimiterScannerTest {
+
+    /**
+     * Checks that scanning gives the same lines as reading with a BufferedReader and splitting.
+     */
+    private static void assertSameLines(String text, Charset charset, int bufferSize) throws IOException {
+        List<String> expected;
+        try (BufferedReader reader = new BufferedReader(new StringReader(text))) {
+            expected = reader.lines().map(line -> CSVLine.split(line).toString() + "/" + CSVLine.split(line).length())
+                    .collect(Collectors.toList());
+        }
+        List<String> actual = new DelimiterScanner(new ByteArrayInputStream(text.getBytes(charset)), charset, bufferSize)
+                .readLines().stream().map(line -> line + "/" + line.length()).collect(Collectors.toList());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testMatchesReader() throws IOException {
+        String[] texts = {
+                "",
+                "rice,2,3,225,300\nbeans,4,6,350,500\n",
+                "no final line break,1",
+                "crlf,1\r\ncr,2\rlf,3\n\r\n\n",
+                "trailing,,,\n,,,\n,leading\n\n",
+                "a long line that is longer than the buffer,with,several,fields,in,it,1,2,3,4,5\nshort\n",
+                "caf\u00e9,2.5,3\n\u00fcber,1,2\r\nascii,1,2\n",
+        };
+        for (String text : texts) {
+            for (int bufferSize : new int[] {8, 9, 13, 64, 4096}) {
+                assertSameLines(text, StandardCharsets.UTF_8, bufferSize);
+                assertSameLines(text, StandardCharsets.ISO_8859_1, bufferSize);
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesReaderOnRandomText() throws IOException {
+        char[] alphabet = {'a', 'b', '1', ' ', ',', ',', '\n', '\r', '\u00e9', '\u20ac'};
+        Random random = new Random(4502);
+        for (int i = 0; i < 500; i++) {
+            char[] text = new char[random.nextInt(200)];
+            for (int j = 0; j < text.length; j++) {
+                text[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            assertSameLines(new String(text), StandardCharsets.UTF_8, 8 + random.nextInt(40));
+        }
+    }
+
+    @Test
+    public void testAsciiCompatibility() {
+        assertTrue(DelimiterScanner.isAsciiCompatible(StandardCharsets.UTF_8));
+        assertTrue(DelimiterScanner.isAsciiCompatible(StandardCharsets.ISO_8859_1));
+        assertFalse(DelimiterScanner.isAsciiCompatible(StandardCharsets.UTF_16));
+    }
+}
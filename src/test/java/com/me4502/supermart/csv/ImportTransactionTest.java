@@ -0,0 +1,207 @@
+package com.me4502.supermart.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.exception.CSVFormatException;
+import com.me4502.supermart.exception.DeliveryException;
+import com.me4502.supermart.exception.StockException;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import com.me4502.supermart.store.StoreImpl;
+import com.me4502.supermart.store.StoreSnapshot;
+import com.me4502.supermart.truck.Manifest;
+import com.me4502.supermart.truck.Truck;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Function;
+
+/**
+ * Tests functionality of the ImportTransaction class.
+ *
+ * @author Madeline Miller
+ */
+public class ImportTransactionTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+        new StoreImpl("Test Store");
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+        ((StoreImpl) StoreImpl.getInstance()).close();
+    }
+
+    private File write(String... lines) throws IOException {
+        File file = this.folder.newFile();
+        Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    public void testCommitsEverything() throws Exception {
+        StoreSnapshot snapshot = new ImportTransaction()
+                .stageItemProperties(write("rice,2,3,225,300"))
+                .stageManifest(write(">Ordinary", "rice,100"))
+                .stageSalesLog(write("rice,40"))
+                .commit();
+
+        assertSame(snapshot, StoreImpl.getInstance().getSnapshot());
+        assertEquals(60, snapshot.getInventory().getItemQuantity(snapshot.getItem("rice").get()).getAsInt());
+        // 100000 - 750 truck - 25 cargo cost - 200 manufacturing + 120 sales
+        assertEquals(100000 - 750 - 25 - 200 + 120, snapshot.getCapital(), 0.001);
+        assertEquals(1, StoreImpl.getInstance().getSalesHistory().getPeriodCount());
+    }
+
+    @Test
+    public void testFailurePublishesNothing() throws Exception {
+        new ImportTransaction().stageItemProperties(write("rice,2,3,225,300")).commit();
+        StoreSnapshot snapshot = StoreImpl.getInstance().getSnapshot();
+
+        try {
+            new ImportTransaction()
+                    .stageManifest(write(">Ordinary", "rice,10"))
+                    .stageSalesLog(write("rice,40"))
+                    .commit();
+            fail();
+        } catch (StockException e) {
+            assertSame(snapshot, StoreImpl.getInstance().getSnapshot());
+        }
+    }
+
+    @Test
+    public void testValidationFailuresKeepTheirType() throws IOException, CSVFormatException, DeliveryException {
+        ImportTransaction transaction = new ImportTransaction().stageSalesLog(write("beans,1"));
+        try {
+            transaction.commit();
+            fail();
+        } catch (StockException e) {
+            assertEquals(0, transaction.getStagedCount());
+        }
+    }
+
+    /**
+     * Reads a manifest in a test format.
+     */
+    private interface ManifestReader {
+
+        Manifest read(InputStream input, Function<String, Optional<Item>> catalogue)
+                throws IOException, CSVFormatException, DeliveryException;
+    }
+
+    /**
+     * Registers a format that reads files with an extension as CSV, apart from manifests.
+     */
+    private static void registerManifestFormat(String extension, ManifestReader reader) {
+        InputFormats.register(new InputFormat() {
+            @Override
+            public String getName() {
+                return extension;
+            }
+
+            @Override
+            public ImmutableList<String> getExtensions() {
+                return ImmutableList.of(extension);
+            }
+
+            @Override
+            public List<Item> readItemProperties(InputStream input) throws IOException, CSVFormatException {
+                return InputFormats.CSV.readItemProperties(input);
+            }
+
+            @Override
+            public Stock readSalesLog(InputStream input, Function<String, Optional<Item>> catalogue)
+                    throws IOException, CSVFormatException, StockException {
+                return InputFormats.CSV.readSalesLog(input, catalogue);
+            }
+
+            @Override
+            public Manifest readManifest(InputStream input, Function<String, Optional<Item>> catalogue)
+                    throws IOException, CSVFormatException, DeliveryException {
+                return reader.read(input, catalogue);
+            }
+        });
+    }
+
+    @Test
+    public void testItemsChangedWhileImportingFail() throws Exception {
+        new ImportTransaction().stageItemProperties(write("rice,2,3,225,300")).commit();
+        File manifest = this.folder.newFile("manifest.racing");
+        Files.write(manifest.toPath(), Arrays.asList(">Ordinary", "rice,100"), StandardCharsets.UTF_8);
+        // A format that replaces rice in the store after the catalogue was read, as another writer could
+        registerManifestFormat("racing", (input, catalogue) -> {
+            Item rice = SuperMartApplication.getInstance().getItemBuilder().name("rice").manufacturingCost(4)
+                    .sellPrice(6).reorderPoint(225).reorderAmount(300).build();
+            StoreImpl.getInstance().update(state -> state.withReplacedItems(ImmutableList.of(rice)));
+            return InputFormats.CSV.readManifest(input, catalogue);
+        });
+
+        try {
+            new ImportTransaction().stageManifest(manifest).commit();
+            fail();
+        } catch (DeliveryException e) {
+            // Only the replacement was published, and the inventory holds the replacement
+            StoreSnapshot snapshot = StoreImpl.getInstance().getSnapshot();
+            assertEquals(4, snapshot.getItem("rice").get().getManufacturingCost(), 0);
+            assertEquals(OptionalInt.of(0), snapshot.getInventory().getItemQuantity(snapshot.getItem("rice").get()));
+        }
+    }
+
+    @Test
+    public void testInvalidDeliveryIsDeliveryFailure() throws Exception {
+        new ImportTransaction().stageItemProperties(write("rice,2,3,225,300")).commit();
+        StoreSnapshot snapshot = StoreImpl.getInstance().getSnapshot();
+        // A manifest that takes rice away, which the store rejects when delivering it
+        registerManifestFormat("negative", (input, catalogue) -> {
+            Item rice = catalogue.apply("rice").get();
+            Stock cargo = mock(Stock.class);
+            when(cargo.getStockedItems()).thenReturn(ImmutableSet.of(rice));
+            when(cargo.getStockedItemQuantities()).thenReturn(ImmutableSet.of(ImmutablePair.of(rice, -5)));
+            Truck truck = mock(Truck.class);
+            when(truck.getCargo()).thenReturn(cargo);
+            Manifest manifest = mock(Manifest.class);
+            when(manifest.getTrucks()).thenReturn(ImmutableSet.of(truck));
+            return manifest;
+        });
+
+        try {
+            new ImportTransaction().stageManifest(this.folder.newFile("manifest.negative")).commit();
+            fail();
+        } catch (DeliveryException e) {
+            assertSame(snapshot, StoreImpl.getInstance().getSnapshot());
+        }
+    }
+
+    @Test
+    public void testDiscard() throws IOException {
+        ImportTransaction transaction = new ImportTransaction().stageSalesLog(write("beans,1"));
+        transaction.discard();
+        assertEquals(0, transaction.getStagedCount());
+    }
+}
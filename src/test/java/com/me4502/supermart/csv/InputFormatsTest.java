@@ -0,0 +1,260 @@
+package com.me4502.supermart.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.exception.CSVFormatException;
+import com.me4502.supermart.exception.DeliveryException;
+import com.me4502.supermart.exception.StockException;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import com.me4502.supermart.store.StoreImpl;
+import com.me4502.supermart.store.StoreSnapshot;
+import com.me4502.supermart.truck.Manifest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Tests functionality of the InputFormats class and the formats it registers.
+ *
+ * @author Madeline Miller
+ */
+public class InputFormatsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+        new StoreImpl("Test Store");
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+        ((StoreImpl) StoreImpl.getInstance()).close();
+    }
+
+    private static InputStream text(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Describes items by their properties, as items aren't equal to each other.
+     */
+    private static List<String> describe(List<Item> items) {
+        return items.stream()
+                .map(item -> item.getName() + "/" + item.getManufacturingCost() + "/" + item.getSellPrice() + "/"
+                        + item.getReorderPoint() + "/" + item.getReorderAmount() + "/" + item.getIdealTemperature())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Describes a manifest by its trucks and their cargo, in order.
+     */
+    private static List<String> describe(Manifest manifest) {
+        return manifest.getTrucks().stream()
+                .map(truck -> truck.getType() + describe(truck.getCargo()))
+                .collect(Collectors.toList());
+    }
+
+    private static String describe(Stock stock) {
+        return stock.getStockedItemQuantities().stream()
+                .map(pair -> pair.getLeft().getName() + "=" + pair.getRight())
+                .sorted()
+                .collect(Collectors.toList())
+                .toString();
+    }
+
+    @Test
+    public void testForFile() {
+        assertSame(InputFormats.CSV, InputFormats.forFile(new File("items.csv")));
+        assertSame(InputFormats.BINARY, InputFormats.forFile(new File("items.bin")));
+        assertSame(InputFormats.JSON_LINES, InputFormats.forFile(new File("items.JSONL")));
+        assertSame(InputFormats.JSON_LINES, InputFormats.forFile(new File("items.jsonl.gz")));
+        assertSame(InputFormats.CSV, InputFormats.forFile(new File("items.txt")));
+        assertSame(InputFormats.CSV, InputFormats.forFile(new File("jsonl")));
+        assertTrue(InputFormats.getExtensions().containsAll(Arrays.asList("csv", "bin", "jsonl")));
+    }
+
+    @Test
+    public void testFormatsReadTheSameRecords() throws Exception {
+        List<Item> expectedItems = InputFormats.CSV.readItemProperties(text(
+                "rice,2,3,225,300", "ice cream,8,14,175,250,-20", "rice,1,2,3,4", "beans,2.5,3.75,10,20"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BinaryRecordWriter writer = BinaryRecordWriter.forItemProperties(bytes)) {
+            for (Item item : expectedItems) {
+                writer.writeItem(item);
+            }
+        }
+        List<Item> binaryItems = InputFormats.BINARY.readItemProperties(new ByteArrayInputStream(bytes.toByteArray()));
+        List<Item> jsonItems = InputFormats.JSON_LINES.readItemProperties(text(
+                "{\"name\": \"rice\", \"cost\": 2, \"price\": 3, \"reorderPoint\": 225, \"reorderAmount\": 300}",
+                "{\"name\":\"ice cream\",\"cost\":8,\"price\":14,\"reorderPoint\":175,\"reorderAmount\":250,\"temperature\":-20}",
+                "",
+                "{\"name\": \"rice\", \"cost\": 1, \"price\": 2, \"reorderPoint\": 3, \"reorderAmount\": 4, \"temperature\": null}",
+                "{\"name\": \"be\\u0061ns\", \"cost\": 2.5, \"price\": 3.75, \"reorderPoint\": 10, \"reorderAmount\": 20}"));
+        assertEquals(describe(expectedItems), describe(binaryItems));
+        assertEquals(describe(expectedItems), describe(jsonItems));
+
+        Function<String, Optional<Item>> catalogue = name -> expectedItems.stream()
+                .filter(item -> item.getName().equals(name)).findFirst();
+
+        Stock expectedSales = InputFormats.CSV.readSalesLog(text("rice,40", "ice cream,5"), catalogue);
+        bytes.reset();
+        try (BinaryRecordWriter writer = BinaryRecordWriter.forSalesLog(bytes)) {
+            writer.writeSale("rice", 40);
+            writer.writeSale("ice cream", 5);
+        }
+        assertEquals(describe(expectedSales), describe(InputFormats.BINARY.readSalesLog(
+                new ByteArrayInputStream(bytes.toByteArray()), catalogue)));
+        assertEquals(describe(expectedSales), describe(InputFormats.JSON_LINES.readSalesLog(text(
+                "{\"item\": \"rice\", \"quantity\": 40}", "{\"item\": \"ice cream\", \"quantity\": 5}"), catalogue)));
+
+        Manifest expectedManifest = InputFormats.CSV.readManifest(text(
+                ">Ordinary", "rice,100", ">Refrigerated", "ice cream,50", "rice,10"), catalogue);
+        bytes.reset();
+        try (BinaryRecordWriter writer = BinaryRecordWriter.forManifest(bytes)) {
+            writer.writeTruck("Ordinary");
+            writer.writeCargo("rice", 100);
+            writer.writeTruck("Refrigerated");
+            writer.writeCargo("ice cream", 50);
+            writer.writeCargo("rice", 10);
+        }
+        assertEquals(describe(expectedManifest), describe(InputFormats.BINARY.readManifest(
+                new ByteArrayInputStream(bytes.toByteArray()), catalogue)));
+        assertEquals(describe(expectedManifest), describe(InputFormats.JSON_LINES.readManifest(text(
+                "{\"truck\": \"Ordinary\"}", "{\"item\": \"rice\", \"quantity\": 100}",
+                "{\"truck\": \"Refrigerated\"}", "{\"item\": \"ice cream\", \"quantity\": 50}",
+                "{\"item\": \"rice\", \"quantity\": 10}"), catalogue)));
+    }
+
+    @Test
+    public void testLoadsByExtension() throws Exception {
+        File items = this.folder.newFile("items.bin");
+        try (BinaryRecordWriter writer = BinaryRecordWriter.forItemProperties(Files.newOutputStream(items.toPath()))) {
+            writer.writeItem(SuperMartApplication.getInstance().getItemBuilder()
+                    .name("rice").manufacturingCost(2).sellPrice(3).reorderPoint(225).reorderAmount(300).build());
+        }
+        File manifest = this.folder.newFile("manifest.csv");
+        Files.write(manifest.toPath(), Arrays.asList(">Ordinary", "rice,100"), StandardCharsets.UTF_8);
+        File sales = this.folder.newFile("sales.jsonl");
+        Files.write(sales.toPath(), Arrays.asList("{\"item\": \"rice\", \"quantity\": 40}"), StandardCharsets.UTF_8);
+
+        StoreSnapshot snapshot = new ImportTransaction()
+                .stageItemProperties(items)
+                .stageManifest(manifest)
+                .stageSalesLog(sales)
+                .commit();
+        assertEquals(60, snapshot.getInventory().getItemQuantity(snapshot.getItem("rice").get()).getAsInt());
+
+        assertEquals(1, CSV.loadItemProperties(items).getRowCount());
+    }
+
+    @Test
+    public void testBinaryErrors() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BinaryRecordWriter writer = BinaryRecordWriter.forSalesLog(bytes)) {
+            writer.writeSale("rice", 40);
+        }
+        byte[] sales = bytes.toByteArray();
+
+        bytes.reset();
+        BinaryRecordWriter.forItemProperties(bytes).close();
+        assertBinaryError("Expected a sales log, but the file holds item properties", bytes.toByteArray());
+        assertBinaryError("Not a binary record file, as it doesn't start with SMRB", "rice,2,3,225,300".getBytes(StandardCharsets.UTF_8));
+        assertBinaryError("Record 1 is cut short", Arrays.copyOf(sales, sales.length - 1));
+
+        // A record that is longer than its fields
+        byte[] longer = Arrays.copyOf(sales, sales.length + 1);
+        longer[9]++;
+        assertBinaryError("Record 1 has 1 unexpected bytes at the end", longer);
+    }
+
+    private static void assertBinaryError(String message, byte[] bytes) throws IOException {
+        try {
+            InputFormats.BINARY.readSalesLog(new ByteArrayInputStream(bytes), name -> Optional.empty());
+            fail();
+        } catch (CSVFormatException e) {
+            assertEquals(message, e.getMessage());
+        } catch (StockException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testJsonLinesErrors() throws IOException {
+        try {
+            InputFormats.JSON_LINES.readItemProperties(text("{\"name\": \"rice\", \"cost\": 2,"));
+            fail();
+        } catch (CSVFormatException e) {
+            assertTrue(e.getMessage().startsWith("Invalid JSON on line 1"));
+        }
+        try {
+            InputFormats.JSON_LINES.readItemProperties(text("", "{\"name\": \"rice\", \"cost\": 2, \"price\": 3}"));
+            fail();
+        } catch (CSVFormatException e) {
+            assertEquals("Invalid item on line 2: Missing reorderPoint", e.getMessage());
+        }
+        try {
+            InputFormats.JSON_LINES.readSalesLog(text("{\"item\": \"rice\", \"quantity\": 1}"), name -> Optional.empty());
+            fail();
+        } catch (CSVFormatException e) {
+            fail(e.getMessage());
+        } catch (StockException e) {
+            assertEquals("Store doesn't stock rice, but sales log contains it.", e.getMessage());
+        }
+        try {
+            InputFormats.JSON_LINES.readManifest(text("{\"item\": \"rice\", \"quantity\": 1}"), name -> Optional.empty());
+            fail();
+        } catch (CSVFormatException e) {
+            assertEquals("Cargo must follow a truck type at line 1", e.getMessage());
+        } catch (DeliveryException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testJsonObject() {
+        JsonObject object = JsonObject.parse(" { \"a\\\"b\" : \"x\\ny\\u0041\" , \"n\": -1.5e2, \"i\": 0, \"t\": true } ");
+        assertEquals("x\nyA", object.getString("a\"b"));
+        assertEquals(-150, object.getDouble("n"), 0);
+        assertEquals(0, object.getInt("i"));
+        assertTrue(object.has("t"));
+        for (String invalid : new String[] {"", "{", "{\"a\": 01}", "{\"a\": [1]}", "{\"a\": 1} x", "{\"a\": 1, \"a\": 2}"}) {
+            try {
+                JsonObject.parse(invalid);
+                fail(invalid);
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+        try {
+            JsonObject.parse("{\"n\": 1.5}").getInt("n");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Expected n to be an integer", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.me4502.supermart.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.truck.Truck;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tests functionality of the ManifestWriter class.
+ *
+ * @author Madeline Miller
+ */
+public class ManifestWriterTest {
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+    }
+
+    private Truck getTruck(String name, int quantity) {
+        Item item = SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(2)
+                .sellPrice(3)
+                .reorderPoint(225)
+                .reorderAmount(300)
+                .build();
+        return SuperMartApplication.getInstance().getOrdinaryTruckBuilder()
+                .cargo(SuperMartApplication.getInstance().getStockBuilder().addStockedItem(item, quantity).build())
+                .build();
+    }
+
+    @Test
+    public void testWritesTrucks() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ManifestWriter writer = ManifestWriter.toStream(output)) {
+            writer.writeTruck(getTruck("rice", 1000));
+            writer.asConsumer().accept(getTruck("cr\u00e8me br\u00fbl\u00e9e", 7));
+            assertEquals(2, writer.getTruckCount());
+        }
+        assertEquals(">Ordinary\nrice,1000\n>Ordinary\ncr\u00e8me br\u00fbl\u00e9e,7\n", new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReadsBackWhateverTheDefaultCharset() throws IOException {
+        String name = "cr\u00e8me br\u00fbl\u00e9e";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ManifestWriter writer = ManifestWriter.toStream(output)) {
+            writer.writeTruck(getTruck(name, 7));
+        }
+        // The loaders decode with the charset the writer encodes with, rather than the platform default
+        for (CSV.Tokenizer tokenizer : CSV.Tokenizer.values()) {
+            CSV.Tokenizer previous = CSV.getTokenizer();
+            CSV.setTokenizer(tokenizer);
+            try {
+                assertEquals(name, CSV.readLines(new ByteArrayInputStream(output.toByteArray())).get(1).get(0));
+            } finally {
+                CSV.setTokenizer(previous);
+            }
+        }
+    }
+
+    @Test
+    public void testWritesPastBuffer() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        StringBuilder expected = new StringBuilder();
+        try (ManifestWriter writer = ManifestWriter.toStream(output)) {
+            for (int i = 0; i < 5000; i++) {
+                String name = "\u00fcr\u00fcn " + i;
+                writer.writeTruck(getTruck(name, i % 1000 + 1));
+                expected.append(">Ordinary\n").append(name).append(',').append(i % 1000 + 1).append('\n');
+            }
+        }
+        assertEquals(expected.toString(), new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ManifestWriter writer = ManifestWriter.toGzip(output)) {
+            writer.writeTruck(getTruck("rice", 5));
+        }
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                decompressed.write(buffer, 0, read);
+            }
+        }
+        assertTrue(output.size() > 0);
+        assertEquals(">Ordinary\nrice,5\n", new String(decompressed.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,91 @@
+package com.me4502.supermart.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Tests functionality of the NumberParser class.
+ *
+ * @author Madeline Miller
+ */
+public class NumberParserTest {
+
+    @Test
+    public void testParseNumbers() {
+        assertEquals(-42, NumberParser.parseInteger("-42", 0, 3));
+        assertEquals(Integer.MIN_VALUE, NumberParser.parseInteger("-2147483648", 0, 11));
+        assertEquals(Long.MIN_VALUE, NumberParser.parseInteger("2147483648", 0, 10));
+        assertEquals(Long.MIN_VALUE, NumberParser.parseInteger(" 1", 0, 2));
+        assertEquals(1.5e3, NumberParser.parseDecimal(" 1.5e3 ", 0, 7), 0);
+        assertEquals(-0.5, NumberParser.parseDecimal("-.5", 0, 3), 0);
+        assertTrue(Double.isNaN(NumberParser.parseDecimal("1e", 0, 2)));
+        assertTrue(Double.isNaN(NumberParser.parseDecimal(".", 0, 1)));
+    }
+
+    @Test
+    public void testParseDecimalMatchesDouble() {
+        String[] values = {"0", "-0.0", "0.1", "2.675", "123456789.123456", "9007199254740993", "0.30000000000000004",
+                "1234567890123456789012", "1e-7", "-17.5", "+3.14159", "1.5f", "12.5e3", "4.9e-324", "1e400", "0e999",
+                "1.7976931348623157e308", "  8.25  ", "3D"};
+        for (String value : values) {
+            long expected = Double.doubleToLongBits(Double.parseDouble(value));
+            assertEquals(value, expected, Double.doubleToLongBits(NumberParser.parseDecimal(value, 0, value.length())));
+            byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+            assertEquals(value, expected, Double.doubleToLongBits(NumberParser.parseDecimal(bytes, 0, bytes.length)));
+        }
+
+        // Prices and temperatures with a few decimal places, and some with exponents
+        Random random = new Random(4502);
+        for (int i = 0; i < 100000; i++) {
+            String value = BigDecimal.valueOf(random.nextLong() % 10000000000000L, random.nextInt(6)).toPlainString() + (i % 3 == 0 ? "e" + (random.nextInt(40) - 20) : "");
+            assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)),
+                    Double.doubleToLongBits(NumberParser.parseDecimal(value, 0, value.length())));
+        }
+    }
+
+    @Test
+    public void testParsesRanges() {
+        String text = "rice,-120,2.75,";
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        assertEquals(-120, NumberParser.parseInt(text, 5, 9));
+        assertEquals(-120, NumberParser.parseInt(bytes, 5, 9));
+        assertEquals(2.75, NumberParser.parseDouble(text, 10, 14), 0);
+        assertEquals(2.75, NumberParser.parseDouble(bytes, 10, 14), 0);
+    }
+
+    @Test
+    public void testStrictParsersMatchJdk() {
+        // Accepted by the JDK parsers, but not by the fast path
+        assertEquals(Integer.parseInt("\u0663\u0664"), NumberParser.parseInt("\u0663\u0664", 0, 2));
+        assertTrue(Double.isInfinite(NumberParser.parseDouble("-Infinity", 0, 9)));
+        assertEquals(Double.parseDouble("0x1p3"), NumberParser.parseDouble("0x1p3", 0, 5), 0);
+
+        String[] invalid = {"", "-", "+", "1.5", " 7", "2147483648", "12a"};
+        for (String value : invalid) {
+            try {
+                NumberParser.parseInt(value, 0, value.length());
+                fail("Expected " + value + " to be rejected");
+            } catch (NumberFormatException e) {
+                try {
+                    Integer.parseInt(value);
+                    fail("Expected the JDK to reject " + value);
+                } catch (NumberFormatException expected) {
+                    assertEquals(expected.getMessage(), e.getMessage());
+                }
+            }
+        }
+        try {
+            NumberParser.parseDouble("1e", 0, 2);
+            fail("Expected 1e to be rejected");
+        } catch (NumberFormatException e) {
+            // As by Double.parseDouble
+        }
+    }
+}
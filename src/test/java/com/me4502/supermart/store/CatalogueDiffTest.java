@@ -0,0 +1,90 @@
+package com.me4502.supermart.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.me4502.supermart.SuperMartApplication;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests functionality of the CatalogueDiff class.
+ *
+ * @author Madeline Miller
+ */
+public class CatalogueDiffTest {
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+        new StoreImpl("Test Store");
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+        ((StoreImpl) StoreImpl.getInstance()).close();
+    }
+
+    private Item getItem(String name, double sellPrice, int reorderPoint) {
+        return SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(2)
+                .sellPrice(sellPrice)
+                .reorderPoint(reorderPoint)
+                .reorderAmount(300)
+                .build();
+    }
+
+    private void stock(Item... items) {
+        StoreImpl.getInstance().update(state -> state.withNewItems(ImmutableList.copyOf(items)));
+    }
+
+    @Test
+    public void testFindsChangedAndAddedItems() {
+        stock(getItem("rice", 3, 225), getItem("beans", 4, 450));
+        Store store = StoreImpl.getInstance();
+        store.update(state -> state.withInventory(PersistentStock.copyOf(state.getInventory())
+                .withQuantity(state.getItem("rice").get(), 100)));
+
+        CatalogueDiff diff = CatalogueDiff.compute(store.getSnapshot(), ImmutableList.of(
+                getItem("rice", 3.5, 50), getItem("beans", 4, 450), getItem("pasta", 1, 10), getItem("rice", 9, 9)));
+
+        assertEquals(1, diff.getAddedItems().size());
+        assertEquals(1, diff.getUnchangedCount());
+        assertEquals(1, diff.getChanges().size());
+        CatalogueDiff.Change change = diff.getChanges().get(0);
+        assertEquals(100, change.getQuantity());
+        assertEquals(50, diff.getSellValueChange(), 0.001);
+        assertEquals(0, diff.getCostValueChange(), 0.001);
+        assertFalse(change.isRestockNeeded());
+        assertTrue(change.isRestockChanged());
+        assertEquals(0, change.getRestockAmount());
+    }
+
+    @Test
+    public void testApplyReplacesItems() {
+        stock(getItem("rice", 3, 225));
+        Store store = StoreImpl.getInstance();
+        store.update(state -> state.withInventory(PersistentStock.copyOf(state.getInventory())
+                .withQuantity(state.getItem("rice").get(), 100)));
+        Item rice = getItem("rice", 5, 225);
+
+        StoreSnapshot snapshot = store.update(state -> CatalogueDiff.compute(state, ImmutableList.of(rice)).apply(state));
+
+        assertSame(rice, snapshot.getItem("rice").get());
+        assertSame(rice, snapshot.getInventory().getStockedItems().iterator().next());
+        assertEquals(100, snapshot.getInventory().getItemQuantity(rice).getAsInt());
+    }
+
+    @Test
+    public void testUnchangedIsEmpty() {
+        stock(getItem("rice", 3, 225));
+        assertTrue(CatalogueDiff.compute(StoreImpl.getInstance().getSnapshot(),
+                ImmutableList.of(getItem("rice", 3, 225))).isEmpty());
+    }
+}
@@ -0,0 +1,127 @@
+package com.me4502.supermart.store;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.me4502.supermart.SuperMartApplication;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.OptionalInt;
+
+/**
+ * Tests functionality of the DemandForecaster class.
+ *
+ * @author Madeline Miller
+ */
+public class DemandForecasterTest {
+
+    private static final double DELTA = 1e-9;
+
+    private Item rice;
+    private Item pasta;
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+        this.rice = getItem("rice", 100, 50);
+        this.pasta = getItem("pasta", 100, 50);
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+    }
+
+    private Item getItem(String name, int reorderPoint, int reorderAmount) {
+        return SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(1)
+                .sellPrice(2)
+                .reorderPoint(reorderPoint)
+                .reorderAmount(reorderAmount)
+                .build();
+    }
+
+    private Stock getStock(Item item, int quantity) {
+        return SuperMartApplication.getInstance().getStockBuilder().addStockedItem(item, quantity).build();
+    }
+
+    private DemandForecaster getForecaster(int... riceSales) {
+        SalesHistory history = new SalesHistory();
+        for (int sold : riceSales) {
+            history.record(getStock(this.rice, sold));
+        }
+        return new DemandForecaster(history, 0.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSmoothing() {
+        new DemandForecaster(new SalesHistory(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroPeriods() {
+        getForecaster(10, 30).getRestock(getStock(this.rice, 0), 0);
+    }
+
+    @Test
+    public void testEmptyHistory() {
+        assertEquals(0, new DemandForecaster(new SalesHistory(), 0.5).getDemandForecast().length);
+    }
+
+    @Test
+    public void testSmoothingLevel() {
+        // 10, then 10 + 0.5 * (30 - 10) = 20, then 20 + 0.5 * (40 - 20) = 30
+        assertArrayEquals(new double[] {30}, getForecaster(10, 30, 40).getDemandForecast(), DELTA);
+    }
+
+    @Test
+    public void testItemFirstSoldLater() {
+        SalesHistory history = new SalesHistory();
+        history.record(getStock(this.rice, 10));
+        history.record(SuperMartApplication.getInstance().getStockBuilder()
+                .addStockedItem(this.rice, 30)
+                .addStockedItem(this.pasta, 8)
+                .build());
+        history.record(getStock(this.rice, 40));
+
+        // Pasta starts at its first sale rather than being smoothed up from zero, then sells none
+        double[] forecast = new DemandForecaster(history, 0.5).getDemandForecast();
+        assertEquals(30, forecast[history.getItemId("rice").get()], DELTA);
+        assertEquals(4, forecast[history.getItemId("pasta").get()], DELTA);
+    }
+
+    @Test
+    public void testRestockRounding() {
+        // Forecast demand of 20 per period
+        DemandForecaster forecaster = getForecaster(10, 30);
+
+        // 130 - 20 = 110, above the reorder point of 100
+        assertFalse(forecaster.getRestock(getStock(this.rice, 130), 1).getItemQuantity(this.rice).isPresent());
+        // 120 - 20 = 100, at the reorder point, so one lot
+        assertEquals(OptionalInt.of(50), forecaster.getRestock(getStock(this.rice, 120), 1).getItemQuantity(this.rice));
+        // 30 - 20 = 10, 90 short, so two lots finish at 110
+        assertEquals(OptionalInt.of(100), forecaster.getRestock(getStock(this.rice, 30), 1).getItemQuantity(this.rice));
+        // 20 - 20 = 0, exactly two lots short, so three lots finish above rather than at the reorder point
+        assertEquals(OptionalInt.of(150), forecaster.getRestock(getStock(this.rice, 20), 1).getItemQuantity(this.rice));
+        // 60 - 40 = 20 over two periods, 80 short, so two lots
+        assertEquals(OptionalInt.of(100), forecaster.getRestock(getStock(this.rice, 60), 2).getItemQuantity(this.rice));
+    }
+
+    @Test
+    public void testRestockWithoutHistory() {
+        // Items that have never sold are forecast to sell none
+        Stock restock = getForecaster(10, 30).getRestock(getStock(this.pasta, 100), 1);
+        assertEquals(OptionalInt.of(50), restock.getItemQuantity(this.pasta));
+    }
+
+    @Test
+    public void testZeroReorderAmount() {
+        Item unordered = getItem("rice", 100, 0);
+        Stock restock = getForecaster(10, 30).getRestock(getStock(unordered, 0), 1);
+        assertEquals(0, restock.getStockedItems().size());
+    }
+}
@@ -0,0 +1,133 @@
+package com.me4502.supermart.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.me4502.supermart.SuperMartApplication;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests functionality of the OffHeapCatalogue class.
+ *
+ * @author Madeline Miller
+ */
+public class OffHeapCatalogueTest {
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+    }
+
+    private Item getItem(String name) {
+        return SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(2)
+                .sellPrice(3.5)
+                .reorderPoint(225)
+                .reorderAmount(300)
+                .build();
+    }
+
+    @Test
+    public void testItemViewMatchesItem() {
+        OffHeapCatalogue catalogue = new OffHeapCatalogue(0);
+        Item frozen = SuperMartApplication.getInstance().getItemBuilder()
+                .name("frozen meat")
+                .manufacturingCost(10)
+                .sellPrice(14)
+                .reorderPoint(450)
+                .reorderAmount(575)
+                .idealTemperature(-14)
+                .build();
+        Item view = catalogue.getItem(catalogue.add(frozen, 5));
+
+        assertEquals("frozen meat", view.getName());
+        assertEquals(10, view.getManufacturingCost(), 0.001);
+        assertEquals(14, view.getSellPrice(), 0.001);
+        assertEquals(450, view.getReorderPoint());
+        assertEquals(575, view.getReorderAmount());
+        assertTrue(view.isTemperatureControlled());
+        assertEquals(-14, view.getIdealTemperature().getAsDouble(), 0.001);
+        assertFalse(catalogue.getItem(catalogue.add(getItem("rice"), 0)).isTemperatureControlled());
+    }
+
+    @Test
+    public void testDuplicateNamesKeepFirst() {
+        OffHeapCatalogue catalogue = new OffHeapCatalogue(0);
+        int id = catalogue.add(getItem("rice"), 5);
+        assertEquals(id, catalogue.add(getItem("rice"), 10));
+        assertEquals(1, catalogue.size());
+        assertEquals(5, catalogue.getQuantity(id));
+    }
+
+    @Test
+    public void testQuantities() {
+        OffHeapCatalogue catalogue = new OffHeapCatalogue(0);
+        int id = catalogue.add(getItem("rice"), 5);
+        catalogue.addQuantity(id, 10);
+        catalogue.addQuantity(id, -3);
+        assertEquals(12, catalogue.getQuantity(id));
+        assertEquals(12, catalogue.asStock().getItemQuantity(getItem("rice")).orElse(0));
+        assertFalse(catalogue.asStock().getItemQuantity(getItem("beans")).isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeQuantityFails() {
+        OffHeapCatalogue catalogue = new OffHeapCatalogue(0);
+        catalogue.addQuantity(catalogue.add(getItem("rice"), 1), -2);
+    }
+
+    @Test
+    public void testQuantityOverflowFails() {
+        OffHeapCatalogue catalogue = new OffHeapCatalogue(0);
+        int id = catalogue.add(getItem("rice"), Integer.MAX_VALUE - 1);
+        catalogue.addQuantity(id, 1);
+        try {
+            catalogue.addQuantity(id, 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(Integer.MAX_VALUE, catalogue.getQuantity(id));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyExpectedItemsFails() {
+        new OffHeapCatalogue(Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testGrowsAcrossPages() {
+        OffHeapCatalogue catalogue = new OffHeapCatalogue(0);
+        Item item = getItem("item");
+        for (int i = 0; i < 100000; i++) {
+            assertEquals(i, catalogue.add(SuperMartApplication.getInstance().getItemBuilder()
+                    .name("item " + i)
+                    .manufacturingCost(item.getManufacturingCost())
+                    .sellPrice(item.getSellPrice())
+                    .reorderPoint(item.getReorderPoint())
+                    .reorderAmount(item.getReorderAmount())
+                    .build(), 1));
+        }
+        assertEquals(100000, catalogue.size());
+        assertEquals(99999, catalogue.getId("item 99999").orElse(-1));
+        assertEquals("item 70000", catalogue.getItem(70000).getName());
+        assertEquals(100000, catalogue.asStock().getTotalAmount());
+    }
+
+    @Test
+    public void testViewsAreEqual() {
+        OffHeapCatalogue catalogue = new OffHeapCatalogue(0);
+        int id = catalogue.add(getItem("rice"), 1);
+        assertEquals(catalogue.getItem(id), catalogue.getItem(id));
+        assertEquals(1, catalogue.asStock().getStockedItems().size());
+    }
+}
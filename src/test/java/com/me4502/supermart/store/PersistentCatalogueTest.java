@@ -0,0 +1,78 @@
+package com.me4502.supermart.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import com.me4502.supermart.SuperMartApplication;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests functionality of the PersistentCatalogue class.
+ *
+ * @author Madeline Miller
+ */
+public class PersistentCatalogueTest {
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+    }
+
+    private Item getItem(String name) {
+        return SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(2)
+                .sellPrice(3)
+                .reorderPoint(225)
+                .reorderAmount(300)
+                .build();
+    }
+
+    @Test
+    public void testPreviousVersionsAreKept() {
+        Item rice = getItem("rice");
+        Item beans = getItem("beans");
+        PersistentCatalogue first = PersistentCatalogue.empty().with(rice);
+        PersistentCatalogue second = first.with(beans);
+
+        assertEquals(1, first.size());
+        assertFalse(first.contains("beans"));
+        assertEquals(ImmutableSet.of(rice, beans), second.getItems());
+        assertSame(beans, second.get("beans").get());
+    }
+
+    @Test
+    public void testReplaceAndRemove() {
+        Item rice = getItem("rice");
+        Item replacement = getItem("rice");
+        PersistentCatalogue catalogue = PersistentCatalogue.empty().with(rice).with(replacement);
+
+        assertEquals(1, catalogue.size());
+        assertSame(replacement, catalogue.get("rice").get());
+        assertSame(catalogue, catalogue.without("beans"));
+        assertTrue(catalogue.without("rice").getItems().isEmpty());
+    }
+
+    @Test
+    public void testManyItems() {
+        PersistentCatalogue catalogue = PersistentCatalogue.empty();
+        for (int i = 0; i < 10000; i++) {
+            catalogue = catalogue.with(getItem("item " + i));
+        }
+        assertEquals(10000, catalogue.size());
+        assertEquals("item 9999", catalogue.get("item 9999").get().getName());
+        int[] count = new int[1];
+        catalogue.forEach(item -> count[0]++);
+        assertEquals(10000, count[0]);
+    }
+}
@@ -0,0 +1,149 @@
+package com.me4502.supermart.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.me4502.supermart.SuperMartApplication;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests functionality of the PersistentStock class.
+ *
+ * @author Madeline Miller
+ */
+public class PersistentStockTest {
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+    }
+
+    private Item getItem(String name) {
+        return SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(1)
+                .sellPrice(2)
+                .reorderPoint(10)
+                .reorderAmount(20)
+                .build();
+    }
+
+    @Test
+    public void testOldVersionsUnchanged() {
+        Item rice = getItem("rice");
+        PersistentStock first = PersistentStock.empty().withQuantity(rice, 5);
+        PersistentStock second = first.withQuantity(rice, 3);
+        assertEquals(5, first.getItemQuantity(rice).orElse(0));
+        assertEquals(8, second.getItemQuantity(rice).orElse(0));
+        assertEquals(5, first.getTotalAmount());
+        assertEquals(8, second.getTotalAmount());
+    }
+
+    @Test
+    public void testManyItems() {
+        PersistentStock stock = PersistentStock.empty();
+        for (int i = 0; i < 10000; i++) {
+            stock = stock.withQuantity(getItem("item " + i), i);
+        }
+        assertEquals(10000, stock.size());
+        assertEquals(10000, stock.getStockedItemQuantities().size());
+        for (int i = 0; i < 10000; i += 97) {
+            assertEquals(i, stock.getItemQuantity(getItem("item " + i)).orElse(-1));
+        }
+    }
+
+    @Test
+    public void testHashCollisions() {
+        // "Aa" and "BB" have the same hash code
+        Item first = getItem("Aa");
+        Item second = getItem("BB");
+        PersistentStock stock = PersistentStock.empty().withQuantity(first, 1).withQuantity(second, 2).withQuantity(first, 3);
+        assertEquals(4, stock.getItemQuantity(first).orElse(0));
+        assertEquals(2, stock.getItemQuantity(second).orElse(0));
+        assertEquals(2, stock.size());
+    }
+
+    @Test
+    public void testMissingItem() {
+        assertFalse(PersistentStock.empty().withQuantity(getItem("rice"), 1).getItemQuantity(getItem("beans")).isPresent());
+    }
+
+    @Test
+    public void testCopyOf() {
+        Item rice = getItem("rice");
+        Stock stock = SuperMartApplication.getInstance().getStockBuilder().addStockedItem(rice, 4).build();
+        PersistentStock copy = PersistentStock.copyOf(stock);
+        assertEquals(4, copy.getItemQuantity(rice).orElse(0));
+        assertSame(copy, PersistentStock.copyOf(copy));
+    }
+
+    @Test
+    public void testWithoutStock() {
+        Item rice = getItem("rice");
+        Stock sold = SuperMartApplication.getInstance().getStockBuilder().addStockedItem(rice, 4).build();
+        assertEquals(6, PersistentStock.empty().withQuantity(rice, 10).withoutStock(sold).getItemQuantity(rice).orElse(0));
+    }
+
+    @Test
+    public void testWithoutItem() {
+        PersistentStock stock = PersistentStock.empty();
+        for (int i = 0; i < 1000; i++) {
+            stock = stock.withQuantity(getItem("item " + i), 1);
+        }
+        stock = stock.withQuantity(getItem("Aa"), 1).withQuantity(getItem("BB"), 2);
+        for (int i = 0; i < 1000; i += 2) {
+            stock = stock.withoutItem(getItem("item " + i));
+        }
+        stock = stock.withoutItem(getItem("Aa"));
+        assertEquals(501, stock.size());
+        assertEquals(502, stock.getTotalAmount());
+        assertFalse(stock.getItemQuantity(getItem("item 10")).isPresent());
+        assertEquals(1, stock.getItemQuantity(getItem("item 11")).orElse(0));
+        assertEquals(2, stock.getItemQuantity(getItem("BB")).orElse(0));
+        assertSame(stock, stock.withoutItem(getItem("rice")));
+    }
+
+    @Test
+    public void testForEachChange() {
+        PersistentStock previous = PersistentStock.empty();
+        for (int i = 0; i < 1000; i++) {
+            previous = previous.withQuantity(getItem("item " + i), i);
+        }
+        PersistentStock current = previous.withQuantity(getItem("item 5"), 1)
+                .withQuantity(getItem("new"), 3)
+                .withoutItem(getItem("item 7"));
+
+        List<String> changes = new ArrayList<>();
+        current.forEachChange(previous, (item, previousQuantity, quantity) ->
+                changes.add(item.getName() + ' ' + previousQuantity + ' ' + quantity));
+        Collections.sort(changes);
+        assertEquals(Arrays.asList("item 5 5 6", "item 7 7 -1", "new -1 3"), changes);
+
+        current.forEachChange(current, (item, previousQuantity, quantity) -> fail());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeQuantityFails() {
+        Item rice = getItem("rice");
+        PersistentStock.empty().withQuantity(rice, 1).withQuantity(rice, -2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeNewItemFails() {
+        PersistentStock.empty().withQuantity(getItem("rice"), -1);
+    }
+}
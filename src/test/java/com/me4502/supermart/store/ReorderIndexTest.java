@@ -0,0 +1,140 @@
+package com.me4502.supermart.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.me4502.supermart.SuperMartApplication;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests functionality of the ReorderIndex class.
+ *
+ * @author Madeline Miller
+ */
+public class ReorderIndexTest {
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+        new StoreImpl("Test Store");
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+        ((StoreImpl) StoreImpl.getInstance()).close();
+    }
+
+    private Item getItem(String name, int reorderPoint) {
+        return SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(2)
+                .sellPrice(3)
+                .reorderPoint(reorderPoint)
+                .reorderAmount(300)
+                .build();
+    }
+
+    @Test
+    public void testTracksInventoryChanges() {
+        Item rice = getItem("rice", 100);
+        Item beans = getItem("beans", 50);
+        Store store = StoreImpl.getInstance();
+        store.update(state -> state.withNewItems(ImmutableList.of(rice, beans)));
+        assertEquals(ImmutableSet.of(rice, beans), store.getSnapshot().getReorderIndex().getItems());
+
+        store.update(state -> state.withInventory(PersistentStock.copyOf(state.getInventory()).withQuantity(rice, 150)));
+        ReorderIndex index = store.getSnapshot().getReorderIndex();
+        assertFalse(index.contains(rice));
+        assertTrue(index.contains(beans));
+        assertEquals(0, index.getStock().getItemQuantity(beans).getAsInt());
+
+        // Raising the reorder point moves an item back into the index
+        Item replacement = getItem("rice", 200);
+        store.update(state -> state.withReplacedItems(ImmutableList.of(replacement)));
+        assertTrue(store.getSnapshot().getReorderIndex().contains(rice));
+        assertEquals(index.size() + 1, store.getSnapshot().getReorderIndex().size());
+    }
+
+    @Test
+    public void testMatchesFullScan() {
+        PersistentStock inventory = PersistentStock.empty();
+        for (int i = 0; i < 500; i++) {
+            inventory = inventory.withQuantity(getItem("item " + i, i % 50), i % 70);
+        }
+        ReorderIndex index = ReorderIndex.of(inventory);
+        PersistentStock changed = inventory;
+        for (int i = 0; i < 500; i += 7) {
+            changed = changed.withQuantity(getItem("item " + i, i % 50), 30);
+        }
+        index = index.withChanges(inventory, changed);
+
+        ImmutableSet.Builder<Item> expected = ImmutableSet.builder();
+        changed.forEachQuantity(pair -> {
+            if (pair.getRight() <= pair.getLeft().getReorderPoint()) {
+                expected.add(pair.getLeft());
+            }
+        });
+        assertEquals(expected.build(), index.getItems());
+    }
+
+    @Test
+    public void testListenersSeeCrossings() {
+        Item rice = getItem("rice", 100);
+        Item beans = getItem("beans", 50);
+        Store store = StoreImpl.getInstance();
+        store.update(state -> state.withNewItems(ImmutableList.of(rice, beans)));
+
+        List<String> events = new ArrayList<>();
+        store.addReorderListener((triggered, cleared, snapshot) -> events.add(triggered.size() + " " + cleared.size()));
+
+        store.update(state -> state.withInventory(PersistentStock.copyOf(state.getInventory()).withQuantity(rice, 150)));
+        // Beans stay below their reorder point, so nothing crosses
+        store.update(state -> state.withInventory(PersistentStock.copyOf(state.getInventory()).withQuantity(beans, 10)));
+        store.update(state -> state.withInventory(PersistentStock.copyOf(state.getInventory()).withQuantity(rice, -60)));
+
+        assertEquals(ImmutableList.of("0 1", "1 0"), events);
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStopPublishing() throws InterruptedException {
+        Item rice = getItem("rice", 100);
+        Store store = StoreImpl.getInstance();
+        store.update(state -> state.withNewItems(ImmutableList.of(rice)));
+
+        List<String> events = new ArrayList<>();
+        BlockingQueue<StoreEvent> storeEvents = new LinkedBlockingQueue<>();
+        store.addReorderListener((triggered, cleared, snapshot) -> {
+            throw new IllegalStateException("Failing listener");
+        });
+        store.addReorderListener((triggered, cleared, snapshot) -> events.add(triggered.size() + " " + cleared.size()));
+        store.addStoreListener(storeEvents::add);
+
+        StoreSnapshot published = store.update(state -> state.withInventory(
+                PersistentStock.copyOf(state.getInventory()).withQuantity(rice, 150)));
+        assertSame(published, store.getSnapshot());
+        assertEquals(ImmutableList.of("0 1"), events);
+
+        // The event bus still hears about the change
+        while (true) {
+            StoreEvent event = storeEvents.poll(5, TimeUnit.SECONDS);
+            assertNotNull("No event for version " + published.getVersion(), event);
+            if (event.getCurrent().getVersion() >= published.getVersion()) {
+                break;
+            }
+        }
+    }
+}
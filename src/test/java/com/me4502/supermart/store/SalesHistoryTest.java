@@ -0,0 +1,79 @@
+package com.me4502.supermart.store;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import com.me4502.supermart.SuperMartApplication;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests functionality of the SalesHistory class.
+ *
+ * @author Madeline Miller
+ */
+public class SalesHistoryTest {
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+    }
+
+    private Item getItem(String name) {
+        return SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(1)
+                .sellPrice(2)
+                .reorderPoint(10)
+                .reorderAmount(20)
+                .build();
+    }
+
+    @Test
+    public void testSeries() {
+        Item rice = getItem("rice");
+        Item pasta = getItem("pasta");
+        SalesHistory history = new SalesHistory();
+        history.record(SuperMartApplication.getInstance().getStockBuilder().addStockedItem(rice, 10).build());
+        history.record(SuperMartApplication.getInstance().getStockBuilder()
+                .addStockedItem(pasta, 8)
+                .addStockedItem(rice, 5)
+                .build());
+
+        assertEquals(2, history.getPeriodCount());
+        assertEquals(2, history.getItemCount());
+        assertEquals(0, (int) history.getItemId("rice").get());
+        assertFalse(history.getItemId("beans").isPresent());
+
+        // Pasta wasn't sold in the first period, so it is zero there
+        assertArrayEquals(new int[] {10, 5}, history.getSeries(rice));
+        assertArrayEquals(new int[] {0, 8}, history.getSeries(pasta));
+        assertArrayEquals(new int[] {10, 0}, history.getPeriod(0));
+        assertArrayEquals(new int[0], history.getSeries(getItem("beans")));
+    }
+
+    @Test
+    public void testKeepsLatestItem() {
+        Item rice = getItem("rice");
+        Item changed = getItem("rice");
+        SalesHistory history = new SalesHistory();
+        history.record(SuperMartApplication.getInstance().getStockBuilder().addStockedItem(rice, 10).build());
+        history.record(SuperMartApplication.getInstance().getStockBuilder().addStockedItem(changed, 4).build());
+
+        assertEquals(1, history.getItemCount());
+        assertSame(changed, history.getItem(0));
+        assertArrayEquals(new int[] {10, 4}, history.getSeries(rice));
+
+        history.clear();
+        assertEquals(0, history.getPeriodCount());
+        assertEquals(0, history.getItemCount());
+    }
+}
@@ -0,0 +1,107 @@
+package com.me4502.supermart.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.me4502.supermart.SuperMartApplication;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Tests functionality of the SalesLedger class.
+ *
+ * @author Madeline Miller
+ */
+public class SalesLedgerTest {
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+    }
+
+    private Item getItem(String name, double sellPrice) {
+        return SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(1)
+                .sellPrice(sellPrice)
+                .reorderPoint(10)
+                .reorderAmount(20)
+                .build();
+    }
+
+    private SalesLedger getLedger(Item rice, Item beans, Item pasta) {
+        SalesLedger ledger = new SalesLedger();
+        ledger.append(SuperMartApplication.getInstance().getStockBuilder()
+                .addStockedItem(rice, 10)
+                .addStockedItem(beans, 5)
+                .build());
+        ledger.append(SuperMartApplication.getInstance().getStockBuilder()
+                .addStockedItem(rice, 2)
+                .addStockedItem(pasta, 30)
+                .build());
+        return ledger;
+    }
+
+    @Test
+    public void testEmptyLedger() {
+        SalesLedger ledger = new SalesLedger();
+        assertEquals(0, ledger.size());
+        assertEquals(0, ledger.getBatchCount());
+        assertTrue(ledger.getTopSellers(5).isEmpty());
+    }
+
+    @Test
+    public void testTotalSold() {
+        Item rice = getItem("rice", 3);
+        SalesLedger ledger = getLedger(rice, getItem("beans", 6), getItem("pasta", 4));
+        assertEquals(4, ledger.size());
+        assertEquals(12, ledger.getTotalSold(rice));
+        assertEquals(0, ledger.getTotalSold(getItem("nuts", 9)));
+    }
+
+    @Test
+    public void testTopSellers() {
+        SalesLedger ledger = getLedger(getItem("rice", 3), getItem("beans", 6), getItem("pasta", 4));
+        List<ImmutablePair<Item, Long>> sellers = ledger.getTopSellers(2);
+        assertEquals(2, sellers.size());
+        assertEquals("pasta", sellers.get(0).getLeft().getName());
+        assertEquals(30, sellers.get(0).getRight().longValue());
+        assertEquals("rice", sellers.get(1).getLeft().getName());
+    }
+
+    @Test
+    public void testRevenueByBatch() {
+        SalesLedger ledger = getLedger(getItem("rice", 3), getItem("beans", 6), getItem("pasta", 4));
+        double[] revenue = ledger.getRevenueByBatch();
+        assertEquals(2, revenue.length);
+        assertEquals(60, revenue[0], 0.001);
+        assertEquals(126, revenue[1], 0.001);
+        assertEquals(126, ledger.getBatchRevenue(1), 0.001);
+    }
+
+    @Test
+    public void testColumnsGrow() {
+        Item rice = getItem("rice", 3);
+        SalesLedger ledger = new SalesLedger();
+        for (int i = 0; i < 5000; i++) {
+            ledger.append(SuperMartApplication.getInstance().getStockBuilder().addStockedItem(rice, 1).build());
+        }
+        assertEquals(5000, ledger.size());
+        assertEquals(5000, ledger.getTotalSold(rice));
+        assertEquals(3, ledger.getBatchRevenue(4999), 0.001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownBatchFails() {
+        new SalesLedger().getBatchRevenue(0);
+    }
+}
@@ -0,0 +1,123 @@
+package com.me4502.supermart.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.me4502.supermart.SuperMartApplication;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests functionality of the StoreEventBus class.
+ *
+ * @author Madeline Miller
+ */
+public class StoreEventBusTest {
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+        new StoreImpl("Test Store");
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+        ((StoreImpl) StoreImpl.getInstance()).close();
+    }
+
+    private Item getItem(String name) {
+        return SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(2)
+                .sellPrice(3)
+                .reorderPoint(10)
+                .reorderAmount(20)
+                .build();
+    }
+
+    /**
+     * Takes events until one reaches a snapshot version.
+     */
+    private StoreEvent awaitVersion(BlockingQueue<StoreEvent> events, long version) throws InterruptedException {
+        while (true) {
+            StoreEvent event = events.poll(5, TimeUnit.SECONDS);
+            if (event == null) {
+                throw new AssertionError("No event for version " + version);
+            }
+            if (event.getCurrent().getVersion() >= version) {
+                return event;
+            }
+        }
+    }
+
+    @Test
+    public void testDeliversChanges() throws InterruptedException {
+        Store store = StoreImpl.getInstance();
+        Item rice = getItem("rice");
+        store.update(state -> state.withNewItems(ImmutableList.of(rice)));
+
+        BlockingQueue<StoreEvent> events = new LinkedBlockingQueue<>();
+        store.addStoreListener(events::add);
+        long start = store.getSnapshot().getVersion();
+        StoreSnapshot published = store.update(state -> state
+                .withInventory(PersistentStock.copyOf(state.getInventory()).withQuantity(rice, 5))
+                .withCapital(state.getCapital() - 10));
+
+        StoreEvent event = awaitVersion(events, published.getVersion());
+        // Events start from the snapshot the listener saw first, so they can be combined
+        assertTrue(event.getPrevious().getVersion() >= start);
+        assertTrue(event.isInventoryChanged());
+        assertEquals(ImmutableMap.of(rice, 5), event.getInventoryChanges());
+        assertEquals(-10, event.getCapitalChange(), 0);
+        assertFalse(event.isManifestReplaced());
+        assertFalse(event.isCatalogueChanged());
+    }
+
+    @Test
+    public void testCoalescesWhenFull() throws InterruptedException {
+        Store store = StoreImpl.getInstance();
+        Item rice = getItem("rice");
+        store.update(state -> state.withNewItems(ImmutableList.of(rice)));
+
+        StoreEventBus bus = new StoreEventBus(store::getSnapshot, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<StoreEvent> events = new LinkedBlockingQueue<>();
+        bus.addListener(event -> {
+            events.add(event);
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        StoreSnapshot first = store.update(state -> state.withCapital(state.getCapital() + 1));
+        bus.publish(first);
+        StoreEvent blocked = awaitVersion(events, first.getVersion());
+
+        // The listener is busy, so these overflow the buffer
+        StoreSnapshot last = first;
+        for (int i = 0; i < 20; i++) {
+            last = store.update(state -> state.withInventory(PersistentStock.copyOf(state.getInventory()).withQuantity(rice, 1)));
+            bus.publish(last);
+        }
+        release.countDown();
+
+        StoreEvent coalesced = awaitVersion(events, last.getVersion());
+        bus.close();
+        assertEquals(blocked.getCurrent(), coalesced.getPrevious());
+        assertEquals(20, coalesced.getChangeCount());
+        assertEquals(ImmutableMap.of(rice, 20), coalesced.getInventoryChanges());
+        assertFalse(coalesced.isCapitalChanged());
+    }
+}
@@ -0,0 +1,169 @@
+package com.me4502.supermart.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.me4502.supermart.SuperMartApplication;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests functionality of the StoreLog class.
+ *
+ * @author Madeline Miller
+ */
+public class StoreLogTest {
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+        new StoreImpl("Test Store");
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+        ((StoreImpl) StoreImpl.getInstance()).close();
+    }
+
+    private Item getItem(String name) {
+        return SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(2)
+                .sellPrice(3)
+                .reorderPoint(10)
+                .reorderAmount(20)
+                .build();
+    }
+
+    private static void assertSameState(StoreSnapshot expected, StoreSnapshot actual) {
+        assertEquals(expected.getVersion(), actual.getVersion());
+        assertEquals(expected.getInventory().getStockedItemQuantities(), actual.getInventory().getStockedItemQuantities());
+        assertEquals(expected.getCapital(), actual.getCapital(), 0);
+        assertSame(expected.getManifest(), actual.getManifest());
+        assertSame(expected.getCatalogue(), actual.getCatalogue());
+        assertEquals(expected.getReorderIndex().getItems(), actual.getReorderIndex().getItems());
+    }
+
+    @Test
+    public void testReplaysEveryVersion() {
+        StoreSnapshot initial = StoreImpl.getInstance().getSnapshot();
+        StoreLog log = new StoreLog(initial, 5, 64, 4, System::currentTimeMillis);
+        List<StoreSnapshot> published = new ArrayList<>();
+        published.add(initial);
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add(getItem("item " + i));
+        }
+        StoreSnapshot previous = initial.withNewItems(items);
+        log.record(initial, previous);
+        published.add(previous);
+        for (int i = 0; i < 40; i++) {
+            Item item = items.get(i * 7 % items.size());
+            StoreSnapshot next;
+            if (i % 9 == 8) {
+                next = previous.withInventory(PersistentStock.copyOf(previous.getInventory()).withoutItem(item));
+            } else if (i % 5 == 4) {
+                next = previous.withCapital(previous.getCapital() - i);
+            } else {
+                next = previous.withInventory(PersistentStock.copyOf(previous.getInventory()).withQuantity(item, i));
+            }
+            log.record(previous, next);
+            published.add(next);
+            previous = next;
+        }
+
+        assertEquals(published.size(), log.size());
+        assertEquals(1 + published.size() / 5, log.getCheckpointCount());
+        for (StoreSnapshot snapshot : published) {
+            assertSameState(snapshot, log.replay(snapshot.getVersion()));
+        }
+    }
+
+    @Test
+    public void testReplaysAtTime() {
+        AtomicLong clock = new AtomicLong(1000);
+        Store store = StoreImpl.getInstance();
+        StoreSnapshot initial = store.getSnapshot();
+        StoreLog log = new StoreLog(initial, 256, 64, 2, clock::get);
+        Item rice = getItem("rice");
+
+        StoreSnapshot stocked = initial.withNewItems(ImmutableList.of(rice))
+                .withInventory(PersistentStock.empty().withQuantity(rice, 50));
+        clock.set(2000);
+        log.record(initial, stocked);
+        StoreSnapshot sold = stocked.withInventory(PersistentStock.copyOf(stocked.getInventory()).withQuantity(rice, -20));
+        clock.set(3000);
+        log.record(stocked, sold);
+
+        assertFalse(log.replayAt(999).isPresent());
+        assertSameState(initial, log.replayAt(1999).get());
+        assertSameState(stocked, log.replayAt(2999).get());
+        assertSameState(sold, log.replayAt(3000).get());
+    }
+
+    @Test
+    public void testRetainsCheckpoints() {
+        AtomicLong clock = new AtomicLong(1000);
+        StoreSnapshot initial = StoreImpl.getInstance().getSnapshot();
+        StoreLog log = new StoreLog(initial, 4, 3, 2, clock::get);
+        Item rice = getItem("rice");
+
+        List<StoreSnapshot> published = new ArrayList<>();
+        StoreSnapshot previous = initial.withNewItems(ImmutableList.of(rice));
+        clock.incrementAndGet();
+        log.record(initial, previous);
+        published.add(previous);
+        for (int i = 0; i < 30; i++) {
+            StoreSnapshot next = previous.withInventory(PersistentStock.copyOf(previous.getInventory()).withQuantity(rice, 1));
+            clock.incrementAndGet();
+            log.record(previous, next);
+            published.add(next);
+            previous = next;
+        }
+
+        // Checkpoints at records 4, 8, ..., 28, of which the last 3 are retained with the records from 20 on
+        assertEquals(3, log.getCheckpointCount());
+        assertEquals(published.get(19).getVersion(), log.getFirstVersion());
+        assertEquals(published.size() - 19, log.size());
+        assertSameState(published.get(19), log.replay(published.get(19).getVersion()));
+        assertSameState(previous, log.replay(previous.getVersion()));
+        assertFalse(log.replayAt(clock.get() - published.size() + 19).isPresent());
+        assertSameState(published.get(19), log.replayAt(clock.get() - published.size() + 20).get());
+        try {
+            log.replay(published.get(18).getVersion());
+            fail("Dropped versions can't be replayed");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        // A late change from before the retained history is ignored
+        log.record(initial, published.get(0));
+        assertEquals(published.size() - 19, log.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownVersion() {
+        StoreImpl.getInstance().getLog().replay(StoreImpl.getInstance().getSnapshot().getVersion() + 1);
+    }
+
+    @Test
+    public void testStoreRecordsUpdates() {
+        Store store = StoreImpl.getInstance();
+        Item rice = getItem("rice");
+        StoreSnapshot added = store.update(state -> state.withNewItems(ImmutableList.of(rice)));
+        store.update(state -> state.withInventory(PersistentStock.copyOf(state.getInventory()).withQuantity(rice, 15)));
+
+        assertEquals(store.getSnapshot().getVersion(), store.getLog().getLatestVersion());
+        assertSameState(added, store.getLog().replay(added.getVersion()));
+    }
+}
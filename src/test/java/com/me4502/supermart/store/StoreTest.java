@@ -125,6 +125,7 @@ public class StoreTest {
     public void testSettingStock() {
         Store instance = StoreImpl.getInstance();
         Stock mockStock = mock(Stock.class);
+        when(mockStock.getStockedItemQuantities()).thenReturn(ImmutableSet.of());
         instance.setInventory(mockStock);
         // Simple reference equality check - it shouldn't change the object
         assertEquals(mockStock, instance.getInventory());
@@ -143,6 +144,7 @@ public class StoreTest {
         Item mockItem = mock(Item.class);
         when(mockItem.getName()).thenReturn("Test");
         when(mockStock.getStockedItems()).thenReturn(ImmutableSet.of(mockItem));
+        when(mockStock.getStockedItemQuantities()).thenReturn(ImmutableSet.of(ImmutablePair.of(mockItem, 1)));
         instance.setInventory(mockStock);
         assertTrue(instance.getInventory().getStockedItems().stream()
                 .anyMatch(item -> item.getName().equals("Test")));
@@ -268,4 +270,47 @@ public class StoreTest {
             fail();
         }
     }
+
+    @Test
+    public void testSnapshotIsUnchangedByUpdates() {
+        Store instance = StoreImpl.getInstance();
+        StoreSnapshot snapshot = instance.getSnapshot();
+        instance.setCapital(5.0);
+        assertEquals(100000, snapshot.getCapital(), 0.01);
+        assertEquals(5.0, instance.getSnapshot().getCapital(), 0.01);
+        assertTrue(instance.getSnapshot().getVersion() > snapshot.getVersion());
+    }
+
+    @Test
+    public void testUpdatePublishesTogether() {
+        Store instance = StoreImpl.getInstance();
+        Item mockItem = mock(Item.class);
+        when(mockItem.getName()).thenReturn("Test Item");
+        StoreSnapshot snapshot = instance.update(state -> state.withNewItems(ImmutableSet.of(mockItem)).withCapital(1.0));
+        assertEquals(snapshot, instance.getSnapshot());
+        assertTrue(instance.getItem("Test Item").isPresent());
+        assertEquals(0, instance.getInventory().getItemQuantity(mockItem).orElse(-1));
+        assertEquals(1.0, instance.getCapital(), 0.01);
+    }
+
+    @Test
+    public void testFailedUpdatePublishesNothing() {
+        Store instance = StoreImpl.getInstance();
+        Item mockItem = mock(Item.class);
+        when(mockItem.getName()).thenReturn("Test Item");
+        when(mockItem.getSellPrice()).thenReturn(2.0);
+        instance.update(state -> state.withNewItems(ImmutableSet.of(mockItem)));
+        StoreSnapshot snapshot = instance.getSnapshot();
+        Stock sold = SuperMartApplication.getInstance().getStockBuilder().addStockedItem(mockItem, 1).build();
+        try {
+            instance.update(state -> state.withCapital(5.0).withSales(sold));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(snapshot, instance.getSnapshot());
+        }
+        instance.update(state -> state.withInventory(PersistentStock.copyOf(state.getInventory()).withQuantity(mockItem, 3)));
+        instance.update(state -> state.withSales(sold));
+        assertEquals(2, instance.getInventory().getItemQuantity(mockItem).orElse(-1));
+        assertEquals(100002, instance.getCapital(), 0.01);
+    }
 }
@@ -0,0 +1,91 @@
+package com.me4502.supermart.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.me4502.supermart.SuperMartApplication;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests functionality of the TemperatureIndex class.
+ *
+ * @author Madeline Miller
+ */
+public class TemperatureIndexTest {
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+        new StoreImpl("Test Store");
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+        ((StoreImpl) StoreImpl.getInstance()).close();
+    }
+
+    private Item getItem(String name, Double temperature) {
+        Item.Builder builder = SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(2)
+                .sellPrice(3)
+                .reorderPoint(225)
+                .reorderAmount(300);
+        if (temperature != null) {
+            builder.idealTemperature(temperature);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testBandsAreSorted() {
+        TemperatureIndex index = TemperatureIndex.of(ImmutableList.of(getItem("milk", 3.0), getItem("rice", null),
+                getItem("ice cream", -20.0), getItem("yoghurt", 3.0)));
+
+        assertEquals(2, index.getBandCount());
+        assertEquals(-20, index.getTemperature(0), 0);
+        assertEquals(ImmutableSet.of("milk", "yoghurt"), index.getItemNames(1));
+        assertEquals(2, index.getItemCount(1));
+        assertEquals(1, index.getBand(3).getAsInt());
+        assertFalse(index.getBand(0).isPresent());
+    }
+
+    @Test
+    public void testItemsMoveBands() {
+        TemperatureIndex index = TemperatureIndex.of(ImmutableList.of(getItem("milk", 3.0), getItem("ice cream", -20.0)))
+                .withItems(ImmutableList.of(getItem("milk", 5.0), getItem("ice cream", null)));
+
+        assertEquals(1, index.getBandCount());
+        assertEquals(5, index.getTemperature(0), 0);
+        assertEquals(ImmutableSet.of("milk"), index.getItemNames(0));
+        assertEquals(1, index.getItemCount(0));
+    }
+
+    @Test
+    public void testBandsEmptyOneItemAtATime() {
+        TemperatureIndex index = TemperatureIndex.of(ImmutableList.of(getItem("milk", 3.0), getItem("yoghurt", 3.0)))
+                .withItems(ImmutableList.of(getItem("milk", -2.0)));
+        assertEquals(2, index.getBandCount());
+        assertEquals(ImmutableSet.of("yoghurt"), index.getItemNames(1));
+
+        index = index.withItems(ImmutableList.of(getItem("yoghurt", null)));
+        assertEquals(1, index.getBandCount());
+        assertEquals(-2, index.getTemperature(0), 0);
+    }
+
+    @Test
+    public void testSnapshotKeepsIndex() {
+        Store store = StoreImpl.getInstance();
+        store.update(state -> state.withNewItems(ImmutableList.of(getItem("milk", 3.0), getItem("rice", null))));
+        assertEquals(1, store.getSnapshot().getTemperatureIndex().getBandCount());
+
+        store.update(state -> state.withReplacedItems(ImmutableList.of(getItem("milk", -2.0))));
+        assertEquals(-2, store.getSnapshot().getTemperatureIndex().getTemperature(0), 0);
+        assertFalse(store.getSnapshot().getTemperatureIndex().getBand(3).isPresent());
+    }
+}
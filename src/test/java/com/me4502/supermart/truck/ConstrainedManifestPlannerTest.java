@@ -0,0 +1,122 @@
+package com.me4502.supermart.truck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tests functionality of the ConstrainedManifestPlanner class.
+ *
+ * @author Madeline Miller
+ */
+public class ConstrainedManifestPlannerTest {
+
+    private Item rice;
+    private Item iceCream;
+    private Item milk;
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+        this.rice = getItem("rice", null);
+        this.iceCream = getItem("ice cream", -20.0);
+        this.milk = getItem("milk", 3.0);
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+    }
+
+    private Item getItem(String name, Double temperature) {
+        Item.Builder builder = SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(2)
+                .sellPrice(3)
+                .reorderPoint(225)
+                .reorderAmount(300);
+        if (temperature != null) {
+            builder.idealTemperature(temperature);
+        }
+        return builder.build();
+    }
+
+    private Stock getOrder() {
+        return SuperMartApplication.getInstance().getStockBuilder()
+                .addStockedItem(this.rice, 1500)
+                .addStockedItem(this.iceCream, 500)
+                .addStockedItem(this.milk, 600)
+                .build();
+    }
+
+    private List<String> describe(Manifest manifest) {
+        return manifest.getTrucks().stream()
+                .map(truck -> truck.getType() + ' ' + truck.getCargo().getStockedItemQuantities().stream()
+                        .map(pair -> pair.getLeft().getName() + '=' + pair.getRight())
+                        .sorted()
+                        .collect(Collectors.joining(",")))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testUnconstrainedMatchesOptimiser() {
+        ConstrainedPlan plan = new ConstrainedManifestPlanner(getOrder(),
+                ImmutableMap.of("Ordinary", 10, "Refrigerated", 10), item -> 0).getPlan();
+
+        assertTrue(plan.isComplete());
+        assertEquals(describe(new ManifestOptimiser(getOrder()).getManifest()), describe(plan.getManifest()));
+    }
+
+    @Test
+    public void testCarriesOverLowestPriority() {
+        ImmutableMap<Item, Integer> priorities = ImmutableMap.of(this.rice, 1, this.iceCream, 3, this.milk, 2);
+        ConstrainedPlan plan = new ConstrainedManifestPlanner(getOrder(),
+                ImmutableMap.of("Ordinary", 1, "Refrigerated", 1), priorities::get).getPlan();
+
+        assertEquals(ImmutableList.of("Refrigerated ice cream=500,milk=300", "Ordinary rice=1000"), describe(plan.getManifest()));
+        assertFalse(plan.isComplete());
+        assertEquals(300, plan.getCarryOver().getItemQuantity(this.milk).getAsInt());
+        assertEquals(500, plan.getCarryOver().getItemQuantity(this.rice).getAsInt());
+        assertFalse(plan.getCarryOver().getItemQuantity(this.iceCream).isPresent());
+    }
+
+    @Test
+    public void testWarmItemsUseSpareColdTrucks() {
+        ImmutableMap<Item, Integer> priorities = ImmutableMap.of(this.rice, 3, this.iceCream, 1, this.milk, 2);
+        ConstrainedPlan plan = new ConstrainedManifestPlanner(getOrder(),
+                ImmutableMap.of("Refrigerated", 2), priorities::get).getPlan();
+
+        // Rice is wanted most, so it takes the room that the cold items would have used
+        assertEquals(ImmutableList.of("Refrigerated milk=100,rice=700", "Refrigerated rice=800"), describe(plan.getManifest()));
+        assertFalse(plan.getCarryOver().getItemQuantity(this.rice).isPresent());
+        assertEquals(500, plan.getCarryOver().getItemQuantity(this.milk).getAsInt());
+        assertEquals(500, plan.getCarryOver().getItemQuantity(this.iceCream).getAsInt());
+    }
+
+    @Test
+    public void testReorderShortfallPriority() {
+        Stock inventory = SuperMartApplication.getInstance().getStockBuilder()
+                .addStockedItem(this.rice, 200)
+                .addStockedItem(this.milk, 0)
+                .build();
+        assertEquals(25, ConstrainedManifestPlanner.byReorderShortfall(inventory).applyAsDouble(this.rice), 0);
+        assertEquals(225, ConstrainedManifestPlanner.byReorderShortfall(inventory).applyAsDouble(this.iceCream), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownTruckType() {
+        new ConstrainedManifestPlanner(getOrder(), ImmutableMap.of("Van", 1), item -> 0);
+    }
+}
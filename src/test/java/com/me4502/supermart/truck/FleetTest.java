@@ -0,0 +1,196 @@
+package com.me4502.supermart.truck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.csv.CSV;
+import com.me4502.supermart.exception.CSVFormatException;
+import com.me4502.supermart.exception.DeliveryException;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import com.me4502.supermart.store.StoreImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Tests functionality of the Fleet, TruckType and CostFunction classes.
+ *
+ * @author Madeline Miller
+ */
+public class FleetTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+        new StoreImpl("Test Store");
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+        ((StoreImpl) StoreImpl.getInstance()).close();
+    }
+
+    private File write(String... lines) throws IOException {
+        File file = this.folder.newFile();
+        Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private Item getItem(String name, double temperature) {
+        Item.Builder builder = SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(2)
+                .sellPrice(3)
+                .reorderPoint(225)
+                .reorderAmount(300);
+        if (!Double.isNaN(temperature)) {
+            builder.idealTemperature(temperature);
+        }
+        return builder.build();
+    }
+
+    private Stock getStock(Item item, int quantity) {
+        return SuperMartApplication.getInstance().getStockBuilder().addStockedItem(item, quantity).build();
+    }
+
+    @Test
+    public void testCompileExpression() {
+        assertEquals(14, CostFunction.compile("2 + 3 * 4").getCost(0, 0), 0);
+        assertEquals(-4, CostFunction.compile("-2 ^ 2").getCost(0, 0), 0);
+        assertEquals(512, CostFunction.compile("2 ^ 3 ^ 2").getCost(0, 0), 0);
+        assertEquals(50, CostFunction.compile("max(q, 10) * (T + 2) / 2").getCost(7, 8), 0);
+        assertEquals(0.001, CostFunction.compile("1e-3").getCost(0, 0), 0);
+        assertEquals("q + 1", CostFunction.compile(" q + 1 ").toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidExpression() {
+        CostFunction.compile("750 + x");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnbalancedExpression() {
+        CostFunction.compile("(750 + q");
+    }
+
+    @Test
+    public void testDefaultFleetMatchesTrucks() {
+        Fleet fleet = Fleet.getDefault();
+        TruckType ordinary = fleet.getType("Ordinary").get();
+        TruckType refrigerated = fleet.getColdType().get();
+        assertEquals(ordinary, fleet.getWarmType());
+        assertEquals("Refrigerated", refrigerated.getName());
+
+        for (int quantity = 1; quantity <= 800; quantity += 37) {
+            Truck truck = ordinary.createTruck(getStock(getItem("rice", Double.NaN), quantity));
+            assertTrue(truck instanceof OrdinaryTruck);
+            assertEquals(truck.getCost(), ordinary.getCostFunction().getCost(quantity, Double.NaN), 0);
+        }
+        for (int temperature = -20; temperature <= 10; temperature++) {
+            RefrigeratedTruck truck = (RefrigeratedTruck) refrigerated.createTruck(getStock(getItem("milk", temperature), 10));
+            assertEquals(truck.getCost(), refrigerated.getCostFunction().getCost(10, truck.getStorageTemperature()), 0);
+        }
+    }
+
+    @Test
+    public void testConfiguredTruck() {
+        TruckType freezer = SuperMartApplication.getInstance().getTruckTypeBuilder()
+                .name("Freezer")
+                .capacity(100)
+                .temperatureRange(-25, -10)
+                .costFunction("500 + 2 * q - T")
+                .build();
+        Stock cargo = SuperMartApplication.getInstance().getStockBuilder()
+                .addStockedItem(getItem("ice cream", -20), 40)
+                .addStockedItem(getItem("milk", 3), 10)
+                .build();
+        ConfiguredTruck truck = (ConfiguredTruck) freezer.createTruck(cargo);
+
+        assertEquals("Freezer", truck.getType());
+        assertEquals(100, truck.getCargoCapacity());
+        assertEquals(-20, truck.getStorageTemperature().getAsDouble(), 0);
+        assertEquals(620, truck.getCost(), 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testConfiguredTruckCapacity() {
+        SuperMartApplication.getInstance().getTruckTypeBuilder()
+                .name("Van")
+                .capacity(100)
+                .costFunction("100")
+                .build()
+                .createTruck(getStock(getItem("rice", Double.NaN), 101));
+    }
+
+    @Test
+    public void testCheckCarry() {
+        TruckType van = SuperMartApplication.getInstance().getTruckTypeBuilder().name("Van").capacity(100)
+                .costFunction("300").build();
+        TruckType chiller = SuperMartApplication.getInstance().getTruckTypeBuilder().name("Chiller").capacity(100)
+                .temperatureRange(0, 10).costFunction("400").build();
+        TruckType freezer = SuperMartApplication.getInstance().getTruckTypeBuilder().name("Freezer").capacity(100)
+                .temperatureRange(-25, -10).costFunction("500").build();
+        Fleet fleet = Fleet.of(ImmutableList.of(van, chiller, freezer));
+        SuperMartApplication.getInstance().setFleet(fleet);
+        Item rice = getItem("rice", Double.NaN);
+        Item iceCream = getItem("ice cream", -20);
+
+        assertEquals(Optional.empty(), fleet.checkCarry(freezer, rice));
+        assertEquals(Optional.empty(), fleet.checkCarry(freezer, iceCream));
+        assertFalse(chiller.canCarry(iceCream));
+        assertEquals(Optional.of("Items under 0 deg Celsius can't be stored"), fleet.checkCarry(chiller, iceCream));
+        assertEquals(Optional.of("Cargo must not contain temperature controlled items"), fleet.checkCarry(van, iceCream));
+    }
+
+    @Test
+    public void testLoadFleet() throws IOException, CSVFormatException, DeliveryException {
+        Fleet fleet = CSV.loadFleet(write("Van,100,,,300 + q", "Freezer,50,-25,-10,min(400, 300 + q * 4)"));
+        assertEquals(fleet, SuperMartApplication.getInstance().getFleet());
+        assertFalse(fleet.getType("Ordinary").isPresent());
+        assertEquals(400, fleet.getType("Freezer").get().getCostFunction().getCost(40, -20), 0);
+
+        Item rice = getItem("rice", Double.NaN);
+        Item iceCream = getItem("ice cream", -20);
+        StoreImpl.getInstance().update(state -> state.withNewItems(Arrays.asList(rice, iceCream)));
+
+        CSV.loadManifest(write(">Freezer", "ice cream,50", ">Van", "rice,100"));
+        List<String> types = StoreImpl.getInstance().getManifest().getTrucks().stream()
+                .map(Truck::getType)
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList("Freezer", "Van"), types);
+
+        Stock order = SuperMartApplication.getInstance().getStockBuilder()
+                .addStockedItem(iceCream, 60)
+                .addStockedItem(rice, 100)
+                .build();
+        List<String> planned = new ManifestOptimiser(order).stream()
+                .map(truck -> truck.getType() + ' ' + truck.getCargo().getTotalAmount())
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList("Freezer 50", "Freezer 50", "Van 60"), planned);
+    }
+
+    @Test(expected = CSVFormatException.class)
+    public void testLoadInvalidFleet() throws IOException, CSVFormatException {
+        CSV.loadFleet(write("Van,100,,,300 + q", "Van,200,,,300"));
+    }
+}
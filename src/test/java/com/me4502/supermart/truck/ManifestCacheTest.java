@@ -0,0 +1,119 @@
+package com.me4502.supermart.truck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests functionality of the ManifestCache class.
+ *
+ * @author Madeline Miller
+ */
+public class ManifestCacheTest {
+
+    private Item rice;
+    private Item iceCream;
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+        this.rice = SuperMartApplication.getInstance().getItemBuilder().name("rice").manufacturingCost(2).sellPrice(3)
+                .reorderPoint(225).reorderAmount(300).build();
+        this.iceCream = SuperMartApplication.getInstance().getItemBuilder().name("ice cream").manufacturingCost(8)
+                .sellPrice(14).reorderPoint(175).reorderAmount(250).idealTemperature(-20).build();
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+    }
+
+    private Stock getOrder(int rice, int iceCream) {
+        return SuperMartApplication.getInstance().getStockBuilder()
+                .addStockedItem(this.rice, rice)
+                .addStockedItem(this.iceCream, iceCream)
+                .build();
+    }
+
+    private static Manifest notCached() {
+        fail("Should be cached");
+        return null;
+    }
+
+    @Test
+    public void testOptimiserReusesPlans() {
+        Manifest first = new ManifestOptimiser(getOrder(1500, 500)).getManifest();
+        // An equal order built separately
+        assertSame(first, new ManifestOptimiser(getOrder(1500, 500)).getManifest());
+        assertNotSame(first, new ManifestOptimiser(getOrder(1500, 501)).getManifest());
+
+        ManifestCache cache = SuperMartApplication.getInstance().getManifestCache();
+        assertEquals(1, cache.getStats().hitCount());
+        assertEquals(2, cache.getStats().missCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testKeyedByFleet() {
+        Stock order = getOrder(100, 10);
+        Manifest manifest = new ManifestOptimiser(order).getManifest();
+        Fleet fleet = Fleet.of(ImmutableList.of(
+                SuperMartApplication.getInstance().getTruckTypeBuilder().name("Van").capacity(100)
+                        .temperatureRange(-30, 10).costFunction("100").build()));
+        Manifest vans = new ManifestOptimiser(order, null, fleet).getManifest();
+        assertNotSame(manifest, vans);
+        assertEquals(2, vans.getTrucks().size());
+    }
+
+    @Test
+    public void testEviction() {
+        AtomicLong time = new AtomicLong();
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return time.get();
+            }
+        };
+        ManifestCache cache = new ManifestCache(2, 1, TimeUnit.MINUTES, ticker);
+        Fleet fleet = Fleet.getDefault();
+        Manifest first = cache.get(getOrder(1, 0), fleet, () -> new ManifestOptimiser(getOrder(1, 0)).getManifest());
+        cache.get(getOrder(2, 0), fleet, () -> new ManifestOptimiser(getOrder(2, 0)).getManifest());
+        assertSame(first, cache.get(getOrder(1, 0), fleet, ManifestCacheTest::notCached));
+
+        // The least recently used order is evicted when the cache is full
+        cache.get(getOrder(3, 0), fleet, () -> new ManifestOptimiser(getOrder(3, 0)).getManifest());
+        assertEquals(2, cache.size());
+        assertSame(first, cache.get(getOrder(1, 0), fleet, ManifestCacheTest::notCached));
+
+        // Unused orders expire
+        time.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testFailuresAreNotCached() {
+        ManifestCache cache = new ManifestCache();
+        try {
+            cache.get(getOrder(1, 0), Fleet.getDefault(), () -> {
+                throw new IllegalStateException("No trucks");
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("No trucks", e.getMessage());
+        }
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,116 @@
+package com.me4502.supermart.truck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.collect.ImmutableList;
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import com.me4502.supermart.store.TemperatureIndex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tests functionality of the ManifestOptimiser class.
+ *
+ * @author Madeline Miller
+ */
+public class ManifestOptimiserTest {
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+    }
+
+    private Item getItem(String name, Double temperature) {
+        Item.Builder builder = SuperMartApplication.getInstance().getItemBuilder()
+                .name(name)
+                .manufacturingCost(2)
+                .sellPrice(3)
+                .reorderPoint(225)
+                .reorderAmount(300);
+        if (temperature != null) {
+            builder.idealTemperature(temperature);
+        }
+        return builder.build();
+    }
+
+    private Stock getOrder() {
+        return SuperMartApplication.getInstance().getStockBuilder()
+                .addStockedItem(getItem("rice", null), 1500)
+                .addStockedItem(getItem("ice cream", -20.0), 500)
+                .addStockedItem(getItem("milk", 3.0), 400)
+                .build();
+    }
+
+    private String describe(Truck truck) {
+        return truck.getType() + ' ' + truck.getCargo().getStockedItemQuantities().stream()
+                .map(pair -> pair.getLeft().getName() + '=' + pair.getRight())
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    @Test
+    public void testFillsColdestFirst() {
+        List<Truck> trucks = ImmutableList.copyOf(new ManifestOptimiser(getOrder()).iterator());
+
+        assertEquals(3, trucks.size());
+        assertEquals("Refrigerated", trucks.get(0).getType());
+        assertEquals(800, trucks.get(0).getCargo().getTotalAmount());
+        assertEquals(500, trucks.get(0).getCargo().getItemQuantity(getItem("ice cream", -20.0)).getAsInt());
+        assertEquals(100, trucks.get(1).getCargo().getItemQuantity(getItem("milk", 3.0)).getAsInt());
+        assertEquals(700, trucks.get(1).getCargo().getItemQuantity(getItem("rice", null)).getAsInt());
+        assertEquals("Ordinary", trucks.get(2).getType());
+        assertEquals(800, trucks.get(2).getCargo().getTotalAmount());
+    }
+
+    @Test
+    public void testStreamsMatchManifest() {
+        ManifestOptimiser optimiser = new ManifestOptimiser(getOrder());
+        List<String> callback = new ArrayList<>();
+        optimiser.forEachTruck(truck -> callback.add(describe(truck)));
+
+        assertEquals(callback, optimiser.getManifest().getTrucks().stream().map(this::describe).collect(Collectors.toList()));
+        assertEquals(callback, optimiser.stream().map(this::describe).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testIndexMatchesCargoOrder() {
+        Stock order = getOrder();
+        // An index with unrelated bands, and one missing a cargo temperature
+        TemperatureIndex index = TemperatureIndex.of(ImmutableList.of(getItem("frozen peas", -18.0), getItem("ice cream", -20.0),
+                getItem("milk", 3.0)));
+        TemperatureIndex partial = TemperatureIndex.of(ImmutableList.of(getItem("milk", 3.0)));
+
+        List<String> expected = new ManifestOptimiser(order).stream().map(this::describe).collect(Collectors.toList());
+        assertEquals(expected, new ManifestOptimiser(order, index).stream().map(this::describe).collect(Collectors.toList()));
+        assertEquals(expected, new ManifestOptimiser(order, partial).stream().map(this::describe).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testLargeOrder() {
+        Stock order = SuperMartApplication.getInstance().getStockBuilder()
+                .addStockedItem(getItem("rice", null), 10000000)
+                .build();
+        Iterator<Truck> trucks = new ManifestOptimiser(order).iterator();
+        int count = 0;
+        while (trucks.hasNext()) {
+            trucks.next();
+            count++;
+        }
+        assertEquals(10000, count);
+        assertFalse(trucks.hasNext());
+    }
+}
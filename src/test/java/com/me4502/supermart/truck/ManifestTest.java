@@ -6,6 +6,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.me4502.supermart.SuperMartApplication;
@@ -122,4 +123,28 @@ public class ManifestTest {
             assertTrue(getTruckList().contains(truck));
         }
     }
+
+    // Test that the totals are found from the trucks when the manifest is built
+    @Test
+    public void testTotals() {
+        Item rice = getInstance().getItemBuilder().name("rice").manufacturingCost(2).sellPrice(3)
+                .reorderPoint(225).reorderAmount(300).build();
+        Item iceCream = getInstance().getItemBuilder().name("ice cream").manufacturingCost(8).sellPrice(14)
+                .reorderPoint(175).reorderAmount(250).idealTemperature(-20).build();
+        Truck first = getInstance().getOrdinaryTruckBuilder()
+                .cargo(getInstance().getStockBuilder().addStockedItem(rice, 100).build()).build();
+        Truck second = getInstance().getOrdinaryTruckBuilder()
+                .cargo(getInstance().getStockBuilder().addStockedItem(rice, 20).build()).build();
+        Truck third = getInstance().getRefrigeratedTruckBuilder()
+                .cargo(getInstance().getStockBuilder().addStockedItem(iceCream, 10).addStockedItem(rice, 5).build()).build();
+        Manifest manifest = getInstance().getManifestBuilder().addTruck(first).addTruck(second).addTruck(third).build();
+
+        assertEquals(first.getCost() + second.getCost() + third.getCost(), manifest.getTotalCost(), 0.001);
+        assertEquals(135, manifest.getTotalUnits());
+        assertEquals(125 * 2 + 10 * 8, manifest.getCargoValue(), 0.001);
+        assertEquals(ImmutableMap.of("Ordinary", 2, "Refrigerated", 1), manifest.getTruckCounts());
+
+        // Mock trucks have no type, so aren't counted
+        assertTrue(buildValidManifest().getTruckCounts().isEmpty());
+    }
 }
@@ -0,0 +1,85 @@
+package com.me4502.supermart.truck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.me4502.supermart.SuperMartApplication;
+import com.me4502.supermart.store.Item;
+import com.me4502.supermart.store.Stock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests functionality of the RegionalManifestPlanner class.
+ *
+ * @author Madeline Miller
+ */
+public class RegionalManifestPlannerTest {
+
+    @Before
+    public void setupApplication() {
+        new SuperMartApplication();
+    }
+
+    @After
+    public void closeApplication() {
+        SuperMartApplication.getInstance().close();
+    }
+
+    private Item getColdItem() {
+        return SuperMartApplication.getInstance().getItemBuilder()
+                .name("ice cream")
+                .manufacturingCost(8)
+                .sellPrice(14)
+                .reorderPoint(175)
+                .reorderAmount(250)
+                .idealTemperature(-20)
+                .build();
+    }
+
+    private Stock getOrder(Item item, int quantity) {
+        return SuperMartApplication.getInstance().getStockBuilder().addStockedItem(item, quantity).build();
+    }
+
+    @Test
+    public void testStoresShareTrucks() {
+        Item item = getColdItem();
+        RegionalPlan plan = new RegionalManifestPlanner(ImmutableMap.of(
+                "Store A", getOrder(item, 300),
+                "Store B", getOrder(item, 300)
+        )).getPlan();
+
+        assertEquals(1, plan.getManifest().getTrucks().size());
+        assertEquals(2, plan.getStoreManifests().values().stream().mapToInt(manifest -> manifest.getTrucks().size()).sum());
+        assertTrue(plan.getSavings() > 0);
+    }
+
+    @Test
+    public void testDropsMatchOrders() {
+        Item item = getColdItem();
+        RegionalPlan plan = new RegionalManifestPlanner(ImmutableMap.of(
+                "Store A", getOrder(item, 700),
+                "Store B", getOrder(item, 300)
+        )).getPlan();
+
+        int storeA = 0;
+        int storeB = 0;
+        for (Truck truck : plan.getManifest().getTrucks()) {
+            ImmutableMap<String, Stock> drops = plan.getDrops(truck);
+            assertEquals(truck.getCargo().getTotalAmount(), drops.values().stream().mapToInt(Stock::getTotalAmount).sum());
+            storeA += drops.containsKey("Store A") ? drops.get("Store A").getTotalAmount() : 0;
+            storeB += drops.containsKey("Store B") ? drops.get("Store B").getTotalAmount() : 0;
+        }
+        assertEquals(700, storeA);
+        assertEquals(300, storeB);
+    }
+
+    @Test
+    public void testEmptyRegion() {
+        RegionalPlan plan = new RegionalManifestPlanner(ImmutableMap.of()).getPlan();
+        assertTrue(plan.getManifest().getTrucks().isEmpty());
+        assertEquals(0, plan.getSavings(), 0.001);
+    }
+}